@@ -0,0 +1,82 @@
+package com.store.backend;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.store.backend.dao.ProductDAO;
+import com.store.backend.dao.ProductImageDAO;
+import com.store.backend.dao.ProductTagDAO;
+import com.store.backend.dao.ReviewDAO;
+import com.store.backend.dto.DimensionsDTO;
+import com.store.backend.dto.MetadataDTO;
+import com.store.backend.dto.ProductDTO;
+import com.store.backend.dto.ReviewDTO;
+
+/**
+ * Products shaped like the upstream feed, shared by the benchmarks
+ */
+public final class BenchmarkData {
+
+	public static final int TAGS = 3;
+	public static final int IMAGES = 4;
+	public static final int REVIEWS = 3;
+
+	private static final String TIMESTAMP = "2024-05-23T08:56:21.618Z";
+
+	private BenchmarkData() {
+	}
+
+	public static ProductDTO productDTO(long id) {
+		List<String> tags = new ArrayList<>();
+		for (int i = 0; i < TAGS; i++) {
+			tags.add("tag-" + i);
+		}
+		List<String> images = new ArrayList<>();
+		for (int i = 0; i < IMAGES; i++) {
+			images.add("https://cdn.example.com/products/" + id + "/" + i + ".png");
+		}
+		List<ReviewDTO> reviews = new ArrayList<>();
+		for (int i = 0; i < REVIEWS; i++) {
+			reviews.add(new ReviewDTO(4.0, "Very satisfied!", TIMESTAMP, "Reviewer " + i, "reviewer" + i + "@example.com"));
+		}
+		return new ProductDTO(id, "Product " + id, "A product used to measure the hot paths of the service",
+				"beauty", 9.99, 7.17, 4.94, 5, tags, "Essence", "SKU-" + id, 2, new DimensionsDTO(23.17, 14.43, 28.01),
+				"1 month warranty", "Ships in 1 month", "Low Stock", reviews, null, "30 days return policy", 24,
+				new MetadataDTO(TIMESTAMP, TIMESTAMP, "BAR-" + id, "https://example.com/qr.png"), images,
+				"https://cdn.example.com/products/" + id + "/thumbnail.png");
+	}
+
+	public static ProductDAO productDAO(long id) {
+		Instant timestamp = Instant.parse(TIMESTAMP);
+		return new ProductDAO(id, "Product " + id, "A product used to measure the hot paths of the service", "beauty",
+				9.99, 7.17, 4.94, 5, "Essence", "SKU-" + id, 2.0, 23.17, 14.43, 28.01, "1 month warranty",
+				"Ships in 1 month", "Low Stock", "30 days return policy", 24, timestamp, timestamp, "BAR-" + id,
+				"https://example.com/qr.png", "https://cdn.example.com/products/" + id + "/thumbnail.png", null, false);
+	}
+
+	public static List<ReviewDAO> reviewDAOs(long id) {
+		List<ReviewDAO> reviews = new ArrayList<>();
+		for (int i = 0; i < REVIEWS; i++) {
+			reviews.add(new ReviewDAO(id, 4.0, "Very satisfied!", Instant.parse(TIMESTAMP), "Reviewer " + i,
+					"reviewer" + i + "@example.com", i));
+		}
+		return reviews;
+	}
+
+	public static List<ProductImageDAO> imageDAOs(long id) {
+		List<ProductImageDAO> images = new ArrayList<>();
+		for (int i = 0; i < IMAGES; i++) {
+			images.add(new ProductImageDAO(id, "https://cdn.example.com/products/" + id + "/" + i + ".png"));
+		}
+		return images;
+	}
+
+	public static List<ProductTagDAO> tagDAOs(long id) {
+		List<ProductTagDAO> tags = new ArrayList<>();
+		for (int i = 0; i < TAGS; i++) {
+			tags.add(new ProductTagDAO(id, "tag-" + i));
+		}
+		return tags;
+	}
+}
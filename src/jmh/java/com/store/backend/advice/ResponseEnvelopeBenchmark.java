@@ -0,0 +1,99 @@
+package com.store.backend.advice;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.EncoderHttpMessageWriter;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.store.backend.BenchmarkData;
+import com.store.backend.cache.ProductCache;
+import com.store.backend.dto.ProductDTO;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Cost of wrapping a list of products in the response envelope and writing it
+ * as JSON with an ObjectMapper configured like the one WebFlux uses, against
+ * splicing the cached JSON of the products into the envelope
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseEnvelopeBenchmark {
+
+	@Param({ "1", "100" })
+	private int productCount;
+
+	private static final ResolvableType BODY_TYPE = ResolvableType.forClassWithGenerics(Map.class, String.class,
+			Object.class);
+
+	private final CustomExceptionHandler customExceptionHandler = new CustomExceptionHandler();
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+	private final ProductCache productCache = new ProductCache(10_000, Duration.ofMinutes(10));
+	private final ProductResponseWriter productResponseWriter = new ProductResponseWriter(objectMapper,
+			productCache);
+	private final HttpMessageWriter<Object> jacksonWriter = new EncoderHttpMessageWriter<>(
+			new Jackson2JsonEncoder(objectMapper));
+
+	private List<ProductDTO> products;
+
+	@Setup
+	public void setUp() {
+		products = LongStream.rangeClosed(1, productCount).mapToObj(BenchmarkData::productDTO).toList();
+		products.forEach(product -> productCache.put(product, null));
+	}
+
+	@Benchmark
+	public byte[] wrapAndSerialize() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(
+				customExceptionHandler.wrapSuccessResponse(products, HttpStatus.OK, "Products fetched successfully")
+						.getBody());
+	}
+
+	@Benchmark
+	public DataBuffer writeWithJackson() {
+		return write(jacksonWriter);
+	}
+
+	@Benchmark
+	public DataBuffer spliceCachedJson() {
+		return write(productResponseWriter);
+	}
+
+	private DataBuffer write(HttpMessageWriter<? super Map<String, Object>> writer) {
+		MockServerHttpResponse response = new MockServerHttpResponse();
+		writer.write(
+				Mono.just(customExceptionHandler
+						.wrapSuccessResponse(products, HttpStatus.OK, "Products fetched successfully").getBody()),
+				BODY_TYPE, MediaType.APPLICATION_JSON, response, Map.of()).block();
+		return response.getBody().blockLast();
+	}
+}
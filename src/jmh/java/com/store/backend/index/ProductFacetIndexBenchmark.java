@@ -0,0 +1,70 @@
+package com.store.backend.index;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.store.backend.BenchmarkData;
+import com.store.backend.dto.ProductDTO;
+
+/**
+ * Latency distribution of a faceted filter over the bitmap index, spread over
+ * 20 categories, 50 brands and prices between 0 and 2000
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductFacetIndexBenchmark {
+
+	private static final int LIMIT = 20;
+
+	@Param({ "100000", "1000000" })
+	private int productCount;
+
+	private final ProductFacetIndex productFacetIndex = new ProductFacetIndex();
+
+	private final ProductFilter unfiltered = new ProductFilter(null, null, null, null, null, null);
+	private final ProductFilter category = new ProductFilter("category-3", null, null, null, null, true);
+	private final ProductFilter priceRange = new ProductFilter("category-3", null, 30.0, 120.0, 3.5, null);
+
+	@Setup
+	public void setUp() {
+		for (long id = 1; id <= productCount; id++) {
+			ProductDTO product = BenchmarkData.productDTO(id);
+			product.setCategory("category-" + id % 20);
+			product.setBrand("brand-" + id % 50);
+			product.setPrice((id * 7919 % 200000) / 100.0);
+			product.setRating((id % 50) / 10.0);
+			product.setStock((int) (id % 4));
+			productFacetIndex.index(product);
+		}
+	}
+
+	@Benchmark
+	public FacetedResult unfiltered() {
+		return productFacetIndex.filter(unfiltered, LIMIT);
+	}
+
+	@Benchmark
+	public FacetedResult category() {
+		return productFacetIndex.filter(category, LIMIT);
+	}
+
+	@Benchmark
+	public FacetedResult priceRange() {
+		return productFacetIndex.filter(priceRange, LIMIT);
+	}
+}
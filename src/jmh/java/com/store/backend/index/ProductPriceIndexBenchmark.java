@@ -0,0 +1,80 @@
+package com.store.backend.index;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.store.backend.dto.ProductDTO;
+import com.store.backend.util.ProductCursor;
+
+/**
+ * Cost of reading a page of 20 ids ordered by price from the price index, and of
+ * re-pricing one product and reading the first page again
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ProductPriceIndexBenchmark {
+
+	private static final int LIMIT = 20;
+
+	@Param({ "100000", "1000000" })
+	private int productCount;
+
+	private final ProductPriceIndex productPriceIndex = new ProductPriceIndex();
+	private final ProductCursor cursor = new ProductCursor(500.0, 0L);
+	private final ProductDTO repriced = new ProductDTO();
+	private long next;
+
+	@Setup
+	public void setUp() {
+		for (long id = 1; id <= productCount; id++) {
+			productPriceIndex.index(product(id));
+		}
+		productPriceIndex.size();
+	}
+
+	private static ProductDTO product(long id) {
+		ProductDTO product = new ProductDTO();
+		product.setId(id);
+		product.setPrice((id * 7919 % 200000) / 100.0);
+		return product;
+	}
+
+	@Benchmark
+	public List<Long> cheapest() {
+		return productPriceIndex.page(true, null, null, null, LIMIT);
+	}
+
+	@Benchmark
+	public List<Long> mostExpensiveInRange() {
+		return productPriceIndex.page(false, 100.0, 900.0, null, LIMIT);
+	}
+
+	@Benchmark
+	public List<Long> afterCursor() {
+		return productPriceIndex.page(true, null, null, cursor, LIMIT);
+	}
+
+	@Benchmark
+	public List<Long> repriceThenCheapest() {
+		repriced.setId(next % productCount + 1);
+		repriced.setPrice((next++ * 31 % 200000) / 100.0);
+		productPriceIndex.index(repriced);
+		return productPriceIndex.page(true, null, null, null, LIMIT);
+	}
+}
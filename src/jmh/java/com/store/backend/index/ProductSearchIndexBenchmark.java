@@ -0,0 +1,61 @@
+package com.store.backend.index;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.store.backend.BenchmarkData;
+import com.store.backend.dto.ProductDTO;
+
+/**
+ * Latency distribution of a search over the in-memory index. "beauty" matches
+ * every product, "tag3" one in ten, and the two-term query adds a rare title
+ * term to one every product has. Descriptions vary in length so that products
+ * do not all score the same.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductSearchIndexBenchmark {
+
+	private static final int LIMIT = 20;
+
+	@Param({ "100000", "1000000" })
+	private int productCount;
+
+	@Param({ "beauty", "tag3", "product 4242" })
+	private String query;
+
+	private final ProductSearchIndex productSearchIndex = new ProductSearchIndex();
+
+	@Setup
+	public void setUp() {
+		for (long id = 1; id <= productCount; id++) {
+			ProductDTO product = BenchmarkData.productDTO(id);
+			product.setDescription(product.getDescription() + " and more".repeat((int) (id % 7)));
+			product.setTags(List.of("tag" + id % 10));
+			product.setReviews(List.of());
+			product.setImages(List.of());
+			productSearchIndex.index(product);
+		}
+	}
+
+	@Benchmark
+	public List<Long> search() {
+		return productSearchIndex.search(query, LIMIT);
+	}
+}
@@ -0,0 +1,71 @@
+package com.store.backend.mapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.store.backend.BenchmarkData;
+import com.store.backend.dao.ProductDAO;
+import com.store.backend.dao.ProductImageDAO;
+import com.store.backend.dao.ProductTagDAO;
+import com.store.backend.dao.ReviewDAO;
+import com.store.backend.dto.ProductDTO;
+
+/**
+ * Cost of converting one product between its DTO and DAO forms
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMapperBenchmark {
+
+	private final ProductMapper productMapper = new ProductMapperImpl();
+
+	private ProductDTO productDTO;
+	private ProductDAO productDAO;
+	private List<ReviewDAO> reviews;
+	private List<ProductImageDAO> images;
+	private List<ProductTagDAO> tags;
+
+	@Setup
+	public void setUp() {
+		productDTO = BenchmarkData.productDTO(1L);
+		productDAO = BenchmarkData.productDAO(1L);
+		reviews = BenchmarkData.reviewDAOs(1L);
+		images = BenchmarkData.imageDAOs(1L);
+		tags = BenchmarkData.tagDAOs(1L);
+	}
+
+	@Benchmark
+	public ProductDTO toDTO() {
+		return productMapper.toDTO(productDAO, reviews, images, tags);
+	}
+
+	@Benchmark
+	public ProductDAO toDAO() {
+		return productMapper.toDAO(productDTO);
+	}
+
+	@Benchmark
+	public List<String> mapImages() {
+		return productMapper.mapImages(images);
+	}
+
+	@Benchmark
+	public List<String> mapTags() {
+		return productMapper.mapTags(tags);
+	}
+}
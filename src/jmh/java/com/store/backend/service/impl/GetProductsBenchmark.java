@@ -0,0 +1,115 @@
+package com.store.backend.service.impl;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.store.backend.dao.ProductAggregateReader;
+import com.store.backend.mapper.ProductMapperImpl;
+import com.store.backend.metrics.ProductMetrics;
+import com.store.backend.repository.ProductImageRepository;
+import com.store.backend.repository.ProductRepository;
+import com.store.backend.repository.ProductReviewRepository;
+import com.store.backend.repository.ProductTagRepository;
+import com.store.backend.service.ProductReadStrategy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.h2.CloseableConnectionFactory;
+import io.r2dbc.h2.H2ConnectionFactory;
+
+/**
+ * End to end cost of {@link ProductServiceImpl#getProducts()} against an
+ * in-memory H2 database seeded with products that each have three reviews,
+ * four images and three tags, for each read strategy
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class GetProductsBenchmark {
+
+	private static final String SEED_PRODUCTS = "INSERT INTO products (id, title, description, category, price, "
+			+ "discount_percentage, rating, stock, brand, sku, weight, warranty_information, shipping_information, "
+			+ "availability_status, return_policy, minimum_order_quantity, thumbnail, created_at, updated_at, "
+			+ "barcode, qr_code, width, height, depth) "
+			+ "SELECT X, 'Product ' || X, 'A product used to measure the hot paths of the service', "
+			+ "'category-' || MOD(X, 20), MOD(X, 1000) + 0.99, 7.17, 4.94, 5, 'Essence', 'SKU-' || X, 2, "
+			+ "'1 month warranty', 'Ships in 1 month', 'Low Stock', '30 days return policy', 24, "
+			+ "'https://cdn.example.com/products/' || X || '/thumbnail.png', TIMESTAMP '2024-05-23 08:56:21', "
+			+ "TIMESTAMP '2024-05-23 08:56:21', 'BAR-' || X, 'https://example.com/qr.png', 23.17, 14.43, 28.01 "
+			+ "FROM SYSTEM_RANGE(1, $1)";
+	private static final String SEED_REVIEWS = "INSERT INTO reviews (product_id, rating, comment, date, reviewer_name, "
+			+ "reviewer_email) SELECT p.X, 4.0, 'Very satisfied!', TIMESTAMP '2024-05-23 08:56:21', "
+			+ "'Reviewer ' || r.X, 'reviewer' || r.X || '@example.com' FROM SYSTEM_RANGE(1, $1) p, SYSTEM_RANGE(1, 3) r";
+	private static final String SEED_IMAGES = "INSERT INTO product_images (product_id, image_url) "
+			+ "SELECT p.X, 'https://cdn.example.com/products/' || p.X || '/' || i.X || '.png' "
+			+ "FROM SYSTEM_RANGE(1, $1) p, SYSTEM_RANGE(1, 4) i";
+	private static final String SEED_TAGS = "INSERT INTO product_tags (product_id, tag) "
+			+ "SELECT p.X, 'tag-' || t.X FROM SYSTEM_RANGE(1, $1) p, SYSTEM_RANGE(1, 3) t";
+
+	@Param({ "1000", "10000", "100000" })
+	private int productCount;
+
+	@Param({ "BATCHED", "SINGLE_QUERY" })
+	private ProductReadStrategy readStrategy;
+
+	private CloseableConnectionFactory connectionFactory;
+	private ProductServiceImpl productService;
+
+	@Setup
+	public void setUp() {
+		connectionFactory = H2ConnectionFactory.inMemory(UUID.randomUUID().toString());
+		new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(connectionFactory).block();
+		DatabaseClient databaseClient = DatabaseClient.create(connectionFactory);
+		for (String seed : new String[] { SEED_PRODUCTS, SEED_REVIEWS, SEED_IMAGES, SEED_TAGS }) {
+			databaseClient.sql(seed).bind(0, productCount).fetch().rowsUpdated().block();
+		}
+
+		R2dbcEntityTemplate template = new R2dbcEntityTemplate(connectionFactory);
+		R2dbcRepositoryFactory repositoryFactory = new R2dbcRepositoryFactory(template);
+		productService = new ProductServiceImpl();
+		ReflectionTestUtils.setField(productService, "productRepository",
+				repositoryFactory.getRepository(ProductRepository.class));
+		ReflectionTestUtils.setField(productService, "productReviewRepository",
+				repositoryFactory.getRepository(ProductReviewRepository.class));
+		ReflectionTestUtils.setField(productService, "productImageRepository",
+				repositoryFactory.getRepository(ProductImageRepository.class));
+		ReflectionTestUtils.setField(productService, "productTagRepository",
+				repositoryFactory.getRepository(ProductTagRepository.class));
+		ReflectionTestUtils.setField(productService, "productMapper", new ProductMapperImpl());
+		ReflectionTestUtils.setField(productService, "productMetrics", new ProductMetrics(new SimpleMeterRegistry()));
+		ReflectionTestUtils.setField(productService, "productAggregateReader",
+				new ProductAggregateReader(databaseClient, template.getConverter()));
+		ReflectionTestUtils.setField(productService, "readStrategy", readStrategy);
+	}
+
+	@TearDown
+	public void tearDown() {
+		connectionFactory.close();
+	}
+
+	@Benchmark
+	public Long getProducts() {
+		return productService.getProducts().count().block();
+	}
+}
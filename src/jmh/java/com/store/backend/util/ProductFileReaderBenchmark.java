@@ -0,0 +1,81 @@
+package com.store.backend.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.store.backend.BenchmarkData;
+
+/**
+ * Products per second read from a local dump file of {@value #PRODUCTS}
+ * products, as NDJSON and as a JSON array, with the chunks parsed on the
+ * parallel scheduler
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ProductFileReaderBenchmark {
+
+	private static final int PRODUCTS = 100_000;
+
+	@Param({ "products.ndjson", "products.json" })
+	private String fileName;
+
+	private Path directory;
+	private Path file;
+	private ProductFileReader productFileReader;
+
+	@Setup
+	public void setUp() throws IOException {
+		ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		directory = Files.createTempDirectory("product-import");
+		file = directory.resolve(fileName);
+		boolean lines = fileName.endsWith(".ndjson");
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writer.write(lines ? "" : "[");
+			for (long id = 1; id <= PRODUCTS; id++) {
+				writer.write(id == 1 || lines ? "" : ",");
+				writer.write(objectMapper.writeValueAsString(BenchmarkData.productDTO(id)));
+				writer.write(lines ? "\n" : "");
+			}
+			writer.write(lines ? "" : "]");
+		}
+		productFileReader = new ProductFileReader(objectMapper, directory.toString(), DataSize.ofMegabytes(4));
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+		Files.deleteIfExists(directory);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PRODUCTS)
+	public long readFile() {
+		return productFileReader.read(file, reason -> {
+		}).count().block();
+	}
+}
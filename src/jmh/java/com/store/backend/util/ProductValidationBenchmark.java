@@ -0,0 +1,73 @@
+package com.store.backend.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.store.backend.BenchmarkData;
+import com.store.backend.dto.ProductDTO;
+import com.store.backend.metrics.ProductMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+
+/**
+ * Cost of the bean validation step applied to every product of the feed, for
+ * a valid product and for one that fails validation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductValidationBenchmark {
+
+	private ValidatorFactory validatorFactory;
+	private ProductsLoadingHelper productsLoadingHelper;
+
+	private ProductDTO validProduct;
+	private ProductDTO invalidProduct;
+	private LoadProgress progress;
+
+	@Setup
+	public void setUp() {
+		validatorFactory = Validation.buildDefaultValidatorFactory();
+		productsLoadingHelper = new ProductsLoadingHelper();
+		ReflectionTestUtils.setField(productsLoadingHelper, "validator", validatorFactory.getValidator());
+		ReflectionTestUtils.setField(productsLoadingHelper, "productMetrics",
+				new ProductMetrics(new SimpleMeterRegistry()));
+		validProduct = BenchmarkData.productDTO(1L);
+		invalidProduct = BenchmarkData.productDTO(2L);
+		invalidProduct.setTitle("");
+		invalidProduct.getDimensions().setWidth(-1.0);
+		progress = new LoadProgress();
+	}
+
+	@TearDown
+	public void tearDown() {
+		validatorFactory.close();
+	}
+
+	@Benchmark
+	public ProductDTO validProduct() {
+		return productsLoadingHelper.validateProduct(validProduct, progress);
+	}
+
+	@Benchmark
+	public ProductDTO invalidProduct() {
+		return productsLoadingHelper.validateProduct(invalidProduct, progress);
+	}
+}
@@ -6,12 +6,18 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.http.codec.ServerCodecConfigurer;
 import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
 import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.store.backend.advice.ProductResponseWriter;
+import com.store.backend.cache.ProductCache;
+
 import io.r2dbc.spi.ConnectionFactory;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import jakarta.validation.Validator;
@@ -42,6 +48,17 @@ public class EStoreBackendApplication {
 		return new LocalValidatorFactoryBean();
 	}
 
+	@Bean
+	WebFluxConfigurer productCodecsConfigurer(ObjectMapper objectMapper, ProductCache productCache) {
+		ProductResponseWriter productResponseWriter = new ProductResponseWriter(objectMapper, productCache);
+		return new WebFluxConfigurer() {
+			@Override
+			public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+				configurer.customCodecs().register(productResponseWriter);
+			}
+		};
+	}
+
 	public static void main(String[] args) {
 		SpringApplication.run(EStoreBackendApplication.class, args);
 	}
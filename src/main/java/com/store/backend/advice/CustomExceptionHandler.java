@@ -12,6 +12,8 @@ import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import com.store.backend.exception.InvalidRequestException;
+import com.store.backend.exception.LoadJobNotFoundException;
 import com.store.backend.exception.ProductNotFoundException;
 import com.store.backend.exception.ProductServiceException;
 
@@ -53,11 +55,21 @@ public class CustomExceptionHandler {
 	        return Mono.just(this.wrapErrorResponse(ex.getMessage(), HttpStatus.NOT_FOUND));
 	    }
 
+	    @ExceptionHandler(LoadJobNotFoundException.class)
+	    public Mono<ResponseEntity<Map<String, Object>>> handleLoadJobNotFoundException(LoadJobNotFoundException ex) {
+	        return Mono.just(this.wrapErrorResponse(ex.getMessage(), HttpStatus.NOT_FOUND));
+	    }
+
 	    @ExceptionHandler(ProductServiceException.class)
 	    public Mono<ResponseEntity<Map<String, Object>>> handleProductServiceException(ProductServiceException ex) {
 	        return Mono.just(this.wrapErrorResponse(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR));
 	    }
 	    
+	    @ExceptionHandler(InvalidRequestException.class)
+	    public Mono<ResponseEntity<Map<String, Object>>> handleInvalidRequestException(InvalidRequestException ex) {
+	        return Mono.just(this.wrapErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST));
+	    }
+
 	    @ExceptionHandler(MethodArgumentNotValidException.class)
 		@ResponseStatus(HttpStatus.BAD_REQUEST)
 		public ResponseEntity<Map<String, Object>> handleMethodArgumentNotValidException(
@@ -0,0 +1,213 @@
+package com.store.backend.advice;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.codec.HttpMessageWriter;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.store.backend.cache.ProductCache;
+import com.store.backend.dto.ProductDTO;
+import com.store.backend.exception.InvalidRequestException;
+import com.store.backend.util.ProductFields;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Writes response envelopes whose data is a product or a list of products by
+ * splicing the JSON of each product, kept by the product cache, between the
+ * encoded envelope fields. The pieces are wrapped as buffers and joined without
+ * copying. Any other body is written by Jackson.
+ * <p>
+ * Products are written with their default fieldset, which leaves out the
+ * reviews in favour of the review summary. When the request asks for another
+ * fieldset with {@code fields} or {@code include}, the whole body is written by
+ * Jackson with the products filtered down to the requested properties.
+ */
+public class ProductResponseWriter implements HttpMessageWriter<Map<String, Object>> {
+
+	private static final String DATA = "data";
+	private static final String FIELDS = "fields";
+	private static final String INCLUDE = "include";
+	private static final String JSON_ENCODING_ERROR = "JSON encoding error: ";
+	private static final byte[] DATA_FIELD = ("\"" + DATA + "\":").getBytes(StandardCharsets.UTF_8);
+	private static final byte[] COMMA = { ',' };
+	private static final byte[] OPEN_ARRAY = { '[' };
+	private static final byte[] CLOSE_ARRAY = { ']' };
+	private static final byte[] CLOSE_OBJECT = { '}' };
+
+	private final ProductCache productCache;
+	private final ObjectMapper objectMapper;
+	private final ObjectMapper sparseObjectMapper;
+	private final ObjectWriter defaultWriter;
+
+	/**
+	 * @param objectMapper the application's mapper, which the products and the
+	 *                     envelope fields are written with
+	 * @param productCache the cache keeping the JSON of each product
+	 */
+	public ProductResponseWriter(ObjectMapper objectMapper, ProductCache productCache) {
+		this.objectMapper = objectMapper;
+		this.productCache = productCache;
+		this.sparseObjectMapper = objectMapper.copy().addMixIn(ProductDTO.class, SparseProduct.class);
+		this.defaultWriter = writer(ProductFields.DEFAULT);
+	}
+
+	@Override
+	public List<MediaType> getWritableMediaTypes() {
+		return List.of(MediaType.APPLICATION_JSON);
+	}
+
+	@Override
+	public boolean canWrite(ResolvableType elementType, MediaType mediaType) {
+		return Map.class.isAssignableFrom(elementType.toClass())
+				&& (mediaType == null || MediaType.APPLICATION_JSON.isCompatibleWith(mediaType));
+	}
+
+	@Override
+	public Mono<Void> write(Publisher<? extends Map<String, Object>> inputStream, ResolvableType elementType,
+			MediaType mediaType, ReactiveHttpOutputMessage message, Map<String, Object> hints) {
+		return write(inputStream, mediaType, message, ProductFields.DEFAULT);
+	}
+
+	@Override
+	public Mono<Void> write(Publisher<? extends Map<String, Object>> inputStream, ResolvableType actualType,
+			ResolvableType elementType, MediaType mediaType, ServerHttpRequest request, ServerHttpResponse response,
+			Map<String, Object> hints) {
+		return write(inputStream, mediaType, response, requestedFields(request));
+	}
+
+	private Mono<Void> write(Publisher<? extends Map<String, Object>> inputStream, MediaType mediaType,
+			ReactiveHttpOutputMessage message, ProductFields fields) {
+		ObjectWriter writer = fields.isDefault() ? defaultWriter : writer(fields);
+		return Mono.from(inputStream).flatMap(body -> {
+			List<ProductDTO> products = fields.isDefault() ? products(body.get(DATA)) : null;
+			if (products != null) {
+				return writeBuffer(envelope(body, products, body.get(DATA) instanceof List, message.bufferFactory()),
+						mediaType, message);
+			}
+			try {
+				return writeBuffer(message.bufferFactory().wrap(writer.writeValueAsBytes(body)), mediaType, message);
+			} catch (JsonProcessingException e) {
+				return Mono.error(new EncodingException(JSON_ENCODING_ERROR + e.getOriginalMessage(), e));
+			}
+		});
+	}
+
+	private ObjectWriter writer(ProductFields fields) {
+		return sparseObjectMapper.writer(new SimpleFilterProvider().addFilter(SparseProduct.FILTER,
+				SimpleBeanPropertyFilter.filterOutAllExcept(fields.getProperties())));
+	}
+
+	/**
+	 * The fieldset of a request. Invalid parameters were already rejected by the
+	 * controller, so the error response reporting them is written by default.
+	 */
+	private static ProductFields requestedFields(ServerHttpRequest request) {
+		try {
+			return ProductFields.parse(request.getQueryParams().getFirst(FIELDS),
+					request.getQueryParams().getFirst(INCLUDE));
+		} catch (InvalidRequestException e) {
+			return ProductFields.DEFAULT;
+		}
+	}
+
+	private static Mono<Void> writeBuffer(DataBuffer buffer, MediaType mediaType, ReactiveHttpOutputMessage message) {
+		message.getHeaders().setContentType(
+				mediaType == null || !mediaType.isConcrete() ? MediaType.APPLICATION_JSON : mediaType);
+		message.getHeaders().setContentLength(buffer.readableByteCount());
+		return message.writeWith(Mono.just(buffer));
+	}
+
+	/**
+	 * The products of the data of an envelope, or null when the data is not a
+	 * product or a non-empty list of products
+	 */
+	private static List<ProductDTO> products(Object data) {
+		if (data instanceof ProductDTO product) {
+			return List.of(product);
+		}
+		if (!(data instanceof List<?> list) || list.isEmpty()) {
+			return null;
+		}
+		List<ProductDTO> products = new ArrayList<>(list.size());
+		for (Object element : list) {
+			if (!(element instanceof ProductDTO product)) {
+				return null;
+			}
+			products.add(product);
+		}
+		return products;
+	}
+
+	private DataBuffer envelope(Map<String, Object> body, List<ProductDTO> products, boolean array,
+			DataBufferFactory bufferFactory) {
+		Map<String, Object> fields = new LinkedHashMap<>(body);
+		fields.remove(DATA);
+		byte[] head = encode(fields);
+
+		List<DataBuffer> buffers = new ArrayList<>(products.size() * 2 + 4);
+		buffers.add(bufferFactory.wrap(ByteBuffer.wrap(head, 0, head.length - 1)));
+		if (!fields.isEmpty()) {
+			buffers.add(bufferFactory.wrap(COMMA));
+		}
+		buffers.add(bufferFactory.wrap(DATA_FIELD));
+		if (array) {
+			buffers.add(bufferFactory.wrap(OPEN_ARRAY));
+		}
+		for (int i = 0; i < products.size(); i++) {
+			if (i > 0) {
+				buffers.add(bufferFactory.wrap(COMMA));
+			}
+			buffers.add(bufferFactory.wrap(productCache.json(products.get(i), this::encodeProduct)));
+		}
+		if (array) {
+			buffers.add(bufferFactory.wrap(CLOSE_ARRAY));
+		}
+		buffers.add(bufferFactory.wrap(CLOSE_OBJECT));
+		return bufferFactory.join(buffers);
+	}
+
+	private byte[] encode(Object value) {
+		try {
+			return objectMapper.writeValueAsBytes(value);
+		} catch (JsonProcessingException e) {
+			throw new EncodingException(JSON_ENCODING_ERROR + e.getOriginalMessage(), e);
+		}
+	}
+
+	private byte[] encodeProduct(ProductDTO product) {
+		try {
+			return defaultWriter.writeValueAsBytes(product);
+		} catch (JsonProcessingException e) {
+			throw new EncodingException(JSON_ENCODING_ERROR + e.getOriginalMessage(), e);
+		}
+	}
+
+	/**
+	 * Mix-in attaching the fieldset filter to products
+	 */
+	@JsonFilter(SparseProduct.FILTER)
+	private abstract static class SparseProduct {
+
+		private static final String FILTER = "sparseProduct";
+	}
+}
@@ -0,0 +1,55 @@
+package com.store.backend.cache;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Version of the catalog as a whole, advanced whenever products are saved. It
+ * validates cached list results: any save changes the entity tag of every list
+ * response, while an unchanged catalog keeps it. The tag starts from the time
+ * the instance started, so tags from before a restart never match.
+ */
+@Component
+public class CatalogVersion {
+
+	private final long epoch;
+	private volatile long version;
+	private volatile Instant lastModified;
+
+	public CatalogVersion() {
+		this(Instant.now());
+	}
+
+	public CatalogVersion(Instant startedAt) {
+		this.epoch = startedAt.toEpochMilli();
+		this.lastModified = startedAt.truncatedTo(ChronoUnit.SECONDS);
+	}
+
+	/**
+	 * Record that products were saved
+	 */
+	public synchronized void advance() {
+		version++;
+		lastModified = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+	}
+
+	/**
+	 * Get the strong entity tag of the current version
+	 * 
+	 * @return the unquoted entity tag
+	 */
+	public String eTag() {
+		return Long.toHexString(epoch) + "-" + version;
+	}
+
+	/**
+	 * Get the time of the last save, or of startup when nothing was saved since
+	 * 
+	 * @return the time, truncated to seconds
+	 */
+	public Instant lastModified() {
+		return lastModified;
+	}
+}
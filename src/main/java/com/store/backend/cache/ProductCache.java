@@ -0,0 +1,279 @@
+package com.store.backend.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.store.backend.dao.ProductVersion;
+import com.store.backend.dto.CacheStatsDTO;
+import com.store.backend.dto.ProductDTO;
+
+/**
+ * Bounded in-process cache of fully assembled products, keyed by id with a
+ * secondary sku to id index. Entries are evicted by size and by time since
+ * they were written.
+ * <p>
+ * Each entry also holds the JSON encoding of its product once a response has
+ * needed it. Replacing or removing the product drops the encoding with it, so
+ * encoded bytes are never served for a product that has since been saved.
+ * <p>
+ * Products read from the database are added with the revision of their row and
+ * the {@link #generation() generation} taken before the read. Every write
+ * advances the generation of its product, so a read that started before a
+ * write cannot put the product back as it was before that write.
+ * <p>
+ * While the cache is {@link #setQuiet(boolean) quiet}, reads neither count as
+ * hits or misses nor as uses in the eviction policy, so that synthetic traffic
+ * such as the startup warm-up does not make its own products look hot.
+ */
+@Component
+public class ProductCache {
+
+	private final Cache<Long, CachedProduct> products;
+	private final Map<String, Long> skuIndex = new ConcurrentHashMap<>();
+
+	private static final int WRITE_STRIPES = 1024;
+	private final AtomicLong writes = new AtomicLong();
+	private final AtomicLongArray writtenAt = new AtomicLongArray(WRITE_STRIPES);
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	private volatile boolean quiet;
+
+	public ProductCache(@Value("${products.cache.max-size:10000}") long maxSize,
+			@Value("${products.cache.ttl:10m}") Duration ttl) {
+		this.products = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(ttl)
+				.executor(Runnable::run)
+				.removalListener(this::onRemoval)
+				.build();
+	}
+
+	/**
+	 * Get a cached product by id
+	 * 
+	 * @param id the product id
+	 * @return the cached product, or empty on a miss
+	 */
+	public Optional<ProductDTO> getById(Long id) {
+		return record(lookup(id));
+	}
+
+	/**
+	 * Get a cached product by id if it was read from the given revision of its row
+	 * 
+	 * @param id      the product id
+	 * @param version the current revision of the product
+	 * @return the cached product, or empty on a miss or when it is of another
+	 *         revision
+	 */
+	public Optional<ProductDTO> getById(Long id, ProductVersion version) {
+		return record(ofVersion(lookup(id), version));
+	}
+
+	/**
+	 * Get a cached product by sku
+	 * 
+	 * @param sku the product sku
+	 * @return the cached product, or empty on a miss
+	 */
+	public Optional<ProductDTO> getBySku(String sku) {
+		Long id = skuIndex.get(sku);
+		return record(id == null ? null : lookup(id));
+	}
+
+	/**
+	 * Get a cached product by sku if it was read from the given revision of its
+	 * row
+	 * 
+	 * @param sku     the product sku
+	 * @param version the current revision of the product
+	 * @return the cached product, or empty on a miss or when it is of another
+	 *         revision
+	 */
+	public Optional<ProductDTO> getBySku(String sku, ProductVersion version) {
+		Long id = skuIndex.get(sku);
+		return record(id == null ? null : ofVersion(lookup(id), version));
+	}
+
+	/**
+	 * Get the current generation, to be taken before reading products that are
+	 * then added with {@link #put(ProductDTO, ProductVersion, long)}
+	 * 
+	 * @return the generation
+	 */
+	public long generation() {
+		return writes.get();
+	}
+
+	/**
+	 * Add or refresh a product read from the database, unless it was written or
+	 * removed since the given generation was taken
+	 * 
+	 * @param product    the assembled product
+	 * @param version    the revision of the row the product was read from
+	 * @param generation the generation taken before the product was read
+	 */
+	public void put(ProductDTO product, ProductVersion version, long generation) {
+		if (writtenSince(product.getId(), generation)) {
+			return;
+		}
+		products.asMap().compute(product.getId(), (id, previous) -> writtenSince(id, generation) ? previous
+				: replace(previous, new CachedProduct(product, version)));
+	}
+
+	/**
+	 * Add or replace a product regardless of reads in progress, as after writing
+	 * it
+	 * 
+	 * @param product the assembled product
+	 * @param version the revision of the row that was written
+	 */
+	public void put(ProductDTO product, ProductVersion version) {
+		products.asMap().compute(product.getId(), (id, previous) -> {
+			written(id);
+			return replace(previous, new CachedProduct(product, version));
+		});
+	}
+
+	/**
+	 * Remove a product
+	 * 
+	 * @param id the product id
+	 */
+	public void invalidate(Long id) {
+		products.asMap().compute(id, (key, previous) -> {
+			written(key);
+			return null;
+		});
+	}
+
+	/**
+	 * Get the JSON encoding of a product, reusing the encoding held by the cache
+	 * when the product is the cached instance
+	 * 
+	 * @param product the product to encode
+	 * @param encoder the function encoding a product to UTF-8 JSON
+	 * @return the encoded product
+	 */
+	public byte[] json(ProductDTO product, Function<ProductDTO, byte[]> encoder) {
+		CachedProduct cached = lookup(product.getId());
+		if (cached == null || cached.product != product) {
+			return encoder.apply(product);
+		}
+		byte[] json = cached.json;
+		if (json == null) {
+			json = encoder.apply(product);
+			cached.json = json;
+		}
+		return json;
+	}
+
+	/**
+	 * Get the ids of the products the eviction policy would keep longest, which
+	 * favours products used often and recently
+	 * 
+	 * @param limit the maximum number of ids
+	 * @return the ids, hottest first
+	 */
+	public List<Long> hottest(int limit) {
+		return products.policy().eviction().map(eviction -> List.copyOf(eviction.hottest(limit).keySet()))
+				.orElse(List.of());
+	}
+
+	/**
+	 * Stop or resume recording reads in the statistics and the eviction policy
+	 * 
+	 * @param quiet whether reads go unrecorded
+	 */
+	public void setQuiet(boolean quiet) {
+		this.quiet = quiet;
+	}
+
+	/**
+	 * Get the hit, miss and eviction counters of the cache
+	 * 
+	 * @return the cache statistics
+	 */
+	public CacheStatsDTO stats() {
+		long hitCount = hits.sum();
+		long missCount = misses.sum();
+		long requests = hitCount + missCount;
+		return new CacheStatsDTO(products.estimatedSize(), hitCount, missCount, evictions.sum(),
+				requests == 0 ? 0.0 : (double) hitCount / requests);
+	}
+
+	private CachedProduct replace(CachedProduct previous, CachedProduct cached) {
+		String sku = cached.product.getSku();
+		if (previous != null && previous.product.getSku() != null && !previous.product.getSku().equals(sku)) {
+			skuIndex.remove(previous.product.getSku(), cached.product.getId());
+		}
+		if (sku != null) {
+			skuIndex.put(sku, cached.product.getId());
+		}
+		return cached;
+	}
+
+	private void written(Long id) {
+		writtenAt.accumulateAndGet(stripe(id), writes.incrementAndGet(), Math::max);
+	}
+
+	private boolean writtenSince(Long id, long generation) {
+		return writtenAt.get(stripe(id)) > generation;
+	}
+
+	private static int stripe(Long id) {
+		return Long.hashCode(id) & (WRITE_STRIPES - 1);
+	}
+
+	private static CachedProduct ofVersion(CachedProduct cached, ProductVersion version) {
+		return cached != null && cached.version != null && cached.version.equals(version) ? cached : null;
+	}
+
+	private CachedProduct lookup(Long id) {
+		return quiet ? products.policy().getIfPresentQuietly(id) : products.getIfPresent(id);
+	}
+
+	private Optional<ProductDTO> record(CachedProduct cached) {
+		if (!quiet) {
+			(cached == null ? misses : hits).increment();
+		}
+		return cached == null ? Optional.empty() : Optional.of(cached.product);
+	}
+
+	private void onRemoval(Long id, CachedProduct cached, RemovalCause cause) {
+		if (cause.wasEvicted()) {
+			evictions.increment();
+		}
+		if (cause != RemovalCause.REPLACED && cached != null && cached.product.getSku() != null) {
+			skuIndex.remove(cached.product.getSku(), id);
+		}
+	}
+
+	private static final class CachedProduct {
+
+		private final ProductDTO product;
+		private final ProductVersion version;
+		private volatile byte[] json;
+
+		private CachedProduct(ProductDTO product, ProductVersion version) {
+			this.product = product;
+			this.version = version;
+		}
+	}
+}
@@ -0,0 +1,211 @@
+package com.store.backend.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.store.backend.dto.ProductBatchRequestDTO;
+import com.store.backend.dto.ProductDTO;
+import com.store.backend.metrics.ProductMetrics;
+import com.store.backend.service.impl.ProductServiceImpl;
+import com.store.backend.util.ProductFields;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Warms the instance up once the indexes are built and before it reports
+ * itself ready. The products most used before the last shutdown, read from
+ * {@code products.warmup.hot-keys-file}, are loaded into the product cache,
+ * then {@code products.warmup.rounds} rounds of requests to the product
+ * endpoints are sent to the instance's own port so that the request handling,
+ * JSON encoding and database paths are compiled before real traffic arrives.
+ * <p>
+ * Blocks the ready event, which the readiness state follows, for at most
+ * {@code products.warmup.timeout}; a failed or timed out warm-up is logged and
+ * does not stop the instance. The cache is quiet during the warm-up, so the
+ * warm-up requests do not count towards the hottest keys of the cache, which
+ * are written back to the hot keys file at shutdown.
+ * <p>
+ * The warm-up is off by default, since every round of requests delays
+ * readiness; {@code products.warmup.enabled=true} turns it on.
+ */
+@Component
+@Slf4j
+public class ProductWarmup {
+
+	@Autowired
+	private ProductCache productCache;
+	@Autowired
+	private ProductServiceImpl productServiceImpl;
+	@Autowired
+	private ProductMetrics productMetrics;
+	@Autowired
+	private WebClient.Builder webClientBuilder;
+
+	@Value("${products.warmup.enabled:false}")
+	private boolean enabled;
+
+	@Value("${products.warmup.hot-keys-file:}")
+	private String hotKeysFile = "";
+
+	@Value("${products.warmup.hot-keys:1000}")
+	private int hotKeys = 1000;
+
+	@Value("${products.warmup.rounds:20}")
+	private int rounds = 20;
+
+	@Value("${products.warmup.concurrency:4}")
+	private int concurrency = 4;
+
+	@Value("${products.warmup.timeout:60s}")
+	private Duration timeout = Duration.ofSeconds(60);
+
+	private static final String API = "/api/products";
+	private static final int PAGE_SIZE = 20;
+
+	private static final String WARMING_UP = "Warming up with {} hot products and {} request rounds";
+	private static final String WARMED_UP = "Warm-up done in {} ms: {} products preloaded, {} requests sent";
+	private static final String WARMUP_FAILED = "Warm-up failed after {} ms, continuing startup";
+	private static final String ERROR_READING_HOT_KEYS = "Error reading hot keys from {}: {}";
+	private static final String ERROR_WRITING_HOT_KEYS = "Error writing hot keys to {}";
+	private static final String HOT_KEYS_WRITTEN = "Wrote {} hot keys to {}";
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Order(Ordered.LOWEST_PRECEDENCE)
+	public void warmUp(ApplicationReadyEvent event) {
+		if (!enabled || !(event.getApplicationContext() instanceof WebServerApplicationContext context)) {
+			return;
+		}
+		warmUp(context.getWebServer().getPort());
+	}
+
+	/**
+	 * Preload the hot products and send the warm-up requests to the given port
+	 *
+	 * @param port the port the instance is listening on
+	 */
+	public void warmUp(int port) {
+		List<Long> ids = readHotKeys();
+		log.info(WARMING_UP, ids.size(), rounds);
+		long start = System.nanoTime();
+		productCache.setQuiet(true);
+		try {
+			productServiceImpl.preloadProducts(ids)
+					.flatMap(preloaded -> sample(ids)
+							.flatMap(product -> exerciseEndpoints(port, product, ids))
+							.defaultIfEmpty(0L)
+							.doOnNext(sent -> log.info(WARMED_UP, elapsedMillis(start), preloaded, sent)))
+					.timeout(timeout).block();
+		} catch (RuntimeException e) {
+			log.warn(WARMUP_FAILED, elapsedMillis(start), e);
+		} finally {
+			productCache.setQuiet(false);
+			productMetrics.recordWarmup(Duration.ofNanos(System.nanoTime() - start));
+		}
+	}
+
+	/**
+	 * A product to request by id, sku and category: the hottest one, or the
+	 * first one when there are no hot keys
+	 */
+	private Mono<ProductDTO> sample(List<Long> ids) {
+		Mono<ProductDTO> hottest = ids.isEmpty() ? Mono.empty()
+				: Mono.justOrEmpty(productCache.getById(ids.get(0)));
+		return hottest.switchIfEmpty(Mono.defer(() -> productServiceImpl.getProductsPage(null, 1, ProductFields.ALL))
+				.flatMap(page -> Mono.justOrEmpty(page.getProducts().stream().findFirst())));
+	}
+
+	private Mono<Long> exerciseEndpoints(int port, ProductDTO sample, List<Long> ids) {
+		WebClient webClient = webClientBuilder.clone().baseUrl("http://localhost:" + port + API).build();
+		List<Long> batch = ids.isEmpty() ? List.of(sample.getId())
+				: ids.subList(0, Math.min(ids.size(), PAGE_SIZE));
+		String word = sample.getTitle() == null ? "a" : sample.getTitle().split("\\s+")[0];
+		List<Mono<Long>> requests = new ArrayList<>();
+		for (int round = 0; round < rounds; round++) {
+			Long id = ids.isEmpty() ? sample.getId() : ids.get(round % ids.size());
+			requests.add(request(webClient.get().uri("/{id}", id)));
+			requests.add(request(webClient.get().uri("/sku/{sku}", sample.getSku())));
+			requests.add(request(webClient.get().uri("/{id}/reviews", id)));
+			requests.add(request(webClient.get().uri("?limit={limit}", PAGE_SIZE)));
+			requests.add(request(webClient.get().uri("/category/{category}?limit={limit}", sample.getCategory(),
+					PAGE_SIZE)));
+			requests.add(request(webClient.get().uri("/sort/asc?limit={limit}", PAGE_SIZE)));
+			requests.add(request(webClient.get().uri("/search?q={q}", word)));
+			requests.add(request(webClient.get().uri("/filter?category={category}", sample.getCategory())));
+			requests.add(request(webClient.method(HttpMethod.POST).uri("/batch")
+					.bodyValue(new ProductBatchRequestDTO(batch, List.of(sample.getSku())))));
+		}
+		return Flux.fromIterable(requests).flatMap(request -> request, concurrency).count();
+	}
+
+	private static Mono<Long> request(WebClient.RequestHeadersSpec<?> request) {
+		return request.exchangeToMono(response -> response.releaseBody().thenReturn(1L));
+	}
+
+	private static long elapsedMillis(long start) {
+		return (System.nanoTime() - start) / 1_000_000;
+	}
+
+	/**
+	 * Read the ids of the hot products, hottest first
+	 *
+	 * @return the ids, or an empty list when there is no hot keys file
+	 */
+	List<Long> readHotKeys() {
+		if (hotKeysFile == null || hotKeysFile.isBlank() || !Files.isRegularFile(Path.of(hotKeysFile))) {
+			return List.of();
+		}
+		try (Stream<String> lines = Files.lines(Path.of(hotKeysFile))) {
+			return lines.map(String::strip).filter(line -> !line.isEmpty()).limit(hotKeys).map(Long::valueOf)
+					.toList();
+		} catch (IOException | NumberFormatException e) {
+			log.warn(ERROR_READING_HOT_KEYS, hotKeysFile, e.getMessage());
+			return List.of();
+		}
+	}
+
+	/**
+	 * Write the ids of the hottest cached products to the hot keys file for the
+	 * next start
+	 */
+	@PreDestroy
+	public void writeHotKeys() {
+		if (hotKeysFile == null || hotKeysFile.isBlank()) {
+			return;
+		}
+		List<Long> ids = productCache.hottest(hotKeys);
+		if (ids.isEmpty()) {
+			return;
+		}
+		Path file = Path.of(hotKeysFile);
+		try {
+			Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(),
+					".tmp");
+			Files.writeString(temporary, ids.stream().map(String::valueOf).collect(Collectors.joining("\n", "", "\n")));
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			log.info(HOT_KEYS_WRITTEN, ids.size(), file);
+		} catch (IOException e) {
+			log.error(ERROR_WRITING_HOT_KEYS, file, e);
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package com.store.backend.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.store.backend.advice.CustomExceptionHandler;
+import com.store.backend.cache.ProductCache;
+import com.store.backend.dao.ProductComponentReconciler;
+import com.store.backend.service.ProductService;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controller for catalog administration
+ */
+@RestController
+@RequestMapping("/api/admin")
+@Slf4j
+@CrossOrigin("*")
+public class AdminController {
+
+	@Autowired
+	private ProductCache productCache;
+	@Autowired
+	private ProductComponentReconciler productComponentReconciler;
+	@Autowired
+	private ProductService productServiceImpl;
+	@Autowired
+	private CustomExceptionHandler customExceptionHandler;
+
+	private static final String GETTING_CACHE_STATS = "Get cache stats endpoint called";
+	private static final String COMPACTING_COMPONENTS = "Compact product components endpoint called";
+	private static final String WRITING_SNAPSHOT = "Write catalog snapshot endpoint called";
+
+	private static final String CACHE_STATS_FETCHED_SUCESSFULLY = "Cache stats fetched successfully";
+	private static final String COMPONENTS_COMPACTED_SUCESSFULLY = "Product components compacted successfully";
+	private static final String SNAPSHOT_WRITTEN_SUCESSFULLY = "Catalog snapshot written successfully";
+
+	/**
+	 * Get the product cache statistics
+	 * 
+	 * @return a Mono of ResponseEntity containing a Map with the hit, miss and
+	 *         eviction counters
+	 */
+	@GetMapping("/cache")
+	public Mono<ResponseEntity<Map<String, Object>>> getCacheStats() {
+		log.info(GETTING_CACHE_STATS);
+		return Mono.fromSupplier(() -> customExceptionHandler.wrapSuccessResponse(productCache.stats(), HttpStatus.OK,
+				CACHE_STATS_FETCHED_SUCESSFULLY));
+	}
+
+	/**
+	 * Delete duplicate reviews, images and tags left by earlier loads
+	 * 
+	 * @return a Mono of ResponseEntity containing a Map with the number of deleted
+	 *         rows per table
+	 */
+	@PostMapping("/compact")
+	public Mono<ResponseEntity<Map<String, Object>>> compactProductComponents() {
+		log.info(COMPACTING_COMPONENTS);
+		return productComponentReconciler.compact().map(deleted -> customExceptionHandler
+				.wrapSuccessResponse(deleted, HttpStatus.OK, COMPONENTS_COMPACTED_SUCESSFULLY));
+	}
+
+	/**
+	 * Write the whole catalog to a checksummed binary snapshot in
+	 * products.snapshot.dir, from which a new instance can restore it at startup
+	 * 
+	 * @return a Mono of ResponseEntity containing a Map with the snapshot file,
+	 *         format version, product count, size and checksum
+	 */
+	@PostMapping("/snapshot")
+	public Mono<ResponseEntity<Map<String, Object>>> writeSnapshot() {
+		log.info(WRITING_SNAPSHOT);
+		return productServiceImpl.snapshotProducts().map(snapshot -> customExceptionHandler
+				.wrapSuccessResponse(snapshot, HttpStatus.OK, SNAPSHOT_WRITTEN_SUCESSFULLY));
+	}
+}
@@ -1,25 +1,50 @@
 package com.store.backend.controller;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
 
 import com.store.backend.advice.CustomExceptionHandler;
+import com.store.backend.cache.CatalogVersion;
+import com.store.backend.dao.ProductVersion;
+import com.store.backend.dto.ProductBatchRequestDTO;
+import com.store.backend.dto.ProductDTO;
+import com.store.backend.index.ProductFilter;
+import com.store.backend.service.LoadJobManager;
+import com.store.backend.service.LoadMode;
 import com.store.backend.service.ProductService;
+import com.store.backend.util.ProductFields;
 
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
  * Controller for Products
+ * <p>
+ * JSON responses carry an entity tag and a last modification time: those of
+ * the product row for a single product, and those of the catalog version for
+ * lists. A request whose conditional headers still match is answered with 304
+ * Not Modified before any product is assembled.
  */
 @RestController
 @RequestMapping("/api/products")
@@ -31,102 +56,451 @@ public class ProductController {
 	private ProductService productServiceImpl;
 	@Autowired
 	private CustomExceptionHandler customExceptionHandler;
+	@Autowired
+	private CatalogVersion catalogVersion;
+	@Autowired
+	private LoadJobManager loadJobManager;
+
+	@Value("${products.http.max-age:60s}")
+	private Duration maxAge = Duration.ofSeconds(60);
 
 	private static final String DEFAULT_ORDER = "asc";
+	private static final String DEFAULT_SEARCH_LIMIT = "20";
+	private static final String DEFAULT_REVIEW_LIMIT = "20";
 
 	private static final String GETTING_PRODUCTS = "Get products endpoint called";
 	private static final String GETTING_PRODUCT_BY_ID = "Get product by ID endpoint called with id: ";
 	private static final String GETTING_PRODUCT_BY_SKU = "Get product by SKU endpoint called with sku: ";
+	private static final String GETTING_PRODUCT_REVIEWS = "Get product reviews endpoint called with id: ";
+	private static final String GETTING_PRODUCTS_BATCH = "Get products batch endpoint called with: ";
 	private static final String GETTING_PRODUCTS_BY_CATEGORY = "Get products by category endpoint called with category: ";
 	private static final String GETTING_PRODUCTS_SORTED_BY_PRICE = "Get products sorted by price endpoint called with order: ";
 	private static final String LOADING_PRODUCTS = "Load products endpoint called";
+	private static final String LOADING_PRODUCTS_INCREMENTALLY = "Incremental load products endpoint called";
+	private static final String IMPORTING_PRODUCTS = "Import products endpoint called with file: ";
+	private static final String GETTING_LOAD_JOB = "Get load job endpoint called with id: ";
+	private static final String CANCELLING_LOAD_JOB = "Cancel load job endpoint called with id: ";
+	private static final String GETTING_PRODUCTS_PAGE = "Get products page endpoint called after cursor: ";
+	private static final String SEARCHING_PRODUCTS = "Search products endpoint called with query: ";
+	private static final String FILTERING_PRODUCTS = "Filter products endpoint called with filter: ";
+	private static final String STREAMING_PRODUCTS = "Stream products endpoint called";
+	private static final String STREAMING_PRODUCTS_BY_CATEGORY = "Stream products by category endpoint called with category: ";
+	private static final String STREAMING_PRODUCTS_SORTED_BY_PRICE = "Stream products sorted by price endpoint called with order: ";
 	
 	private static final String PRODUCTS_FETCHED_SUCESSFULLY= "Products fetched successfully";
 	private static final String PRODUCT_FETCHED_SUCESSFULLY= "Product fetched successfully";
-	private static final String PRODUCTS_LOADED_SUCESSFULLY= "Products loaded successfully";
+	private static final String REVIEWS_FETCHED_SUCESSFULLY= "Reviews fetched successfully";
+	private static final String PRODUCTS_LOAD_STARTED= "Products load started";
+	private static final String PRODUCTS_IMPORT_STARTED= "Products import started";
+	private static final String LOAD_JOB_FETCHED_SUCESSFULLY= "Load job fetched successfully";
+	private static final String LOAD_JOB_CANCELLED= "Load job cancelled";
 
 
 
 	/**
 	 * Get all products
 	 * 
+	 * @param exchange the current exchange, whose conditional headers are checked
 	 * @return a Mono of ResponseEntity containing a Map with product data and
 	 *         status
 	 */
 	@GetMapping()
-	public Mono<ResponseEntity<Map<String, Object>>> getProducts() {
+	public Mono<ResponseEntity<Map<String, Object>>> getProducts(ServerWebExchange exchange) {
 		log.info(GETTING_PRODUCTS);
-		return productServiceImpl.getProducts().collectList().map(products -> customExceptionHandler
-				.wrapSuccessResponse(products, HttpStatus.OK, PRODUCTS_FETCHED_SUCESSFULLY));
+		return ifCatalogModified(exchange, () -> productServiceImpl.getProducts().collectList()
+				.map(products -> customExceptionHandler.wrapSuccessResponse(products, HttpStatus.OK,
+						PRODUCTS_FETCHED_SUCESSFULLY)));
+	}
+
+	/**
+	 * Get a page of products ordered by id
+	 * 
+	 * @param limit    the maximum number of products in the page
+	 * @param after    the cursor returned with the previous page, absent for the
+	 *                 first page
+	 * @param fields   the properties to return, comma-separated, absent for all
+	 * @param include  the reviews, images or tags to return, comma-separated
+	 * @param exchange the current exchange, whose conditional headers are checked
+	 * @return a Mono of ResponseEntity containing a Map with the page and status
+	 */
+	@GetMapping(params = "limit")
+	public Mono<ResponseEntity<Map<String, Object>>> getProductsPage(@RequestParam int limit,
+			@RequestParam(required = false) String after, @RequestParam(required = false) String fields,
+			@RequestParam(required = false) String include, ServerWebExchange exchange) {
+		log.info(GETTING_PRODUCTS_PAGE + after);
+		ProductFields productFields = ProductFields.parse(fields, include);
+		return ifCatalogModified(exchange, () -> productServiceImpl.getProductsPage(after, limit, productFields)
+				.map(page -> customExceptionHandler.wrapSuccessResponse(page, HttpStatus.OK,
+						PRODUCTS_FETCHED_SUCESSFULLY)));
+	}
+
+	/**
+	 * Search products by free text
+	 * 
+	 * @param q        the search terms
+	 * @param limit    the maximum number of products to return
+	 * @param fields   the properties to return, comma-separated, absent for all
+	 * @param include  the reviews, images or tags to return, comma-separated
+	 * @param exchange the current exchange, whose conditional headers are checked
+	 * @return a Mono of ResponseEntity containing a Map with the matching
+	 *         products, best match first, and status
+	 */
+	@GetMapping("/search")
+	public Mono<ResponseEntity<Map<String, Object>>> searchProducts(@RequestParam String q,
+			@RequestParam(defaultValue = DEFAULT_SEARCH_LIMIT) int limit, @RequestParam(required = false) String fields,
+			@RequestParam(required = false) String include, ServerWebExchange exchange) {
+		log.info(SEARCHING_PRODUCTS + q);
+		ProductFields productFields = ProductFields.parse(fields, include);
+		return ifCatalogModified(exchange, () -> productServiceImpl.searchProducts(q, limit, productFields)
+				.collectList()
+				.map(products -> customExceptionHandler.wrapSuccessResponse(products, HttpStatus.OK,
+						PRODUCTS_FETCHED_SUCESSFULLY)));
+	}
+
+	/**
+	 * Filter products and count the matches per brand, category, price bucket and
+	 * availability status
+	 * 
+	 * @param category  the exact category, absent for any
+	 * @param brand     the exact brand, absent for any
+	 * @param minPrice  the lowest price, inclusive
+	 * @param maxPrice  the highest price, inclusive
+	 * @param minRating the lowest rating, inclusive
+	 * @param inStock   true for products in stock, false for products out of stock
+	 * @param limit     the maximum number of products to return
+	 * @param fields    the properties to return, comma-separated, absent for all
+	 * @param include   the reviews, images or tags to return, comma-separated
+	 * @param exchange  the current exchange, whose conditional headers are checked
+	 * @return a Mono of ResponseEntity containing a Map with the total, products
+	 *         and facet counts, and status
+	 */
+	@GetMapping("/filter")
+	public Mono<ResponseEntity<Map<String, Object>>> filterProducts(@RequestParam(required = false) String category,
+			@RequestParam(required = false) String brand, @RequestParam(required = false) Double minPrice,
+			@RequestParam(required = false) Double maxPrice, @RequestParam(required = false) Double minRating,
+			@RequestParam(required = false) Boolean inStock,
+			@RequestParam(defaultValue = DEFAULT_SEARCH_LIMIT) int limit, @RequestParam(required = false) String fields,
+			@RequestParam(required = false) String include, ServerWebExchange exchange) {
+		ProductFilter filter = new ProductFilter(category, brand, minPrice, maxPrice, minRating, inStock);
+		log.info(FILTERING_PRODUCTS + filter);
+		ProductFields productFields = ProductFields.parse(fields, include);
+		return ifCatalogModified(exchange, () -> productServiceImpl.filterProducts(filter, limit, productFields)
+				.map(result -> customExceptionHandler.wrapSuccessResponse(result, HttpStatus.OK,
+						PRODUCTS_FETCHED_SUCESSFULLY)));
+	}
+
+	/**
+	 * Stream all products as NDJSON or server-sent events, writing each product
+	 * as soon as it is assembled
+	 * 
+	 * @return a Flux of ProductDTO
+	 */
+	@GetMapping(produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+	public Flux<ProductDTO> streamProducts() {
+		log.info(STREAMING_PRODUCTS);
+		return productServiceImpl.getProducts();
 	}
 
 	/**
 	 * Get product by ID
 	 * 
-	 * @param id the ID of the product
+	 * @param id       the ID of the product
+	 * @param exchange the current exchange, whose conditional headers are checked
 	 * @return a Mono of ResponseEntity containing a Map with product data and
 	 *         status
 	 */
 	@GetMapping("/{id}")
-	public Mono<ResponseEntity<Map<String, Object>>> getProductById(@PathVariable String id) {
+	public Mono<ResponseEntity<Map<String, Object>>> getProductById(@PathVariable String id,
+			ServerWebExchange exchange) {
 		log.info(GETTING_PRODUCT_BY_ID + id);
-		return productServiceImpl.getProductById(Long.valueOf(id)).map(product -> customExceptionHandler
-				.wrapSuccessResponse(product, HttpStatus.OK, PRODUCT_FETCHED_SUCESSFULLY));
+		Long productId = Long.valueOf(id);
+		return ifProductModified(exchange, productServiceImpl.getProductVersionById(productId),
+				version -> productServiceImpl.getProductById(productId, version).map(product -> customExceptionHandler
+						.wrapSuccessResponse(product, HttpStatus.OK, PRODUCT_FETCHED_SUCESSFULLY)));
+	}
+
+	/**
+	 * Get a page of the reviews of a product
+	 * 
+	 * @param id       the ID of the product
+	 * @param cursor   the cursor returned with the previous page, or null for the
+	 *                 first page
+	 * @param limit    the maximum number of reviews in the page
+	 * @param exchange the current exchange, whose conditional headers are checked
+	 * @return a Mono of ResponseEntity containing a Map with the reviews, the next
+	 *         cursor and status
+	 */
+	@GetMapping("/{id}/reviews")
+	public Mono<ResponseEntity<Map<String, Object>>> getProductReviews(@PathVariable String id,
+			@RequestParam(required = false) String cursor, @RequestParam(defaultValue = DEFAULT_REVIEW_LIMIT) int limit,
+			ServerWebExchange exchange) {
+		log.info(GETTING_PRODUCT_REVIEWS + id);
+		Long productId = Long.valueOf(id);
+		return ifProductModified(exchange, productServiceImpl.getProductVersionById(productId),
+				version -> productServiceImpl.getProductReviews(productId, cursor, limit).map(page -> customExceptionHandler
+						.wrapSuccessResponse(page, HttpStatus.OK, REVIEWS_FETCHED_SUCESSFULLY)));
 	}
 
 	/**
 	 * Get product by SKU
 	 * 
-	 * @param sku the SKU of the product
+	 * @param sku      the SKU of the product
+	 * @param exchange the current exchange, whose conditional headers are checked
 	 * @return a Mono of ResponseEntity containing a Map with product data and
 	 *         status
 	 */
 	@GetMapping("/sku/{sku}")
-	public Mono<ResponseEntity<Map<String, Object>>> getProductBySku(@PathVariable String sku) {
+	public Mono<ResponseEntity<Map<String, Object>>> getProductBySku(@PathVariable String sku,
+			ServerWebExchange exchange) {
 		log.info(GETTING_PRODUCT_BY_SKU + sku);
-		return productServiceImpl.getProductBySku(sku).map(product -> customExceptionHandler
-				.wrapSuccessResponse(product, HttpStatus.OK, PRODUCT_FETCHED_SUCESSFULLY));
+		return ifProductModified(exchange, productServiceImpl.getProductVersionBySku(sku),
+				version -> productServiceImpl.getProductBySku(sku, version).map(product -> customExceptionHandler
+						.wrapSuccessResponse(product, HttpStatus.OK, PRODUCT_FETCHED_SUCESSFULLY)));
 	}
 
 	/**
 	 * Get products by category
 	 * 
 	 * @param category the category to filter products by
+	 * @param exchange the current exchange, whose conditional headers are checked
 	 * @return a Mono of ResponseEntity containing a Map with product data and
 	 *         status
 	 */
 	@GetMapping("/category/{category}")
-	public Mono<ResponseEntity<Map<String, Object>>> getProductsByCategory(@PathVariable String category) {
+	public Mono<ResponseEntity<Map<String, Object>>> getProductsByCategory(@PathVariable String category,
+			ServerWebExchange exchange) {
+		log.info(GETTING_PRODUCTS_BY_CATEGORY + category);
+		return ifCatalogModified(exchange, () -> productServiceImpl.getProductsByCategory(category).collectList()
+				.map(products -> customExceptionHandler.wrapSuccessResponse(products, HttpStatus.OK,
+						PRODUCT_FETCHED_SUCESSFULLY)));
+	}
+
+	/**
+	 * Get a page of products by category ordered by id
+	 * 
+	 * @param category the category to filter products by
+	 * @param limit    the maximum number of products in the page
+	 * @param after    the cursor returned with the previous page, absent for the
+	 *                 first page
+	 * @param fields   the properties to return, comma-separated, absent for all
+	 * @param include  the reviews, images or tags to return, comma-separated
+	 * @param exchange the current exchange, whose conditional headers are checked
+	 * @return a Mono of ResponseEntity containing a Map with the page and status
+	 */
+	@GetMapping(value = "/category/{category}", params = "limit")
+	public Mono<ResponseEntity<Map<String, Object>>> getProductsByCategoryPage(@PathVariable String category,
+			@RequestParam int limit, @RequestParam(required = false) String after,
+			@RequestParam(required = false) String fields, @RequestParam(required = false) String include,
+			ServerWebExchange exchange) {
 		log.info(GETTING_PRODUCTS_BY_CATEGORY + category);
-		return productServiceImpl.getProductsByCategory(category).collectList().map(products -> customExceptionHandler
-				.wrapSuccessResponse(products, HttpStatus.OK, PRODUCT_FETCHED_SUCESSFULLY));
+		ProductFields productFields = ProductFields.parse(fields, include);
+		return ifCatalogModified(exchange, () -> productServiceImpl
+				.getProductsByCategoryPage(category, after, limit, productFields)
+				.map(page -> customExceptionHandler.wrapSuccessResponse(page, HttpStatus.OK,
+						PRODUCTS_FETCHED_SUCESSFULLY)));
+	}
+
+	/**
+	 * Stream products by category as NDJSON or server-sent events
+	 * 
+	 * @param category the category to filter products by
+	 * @return a Flux of ProductDTO
+	 */
+	@GetMapping(value = "/category/{category}", produces = { MediaType.APPLICATION_NDJSON_VALUE,
+			MediaType.TEXT_EVENT_STREAM_VALUE })
+	public Flux<ProductDTO> streamProductsByCategory(@PathVariable String category) {
+		log.info(STREAMING_PRODUCTS_BY_CATEGORY + category);
+		return productServiceImpl.getProductsByCategory(category);
 	}
 
 	/**
 	 * Get products sorted by price
 	 * 
-	 * @param order the order to sort products by (either "asc" or "desc")
+	 * @param order    the order to sort products by (either "asc" or "desc")
+	 * @param exchange the current exchange, whose conditional headers are checked
 	 * @return a Mono of ResponseEntity containing a Map with product data and
 	 *         status
 	 */
 	@GetMapping("/sort/{order}")
-	public Mono<ResponseEntity<Map<String, Object>>> getProductsSortedByPrice(@PathVariable String order) {
+	public Mono<ResponseEntity<Map<String, Object>>> getProductsSortedByPrice(@PathVariable String order,
+			ServerWebExchange exchange) {
+		log.info(GETTING_PRODUCTS_SORTED_BY_PRICE + order);
+		return ifCatalogModified(exchange, () -> productServiceImpl.getProductsSortedByPrice(order).collectList()
+				.map(products -> customExceptionHandler.wrapSuccessResponse(products, HttpStatus.OK,
+						PRODUCTS_FETCHED_SUCESSFULLY)));
+	}
+
+	/**
+	 * Get a page of products sorted by price
+	 * 
+	 * @param order    the order to sort products by (either "asc" or "desc")
+	 * @param limit    the maximum number of products in the page
+	 * @param minPrice the lowest price, inclusive, absent for no lower bound
+	 * @param maxPrice the highest price, inclusive, absent for no upper bound
+	 * @param after    the cursor returned with the previous page, absent for the
+	 *                 first page
+	 * @param fields   the properties to return, comma-separated, absent for all
+	 * @param include  the reviews, images or tags to return, comma-separated
+	 * @param exchange the current exchange, whose conditional headers are checked
+	 * @return a Mono of ResponseEntity containing a Map with the page and status
+	 */
+	@GetMapping(value = "/sort/{order}", params = "limit")
+	public Mono<ResponseEntity<Map<String, Object>>> getProductsSortedByPricePage(@PathVariable String order,
+			@RequestParam int limit, @RequestParam(required = false) Double minPrice,
+			@RequestParam(required = false) Double maxPrice, @RequestParam(required = false) String after,
+			@RequestParam(required = false) String fields, @RequestParam(required = false) String include,
+			ServerWebExchange exchange) {
 		log.info(GETTING_PRODUCTS_SORTED_BY_PRICE + order);
-		return productServiceImpl.getProductsSortedByPrice(order).collectList().map(products -> customExceptionHandler
-				.wrapSuccessResponse(products, HttpStatus.OK, PRODUCTS_FETCHED_SUCESSFULLY));
+		ProductFields productFields = ProductFields.parse(fields, include);
+		return ifCatalogModified(exchange, () -> productServiceImpl
+				.getProductsSortedByPricePage(order, minPrice, maxPrice, after, limit, productFields)
+				.map(page -> customExceptionHandler.wrapSuccessResponse(page, HttpStatus.OK,
+						PRODUCTS_FETCHED_SUCESSFULLY)));
+	}
+
+	/**
+	 * Stream products sorted by price as NDJSON or server-sent events
+	 * 
+	 * @param order the order to sort products by (either "asc" or "desc")
+	 * @return a Flux of ProductDTO
+	 */
+	@GetMapping(value = "/sort/{order}", produces = { MediaType.APPLICATION_NDJSON_VALUE,
+			MediaType.TEXT_EVENT_STREAM_VALUE })
+	public Flux<ProductDTO> streamProductsSortedByPrice(@PathVariable String order) {
+		log.info(STREAMING_PRODUCTS_SORTED_BY_PRICE + order);
+		return productServiceImpl.getProductsSortedByPrice(order);
 	}
 
 	/**
-	 * Load products
+	 * Get a batch of products by id and by SKU
 	 * 
-	 * @return a Mono of ResponseEntity indicating the successful loading of
-	 *         products
+	 * @param request the ids and SKUs of the products
+	 * @param fields  the properties to return, comma-separated, absent for all
+	 * @param include the reviews, images or tags to return, comma-separated
+	 * @return a Mono of ResponseEntity containing a Map with one lookup per
+	 *         requested id and then per requested SKU, in request order, each
+	 *         marking whether the product was found, and status
+	 */
+	@PostMapping("/batch")
+	public Mono<ResponseEntity<Map<String, Object>>> getProductsBatch(@RequestBody ProductBatchRequestDTO request,
+			@RequestParam(required = false) String fields, @RequestParam(required = false) String include) {
+		log.info(GETTING_PRODUCTS_BATCH + request);
+		ProductFields productFields = ProductFields.parse(fields, include);
+		return productServiceImpl.getProductsBatch(request.getIds(), request.getSkus(), productFields)
+				.map(lookups -> customExceptionHandler.wrapSuccessResponse(lookups, HttpStatus.OK,
+						PRODUCTS_FETCHED_SUCESSFULLY));
+	}
+
+	/**
+	 * Start loading products in the background, or return the load already
+	 * running
+	 * 
+	 * @return a Mono of ResponseEntity containing a Map with the load job and
+	 *         status 202
 	 */
 	@PostMapping("/load")
 	public Mono<ResponseEntity<Map<String, Object>>> loadProducts() {
 		log.info(LOADING_PRODUCTS);
-		return productServiceImpl.loadProducts().then(Mono
-				.just(customExceptionHandler.wrapSuccessResponse(null, HttpStatus.OK, PRODUCTS_LOADED_SUCESSFULLY)));
+		return Mono.fromSupplier(() -> customExceptionHandler.wrapSuccessResponse(
+				loadJobManager.start(LoadMode.FULL), HttpStatus.ACCEPTED, PRODUCTS_LOAD_STARTED));
 	}
 
+	/**
+	 * Start loading products in the background, writing only those that are new
+	 * or changed since the last load, or return the load already running
+	 * 
+	 * @return a Mono of ResponseEntity containing a Map with the load job and
+	 *         status 202
+	 */
+	@PostMapping(value = "/load", params = "mode=incremental")
+	public Mono<ResponseEntity<Map<String, Object>>> loadProductsIncrementally() {
+		log.info(LOADING_PRODUCTS_INCREMENTALLY);
+		return Mono.fromSupplier(() -> customExceptionHandler.wrapSuccessResponse(
+				loadJobManager.start(LoadMode.INCREMENTAL), HttpStatus.ACCEPTED, PRODUCTS_LOAD_STARTED));
+	}
+
+	/**
+	 * Start importing products from a local dump file in the background, or
+	 * return the load already running
+	 * 
+	 * @param file the name of an NDJSON or JSON file in the import directory
+	 * @return a Mono of ResponseEntity containing a Map with the load job and
+	 *         status 202
+	 */
+	@PostMapping("/import")
+	public Mono<ResponseEntity<Map<String, Object>>> importProducts(@RequestParam String file) {
+		log.info(IMPORTING_PRODUCTS + file);
+		return Mono.fromSupplier(() -> customExceptionHandler.wrapSuccessResponse(loadJobManager.startImport(file),
+				HttpStatus.ACCEPTED, PRODUCTS_IMPORT_STARTED));
+	}
+
+	/**
+	 * Get a load job with the products it fetched, validated, saved, skipped and
+	 * failed so far
+	 * 
+	 * @param jobId the id of the load job
+	 * @return a Mono of ResponseEntity containing a Map with the load job and
+	 *         status
+	 */
+	@GetMapping("/load/{jobId}")
+	public Mono<ResponseEntity<Map<String, Object>>> getLoadJob(@PathVariable String jobId) {
+		log.info(GETTING_LOAD_JOB + jobId);
+		return Mono.fromSupplier(() -> customExceptionHandler.wrapSuccessResponse(loadJobManager.get(jobId),
+				HttpStatus.OK, LOAD_JOB_FETCHED_SUCESSFULLY));
+	}
+
+	/**
+	 * Cancel a load job, stopping its load if it is still running
+	 * 
+	 * @param jobId the id of the load job
+	 * @return a Mono of ResponseEntity containing a Map with the load job and
+	 *         status
+	 */
+	@DeleteMapping("/load/{jobId}")
+	public Mono<ResponseEntity<Map<String, Object>>> cancelLoadJob(@PathVariable String jobId) {
+		log.info(CANCELLING_LOAD_JOB + jobId);
+		return Mono.fromSupplier(() -> customExceptionHandler.wrapSuccessResponse(loadJobManager.cancel(jobId),
+				HttpStatus.OK, LOAD_JOB_CANCELLED));
+	}
+
+	/**
+	 * Answer a list request with 304 when the catalog has not changed since the
+	 * client's copy, and otherwise with the response tagged with the catalog
+	 * version
+	 */
+	private Mono<ResponseEntity<Map<String, Object>>> ifCatalogModified(ServerWebExchange exchange,
+			Supplier<Mono<ResponseEntity<Map<String, Object>>>> response) {
+		return ifModified(exchange, catalogVersion.eTag(), catalogVersion.lastModified(), response);
+	}
+
+	/**
+	 * Answer a product request with 304 when the product row has not changed
+	 * since the client's copy, and otherwise with the response tagged with the
+	 * product version. The response is given that version so that it never serves
+	 * an older copy of the product than the tag names. A missing product is left
+	 * to the response to report.
+	 */
+	private Mono<ResponseEntity<Map<String, Object>>> ifProductModified(ServerWebExchange exchange,
+			Mono<ProductVersion> version,
+			Function<ProductVersion, Mono<ResponseEntity<Map<String, Object>>>> response) {
+		return version.flatMap(current -> ifModified(exchange, current.eTag(), current.updatedAt(),
+				() -> response.apply(current))).switchIfEmpty(Mono.defer(() -> response.apply(null)));
+	}
+
+	private Mono<ResponseEntity<Map<String, Object>>> ifModified(ServerWebExchange exchange, String eTag,
+			Instant lastModified, Supplier<Mono<ResponseEntity<Map<String, Object>>>> response) {
+		CacheControl cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+		if (exchange.checkNotModified(eTag, lastModified == null ? Instant.MIN : lastModified)) {
+			return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl)
+					.build());
+		}
+		return response.get().map(entity -> {
+			ResponseEntity.BodyBuilder builder = ResponseEntity.status(entity.getStatusCode())
+					.headers(entity.getHeaders()).eTag(eTag).cacheControl(cacheControl);
+			if (lastModified != null) {
+				builder.lastModified(lastModified);
+			}
+			return builder.body(entity.getBody());
+		});
+	}
 }
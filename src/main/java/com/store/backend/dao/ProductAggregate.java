@@ -0,0 +1,10 @@
+package com.store.backend.dao;
+
+import java.util.List;
+
+/**
+ * A product row together with its reviews, images and tags
+ */
+public record ProductAggregate(ProductDAO product, List<ReviewDAO> reviews, List<ProductImageDAO> images,
+		List<ProductTagDAO> tags) {
+}
@@ -0,0 +1,176 @@
+package com.store.backend.dao;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Service;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reads products together with their reviews, images and tags in a single
+ * statement. The product rows and the rows of the three child tables are
+ * combined with {@code UNION ALL} into one result ordered by product, so each
+ * product arrives as a contiguous run of rows that is folded into a
+ * {@link ProductAggregate} as soon as the next product starts. Unlike a join
+ * across all four tables, the result grows with the sum of the children
+ * rather than their product.
+ */
+@Service
+public class ProductAggregateReader {
+
+	@Autowired
+	private DatabaseClient databaseClient;
+	@Autowired
+	private R2dbcConverter r2dbcConverter;
+
+	private static final int PRODUCT = 0;
+	private static final int REVIEW = 1;
+	private static final int IMAGE = 2;
+	private static final int TAG = 3;
+
+	private static final String BY_ID = "p.id = :id";
+	private static final String BY_SKU = "p.sku = :sku";
+	private static final String BY_CATEGORY = "p.category = :category";
+	private static final String ALL = "TRUE";
+	private static final String ID = "p.id";
+	private static final String PRICE = "p.price";
+	private static final String ASC = "ASC";
+	private static final String DESC = "DESC";
+
+	private static final String SELECT_BY_ID = select(BY_ID, ID, ASC);
+	private static final String SELECT_BY_SKU = select(BY_SKU, ID, ASC);
+	private static final String SELECT_BY_CATEGORY = select(BY_CATEGORY, ID, ASC);
+	private static final String SELECT_ALL = select(ALL, ID, ASC);
+	private static final String SELECT_BY_PRICE_ASC = select(ALL, PRICE, ASC);
+	private static final String SELECT_BY_PRICE_DESC = select(ALL, PRICE, DESC);
+
+	public ProductAggregateReader() {
+	}
+
+	public ProductAggregateReader(DatabaseClient databaseClient, R2dbcConverter r2dbcConverter) {
+		this.databaseClient = databaseClient;
+		this.r2dbcConverter = r2dbcConverter;
+	}
+
+	/**
+	 * Read a product by id
+	 * 
+	 * @param id the product id
+	 * @return the product with its children, or empty if it does not exist
+	 */
+	public Mono<ProductAggregate> findById(Long id) {
+		return read(databaseClient.sql(SELECT_BY_ID).bind("id", id)).next();
+	}
+
+	/**
+	 * Read a product by sku
+	 * 
+	 * @param sku the product sku
+	 * @return the product with its children, or empty if it does not exist
+	 */
+	public Mono<ProductAggregate> findBySku(String sku) {
+		return read(databaseClient.sql(SELECT_BY_SKU).bind("sku", sku)).next();
+	}
+
+	/**
+	 * Read all products ordered by id
+	 * 
+	 * @return the products with their children
+	 */
+	public Flux<ProductAggregate> findAll() {
+		return read(databaseClient.sql(SELECT_ALL));
+	}
+
+	/**
+	 * Read the products of a category ordered by id
+	 * 
+	 * @param category the category
+	 * @return the products with their children
+	 */
+	public Flux<ProductAggregate> findByCategory(String category) {
+		return read(databaseClient.sql(SELECT_BY_CATEGORY).bind("category", category));
+	}
+
+	/**
+	 * Read all products ordered by price, with ties broken by id
+	 * 
+	 * @param ascending whether the lowest price comes first
+	 * @return the products with their children
+	 */
+	public Flux<ProductAggregate> findAllByPrice(boolean ascending) {
+		return read(databaseClient.sql(ascending ? SELECT_BY_PRICE_ASC : SELECT_BY_PRICE_DESC));
+	}
+
+	private Flux<ProductAggregate> read(GenericExecuteSpec spec) {
+		return spec.map(this::toRow).all().bufferUntilChanged(AggregateRow::productId).map(ProductAggregateReader::fold);
+	}
+
+	private AggregateRow toRow(Row row, RowMetadata metadata) {
+		int kind = row.get("row_kind", Integer.class);
+		Long productId = row.get("product_id", Long.class);
+		Object value = switch (kind) {
+		case PRODUCT -> r2dbcConverter.read(ProductDAO.class, row, metadata);
+		case REVIEW -> new ReviewDAO(productId, row.get("child_rating", Double.class),
+				row.get("child_comment", String.class), row.get("child_date", Instant.class),
+				row.get("child_name", String.class), row.get("child_email", String.class),
+				row.get("child_position", Integer.class));
+		case IMAGE -> new ProductImageDAO(productId, row.get("child_value", String.class));
+		default -> new ProductTagDAO(productId, row.get("child_value", String.class));
+		};
+		return new AggregateRow(kind, productId, value);
+	}
+
+	private static ProductAggregate fold(List<AggregateRow> rows) {
+		ProductDAO product = null;
+		List<ReviewDAO> reviews = new ArrayList<>();
+		List<ProductImageDAO> images = new ArrayList<>();
+		List<ProductTagDAO> tags = new ArrayList<>();
+		for (AggregateRow row : rows) {
+			switch (row.kind()) {
+			case PRODUCT -> product = (ProductDAO) row.value();
+			case REVIEW -> reviews.add((ReviewDAO) row.value());
+			case IMAGE -> images.add((ProductImageDAO) row.value());
+			default -> tags.add((ProductTagDAO) row.value());
+			}
+		}
+		return new ProductAggregate(product, reviews, images, tags);
+	}
+
+	/**
+	 * Build the statement for the products matching a condition on {@code p}.
+	 * Child rows repeat the product's sort key so that the rows of a product
+	 * stay together, and carry their own insertion order in {@code seq}.
+	 */
+	private static String select(String where, String sortKey, String direction) {
+		List<String> columns = ProductDAOService.columnNames();
+		String productColumns = columns.stream().map(column -> "p." + column).collect(Collectors.joining(", "));
+		String nullColumns = String.join(", ", Collections.nCopies(columns.size(), "NULL"));
+		String children = " FROM %s JOIN products p ON p.id = %s.product_id WHERE " + where;
+		return "SELECT " + PRODUCT + " AS row_kind, p.id AS product_id, " + sortKey + " AS sort_key, 0 AS seq, "
+				+ productColumns + ", NULL AS child_rating, NULL AS child_comment, NULL AS child_date, "
+				+ "NULL AS child_name, NULL AS child_email, NULL AS child_position, NULL AS child_value "
+				+ "FROM products p WHERE " + where
+				+ " UNION ALL SELECT " + REVIEW + ", r.product_id, " + sortKey + ", r.id, " + nullColumns
+				+ ", r.rating, r.comment, CAST(r.date AS TIMESTAMP WITH TIME ZONE), r.reviewer_name, r.reviewer_email, "
+				+ "r.position, NULL" + children.formatted("reviews r", "r")
+				+ " UNION ALL SELECT " + IMAGE + ", i.product_id, " + sortKey + ", i._ROWID_, " + nullColumns
+				+ ", NULL, NULL, NULL, NULL, NULL, NULL, i.image_url" + children.formatted("product_images i", "i")
+				+ " UNION ALL SELECT " + TAG + ", t.product_id, " + sortKey + ", t._ROWID_, " + nullColumns
+				+ ", NULL, NULL, NULL, NULL, NULL, NULL, t.tag" + children.formatted("product_tags t", "t")
+				+ " ORDER BY sort_key " + direction + ", product_id " + direction + ", row_kind, seq";
+	}
+
+	private record AggregateRow(int kind, Long productId, Object value) {
+	}
+}
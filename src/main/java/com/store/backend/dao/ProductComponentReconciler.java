@@ -0,0 +1,199 @@
+package com.store.backend.dao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+
+import com.store.backend.repository.ProductImageRepository;
+import com.store.backend.repository.ProductReviewRepository;
+import com.store.backend.repository.ProductTagRepository;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Brings the stored reviews, images and tags of a set of products in line with
+ * an incoming copy, writing only the rows that differ. Children are matched on
+ * keys backed by unique indexes: (product, tag) for tags, (product, image url)
+ * for images and (product, position) for reviews, where the position is the
+ * index of the review in the product's reviews in the feed. Tags and images are
+ * sets, while a product may have several reviews by the same reviewer on the
+ * same day, identical ones included.
+ * <p>
+ * The review_summaries row of a product, holding the count, rating sum and star
+ * histogram of its reviews, is recomputed whenever its reviews are written, so
+ * that reads can return the summary without reading the reviews.
+ */
+@Service
+@Slf4j
+public class ProductComponentReconciler {
+
+	@Autowired
+	private ProductReviewRepository productReviewRepository;
+	@Autowired
+	private ProductImageRepository productImageRepository;
+	@Autowired
+	private ProductTagRepository productTagRepository;
+	@Autowired
+	private ProductComponentWriter productComponentWriter;
+	@Autowired
+	private DatabaseClient databaseClient;
+
+	private static final String COMPACT_REVIEWS = "DELETE FROM reviews r WHERE r.position IS NULL AND EXISTS (SELECT 1 FROM reviews d "
+			+ "WHERE d.product_id = r.product_id AND d.reviewer_email = r.reviewer_email AND d.date = r.date "
+			+ "AND d.position IS NULL AND d.id < r.id)";
+	private static final String COMPACT_IMAGES = "DELETE FROM product_images i WHERE EXISTS (SELECT 1 FROM product_images d "
+			+ "WHERE d.product_id = i.product_id AND d.image_url = i.image_url AND d._ROWID_ < i._ROWID_)";
+	private static final String COMPACT_TAGS = "DELETE FROM product_tags t WHERE EXISTS (SELECT 1 FROM product_tags d "
+			+ "WHERE d.product_id = t.product_id AND d.tag = t.tag AND d._ROWID_ < t._ROWID_)";
+
+	private static final String SUMMARY_COLUMNS = "SELECT product_id, COUNT(*), SUM(rating), "
+			+ "SUM(CASE WHEN rating < 1.5 THEN 1 ELSE 0 END), "
+			+ "SUM(CASE WHEN rating >= 1.5 AND rating < 2.5 THEN 1 ELSE 0 END), "
+			+ "SUM(CASE WHEN rating >= 2.5 AND rating < 3.5 THEN 1 ELSE 0 END), "
+			+ "SUM(CASE WHEN rating >= 3.5 AND rating < 4.5 THEN 1 ELSE 0 END), "
+			+ "SUM(CASE WHEN rating >= 4.5 THEN 1 ELSE 0 END) FROM reviews";
+	private static final String MERGE_SUMMARIES = "MERGE INTO review_summaries (product_id, review_count, rating_sum, "
+			+ "one_star, two_stars, three_stars, four_stars, five_stars) KEY (product_id) ";
+	private static final String REFRESH_SUMMARIES = MERGE_SUMMARIES + SUMMARY_COLUMNS
+			+ " WHERE product_id IN (:ids) GROUP BY product_id";
+	private static final String REFRESH_ALL_SUMMARIES = MERGE_SUMMARIES + SUMMARY_COLUMNS + " GROUP BY product_id";
+	private static final String DELETE_EMPTY_SUMMARIES = "DELETE FROM review_summaries s WHERE s.product_id IN (:ids) "
+			+ "AND NOT EXISTS (SELECT 1 FROM reviews r WHERE r.product_id = s.product_id)";
+
+	private static final String RECONCILED = "Reconciled {}: {} rows deleted, {} rows inserted";
+	private static final String COMPACTED = "Compacted {}: {} duplicate rows deleted";
+
+	/**
+	 * Reconcile the children of the given products with their incoming copies
+	 * 
+	 * @param productIds the ids of the products being written
+	 * @param reviews    the incoming reviews of those products
+	 * @param images     the incoming images of those products
+	 * @param tags       the incoming tags of those products
+	 * @return A Mono indicating the completion of the reconciliation
+	 */
+	public Mono<Void> reconcile(Collection<Long> productIds, List<ReviewDAO> reviews, List<ProductImageDAO> images,
+			List<ProductTagDAO> tags) {
+		Mono<Void> reconciledReviews = productReviewRepository.findByProductIdIn(productIds).collectList()
+				.flatMap(stored -> {
+					Delta<ReviewDAO> delta = diff(stored, reviews, ProductComponentReconciler::reviewKey);
+					return apply("reviews", delta, productComponentWriter::deleteReviews,
+							productComponentWriter::insertReviews).then(refreshSummaries(reviewedProducts(delta)));
+				});
+		Mono<Void> reconciledImages = productImageRepository.findByProductIdIn(productIds).collectList()
+				.flatMap(stored -> apply("product_images", diff(stored, images, ProductComponentReconciler::imageKey),
+						productComponentWriter::deleteImages, productComponentWriter::insertImages));
+		Mono<Void> reconciledTags = productTagRepository.findByProductIdIn(productIds).collectList()
+				.flatMap(stored -> apply("product_tags", diff(stored, tags, ProductComponentReconciler::tagKey),
+						productComponentWriter::deleteTags, productComponentWriter::insertTags));
+		return Mono.when(reconciledReviews, reconciledImages, reconciledTags);
+	}
+
+	/**
+	 * Recompute the review summaries of the given products from their reviews,
+	 * deleting the summaries of products left without reviews
+	 * 
+	 * @param productIds the ids of the products whose reviews were written
+	 * @return A Mono indicating the completion of the refresh
+	 */
+	public Mono<Void> refreshSummaries(Collection<Long> productIds) {
+		if (productIds.isEmpty()) {
+			return Mono.empty();
+		}
+		return databaseClient.sql(REFRESH_SUMMARIES).bind("ids", productIds).then()
+				.then(databaseClient.sql(DELETE_EMPTY_SUMMARIES).bind("ids", productIds).then());
+	}
+
+	/**
+	 * Delete duplicate child rows left behind by earlier non-idempotent loads,
+	 * keeping the oldest row of each key, and recompute the review summaries when
+	 * duplicate reviews were deleted. Only reviews written before they had a
+	 * position are compacted, by reviewer email and date.
+	 * 
+	 * @return A Mono of the number of deleted rows per table
+	 */
+	public Mono<Map<String, Long>> compact() {
+		Map<String, String> statements = new LinkedHashMap<>();
+		statements.put("reviews", COMPACT_REVIEWS);
+		statements.put("product_images", COMPACT_IMAGES);
+		statements.put("product_tags", COMPACT_TAGS);
+		return Flux.fromIterable(statements.entrySet())
+				.concatMap(entry -> databaseClient.sql(entry.getValue()).fetch().rowsUpdated()
+						.doOnNext(count -> log.info(COMPACTED, entry.getKey(), count))
+						.map(count -> Map.entry(entry.getKey(), count)))
+				.collectMap(Map.Entry::getKey, Map.Entry::getValue, LinkedHashMap::new)
+				.flatMap(counts -> counts.get("reviews") == 0 ? Mono.just(counts)
+						: databaseClient.sql(REFRESH_ALL_SUMMARIES).then().thenReturn(counts));
+	}
+
+	/**
+	 * Compute the rows to delete and insert so that the stored rows match the
+	 * incoming ones. A key is rewritten when it is missing, when its stored
+	 * content differs, or when it is stored more than once. Incoming rows sharing
+	 * a key are the same row, since their key is either their whole content or
+	 * their position.
+	 */
+	static <T> Delta<T> diff(List<T> stored, List<T> incoming, Function<T, List<Object>> keyOf) {
+		Map<List<Object>, List<T>> storedByKey = stored.stream()
+				.collect(Collectors.groupingBy(keyOf, LinkedHashMap::new, Collectors.toList()));
+		Map<List<Object>, T> incomingByKey = incoming.stream()
+				.collect(Collectors.toMap(keyOf, Function.identity(), (first, second) -> first, LinkedHashMap::new));
+
+		List<T> deletes = new ArrayList<>();
+		List<T> inserts = new ArrayList<>();
+		storedByKey.forEach((key, rows) -> {
+			if (!isCurrent(rows, incomingByKey.get(key))) {
+				deletes.add(rows.get(0));
+			}
+		});
+		incomingByKey.forEach((key, row) -> {
+			if (!isCurrent(storedByKey.get(key), row)) {
+				inserts.add(row);
+			}
+		});
+		return new Delta<>(deletes, inserts);
+	}
+
+	private static <T> boolean isCurrent(List<T> storedRows, T incoming) {
+		return incoming != null && storedRows != null && storedRows.size() == 1 && storedRows.get(0).equals(incoming);
+	}
+
+	private <T> Mono<Void> apply(String table, Delta<T> delta, Function<List<T>, Mono<Long>> delete,
+			Function<List<T>, Mono<Long>> insert) {
+		return delete.apply(delta.deletes()).zipWhen(deleted -> insert.apply(delta.inserts()))
+				.doOnNext(counts -> log.debug(RECONCILED, table, counts.getT1(), counts.getT2())).then();
+	}
+
+	private static Set<Long> reviewedProducts(Delta<ReviewDAO> delta) {
+		return Stream.concat(delta.deletes().stream(), delta.inserts().stream())
+				.map(ReviewDAO::getProductId).collect(Collectors.toSet());
+	}
+
+	private static List<Object> reviewKey(ReviewDAO review) {
+		return Arrays.asList(review.getProductId(), review.getPosition());
+	}
+
+	private static List<Object> imageKey(ProductImageDAO image) {
+		return Arrays.asList(image.getProductId(), image.getImageUrl());
+	}
+
+	private static List<Object> tagKey(ProductTagDAO tag) {
+		return Arrays.asList(tag.getProductId(), tag.getTag());
+	}
+
+	record Delta<T>(List<T> deletes, List<T> inserts) {
+	}
+}
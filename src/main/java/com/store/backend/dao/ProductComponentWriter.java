@@ -0,0 +1,159 @@
+package com.store.backend.dao;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Writes and deletes review, image and tag rows in batches, binding up to
+ * {@code products.ingest.batch-size} rows to a single statement with
+ * {@link Statement#add()} so that each batch costs one round trip.
+ */
+@Service
+@Slf4j
+public class ProductComponentWriter {
+
+	@Autowired
+	private DatabaseClient databaseClient;
+
+	@Value("${products.ingest.batch-size:500}")
+	private int batchSize = 500;
+
+	private static final String INSERT_REVIEW = "INSERT INTO reviews (product_id, rating, comment, date, reviewer_name, reviewer_email, position) VALUES ($1, $2, $3, $4, $5, $6, $7)";
+	private static final String INSERT_IMAGE = "INSERT INTO product_images (product_id, image_url) VALUES ($1, $2)";
+	private static final String INSERT_TAG = "INSERT INTO product_tags (product_id, tag) VALUES ($1, $2)";
+
+	private static final String DELETE_REVIEW = "DELETE FROM reviews WHERE product_id = $1 AND position IS NOT DISTINCT FROM $2";
+	private static final String DELETE_IMAGE = "DELETE FROM product_images WHERE product_id = $1 AND image_url = $2";
+	private static final String DELETE_TAG = "DELETE FROM product_tags WHERE product_id = $1 AND tag = $2";
+
+	private static final String ROWS_WRITTEN = "Wrote {} rows to {} in {} ms ({} rows/s)";
+
+	/**
+	 * Insert reviews in batches
+	 * 
+	 * @param reviews the reviews to insert
+	 * @return A Mono of the number of inserted rows
+	 */
+	public Mono<Long> insertReviews(List<ReviewDAO> reviews) {
+		return execute("reviews", INSERT_REVIEW, reviews, (statement, review) -> {
+			bind(statement, 0, review.getProductId(), Long.class);
+			bind(statement, 1, review.getRating(), Double.class);
+			bind(statement, 2, review.getComment(), String.class);
+			bind(statement, 3, review.getDate(), Instant.class);
+			bind(statement, 4, review.getReviewerName(), String.class);
+			bind(statement, 5, review.getReviewerEmail(), String.class);
+			bind(statement, 6, review.getPosition(), Integer.class);
+		});
+	}
+
+	/**
+	 * Insert product images in batches
+	 * 
+	 * @param images the images to insert
+	 * @return A Mono of the number of inserted rows
+	 */
+	public Mono<Long> insertImages(List<ProductImageDAO> images) {
+		return execute("product_images", INSERT_IMAGE, images, (statement, image) -> {
+			statement.bind(0, image.getProductId());
+			bind(statement, 1, image.getImageUrl(), String.class);
+		});
+	}
+
+	/**
+	 * Insert product tags in batches
+	 * 
+	 * @param tags the tags to insert
+	 * @return A Mono of the number of inserted rows
+	 */
+	public Mono<Long> insertTags(List<ProductTagDAO> tags) {
+		return execute("product_tags", INSERT_TAG, tags, (statement, tag) -> {
+			statement.bind(0, tag.getProductId());
+			bind(statement, 1, tag.getTag(), String.class);
+		});
+	}
+
+	/**
+	 * Delete every row sharing the key (product, position) of the given reviews,
+	 * where a review without a position matches the unnumbered rows of older
+	 * loads
+	 * 
+	 * @param reviews the reviews to delete
+	 * @return A Mono of the number of deleted rows
+	 */
+	public Mono<Long> deleteReviews(List<ReviewDAO> reviews) {
+		return execute("reviews", DELETE_REVIEW, reviews, (statement, review) -> {
+			bind(statement, 0, review.getProductId(), Long.class);
+			bind(statement, 1, review.getPosition(), Integer.class);
+		});
+	}
+
+	/**
+	 * Delete every row matching the given product images
+	 * 
+	 * @param images the images to delete
+	 * @return A Mono of the number of deleted rows
+	 */
+	public Mono<Long> deleteImages(List<ProductImageDAO> images) {
+		return execute("product_images", DELETE_IMAGE, images, (statement, image) -> {
+			statement.bind(0, image.getProductId());
+			bind(statement, 1, image.getImageUrl(), String.class);
+		});
+	}
+
+	/**
+	 * Delete every row matching the given product tags
+	 * 
+	 * @param tags the tags to delete
+	 * @return A Mono of the number of deleted rows
+	 */
+	public Mono<Long> deleteTags(List<ProductTagDAO> tags) {
+		return execute("product_tags", DELETE_TAG, tags, (statement, tag) -> {
+			statement.bind(0, tag.getProductId());
+			bind(statement, 1, tag.getTag(), String.class);
+		});
+	}
+
+	private <T> Mono<Long> execute(String table, String sql, List<T> rows, BiConsumer<Statement, T> binder) {
+		if (rows.isEmpty()) {
+			return Mono.just(0L);
+		}
+		long start = System.nanoTime();
+		return Flux.fromIterable(rows).buffer(batchSize)
+				.concatMap(batch -> databaseClient.inConnectionMany(connection -> {
+					Statement statement = connection.createStatement(sql);
+					for (int i = 0; i < batch.size(); i++) {
+						if (i > 0) {
+							statement.add();
+						}
+						binder.accept(statement, batch.get(i));
+					}
+					return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+				}))
+				.reduce(0L, Long::sum)
+				.doOnNext(count -> {
+					long elapsedNanos = Math.max(System.nanoTime() - start, 1);
+					log.debug(ROWS_WRITTEN, count, table, elapsedNanos / 1_000_000,
+							count * 1_000_000_000L / elapsedNanos);
+				});
+	}
+
+	private static void bind(Statement statement, int index, Object value, Class<?> type) {
+		if (value == null) {
+			statement.bindNull(index, type);
+		} else {
+			statement.bind(index, value);
+		}
+	}
+}
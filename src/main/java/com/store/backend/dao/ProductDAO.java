@@ -79,6 +79,9 @@ public class ProductDAO implements Persistable<Long>{
 	private String qrCode;
 
 	private String thumbnail;
+
+	@Column("content_hash")
+	private String contentHash;
 	
 	@Transient
 	private boolean isNew = true;
@@ -1,31 +1,148 @@
 package com.store.backend.dao;
 
-import java.util.Set;
-import java.util.TreeSet;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
 import org.springframework.stereotype.Service;
 
-import com.store.backend.repository.ProductRepository;
-
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+/**
+ * Writes product rows with an H2 {@code MERGE INTO ... KEY (id)} upsert, so
+ * saving a product never has to know whether it already exists and concurrent
+ * or repeated saves of the same id are safe, including after a restart.
+ */
 @Service
 public class ProductDAOService {
-	
-	@Autowired ProductRepository productRepository;
-	
-	private static final Set<Long> productDAOIndex = new TreeSet<>();
-	
+
+	@Autowired
+	private DatabaseClient databaseClient;
+
+	private static final List<ProductColumn> COLUMNS = List.of(
+			new ProductColumn("id", Long.class, ProductDAO::getId),
+			new ProductColumn("title", String.class, ProductDAO::getTitle),
+			new ProductColumn("description", String.class, ProductDAO::getDescription),
+			new ProductColumn("category", String.class, ProductDAO::getCategory),
+			new ProductColumn("price", Double.class, ProductDAO::getPrice),
+			new ProductColumn("discount_percentage", Double.class, ProductDAO::getDiscountPercentage),
+			new ProductColumn("rating", Double.class, ProductDAO::getRating),
+			new ProductColumn("stock", Integer.class, ProductDAO::getStock),
+			new ProductColumn("brand", String.class, ProductDAO::getBrand),
+			new ProductColumn("sku", String.class, ProductDAO::getSku),
+			new ProductColumn("weight", Double.class, ProductDAO::getWeight),
+			new ProductColumn("width", Double.class, ProductDAO::getWidth),
+			new ProductColumn("height", Double.class, ProductDAO::getHeight),
+			new ProductColumn("depth", Double.class, ProductDAO::getDepth),
+			new ProductColumn("warranty_information", String.class, ProductDAO::getWarrantyInformation),
+			new ProductColumn("shipping_information", String.class, ProductDAO::getShippingInformation),
+			new ProductColumn("availability_status", String.class, ProductDAO::getAvailabilityStatus),
+			new ProductColumn("return_policy", String.class, ProductDAO::getReturnPolicy),
+			new ProductColumn("minimum_order_quantity", Integer.class, ProductDAO::getMinimumOrderQuantity),
+			new ProductColumn("created_at", Instant.class, ProductDAO::getCreatedAt),
+			new ProductColumn("updated_at", Instant.class, ProductDAO::getUpdatedAt),
+			new ProductColumn("barcode", String.class, ProductDAO::getBarcode),
+			new ProductColumn("qr_code", String.class, ProductDAO::getQrCode),
+			new ProductColumn("thumbnail", String.class, ProductDAO::getThumbnail),
+			new ProductColumn("content_hash", String.class, ProductDAO::getContentHash));
+
+	private static final String SELECT_VERSIONS = "SELECT id, CAST(updated_at AS TIMESTAMP WITH TIME ZONE) AS updated_at, "
+			+ "content_hash FROM products";
+
+	private static final String UPSERT_PRODUCT = "MERGE INTO products ("
+			+ COLUMNS.stream().map(ProductColumn::name).collect(Collectors.joining(", ")) + ") KEY (id) VALUES ("
+			+ COLUMNS.stream().map(column -> ":" + column.name()).collect(Collectors.joining(", ")) + ")";
+
+	private static final String UPSERT_PRODUCTS = "MERGE INTO products ("
+			+ COLUMNS.stream().map(ProductColumn::name).collect(Collectors.joining(", ")) + ") KEY (id) VALUES ("
+			+ IntStream.rangeClosed(1, COLUMNS.size()).mapToObj(index -> "$" + index)
+					.collect(Collectors.joining(", "))
+			+ ")";
+
+	/**
+	 * Insert or update a product row
+	 * 
+	 * @param product the product to save
+	 * @return A Mono of the saved product
+	 */
 	public Mono<ProductDAO> save(ProductDAO product) {
-		if (productDAOIndex.contains(product.getId())) {
+		GenericExecuteSpec spec = databaseClient.sql(UPSERT_PRODUCT);
+		for (ProductColumn column : COLUMNS) {
+			Object value = column.getter().apply(product);
+			spec = value == null ? spec.bindNull(column.name(), column.type()) : spec.bind(column.name(), value);
+		}
+		return spec.fetch().rowsUpdated().map(count -> {
 			product.setNew(false);
-			return productRepository.save(product);
-		} else {
-			productDAOIndex.add(product.getId());
-			return productRepository.save(product);
+			return product;
+		});
+	}
+
+	/**
+	 * Insert or update product rows, binding them all to a single statement with
+	 * {@link Statement#add()} so that the rows cost one round trip
+	 * 
+	 * @param products the products to save
+	 * @return A Mono of the number of written rows
+	 */
+	public Mono<Long> saveAll(List<ProductDAO> products) {
+		if (products.isEmpty()) {
+			return Mono.just(0L);
 		}
-       
-    }
+		return databaseClient.inConnectionMany(connection -> {
+			Statement statement = connection.createStatement(UPSERT_PRODUCTS);
+			for (int i = 0; i < products.size(); i++) {
+				if (i > 0) {
+					statement.add();
+				}
+				for (int index = 0; index < COLUMNS.size(); index++) {
+					ProductColumn column = COLUMNS.get(index);
+					Object value = column.getter().apply(products.get(i));
+					if (value == null) {
+						statement.bindNull(index, column.type());
+					} else {
+						statement.bind(index, value);
+					}
+				}
+			}
+			return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+		}).reduce(0L, Long::sum).doOnNext(count -> products.forEach(product -> product.setNew(false)));
+	}
+
+	/**
+	 * Read the version columns of every stored product
+	 * 
+	 * @return A Flux of ProductDAO holding only the id, update time and content
+	 *         hash
+	 */
+	public Flux<ProductDAO> findVersions() {
+		return databaseClient.sql(SELECT_VERSIONS).map(row -> {
+			ProductDAO product = new ProductDAO();
+			product.setId(row.get("id", Long.class));
+			product.setUpdatedAt(row.get("updated_at", Instant.class));
+			product.setContentHash(row.get("content_hash", String.class));
+			product.setNew(false);
+			return product;
+		}).all();
+	}
+
+	/**
+	 * The columns of the products table
+	 * 
+	 * @return the column names in table order
+	 */
+	static List<String> columnNames() {
+		return COLUMNS.stream().map(ProductColumn::name).toList();
+	}
+
+	private record ProductColumn(String name, Class<?> type, Function<ProductDAO, Object> getter) {
+	}
 
 }
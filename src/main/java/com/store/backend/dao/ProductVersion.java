@@ -0,0 +1,40 @@
+package com.store.backend.dao;
+
+import java.time.Instant;
+
+import org.springframework.data.relational.core.mapping.Column;
+
+/**
+ * The columns of a product row that identify a revision of the product, read
+ * without its reviews, images and tags
+ */
+public record ProductVersion(Long id, @Column("updated_at") Instant updatedAt,
+		@Column("content_hash") String contentHash) {
+
+	private static final int HASH_PREFIX_LENGTH = 16;
+
+	/**
+	 * Get the revision of a product row
+	 * 
+	 * @param product the product row
+	 * @return the revision
+	 */
+	public static ProductVersion of(ProductDAO product) {
+		return new ProductVersion(product.getId(), product.getUpdatedAt(), product.getContentHash());
+	}
+
+	/**
+	 * Get the strong entity tag of the revision, changing whenever the update
+	 * time or the content of the product changes
+	 * 
+	 * @return the unquoted entity tag
+	 */
+	public String eTag() {
+		StringBuilder eTag = new StringBuilder().append(id).append('-')
+				.append(updatedAt == null ? 0 : updatedAt.toEpochMilli());
+		if (contentHash != null) {
+			eTag.append('-').append(contentHash, 0, Math.min(HASH_PREFIX_LENGTH, contentHash.length()));
+		}
+		return eTag.toString();
+	}
+}
@@ -30,4 +30,6 @@ public class ReviewDAO {
 	@Column("reviewer_email")
 	private String reviewerEmail;
 
+	private Integer position;
+
 }
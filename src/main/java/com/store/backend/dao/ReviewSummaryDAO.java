@@ -0,0 +1,39 @@
+package com.store.backend.dao;
+
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "review_summaries")
+public class ReviewSummaryDAO {
+
+	@Column("product_id")
+	private Long productId;
+
+	@Column("review_count")
+	private long reviewCount;
+
+	@Column("rating_sum")
+	private double ratingSum;
+
+	@Column("one_star")
+	private long oneStar;
+
+	@Column("two_stars")
+	private long twoStars;
+
+	@Column("three_stars")
+	private long threeStars;
+
+	@Column("four_stars")
+	private long fourStars;
+
+	@Column("five_stars")
+	private long fiveStars;
+}
@@ -0,0 +1,13 @@
+package com.store.backend.dao;
+
+import java.time.Instant;
+
+import org.springframework.data.relational.core.mapping.Column;
+
+/**
+ * A review row together with its generated id, which orders the reviews of a
+ * product for keyset pagination
+ */
+public record StoredReview(Long id, @Column("product_id") Long productId, Double rating, String comment,
+		Instant date, @Column("reviewer_name") String reviewerName, @Column("reviewer_email") String reviewerEmail) {
+}
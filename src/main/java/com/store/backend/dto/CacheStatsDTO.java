@@ -0,0 +1,21 @@
+package com.store.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsDTO {
+
+	private long size;
+
+	private long hits;
+
+	private long misses;
+
+	private long evictions;
+
+	private double hitRate;
+}
@@ -0,0 +1,69 @@
+package com.store.backend.dto;
+
+import java.util.List;
+
+import com.store.backend.service.LoadJobStatus;
+import com.store.backend.service.LoadMode;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadJobDTO {
+
+	private String id;
+
+	private LoadMode mode;
+
+	private LoadJobStatus status;
+
+	private String startedAt;
+
+	/**
+	 * When the load completed, failed or was cancelled, or null while it runs.
+	 */
+	private String finishedAt;
+
+	private long fetched;
+
+	private long validated;
+
+	/**
+	 * The number of products rejected by validation or that could not be
+	 * processed.
+	 */
+	private long failed;
+
+	private long saved;
+
+	/**
+	 * The number of products left unwritten by an incremental load because they
+	 * did not change.
+	 */
+	private long skipped;
+
+	/**
+	 * Products saved, skipped or failed per second since the load started.
+	 */
+	private double productsPerSecond;
+
+	/**
+	 * The counts of new, changed, unchanged and removed products of a completed
+	 * incremental load, or null.
+	 */
+	private LoadSummaryDTO summary;
+
+	/**
+	 * The reason a failed load stopped, or null.
+	 */
+	private String error;
+
+	/**
+	 * The first products rejected by the load, with the stage that rejected
+	 * them and why.
+	 */
+	private List<RejectedProductDTO> rejected;
+}
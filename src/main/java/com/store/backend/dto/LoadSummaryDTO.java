@@ -0,0 +1,19 @@
+package com.store.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadSummaryDTO {
+
+	private long added;
+
+	private long changed;
+
+	private long unchanged;
+
+	private long removed;
+}
@@ -0,0 +1,17 @@
+package com.store.backend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchRequestDTO {
+
+	private List<Long> ids;
+
+	private List<String> skus;
+}
@@ -78,6 +78,8 @@ public class ProductDTO {
 	@NotNull(message = "Reviews are required.")
 	private List<ReviewDTO> reviews;
 
+	private ReviewSummaryDTO reviewSummary;
+
 	@NotBlank(message = "Return policy cannot be empty.")
 	private String returnPolicy;
 
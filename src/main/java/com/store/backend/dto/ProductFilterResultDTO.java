@@ -0,0 +1,28 @@
+package com.store.backend.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilterResultDTO {
+
+	/**
+	 * The number of products matching the filter, which may exceed the number
+	 * returned.
+	 */
+	private int total;
+
+	private List<ProductDTO> products;
+
+	/**
+	 * The number of matching products per brand, category, price bucket and
+	 * availability status.
+	 */
+	private Map<String, Map<String, Integer>> facets;
+}
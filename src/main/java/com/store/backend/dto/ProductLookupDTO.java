@@ -0,0 +1,28 @@
+package com.store.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductLookupDTO {
+
+	/**
+	 * The requested id, or null when the product was requested by sku.
+	 */
+	private Long id;
+
+	/**
+	 * The requested sku, or null when the product was requested by id.
+	 */
+	private String sku;
+
+	private boolean found;
+
+	/**
+	 * The product, or null when it was not found.
+	 */
+	private ProductDTO product;
+}
@@ -0,0 +1,28 @@
+package com.store.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RejectedProductDTO {
+
+	/**
+	 * The id of the product, or null when it could not be decoded.
+	 */
+	private Long id;
+
+	/**
+	 * The sku of the product, or null when it could not be decoded.
+	 */
+	private String sku;
+
+	/**
+	 * The stage of the load that rejected the product: parse, validate or map.
+	 */
+	private String stage;
+
+	private String reason;
+}
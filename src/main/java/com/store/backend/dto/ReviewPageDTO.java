@@ -0,0 +1,21 @@
+package com.store.backend.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewPageDTO {
+
+	private List<ReviewDTO> reviews;
+
+	/**
+	 * Opaque cursor to pass as {@code cursor} to fetch the next page, or null on
+	 * the last page.
+	 */
+	private String nextCursor;
+}
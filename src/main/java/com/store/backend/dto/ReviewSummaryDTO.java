@@ -0,0 +1,26 @@
+package com.store.backend.dto;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewSummaryDTO {
+
+	private long count;
+
+	/**
+	 * Mean rating of the reviews, or null when there are none.
+	 */
+	private Double average;
+
+	/**
+	 * Number of reviews per star, from 1 to 5, with ratings rounded to the
+	 * nearest star.
+	 */
+	private Map<Integer, Long> histogram;
+}
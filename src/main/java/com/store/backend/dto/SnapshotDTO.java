@@ -0,0 +1,23 @@
+package com.store.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SnapshotDTO {
+
+	private String file;
+
+	private int version;
+
+	private long products;
+
+	private long bytes;
+
+	private String checksum;
+
+	private String createdAt;
+}
@@ -0,0 +1,8 @@
+package com.store.backend.exception;
+
+public class LoadJobNotFoundException extends RuntimeException {
+
+	public LoadJobNotFoundException(String message) {
+		super(message);
+	}
+}
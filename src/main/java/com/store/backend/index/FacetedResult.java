@@ -0,0 +1,14 @@
+package com.store.backend.index;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The products matching a filter with the facet counts over all of them
+ * 
+ * @param total  the number of matching products
+ * @param ids    the ids of the first matching products, in index order
+ * @param facets the number of matching products per value, keyed by facet name
+ */
+public record FacetedResult(int total, List<Long> ids, Map<String, Map<String, Integer>> facets) {
+}
@@ -0,0 +1,333 @@
+package com.store.backend.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+import org.roaringbitmap.IntConsumer;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import com.store.backend.dto.ProductDTO;
+
+/**
+ * Compressed bitmaps over dense product ordinals, one per brand, category,
+ * availability status, price bucket and rating bucket, plus one of the products
+ * in stock.
+ * <p>
+ * A filter is the intersection of the bitmaps of its criteria. Price and rating
+ * ranges take the union of the buckets they cover and compare the stored values
+ * only for the buckets they cut through. Facet counts of large results are the
+ * cardinalities of the intersections of the result with each value bitmap;
+ * small results are cheaper to walk once, so facet values are also
+ * dictionary-encoded per ordinal. A product keeps its ordinal when it is
+ * re-indexed, so results come back in the order products were first indexed.
+ * Queries share a read lock and updates take the write lock.
+ */
+@Component
+public class ProductFacetIndex implements ProductIndex {
+
+	public static final String BRAND = "brand";
+	public static final String CATEGORY = "category";
+	public static final String PRICE = "price";
+	public static final String AVAILABILITY_STATUS = "availabilityStatus";
+
+	private static final double[] PRICE_BOUNDS = { 0, 10, 25, 50, 100, 250, 500, 1000 };
+	private static final double[] RATING_BOUNDS = { 0, 1, 2, 3, 4, 5 };
+	private static final int INITIAL_CAPACITY = 1024;
+	private static final int WALK_FRACTION = 4;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final Map<Long, Integer> ordinals = new HashMap<>();
+	private final RoaringBitmap live = new RoaringBitmap();
+	private final RoaringBitmap inStock = new RoaringBitmap();
+	private final Facet brands = new Facet(true);
+	private final Facet categories = new Facet(true);
+	private final Facet availabilityStatuses = new Facet(true);
+	private final Facet priceBuckets = new Facet(false, labels(PRICE_BOUNDS));
+	private final Facet ratingBuckets = new Facet(false, labels(RATING_BOUNDS));
+
+	private long[] ids = new long[INITIAL_CAPACITY];
+	private double[] prices = new double[INITIAL_CAPACITY];
+	private double[] ratings = new double[INITIAL_CAPACITY];
+	private int nextOrdinal;
+
+	@Override
+	public void index(ProductDTO product) {
+		lock.writeLock().lock();
+		try {
+			Integer ordinal = ordinals.get(product.getId());
+			if (ordinal == null) {
+				ordinal = nextOrdinal++;
+				ensureCapacity(ordinal + 1);
+				ordinals.put(product.getId(), ordinal);
+				ids[ordinal] = product.getId();
+			} else {
+				clear(ordinal);
+			}
+			prices[ordinal] = product.getPrice() == null ? Double.NaN : product.getPrice();
+			ratings[ordinal] = product.getRating() == null ? Double.NaN : product.getRating();
+
+			brands.set(ordinal, product.getBrand());
+			categories.set(ordinal, product.getCategory());
+			availabilityStatuses.set(ordinal, product.getAvailabilityStatus());
+			priceBuckets.set(ordinal, bucket(PRICE_BOUNDS, prices[ordinal]));
+			ratingBuckets.set(ordinal, bucket(RATING_BOUNDS, ratings[ordinal]));
+			if (product.getStock() != null && product.getStock() > 0) {
+				inStock.add(ordinal);
+			}
+			live.add(ordinal);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void remove(Long id) {
+		lock.writeLock().lock();
+		try {
+			Integer ordinal = ordinals.remove(id);
+			if (ordinal != null) {
+				clear(ordinal);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return live.getCardinality();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Find the products matching a filter and count them per facet value
+	 *
+	 * @param filter the criteria, all of which must match
+	 * @param limit  the maximum number of ids to return
+	 * @return the total, the first matching ids and the facet counts
+	 */
+	public FacetedResult filter(ProductFilter filter, int limit) {
+		lock.readLock().lock();
+		try {
+			RoaringBitmap matches = live.clone();
+			if (filter.category() != null) {
+				matches.and(categories.bitmap(filter.category()));
+			}
+			if (filter.brand() != null) {
+				matches.and(brands.bitmap(filter.brand()));
+			}
+			if (Boolean.TRUE.equals(filter.inStock())) {
+				matches.and(inStock);
+			} else if (Boolean.FALSE.equals(filter.inStock())) {
+				matches.andNot(inStock);
+			}
+			if (filter.minPrice() != null || filter.maxPrice() != null) {
+				matches = range(matches, priceBuckets, PRICE_BOUNDS, prices, filter.minPrice(), filter.maxPrice());
+			}
+			if (filter.minRating() != null) {
+				matches = range(matches, ratingBuckets, RATING_BOUNDS, ratings, filter.minRating(), null);
+			}
+
+			int total = matches.getCardinality();
+			List<Long> result = new ArrayList<>(Math.min(limit, total));
+			IntIterator iterator = matches.getIntIterator();
+			while (iterator.hasNext() && result.size() < limit) {
+				result.add(ids[iterator.next()]);
+			}
+
+			boolean walk = total < live.getCardinality() / WALK_FRACTION;
+			Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+			facets.put(BRAND, brands.counts(matches, walk));
+			facets.put(CATEGORY, categories.counts(matches, walk));
+			facets.put(PRICE, priceBuckets.counts(matches, walk));
+			facets.put(AVAILABILITY_STATUS, availabilityStatuses.counts(matches, walk));
+			return new FacetedResult(total, result, facets);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void clear(int ordinal) {
+		brands.clear(ordinal);
+		categories.clear(ordinal);
+		availabilityStatuses.clear(ordinal);
+		priceBuckets.clear(ordinal);
+		ratingBuckets.clear(ordinal);
+		inStock.remove(ordinal);
+		live.remove(ordinal);
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > ids.length) {
+			int newCapacity = Math.max(capacity, ids.length * 2);
+			ids = Arrays.copyOf(ids, newCapacity);
+			prices = Arrays.copyOf(prices, newCapacity);
+			ratings = Arrays.copyOf(ratings, newCapacity);
+		}
+	}
+
+	/**
+	 * Restrict matches to the products whose value lies in [min, max]
+	 *
+	 * @param matches the candidate ordinals
+	 * @param buckets the bucket facet, coded by bucket index
+	 * @param bounds  the lower bound of each bucket; the first bucket is open
+	 *                below and the last open above
+	 * @param values  the value of each ordinal
+	 * @param min     the lowest value, inclusive, or null
+	 * @param max     the highest value, inclusive, or null
+	 * @return the candidates within the range
+	 */
+	private static RoaringBitmap range(RoaringBitmap matches, Facet buckets, double[] bounds, double[] values,
+			Double min, Double max) {
+		RoaringBitmap inRange = new RoaringBitmap();
+		for (int bucket = 0; bucket < bounds.length; bucket++) {
+			double lower = bucket == 0 ? Double.NEGATIVE_INFINITY : bounds[bucket];
+			double upper = bucket + 1 < bounds.length ? bounds[bucket + 1] : Double.POSITIVE_INFINITY;
+			if ((max != null && lower > max) || (min != null && upper <= min)) {
+				continue;
+			}
+			RoaringBitmap candidates = RoaringBitmap.and(matches, buckets.bitmaps.get(bucket));
+			if ((min == null || lower >= min) && (max == null || upper <= max)) {
+				inRange.or(candidates);
+			} else {
+				IntIterator iterator = candidates.getIntIterator();
+				while (iterator.hasNext()) {
+					int ordinal = iterator.next();
+					if ((min == null || values[ordinal] >= min) && (max == null || values[ordinal] <= max)) {
+						inRange.add(ordinal);
+					}
+				}
+			}
+		}
+		return inRange;
+	}
+
+	/**
+	 * The bucket of a value, or -1 when there is none
+	 */
+	private static int bucket(double[] bounds, double value) {
+		if (Double.isNaN(value)) {
+			return -1;
+		}
+		int bucket = 0;
+		while (bucket + 1 < bounds.length && value >= bounds[bucket + 1]) {
+			bucket++;
+		}
+		return bucket;
+	}
+
+	private static String[] labels(double[] bounds) {
+		String[] labels = new String[bounds.length];
+		for (int i = 0; i < bounds.length; i++) {
+			labels[i] = i + 1 < bounds.length ? (long) bounds[i] + "-" + (long) bounds[i + 1] : (long) bounds[i] + "+";
+		}
+		return labels;
+	}
+
+	/**
+	 * The bitmap of each value of a facet, and the code of the value of each
+	 * ordinal, -1 for none. Codes are assigned in order of first appearance and
+	 * never reused.
+	 */
+	private static final class Facet {
+
+		private final boolean rankedByCount;
+		private final Map<String, Integer> codes = new HashMap<>();
+		private final List<String> values = new ArrayList<>();
+		private final List<RoaringBitmap> bitmaps = new ArrayList<>();
+		private int[] ordinalCodes = new int[0];
+
+		private Facet(boolean rankedByCount, String... values) {
+			this.rankedByCount = rankedByCount;
+			for (String value : values) {
+				code(value);
+			}
+		}
+
+		private int code(String value) {
+			return codes.computeIfAbsent(value, key -> {
+				values.add(key);
+				bitmaps.add(new RoaringBitmap());
+				return values.size() - 1;
+			});
+		}
+
+		private void set(int ordinal, String value) {
+			set(ordinal, value == null ? -1 : code(value));
+		}
+
+		private void set(int ordinal, int code) {
+			if (ordinal >= ordinalCodes.length) {
+				int length = ordinalCodes.length;
+				ordinalCodes = Arrays.copyOf(ordinalCodes, Math.max(ordinal + 1, Math.max(INITIAL_CAPACITY, length * 2)));
+				Arrays.fill(ordinalCodes, length, ordinalCodes.length, -1);
+			}
+			ordinalCodes[ordinal] = code;
+			if (code >= 0) {
+				bitmaps.get(code).add(ordinal);
+			}
+		}
+
+		private void clear(int ordinal) {
+			if (ordinal < ordinalCodes.length && ordinalCodes[ordinal] >= 0) {
+				bitmaps.get(ordinalCodes[ordinal]).remove(ordinal);
+				ordinalCodes[ordinal] = -1;
+			}
+		}
+
+		private RoaringBitmap bitmap(String value) {
+			Integer code = codes.get(value);
+			return code == null ? new RoaringBitmap() : bitmaps.get(code);
+		}
+
+		/**
+		 * Count the matches per value, omitting values without matches
+		 *
+		 * @param matches the matching ordinals
+		 * @param walk    whether to walk the matches instead of intersecting
+		 *                them with every value bitmap
+		 * @return the counts, highest first when ranked by count and in code order
+		 *         otherwise
+		 */
+		private Map<String, Integer> counts(RoaringBitmap matches, boolean walk) {
+			int[] counts = new int[values.size()];
+			if (walk) {
+				matches.forEach((IntConsumer) ordinal -> {
+					int code = ordinalCodes[ordinal];
+					if (code >= 0) {
+						counts[code]++;
+					}
+				});
+			} else {
+				for (int code = 0; code < counts.length; code++) {
+					counts[code] = RoaringBitmap.andCardinality(bitmaps.get(code), matches);
+				}
+			}
+			IntStream codeOrder = IntStream.range(0, counts.length).filter(code -> counts[code] > 0);
+			if (rankedByCount) {
+				codeOrder = codeOrder.boxed()
+						.sorted(Comparator.<Integer>comparingInt(code -> -counts[code]).thenComparing(values::get))
+						.mapToInt(Integer::intValue);
+			}
+			Map<String, Integer> result = new LinkedHashMap<>();
+			codeOrder.forEach(code -> result.put(values.get(code), counts[code]));
+			return result;
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package com.store.backend.index;
+
+/**
+ * Criteria of a faceted product filter; null criteria match every product
+ * 
+ * @param category  the exact category
+ * @param brand     the exact brand
+ * @param minPrice  the lowest price, inclusive
+ * @param maxPrice  the highest price, inclusive
+ * @param minRating the lowest rating, inclusive
+ * @param inStock   true for products in stock, false for products out of stock
+ */
+public record ProductFilter(String category, String brand, Double minPrice, Double maxPrice, Double minRating,
+		Boolean inStock) {
+}
@@ -0,0 +1,32 @@
+package com.store.backend.index;
+
+import com.store.backend.dto.ProductDTO;
+
+/**
+ * An in-memory secondary index over the catalog. Indexes are filled from the
+ * database at startup and kept current by the service whenever a product is
+ * saved.
+ */
+public interface ProductIndex {
+
+	/**
+	 * Add a product to the index, replacing any earlier version of it
+	 * 
+	 * @param product the product with its tags, images and reviews
+	 */
+	void index(ProductDTO product);
+
+	/**
+	 * Remove a product from the index
+	 * 
+	 * @param id the product id
+	 */
+	void remove(Long id);
+
+	/**
+	 * The number of products in the index
+	 * 
+	 * @return the number of indexed products
+	 */
+	int size();
+}
@@ -0,0 +1,42 @@
+package com.store.backend.index;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.store.backend.service.impl.ProductServiceImpl;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fills the in-memory indexes from the database once the application has
+ * started, or, when {@code products.snapshot.restore} is set, restores the
+ * catalog snapshot into the empty database and indexes its products as they
+ * are written. Blocks the ready event so the indexes are complete before the
+ * application reports itself ready.
+ */
+@Component
+@Slf4j
+public class ProductIndexInitializer {
+
+	@Autowired
+	private ProductServiceImpl productServiceImpl;
+
+	@Value("${products.snapshot.restore:false}")
+	private boolean restoreSnapshot;
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Order(0)
+	public void buildIndexes() {
+		if (restoreSnapshot) {
+			log.info("Restoring catalog snapshot");
+			productServiceImpl.restoreProducts().block();
+			return;
+		}
+		log.info("Building product indexes");
+		productServiceImpl.rebuildIndexes().block();
+	}
+}
@@ -0,0 +1,311 @@
+package com.store.backend.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+import com.store.backend.dto.ProductDTO;
+import com.store.backend.util.ProductCursor;
+
+/**
+ * Product ids kept sorted by (price, id) in parallel primitive arrays, the same
+ * order as the price page cursors, so that a page is a binary search for its
+ * first entry followed by a walk over the next entries.
+ * <p>
+ * Saves are queued and merged into the arrays by the next query: a few at a time
+ * are moved in place, while a bulk load is sorted and merged in one pass. The
+ * merged price of each id, needed to find its entry again, is kept in a primitive
+ * hash table rather than a map of boxed ids and prices. Queries share a read
+ * lock and merges take the write lock.
+ */
+@Component
+public class ProductPriceIndex implements ProductIndex {
+
+	private static final int IN_PLACE_MERGE_LIMIT = 64;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final PriceTable merged = new PriceTable();
+	private final Map<Long, Double> pending = new LinkedHashMap<>();
+
+	private double[] prices = new double[0];
+	private long[] ids = new long[0];
+	private int size;
+
+	@Override
+	public void index(ProductDTO product) {
+		lock.writeLock().lock();
+		try {
+			pending.put(product.getId(), product.getPrice());
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void remove(Long id) {
+		lock.writeLock().lock();
+		try {
+			pending.put(id, null);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public int size() {
+		lock.writeLock().lock();
+		try {
+			merge();
+			return size;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Find a page of products ordered by price, with ties broken by id
+	 *
+	 * @param ascending whether the cheapest products come first
+	 * @param minPrice  the lowest price, inclusive, or null
+	 * @param maxPrice  the highest price, inclusive, or null
+	 * @param after     the cursor of the last product of the previous page, or
+	 *                  null for the first page
+	 * @param limit     the maximum number of ids to return
+	 * @return the ids of the page in order
+	 */
+	public List<Long> page(boolean ascending, Double minPrice, Double maxPrice, ProductCursor after, int limit) {
+		lock.readLock().lock();
+		try {
+			if (pending.isEmpty()) {
+				return slice(ascending, minPrice, maxPrice, after, limit);
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		lock.writeLock().lock();
+		try {
+			merge();
+			return slice(ascending, minPrice, maxPrice, after, limit);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private List<Long> slice(boolean ascending, Double minPrice, Double maxPrice, ProductCursor after, int limit) {
+		List<Long> page = new ArrayList<>(limit);
+		if (ascending) {
+			int start = minPrice == null ? 0 : position(minPrice, Long.MIN_VALUE);
+			if (after != null) {
+				start = Math.max(start, position(after.getPrice(), after.getId() + 1));
+			}
+			for (int i = start; i < size && page.size() < limit && (maxPrice == null || prices[i] <= maxPrice); i++) {
+				page.add(ids[i]);
+			}
+		} else {
+			int end = maxPrice == null ? size : position(maxPrice, Long.MAX_VALUE);
+			if (after != null) {
+				end = Math.min(end, position(after.getPrice(), after.getId()));
+			}
+			for (int i = end - 1; i >= 0 && page.size() < limit && (minPrice == null || prices[i] >= minPrice); i--) {
+				page.add(ids[i]);
+			}
+		}
+		return page;
+	}
+
+	/**
+	 * The number of entries sorted before (price, id)
+	 */
+	private int position(double price, long id) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			int order = Double.compare(prices[middle], price);
+			if (order < 0 || (order == 0 && ids[middle] < id)) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private void merge() {
+		if (pending.isEmpty()) {
+			return;
+		}
+		if (pending.size() <= IN_PLACE_MERGE_LIMIT) {
+			pending.forEach((id, price) -> {
+				int slot = merged.find(id);
+				if (slot >= 0) {
+					delete(position(merged.prices[slot], id));
+					merged.remove(slot);
+				}
+				if (price != null) {
+					insert(position(price, id), price, id);
+					merged.put(id, price);
+				}
+			});
+		} else {
+			rebuild();
+		}
+		pending.clear();
+	}
+
+	private void delete(int position) {
+		System.arraycopy(prices, position + 1, prices, position, size - position - 1);
+		System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+		size--;
+	}
+
+	private void insert(int position, double price, long id) {
+		if (size == ids.length) {
+			prices = Arrays.copyOf(prices, Math.max(16, size * 2));
+			ids = Arrays.copyOf(ids, prices.length);
+		}
+		System.arraycopy(prices, position, prices, position + 1, size - position);
+		System.arraycopy(ids, position, ids, position + 1, size - position);
+		prices[position] = price;
+		ids[position] = id;
+		size++;
+	}
+
+	/**
+	 * Sort the queued products and merge them with the entries that did not
+	 * change into new arrays
+	 */
+	private void rebuild() {
+		long[] addedIds = pending.entrySet().stream().filter(entry -> entry.getValue() != null)
+				.sorted(Map.Entry.<Long, Double>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+				.mapToLong(Map.Entry::getKey).toArray();
+		int kept = 0;
+		for (int i = 0; i < size; i++) {
+			if (!pending.containsKey(ids[i])) {
+				kept++;
+			}
+		}
+		double[] newPrices = new double[kept + addedIds.length];
+		long[] newIds = new long[newPrices.length];
+		int i = 0;
+		int j = 0;
+		for (int k = 0; k < newIds.length; k++) {
+			while (i < size && pending.containsKey(ids[i])) {
+				i++;
+			}
+			boolean takeOld = j == addedIds.length || (i < size && compare(prices[i], ids[i],
+					pending.get(addedIds[j]), addedIds[j]) < 0);
+			if (takeOld) {
+				newPrices[k] = prices[i];
+				newIds[k] = ids[i++];
+			} else {
+				newPrices[k] = pending.get(addedIds[j]);
+				newIds[k] = addedIds[j++];
+			}
+		}
+		pending.forEach((id, price) -> {
+			if (price == null) {
+				int slot = merged.find(id);
+				if (slot >= 0) {
+					merged.remove(slot);
+				}
+			} else {
+				merged.put(id, price);
+			}
+		});
+		prices = newPrices;
+		ids = newIds;
+		size = newIds.length;
+	}
+
+	private static int compare(double price, long id, double otherPrice, long otherId) {
+		int order = Double.compare(price, otherPrice);
+		return order != 0 ? order : Long.compare(id, otherId);
+	}
+
+	/**
+	 * Open-addressing table from product id to merged price with linear probing;
+	 * removal shifts the following entries back so that no tombstones pile up
+	 */
+	private static final class PriceTable {
+
+		private long[] ids = new long[16];
+		private double[] prices = new double[16];
+		private boolean[] used = new boolean[16];
+		private int size;
+
+		/**
+		 * The slot of an id, or -1 when it has no merged price
+		 */
+		private int find(long id) {
+			int mask = ids.length - 1;
+			for (int slot = hash(id) & mask; used[slot]; slot = (slot + 1) & mask) {
+				if (ids[slot] == id) {
+					return slot;
+				}
+			}
+			return -1;
+		}
+
+		private void put(long id, double price) {
+			if (2 * (size + 1) > ids.length) {
+				grow();
+			}
+			int mask = ids.length - 1;
+			int slot = hash(id) & mask;
+			while (used[slot] && ids[slot] != id) {
+				slot = (slot + 1) & mask;
+			}
+			if (!used[slot]) {
+				used[slot] = true;
+				ids[slot] = id;
+				size++;
+			}
+			prices[slot] = price;
+		}
+
+		private void remove(int slot) {
+			int mask = ids.length - 1;
+			int hole = slot;
+			used[hole] = false;
+			size--;
+			for (int next = (hole + 1) & mask; used[next]; next = (next + 1) & mask) {
+				int home = hash(ids[next]) & mask;
+				if (((next - home) & mask) >= ((next - hole) & mask)) {
+					ids[hole] = ids[next];
+					prices[hole] = prices[next];
+					used[hole] = true;
+					used[next] = false;
+					hole = next;
+				}
+			}
+		}
+
+		private void grow() {
+			long[] oldIds = ids;
+			double[] oldPrices = prices;
+			boolean[] oldUsed = used;
+			ids = new long[oldIds.length * 2];
+			prices = new double[ids.length];
+			used = new boolean[ids.length];
+			size = 0;
+			for (int slot = 0; slot < oldIds.length; slot++) {
+				if (oldUsed[slot]) {
+					put(oldIds[slot], oldPrices[slot]);
+				}
+			}
+		}
+
+		private static int hash(long id) {
+			long mixed = id * 0x9E3779B97F4A7C15L;
+			return (int) (mixed ^ (mixed >>> 32));
+		}
+	}
+}
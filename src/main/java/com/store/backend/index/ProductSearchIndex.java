@@ -0,0 +1,448 @@
+package com.store.backend.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+import com.store.backend.dto.ProductDTO;
+
+/**
+ * Inverted index over the title, description, brand, category and tags of
+ * every product, ranked with BM25.
+ * <p>
+ * Each product gets a dense int ordinal and each posting list is a pair of
+ * growable int arrays of ordinals and term frequencies, appended in ordinal
+ * order. Re-indexing a product retires its old ordinal instead of rewriting the
+ * posting lists; retired ordinals are skipped by queries. Once they outnumber
+ * the live ones they are dropped from the lists and the live products are
+ * renumbered densely in the same order, so the ordinals stay within about twice
+ * the catalog however often it is reloaded. Queries share a read lock and
+ * updates take the write lock.
+ * <p>
+ * Posting lists are also split into fixed-size blocks that record their highest
+ * term frequency and shortest product. BM25 grows with the first and shrinks
+ * with the second, so together they bound every score in the block, and a
+ * single-term query skips the blocks that cannot beat the current top results.
+ */
+@Component
+public class ProductSearchIndex implements ProductIndex {
+
+	private static final float K1 = 1.2f;
+	private static final float B = 0.75f;
+	private static final int INITIAL_CAPACITY = 1024;
+	private static final int BLOCK_SIZE = 128;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+	private final Map<String, Integer> termIds = new HashMap<>();
+	private final List<Postings> postings = new ArrayList<>();
+	private final Map<Long, Integer> ordinals = new HashMap<>();
+	private final BitSet live = new BitSet();
+
+	private long[] ids = new long[INITIAL_CAPACITY];
+	private int[] lengths = new int[INITIAL_CAPACITY];
+	private int[][] docTerms = new int[INITIAL_CAPACITY][];
+	private int nextOrdinal;
+	private int retired;
+	private long totalLength;
+
+	@Override
+	public void index(ProductDTO product) {
+		Map<String, Integer> frequencies = new LinkedHashMap<>();
+		int length = 0;
+		length += tokenize(product.getTitle(), frequencies);
+		length += tokenize(product.getDescription(), frequencies);
+		length += tokenize(product.getBrand(), frequencies);
+		length += tokenize(product.getCategory(), frequencies);
+		if (product.getTags() != null) {
+			for (String tag : product.getTags()) {
+				length += tokenize(tag, frequencies);
+			}
+		}
+
+		lock.writeLock().lock();
+		try {
+			removeLocked(product.getId());
+			int ordinal = nextOrdinal++;
+			ensureCapacity(ordinal + 1);
+			int[] terms = new int[frequencies.size()];
+			int i = 0;
+			for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+				int termId = termIds.computeIfAbsent(entry.getKey(), term -> {
+					postings.add(new Postings());
+					return postings.size() - 1;
+				});
+				postings.get(termId).add(ordinal, entry.getValue(), length);
+				terms[i++] = termId;
+			}
+			ids[ordinal] = product.getId();
+			lengths[ordinal] = length;
+			docTerms[ordinal] = terms;
+			live.set(ordinal);
+			ordinals.put(product.getId(), ordinal);
+			totalLength += length;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void remove(Long id) {
+		lock.writeLock().lock();
+		try {
+			removeLocked(id);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return ordinals.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Find the products that best match a free-text query
+	 * 
+	 * @param query the query, tokenized like the indexed text
+	 * @param limit the maximum number of results
+	 * @return the ids of the matching products, best match first
+	 */
+	public List<Long> search(String query, int limit) {
+		Map<String, Integer> queryTerms = new LinkedHashMap<>();
+		tokenize(query, queryTerms);
+
+		lock.readLock().lock();
+		try {
+			int documents = ordinals.size();
+			if (documents == 0 || queryTerms.isEmpty()) {
+				return List.of();
+			}
+			float averageLength = (float) totalLength / documents;
+			TopK topK = new TopK(limit);
+			List<Postings> matched = new ArrayList<>();
+			for (String term : queryTerms.keySet()) {
+				Integer termId = termIds.get(term);
+				if (termId != null && postings.get(termId).liveDocuments > 0) {
+					matched.add(postings.get(termId));
+				}
+			}
+			if (matched.size() == 1) {
+				Postings list = matched.get(0);
+				float idf = idf(list.liveDocuments, documents);
+				for (int block = 0; block * BLOCK_SIZE < list.size; block++) {
+					int start = block * BLOCK_SIZE;
+					float bound = score(idf, list.blockMaxFrequencies[block], list.blockMinLengths[block], averageLength);
+					if (!topK.accepts(list.ordinals[start], bound)) {
+						continue;
+					}
+					int end = Math.min(start + BLOCK_SIZE, list.size);
+					for (int i = start; i < end; i++) {
+						int ordinal = list.ordinals[i];
+						if (live.get(ordinal)) {
+							topK.offer(ordinal, score(idf, list.frequencies[i], lengths[ordinal], averageLength));
+						}
+					}
+				}
+			} else if (!matched.isEmpty()) {
+				Scratch accumulator = scratch.get().reset(nextOrdinal);
+				for (Postings list : matched) {
+					float idf = idf(list.liveDocuments, documents);
+					for (int i = 0; i < list.size; i++) {
+						int ordinal = list.ordinals[i];
+						if (live.get(ordinal)) {
+							accumulator.add(ordinal, score(idf, list.frequencies[i], lengths[ordinal], averageLength));
+						}
+					}
+				}
+				for (int i = 0; i < accumulator.touchedSize; i++) {
+					int ordinal = accumulator.touched[i];
+					topK.offer(ordinal, accumulator.scores[ordinal]);
+				}
+			}
+			int[] ranked = topK.ordinals();
+			List<Long> result = new ArrayList<>(ranked.length);
+			for (int ordinal : ranked) {
+				result.add(ids[ordinal]);
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void removeLocked(Long id) {
+		Integer ordinal = ordinals.remove(id);
+		if (ordinal == null) {
+			return;
+		}
+		live.clear(ordinal);
+		for (int termId : docTerms[ordinal]) {
+			postings.get(termId).liveDocuments--;
+		}
+		totalLength -= lengths[ordinal];
+		docTerms[ordinal] = null;
+		if (++retired > INITIAL_CAPACITY && retired > ordinals.size()) {
+			compact();
+		}
+	}
+
+	/**
+	 * Renumber the live products from zero in ordinal order and drop the retired
+	 * ordinals from the posting lists. The order is kept, so the lists stay sorted
+	 * and ties still go to the product indexed first.
+	 */
+	private void compact() {
+		int[] renumbered = new int[nextOrdinal];
+		int next = 0;
+		for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+			renumbered[ordinal] = next;
+			ids[next] = ids[ordinal];
+			lengths[next] = lengths[ordinal];
+			docTerms[next] = docTerms[ordinal];
+			next++;
+		}
+		Arrays.fill(docTerms, next, nextOrdinal, null);
+		for (Postings list : postings) {
+			list.retain(live, renumbered, lengths);
+		}
+		for (Map.Entry<Long, Integer> entry : ordinals.entrySet()) {
+			entry.setValue(renumbered[entry.getValue()]);
+		}
+		live.clear();
+		live.set(0, next);
+		nextOrdinal = next;
+		retired = 0;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > ids.length) {
+			int newCapacity = Math.max(capacity, ids.length * 2);
+			ids = Arrays.copyOf(ids, newCapacity);
+			lengths = Arrays.copyOf(lengths, newCapacity);
+			docTerms = Arrays.copyOf(docTerms, newCapacity);
+		}
+	}
+
+	private static float idf(int documentFrequency, int documents) {
+		return (float) Math.log(1 + (documents - documentFrequency + 0.5) / (documentFrequency + 0.5));
+	}
+
+	private static float score(float idf, int frequency, int length, float averageLength) {
+		return idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+	}
+
+	/**
+	 * Split text into lowercase runs of letters and digits and count them. Terms
+	 * are lowercased independently of the default locale, so that the products
+	 * and the queries give the same terms wherever the application runs
+	 * 
+	 * @param text        the text, may be null
+	 * @param frequencies the term counts to add to
+	 * @return the number of tokens
+	 */
+	static int tokenize(String text, Map<String, Integer> frequencies) {
+		if (text == null) {
+			return 0;
+		}
+		int tokens = 0;
+		int start = -1;
+		for (int i = 0; i <= text.length(); i++) {
+			boolean tokenChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+			if (tokenChar && start < 0) {
+				start = i;
+			} else if (!tokenChar && start >= 0) {
+				frequencies.merge(text.substring(start, i).toLowerCase(Locale.ROOT), 1, Integer::sum);
+				tokens++;
+				start = -1;
+			}
+		}
+		return tokens;
+	}
+
+	private static final class Postings {
+
+		private int[] ordinals = new int[4];
+		private int[] frequencies = new int[4];
+		private int[] blockMaxFrequencies = new int[1];
+		private int[] blockMinLengths = new int[1];
+		private int size;
+		private int liveDocuments;
+
+		private void add(int ordinal, int frequency, int length) {
+			if (size == ordinals.length) {
+				ordinals = Arrays.copyOf(ordinals, size * 2);
+				frequencies = Arrays.copyOf(frequencies, size * 2);
+			}
+			ordinals[size] = ordinal;
+			frequencies[size] = frequency;
+			addToBlock(size, frequency, length);
+			size++;
+			liveDocuments++;
+		}
+
+		private void addToBlock(int position, int frequency, int length) {
+			int block = position / BLOCK_SIZE;
+			if (block == blockMaxFrequencies.length) {
+				blockMaxFrequencies = Arrays.copyOf(blockMaxFrequencies, block * 2);
+				blockMinLengths = Arrays.copyOf(blockMinLengths, block * 2);
+			}
+			if (position % BLOCK_SIZE == 0) {
+				blockMaxFrequencies[block] = frequency;
+				blockMinLengths[block] = length;
+			} else {
+				blockMaxFrequencies[block] = Math.max(blockMaxFrequencies[block], frequency);
+				blockMinLengths[block] = Math.min(blockMinLengths[block], length);
+			}
+		}
+
+		private void retain(BitSet live, int[] renumbered, int[] lengths) {
+			int kept = 0;
+			for (int i = 0; i < size; i++) {
+				if (live.get(ordinals[i])) {
+					int ordinal = renumbered[ordinals[i]];
+					ordinals[kept] = ordinal;
+					frequencies[kept] = frequencies[i];
+					addToBlock(kept, frequencies[i], lengths[ordinal]);
+					kept++;
+				}
+			}
+			size = kept;
+		}
+	}
+
+	/**
+	 * Per-thread score accumulator for multi-term queries, cleared by resetting
+	 * only the entries the previous query touched
+	 */
+	private static final class Scratch {
+
+		private float[] scores = new float[0];
+		private int[] touched = new int[0];
+		private int touchedSize;
+
+		private Scratch reset(int capacity) {
+			for (int i = 0; i < touchedSize; i++) {
+				if (touched[i] < scores.length) {
+					scores[touched[i]] = 0;
+				}
+			}
+			touchedSize = 0;
+			if (scores.length < capacity) {
+				scores = new float[capacity];
+				touched = new int[capacity];
+			}
+			return this;
+		}
+
+		private void add(int ordinal, float score) {
+			if (scores[ordinal] == 0) {
+				touched[touchedSize++] = ordinal;
+			}
+			scores[ordinal] += score;
+		}
+	}
+
+	/**
+	 * Bounded min-heap keeping the best scoring ordinals, ties going to the
+	 * lower ordinal
+	 */
+	private static final class TopK {
+
+		private final int[] ordinals;
+		private final float[] scores;
+		private int size;
+
+		private TopK(int limit) {
+			ordinals = new int[limit];
+			scores = new float[limit];
+		}
+
+		private void offer(int ordinal, float score) {
+			if (size < ordinals.length) {
+				ordinals[size] = ordinal;
+				scores[size] = score;
+				siftUp(size++);
+			} else if (size > 0 && better(ordinal, score, ordinals[0], scores[0])) {
+				ordinals[0] = ordinal;
+				scores[0] = score;
+				siftDown(0);
+			}
+		}
+
+		/**
+		 * Whether a result could still make the top, given an upper bound on its
+		 * score and a lower bound on its ordinal
+		 */
+		private boolean accepts(int ordinal, float score) {
+			return size < ordinals.length || (size > 0 && better(ordinal, score, ordinals[0], scores[0]));
+		}
+
+		private int[] ordinals() {
+			int[] ranked = new int[size];
+			while (size > 0) {
+				ranked[size - 1] = ordinals[0];
+				size--;
+				ordinals[0] = ordinals[size];
+				scores[0] = scores[size];
+				siftDown(0);
+			}
+			return ranked;
+		}
+
+		private static boolean better(int ordinal, float score, int otherOrdinal, float otherScore) {
+			return score > otherScore || (score == otherScore && ordinal < otherOrdinal);
+		}
+
+		private void siftUp(int i) {
+			while (i > 0) {
+				int parent = (i - 1) / 2;
+				if (!better(ordinals[parent], scores[parent], ordinals[i], scores[i])) {
+					break;
+				}
+				swap(i, parent);
+				i = parent;
+			}
+		}
+
+		private void siftDown(int i) {
+			while (true) {
+				int worst = i;
+				for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++) {
+					if (better(ordinals[worst], scores[worst], ordinals[child], scores[child])) {
+						worst = child;
+					}
+				}
+				if (worst == i) {
+					return;
+				}
+				swap(i, worst);
+				i = worst;
+			}
+		}
+
+		private void swap(int i, int j) {
+			int ordinal = ordinals[i];
+			float score = scores[i];
+			ordinals[i] = ordinals[j];
+			scores[i] = scores[j];
+			ordinals[j] = ordinal;
+			scores[j] = score;
+		}
+	}
+}
@@ -1,8 +1,11 @@
 package com.store.backend.mapper;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.mapstruct.IterableMapping;
 import org.mapstruct.Mapper;
@@ -14,8 +17,11 @@ import com.store.backend.dao.ProductDAO;
 import com.store.backend.dao.ProductImageDAO;
 import com.store.backend.dao.ProductTagDAO;
 import com.store.backend.dao.ReviewDAO;
+import com.store.backend.dao.ReviewSummaryDAO;
+import com.store.backend.dao.StoredReview;
 import com.store.backend.dto.ProductDTO;
 import com.store.backend.dto.ReviewDTO;
+import com.store.backend.dto.ReviewSummaryDTO;
 
 @Mapper(componentModel = "spring")
 public interface ProductMapper {
@@ -36,11 +42,13 @@ public interface ProductMapper {
     @Mapping(target = "updatedAt", source = "meta.updatedAt")
     @Mapping(target = "barcode", source = "meta.barcode")
     @Mapping(target = "qrCode", source = "meta.qrCode")
+    @Mapping(target = "contentHash", ignore = true)
     ProductDAO toDAO(ProductDTO productDTO);
 
     /**
      * Converts a ProductDAO to a ProductDTO.
-     * Maps fields from DAO to DTO including reviews, images, and tags.
+     * Maps fields from DAO to DTO including reviews, images, and tags, and
+     * summarizes the reviews.
      *
      * @param productDAO The ProductDAO object to be converted.
      * @param reviewDAO A list of ReviewDAO objects to map to reviews.
@@ -58,6 +66,7 @@ public interface ProductMapper {
     @Mapping(target = "reviews", source = "reviewDAO")
     @Mapping(target = "images", source = "imageDAO", qualifiedByName = "mapImages")
     @Mapping(target = "tags", source = "productTagDAO", qualifiedByName = "mapTags")
+    @Mapping(target = "reviewSummary", expression = "java(toReviewSummaryDTO(reviewDAO))")
     ProductDTO toDTO(ProductDAO productDAO, List<ReviewDAO> reviewDAO, List<ProductImageDAO> imageDAO, List<ProductTagDAO> productTagDAO);
 
     /**
@@ -70,6 +79,7 @@ public interface ProductMapper {
      */
     @Mapping(target = "productId", source = "productDTO.id")
     @Mapping(target = "rating", source = "reviewDTO.rating")
+    @Mapping(target = "position", ignore = true)
     ReviewDAO toDAO(ProductDTO productDTO, ReviewDTO reviewDTO);
 
     /**
@@ -83,14 +93,20 @@ public interface ProductMapper {
 
     /**
      * Converts a list of ReviewDTO to a list of ReviewDAO.
-     * Maps each ReviewDTO object into its corresponding ReviewDAO.
+     * Maps each ReviewDTO object into its corresponding ReviewDAO, numbered by
+     * its position in the product's reviews.
      *
      * @param productDTO The ProductDTO object containing reviews.
      * @return A list of corresponding ReviewDAO objects.
      */
     default List<ReviewDAO> toReviewDAOList(ProductDTO productDTO) {
-        return productDTO.getReviews().stream()
-                .map(reviewDTO -> toDAO(productDTO, reviewDTO))
+        List<ReviewDTO> reviews = productDTO.getReviews();
+        return IntStream.range(0, reviews.size())
+                .mapToObj(position -> {
+                    ReviewDAO reviewDAO = toDAO(productDTO, reviews.get(position));
+                    reviewDAO.setPosition(position);
+                    return reviewDAO;
+                })
                 .collect(Collectors.toList());
     }
 
@@ -103,6 +119,74 @@ public interface ProductMapper {
      */
     List<ReviewDTO> toReviewDTOList(List<ReviewDAO> reviewDAOList);
 
+    /**
+     * Converts a stored review row to a ReviewDTO.
+     * Maps fields of the row into ReviewDTO, dropping its ids.
+     *
+     * @param storedReview The StoredReview row to be converted.
+     * @return The corresponding ReviewDTO object.
+     */
+    ReviewDTO toDTO(StoredReview storedReview);
+
+    /**
+     * Converts a list of stored review rows to a list of ReviewDTO.
+     *
+     * @param storedReviews A list of StoredReview rows to be converted.
+     * @return A list of corresponding ReviewDTO objects.
+     */
+    List<ReviewDTO> toStoredReviewDTOList(List<StoredReview> storedReviews);
+
+    /**
+     * Summarizes a list of reviews into their count, average rating and star
+     * histogram, the same way the review_summaries table does.
+     *
+     * @param reviewDAOs A list of ReviewDAO objects of one product.
+     * @return The corresponding ReviewSummaryDTO object.
+     */
+    default ReviewSummaryDTO toReviewSummaryDTO(List<ReviewDAO> reviewDAOs) {
+        long[] stars = new long[5];
+        double ratingSum = 0;
+        if (reviewDAOs != null) {
+            for (ReviewDAO reviewDAO : reviewDAOs) {
+                double rating = reviewDAO.getRating() == null ? 0 : reviewDAO.getRating();
+                stars[star(rating) - 1]++;
+                ratingSum += rating;
+            }
+        }
+        return toReviewSummaryDTO(reviewDAOs == null ? 0 : reviewDAOs.size(), ratingSum, stars);
+    }
+
+    /**
+     * Converts a row of the review_summaries table to a ReviewSummaryDTO.
+     *
+     * @param summaryDAO The ReviewSummaryDAO object, or null for a product without reviews.
+     * @return The corresponding ReviewSummaryDTO object.
+     */
+    default ReviewSummaryDTO toReviewSummaryDTO(ReviewSummaryDAO summaryDAO) {
+        if (summaryDAO == null) return toReviewSummaryDTO(0, 0, new long[5]);
+        return toReviewSummaryDTO(summaryDAO.getReviewCount(), summaryDAO.getRatingSum(),
+                new long[] { summaryDAO.getOneStar(), summaryDAO.getTwoStars(), summaryDAO.getThreeStars(),
+                        summaryDAO.getFourStars(), summaryDAO.getFiveStars() });
+    }
+
+    private static ReviewSummaryDTO toReviewSummaryDTO(long count, double ratingSum, long[] stars) {
+        Map<Integer, Long> histogram = new LinkedHashMap<>();
+        for (int star = 1; star <= stars.length; star++) {
+            histogram.put(star, stars[star - 1]);
+        }
+        return new ReviewSummaryDTO(count, count == 0 ? null : ratingSum / count, histogram);
+    }
+
+    /**
+     * The star a rating counts towards: the rating rounded half up, within 1 to 5.
+     *
+     * @param rating The review rating.
+     * @return The star, from 1 to 5.
+     */
+    static int star(double rating) {
+        return (int) Math.max(1, Math.min(5, Math.round(rating)));
+    }
+
     /**
      * Converts a ProductDTO and a tag string into a ProductTagDAO.
      * Maps the product ID and tag string to the ProductTagDAO.
@@ -117,7 +201,7 @@ public interface ProductMapper {
 
     /**
      * Converts a list of tags in ProductDTO to a list of ProductTagDAO objects.
-     * Maps each tag to its corresponding ProductTagDAO.
+     * Maps each distinct tag to its corresponding ProductTagDAO.
      *
      * @param productDTO The ProductDTO object containing tags.
      * @return A list of corresponding ProductTagDAO objects.
@@ -125,6 +209,7 @@ public interface ProductMapper {
     @IterableMapping(qualifiedByName = "toProductTagDaos")
     default List<ProductTagDAO> toProductTagDaos(ProductDTO productDTO) {
         return productDTO.getTags().stream()
+                .distinct()
                 .map(tag -> toProductTagDao(productDTO, tag))
                 .toList();
     }
@@ -143,7 +228,7 @@ public interface ProductMapper {
 
     /**
      * Converts a list of image URLs in ProductDTO to a list of ProductImageDAO objects.
-     * Maps each image URL to its corresponding ProductImageDAO.
+     * Maps each distinct image URL to its corresponding ProductImageDAO.
      *
      * @param productDTO The ProductDTO object containing images.
      * @return A list of corresponding ProductImageDAO objects.
@@ -151,6 +236,7 @@ public interface ProductMapper {
     @IterableMapping(qualifiedByName = "toProductImageDaos")
     default List<ProductImageDAO> toProductImageDaos(ProductDTO productDTO) {
         return productDTO.getImages().stream()
+                .distinct()
                 .map(img -> toProductImageDao(productDTO, img))
                 .toList();
     }
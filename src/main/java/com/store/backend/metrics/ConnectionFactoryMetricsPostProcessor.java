@@ -0,0 +1,30 @@
+package com.store.backend.metrics;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+
+/**
+ * Wraps every R2DBC ConnectionFactory bean in a {@link TimedConnectionFactory}
+ */
+@Component
+public class ConnectionFactoryMetricsPostProcessor implements BeanPostProcessor {
+
+	private final ObjectProvider<MeterRegistry> registry;
+
+	public ConnectionFactoryMetricsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+		this.registry = registry;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+		if (bean instanceof ConnectionFactory connectionFactory && !(bean instanceof TimedConnectionFactory)) {
+			return new TimedConnectionFactory(connectionFactory, beanName, registry.getObject());
+		}
+		return bean;
+	}
+}
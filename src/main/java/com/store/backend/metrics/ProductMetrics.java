@@ -0,0 +1,211 @@
+package com.store.backend.metrics;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Meters for the product service. Every timed publisher records a timer with a
+ * percentile histogram tagged with its outcome, counts its errors and tracks
+ * how many subscriptions are in flight. The clock runs from subscription to
+ * completion, error or cancellation.
+ */
+@Component
+public class ProductMetrics {
+
+	public static final String SERVICE = "products.service";
+	public static final String REPOSITORY = "products.repository";
+	public static final String INGEST_STAGE = "products.ingest.stage";
+	public static final String INGEST_PRODUCTS = "products.ingest.products";
+	public static final String WARMUP = "products.warmup";
+
+	public static final String STAGE_FETCH = "fetch";
+	public static final String STAGE_READ = "read";
+	public static final String STAGE_PARSE = "parse";
+	public static final String STAGE_VALIDATE = "validate";
+	public static final String STAGE_MAP = "map";
+	public static final String STAGE_SAVE = "save";
+
+	public static final String RESULT_INVALID = "invalid";
+	public static final String RESULT_SAVED = "saved";
+	public static final String RESULT_SKIPPED = "skipped";
+
+	private static final String OPERATION = "operation";
+	private static final String QUERY = "query";
+	private static final String STAGE = "stage";
+	private static final String RESULT = "result";
+	private static final String OUTCOME = "outcome";
+	private static final String IN_FLIGHT = ".in.flight";
+	private static final String ERRORS = ".errors";
+	private static final String SUCCESS = "success";
+	private static final String ERROR = "error";
+	private static final String CANCELLED = "cancelled";
+
+	private final MeterRegistry registry;
+	private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+	private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+	private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+	public ProductMetrics(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	/**
+	 * Time a service operation
+	 * 
+	 * @param operation the ProductService method name
+	 * @param mono      the publisher to time
+	 * @return the timed publisher
+	 */
+	public <T> Mono<T> timed(String operation, Mono<T> mono) {
+		return time(SERVICE, OPERATION, operation, mono);
+	}
+
+	/**
+	 * Time a service operation
+	 * 
+	 * @param operation the ProductService method name
+	 * @param flux      the publisher to time
+	 * @return the timed publisher
+	 */
+	public <T> Flux<T> timed(String operation, Flux<T> flux) {
+		return time(SERVICE, OPERATION, operation, flux);
+	}
+
+	/**
+	 * Time a repository query
+	 * 
+	 * @param query the name of the query
+	 * @param flux  the publisher to time
+	 * @return the timed publisher
+	 */
+	public <T> Flux<T> timedQuery(String query, Flux<T> flux) {
+		return time(REPOSITORY, QUERY, query, flux);
+	}
+
+	/**
+	 * Time a repository query
+	 * 
+	 * @param query the name of the query
+	 * @param mono  the publisher to time
+	 * @return the timed publisher
+	 */
+	public <T> Mono<T> timedQuery(String query, Mono<T> mono) {
+		return time(REPOSITORY, QUERY, query, mono);
+	}
+
+	/**
+	 * Time a stage of a product load
+	 * 
+	 * @param stage the name of the stage
+	 * @param flux  the publisher to time
+	 * @return the timed publisher
+	 */
+	public <T> Flux<T> timedStage(String stage, Flux<T> flux) {
+		return time(INGEST_STAGE, STAGE, stage, flux);
+	}
+
+	/**
+	 * Time a stage of a product load
+	 * 
+	 * @param stage the name of the stage
+	 * @param mono  the publisher to time
+	 * @return the timed publisher
+	 */
+	public <T> Mono<T> timedStage(String stage, Mono<T> mono) {
+		return time(INGEST_STAGE, STAGE, stage, mono);
+	}
+
+	/**
+	 * Time a synchronous stage of a product load, such as validating one product
+	 * 
+	 * @param stage    the name of the stage
+	 * @param supplier the work to time
+	 * @return the result of the supplier
+	 */
+	public <T> T recordStage(String stage, Supplier<T> supplier) {
+		return timer(INGEST_STAGE, STAGE, stage, SUCCESS).record(supplier);
+	}
+
+	/**
+	 * Count products passing through a product load
+	 * 
+	 * @param result what happened to the products
+	 * @param count  the number of products
+	 */
+	public void countProducts(String result, long count) {
+		counter(INGEST_PRODUCTS, RESULT, result).increment(count);
+	}
+
+	/**
+	 * Record how long the startup warm-up took
+	 * 
+	 * @param duration the time from the start of the warm-up to its end
+	 */
+	public void recordWarmup(Duration duration) {
+		Timer.builder(WARMUP).register(registry).record(duration);
+	}
+
+	private <T> Mono<T> time(String name, String tagKey, String tagValue, Mono<T> mono) {
+		return Mono.defer(() -> {
+			Timer.Sample sample = start(name, tagKey, tagValue);
+			return mono.doFinally(signal -> stop(sample, name, tagKey, tagValue, signal));
+		});
+	}
+
+	private <T> Flux<T> time(String name, String tagKey, String tagValue, Flux<T> flux) {
+		return Flux.defer(() -> {
+			Timer.Sample sample = start(name, tagKey, tagValue);
+			return flux.doFinally(signal -> stop(sample, name, tagKey, tagValue, signal));
+		});
+	}
+
+	private Timer.Sample start(String name, String tagKey, String tagValue) {
+		inFlight(name, tagKey, tagValue).incrementAndGet();
+		return Timer.start(registry);
+	}
+
+	private void stop(Timer.Sample sample, String name, String tagKey, String tagValue, SignalType signal) {
+		inFlight(name, tagKey, tagValue).decrementAndGet();
+		sample.stop(timer(name, tagKey, tagValue, outcome(signal)));
+		if (signal == SignalType.ON_ERROR) {
+			counter(name + ERRORS, tagKey, tagValue).increment();
+		}
+	}
+
+	private static String outcome(SignalType signal) {
+		return switch (signal) {
+		case ON_ERROR -> ERROR;
+		case CANCEL -> CANCELLED;
+		default -> SUCCESS;
+		};
+	}
+
+	private Timer timer(String name, String tagKey, String tagValue, String outcome) {
+		return timers.computeIfAbsent(name + '|' + tagValue + '|' + outcome,
+				key -> Timer.builder(name).tag(tagKey, tagValue).tag(OUTCOME, outcome).publishPercentileHistogram()
+						.register(registry));
+	}
+
+	private Counter counter(String name, String tagKey, String tagValue) {
+		return counters.computeIfAbsent(name + '|' + tagValue,
+				key -> Counter.builder(name).tag(tagKey, tagValue).register(registry));
+	}
+
+	private AtomicInteger inFlight(String name, String tagKey, String tagValue) {
+		return inFlight.computeIfAbsent(name + '|' + tagValue,
+				key -> registry.gauge(name + IN_FLIGHT, Tags.of(tagKey, tagValue), new AtomicInteger()));
+	}
+}
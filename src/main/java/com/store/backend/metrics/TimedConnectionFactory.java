@@ -0,0 +1,48 @@
+package com.store.backend.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.publisher.Mono;
+
+/**
+ * ConnectionFactory decorator that times how long callers wait for a
+ * connection. In front of a pool this is the acquire time, which grows when
+ * the pool is exhausted even if every query stays fast. Implements
+ * {@link Wrapped} so the pool behind it is still found by the pool gauges.
+ */
+public class TimedConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory> {
+
+	public static final String ACQUIRE = "r2dbc.pool.acquire";
+
+	private static final String NAME = "name";
+
+	private final ConnectionFactory delegate;
+	private final Timer acquireTimer;
+
+	public TimedConnectionFactory(ConnectionFactory delegate, String name, MeterRegistry registry) {
+		this.delegate = delegate;
+		this.acquireTimer = Timer.builder(ACQUIRE).tag(NAME, name).publishPercentileHistogram().register(registry);
+	}
+
+	@Override
+	public Mono<Connection> create() {
+		return Mono.defer(() -> {
+			Timer.Sample sample = Timer.start();
+			return Mono.from(delegate.create()).doOnNext(connection -> sample.stop(acquireTimer));
+		});
+	}
+
+	@Override
+	public ConnectionFactoryMetadata getMetadata() {
+		return delegate.getMetadata();
+	}
+
+	@Override
+	public ConnectionFactory unwrap() {
+		return delegate;
+	}
+}
@@ -1,10 +1,14 @@
 package com.store.backend.repository;
 
+import java.util.Collection;
+
 import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.stereotype.Repository;
 
 import com.store.backend.dao.ProductDAO;
+import com.store.backend.dao.ProductVersion;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -17,4 +21,18 @@ public interface ProductRepository extends R2dbcRepository<ProductDAO, Long> {
 	Flux<ProductDAO> findAll(Sort sort);
 
 	Mono<ProductDAO> findBySku(String sku);
+
+	Flux<ProductDAO> findBySkuIn(Collection<String> skus);
+
+	@Query("SELECT id, updated_at, content_hash FROM products WHERE id = :id")
+	Mono<ProductVersion> findVersionById(Long id);
+
+	@Query("SELECT id, updated_at, content_hash FROM products WHERE sku = :sku")
+	Mono<ProductVersion> findVersionBySku(String sku);
+
+	@Query("SELECT * FROM products WHERE id > :afterId ORDER BY id LIMIT :limit")
+	Flux<ProductDAO> findPageAfterId(long afterId, int limit);
+
+	@Query("SELECT * FROM products WHERE category = :category AND id > :afterId ORDER BY id LIMIT :limit")
+	Flux<ProductDAO> findPageByCategoryAfterId(String category, long afterId, int limit);
 }
@@ -1,10 +1,13 @@
 package com.store.backend.repository;
 
+import java.util.Collection;
+
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.stereotype.Repository;
 
 import com.store.backend.dao.ReviewDAO;
-import com.store.backend.dto.ProductDTO;
+import com.store.backend.dao.StoredReview;
 
 import reactor.core.publisher.Flux;
 
@@ -13,4 +16,9 @@ public interface ProductReviewRepository extends R2dbcRepository<ReviewDAO, Long
 
 	Flux<ReviewDAO> findByProductId(Long id);
 
+	Flux<ReviewDAO> findByProductIdIn(Collection<Long> ids);
+
+	@Query("SELECT * FROM reviews WHERE product_id = :productId AND id > :afterId ORDER BY id LIMIT :limit")
+	Flux<StoredReview> findPageByProductIdAfterId(Long productId, long afterId, int limit);
+
 }
@@ -1,5 +1,7 @@
 package com.store.backend.repository;
 
+import java.util.Collection;
+
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.stereotype.Repository;
 
@@ -13,4 +15,6 @@ public interface ProductTagRepository extends R2dbcRepository<ProductTagDAO, Lon
 
 	Flux<ProductTagDAO> findByProductId(Long id);
 
+	Flux<ProductTagDAO> findByProductIdIn(Collection<Long> ids);
+
 }
@@ -0,0 +1,17 @@
+package com.store.backend.repository;
+
+import java.util.Collection;
+
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+
+import com.store.backend.dao.ReviewSummaryDAO;
+
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReviewSummaryRepository extends R2dbcRepository<ReviewSummaryDAO, Long> {
+
+	Flux<ReviewSummaryDAO> findByProductIdIn(Collection<Long> ids);
+
+}
@@ -0,0 +1,187 @@
+package com.store.backend.service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.store.backend.dto.LoadJobDTO;
+import com.store.backend.dto.LoadSummaryDTO;
+import com.store.backend.exception.InvalidRequestException;
+import com.store.backend.exception.LoadJobNotFoundException;
+import com.store.backend.util.LoadProgress;
+import com.store.backend.util.ProductFileReader;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs catalog loads as background jobs. Starting a load subscribes to it and
+ * returns its job at once; the job counts the products of the load as they pass
+ * through its stages and can be cancelled, which disposes the load.
+ * <p>
+ * Only one load or import runs at a time: starting a load while another is running
+ * returns the running job instead of racing it through the same tables. The
+ * most recent jobs are kept so that their outcome can be read after they end.
+ */
+@Service
+@Slf4j
+public class LoadJobManager {
+
+	@Autowired
+	private ProductService productServiceImpl;
+	@Autowired
+	private ProductFileReader productFileReader;
+
+	private static final int RECENT_JOBS = 20;
+
+	private static final String JOB_NOT_FOUND = "Load job not found with id: ";
+	private static final String JOB_STARTED = "Load job {} started in {} mode";
+	private static final String JOB_RUNNING = "Load job {} is already running, not starting a {} load";
+	private static final String JOB_COMPLETED = "Load job {} completed";
+	private static final String JOB_FAILED = "Load job {} failed";
+	private static final String JOB_CANCELLED = "Load job {} cancelled";
+
+	private final Map<String, LoadJob> jobs = new LinkedHashMap<>() {
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, LoadJob> eldest) {
+			return size() > RECENT_JOBS;
+		}
+	};
+
+	private LoadJob running;
+
+	/**
+	 * Start a load, or return the running one
+	 *
+	 * @param mode how the load writes the products of the feed
+	 * @return the started or running job
+	 */
+	public LoadJobDTO start(LoadMode mode) {
+		return start(mode, progress -> mode == LoadMode.INCREMENTAL
+				? productServiceImpl.loadProductsIncrementally(progress)
+				: productServiceImpl.loadProducts(progress).then(Mono.empty()));
+	}
+
+	/**
+	 * Start importing a local dump file, or return the running load
+	 *
+	 * @param file the name of the file in the import directory
+	 * @return the started or running job
+	 * @throws InvalidRequestException if imports are disabled, or the file does
+	 *                                 not exist or is outside the import
+	 *                                 directory
+	 */
+	public LoadJobDTO startImport(String file) {
+		Path path = productFileReader.resolve(file);
+		return start(LoadMode.IMPORT, progress -> productServiceImpl.importProducts(path, progress).then(Mono.empty()));
+	}
+
+	private synchronized LoadJobDTO start(LoadMode mode, Function<LoadProgress, Mono<LoadSummaryDTO>> loader) {
+		if (running != null && running.status == LoadJobStatus.RUNNING) {
+			log.info(JOB_RUNNING, running.id, mode);
+			return running.toDTO();
+		}
+		LoadJob job = new LoadJob(UUID.randomUUID().toString(), mode);
+		jobs.put(job.id, job);
+		running = job;
+		log.info(JOB_STARTED, job.id, mode);
+		Mono<LoadSummaryDTO> load = loader.apply(job.progress);
+		job.subscription = load.subscribe(summary -> job.summary = summary, error -> finish(job, error),
+				() -> finish(job, null));
+		return job.toDTO();
+	}
+
+	/**
+	 * Get a job
+	 *
+	 * @param id the job id
+	 * @return the job with its progress
+	 * @throws LoadJobNotFoundException if the job is unknown or no longer kept
+	 */
+	public synchronized LoadJobDTO get(String id) {
+		return find(id).toDTO();
+	}
+
+	/**
+	 * Cancel a job, disposing its load if it is still running. A job that
+	 * already ended is returned unchanged.
+	 *
+	 * @param id the job id
+	 * @return the job with its progress
+	 * @throws LoadJobNotFoundException if the job is unknown or no longer kept
+	 */
+	public synchronized LoadJobDTO cancel(String id) {
+		LoadJob job = find(id);
+		if (job.status == LoadJobStatus.RUNNING) {
+			job.subscription.dispose();
+			job.end(LoadJobStatus.CANCELLED);
+			log.info(JOB_CANCELLED, id);
+		}
+		return job.toDTO();
+	}
+
+	private LoadJob find(String id) {
+		LoadJob job = jobs.get(id);
+		if (job == null) {
+			throw new LoadJobNotFoundException(JOB_NOT_FOUND + id);
+		}
+		return job;
+	}
+
+	private synchronized void finish(LoadJob job, Throwable error) {
+		if (job.status != LoadJobStatus.RUNNING) {
+			return;
+		}
+		if (error == null) {
+			job.end(LoadJobStatus.COMPLETED);
+			log.info(JOB_COMPLETED, job.id);
+		} else {
+			job.error = error.getMessage();
+			job.end(LoadJobStatus.FAILED);
+			log.error(JOB_FAILED, job.id, error);
+		}
+	}
+
+	private static class LoadJob {
+
+		private final String id;
+		private final LoadMode mode;
+		private final LoadProgress progress = new LoadProgress();
+		private final Instant startedAt = Instant.now();
+		private volatile LoadJobStatus status = LoadJobStatus.RUNNING;
+		private volatile Instant finishedAt;
+		private volatile LoadSummaryDTO summary;
+		private volatile String error;
+		private Disposable subscription;
+
+		private LoadJob(String id, LoadMode mode) {
+			this.id = id;
+			this.mode = mode;
+		}
+
+		private void end(LoadJobStatus status) {
+			finishedAt = Instant.now();
+			this.status = status;
+		}
+
+		private LoadJobDTO toDTO() {
+			Instant end = finishedAt == null ? Instant.now() : finishedAt;
+			double seconds = Duration.between(startedAt, end).toMillis() / 1000.0;
+			long processed = progress.getSaved() + progress.getSkipped() + progress.getFailed();
+			return new LoadJobDTO(id, mode, status, startedAt.toString(),
+					finishedAt == null ? null : finishedAt.toString(), progress.getFetched(),
+					progress.getValidated(), progress.getFailed(), progress.getSaved(), progress.getSkipped(),
+					seconds > 0 ? processed / seconds : 0, summary, error,
+					progress.getRejected());
+		}
+	}
+}
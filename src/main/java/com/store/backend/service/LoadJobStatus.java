@@ -0,0 +1,15 @@
+package com.store.backend.service;
+
+/**
+ * The state of a background catalog load
+ */
+public enum LoadJobStatus {
+
+	RUNNING,
+
+	COMPLETED,
+
+	FAILED,
+
+	CANCELLED
+}
@@ -0,0 +1,22 @@
+package com.store.backend.service;
+
+/**
+ * Where a catalog load reads its products from and how it writes them
+ */
+public enum LoadMode {
+
+	/**
+	 * Save every valid product of the feed
+	 */
+	FULL,
+
+	/**
+	 * Save only the products that are new or changed since the last load
+	 */
+	INCREMENTAL,
+
+	/**
+	 * Save every valid product of a local dump file instead of the feed
+	 */
+	IMPORT
+}
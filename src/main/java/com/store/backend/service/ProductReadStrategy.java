@@ -0,0 +1,18 @@
+package com.store.backend.service;
+
+/**
+ * How products are read together with their reviews, images and tags
+ */
+public enum ProductReadStrategy {
+
+	/**
+	 * Read product rows first, then one query per child table for each window of
+	 * products
+	 */
+	BATCHED,
+
+	/**
+	 * Read products and all their children in a single UNION ALL statement
+	 */
+	SINGLE_QUERY
+}
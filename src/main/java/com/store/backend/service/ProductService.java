@@ -2,7 +2,20 @@ package com.store.backend.service;
 
 
 
+import java.nio.file.Path;
+import java.util.List;
+
+import com.store.backend.dao.ProductVersion;
+import com.store.backend.dto.LoadSummaryDTO;
 import com.store.backend.dto.ProductDTO;
+import com.store.backend.dto.ProductFilterResultDTO;
+import com.store.backend.dto.ProductLookupDTO;
+import com.store.backend.dto.ProductPageDTO;
+import com.store.backend.dto.ReviewPageDTO;
+import com.store.backend.dto.SnapshotDTO;
+import com.store.backend.index.ProductFilter;
+import com.store.backend.util.LoadProgress;
+import com.store.backend.util.ProductFields;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -12,8 +25,16 @@ public interface ProductService {
 	public Flux<ProductDTO> getProducts();
 	
 	public Mono<ProductDTO> getProductById(Long id);
+
+	public Mono<ProductDTO> getProductById(Long id, ProductVersion version);
 	
 	public Mono<ProductDTO> getProductBySku(String sku);
+
+	public Mono<ProductDTO> getProductBySku(String sku, ProductVersion version);
+
+	public Mono<ProductVersion> getProductVersionById(Long id);
+
+	public Mono<ProductVersion> getProductVersionBySku(String sku);
 	
 	public Flux<ProductDTO> getProductsByCategory(String category);
 
@@ -21,4 +42,30 @@ public interface ProductService {
 	
 	public Mono<String> loadProducts();
 
+	public Mono<String> loadProducts(LoadProgress progress);
+
+	public Mono<LoadSummaryDTO> loadProductsIncrementally();
+
+	public Mono<LoadSummaryDTO> loadProductsIncrementally(LoadProgress progress);
+
+	public Mono<String> importProducts(Path file, LoadProgress progress);
+
+	public Mono<ProductPageDTO> getProductsPage(String after, int limit, ProductFields fields);
+
+	public Mono<ProductPageDTO> getProductsByCategoryPage(String category, String after, int limit,
+			ProductFields fields);
+
+	public Mono<ProductPageDTO> getProductsSortedByPricePage(String order, Double minPrice, Double maxPrice,
+			String after, int limit, ProductFields fields);
+
+	public Flux<ProductDTO> searchProducts(String query, int limit, ProductFields fields);
+
+	public Mono<ProductFilterResultDTO> filterProducts(ProductFilter filter, int limit, ProductFields fields);
+
+	public Mono<ReviewPageDTO> getProductReviews(Long id, String after, int limit);
+
+	public Mono<List<ProductLookupDTO>> getProductsBatch(List<Long> ids, List<String> skus, ProductFields fields);
+
+	public Mono<SnapshotDTO> snapshotProducts();
+
 }
@@ -1,31 +1,76 @@
 package com.store.backend.service.impl;
 
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 
+import com.store.backend.cache.CatalogVersion;
+import com.store.backend.cache.ProductCache;
+import com.store.backend.dao.ProductAggregate;
+import com.store.backend.dao.ProductAggregateReader;
+import com.store.backend.dao.ProductComponentReconciler;
+import com.store.backend.dao.ProductComponentWriter;
 import com.store.backend.dao.ProductDAO;
 import com.store.backend.dao.ProductDAOService;
 import com.store.backend.dao.ProductImageDAO;
 import com.store.backend.dao.ProductTagDAO;
+import com.store.backend.dao.ProductVersion;
 import com.store.backend.dao.ReviewDAO;
+import com.store.backend.dao.ReviewSummaryDAO;
+import com.store.backend.dao.StoredReview;
+import com.store.backend.dto.LoadSummaryDTO;
 import com.store.backend.dto.ProductDTO;
+import com.store.backend.dto.ProductFilterResultDTO;
+import com.store.backend.dto.ProductLookupDTO;
+import com.store.backend.dto.ProductPageDTO;
+import com.store.backend.dto.ReviewPageDTO;
+import com.store.backend.dto.SnapshotDTO;
+import com.store.backend.exception.InvalidRequestException;
 import com.store.backend.exception.ProductNotFoundException;
 import com.store.backend.exception.ProductServiceException;
+import com.store.backend.index.ProductFacetIndex;
+import com.store.backend.index.ProductFilter;
+import com.store.backend.index.ProductIndex;
+import com.store.backend.index.ProductPriceIndex;
+import com.store.backend.index.ProductSearchIndex;
 import com.store.backend.mapper.ProductMapper;
+import com.store.backend.metrics.ProductMetrics;
 import com.store.backend.repository.ProductImageRepository;
 import com.store.backend.repository.ProductRepository;
 import com.store.backend.repository.ProductReviewRepository;
 import com.store.backend.repository.ProductTagRepository;
+import com.store.backend.repository.ReviewSummaryRepository;
+import com.store.backend.service.ProductReadStrategy;
 import com.store.backend.service.ProductService;
+import com.store.backend.util.CatalogSnapshot;
+import com.store.backend.util.LoadProgress;
+import com.store.backend.util.ProductCursor;
+import com.store.backend.util.ProductFields;
+import com.store.backend.util.ProductHasher;
 import com.store.backend.util.ProductsLoadingHelper;
 
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Implementation of ProductService
@@ -43,29 +88,132 @@ public class ProductServiceImpl implements ProductService {
 	@Autowired
 	private ProductTagRepository productTagRepository;
 	@Autowired
+	private ReviewSummaryRepository reviewSummaryRepository;
+	@Autowired
 	private ProductMapper productMapper;
 	@Autowired
 	private ProductsLoadingHelper productsLoadingHelper;
 	@Autowired
 	private ProductDAOService productDAOService;
+	@Autowired
+	private ProductCache productCache;
+	@Autowired
+	private CatalogVersion catalogVersion;
+	@Autowired
+	private ProductComponentReconciler productComponentReconciler;
+	@Autowired
+	private ProductHasher productHasher;
+	@Autowired
+	private ProductMetrics productMetrics;
+	@Autowired
+	private ProductAggregateReader productAggregateReader;
+	@Autowired
+	private ProductSearchIndex productSearchIndex;
+	@Autowired
+	private ProductFacetIndex productFacetIndex;
+	@Autowired
+	private ProductPriceIndex productPriceIndex;
+	@Autowired
+	private TransactionalOperator transactionalOperator;
+	@Autowired
+	private ProductComponentWriter productComponentWriter;
+	@Autowired
+	private CatalogSnapshot catalogSnapshot;
+	@Autowired(required = false)
+	private List<ProductIndex> productIndexes = Collections.emptyList();
+
+	@Value("${products.components.batch-size:100}")
+	private int componentBatchSize = 100;
+
+	@Value("${products.ingest.chunk-size:200}")
+	private int ingestChunkSize = 200;
+
+	@Value("${products.ingest.map-concurrency:4}")
+	private int mapConcurrency = 4;
+
+	@Value("${products.ingest.write-concurrency:1}")
+	private int writeConcurrency = 1;
+
+	@Value("${products.read.strategy:batched}")
+	private ProductReadStrategy readStrategy = ProductReadStrategy.BATCHED;
+
+	private static final int MAX_PAGE_SIZE = 500;
 
 	private static final String ASC = "asc";
 	private static final String PRICE = "price";
 	private static final String PLACEHOLDER = "{}";
 
+	private static final String GET_PRODUCTS = "getProducts";
+	private static final String GET_PRODUCT_BY_ID = "getProductById";
+	private static final String GET_PRODUCT_BY_SKU = "getProductBySku";
+	private static final String GET_PRODUCTS_BY_CATEGORY = "getProductsByCategory";
+	private static final String GET_PRODUCTS_SORTED_BY_PRICE = "getProductsSortedByPrice";
+	private static final String GET_PRODUCTS_PAGE = "getProductsPage";
+	private static final String GET_PRODUCTS_BY_CATEGORY_PAGE = "getProductsByCategoryPage";
+	private static final String GET_PRODUCTS_SORTED_BY_PRICE_PAGE = "getProductsSortedByPricePage";
+	private static final String LOAD_PRODUCTS = "loadProducts";
+	private static final String LOAD_PRODUCTS_INCREMENTALLY = "loadProductsIncrementally";
+	private static final String IMPORT_PRODUCTS = "importProducts";
+	private static final String SEARCH_PRODUCTS = "searchProducts";
+	private static final String FILTER_PRODUCTS = "filterProducts";
+	private static final String GET_PRODUCT_REVIEWS = "getProductReviews";
+	private static final String GET_PRODUCTS_BATCH = "getProductsBatch";
+	private static final String SNAPSHOT_PRODUCTS = "snapshotProducts";
+	private static final String RESTORE_PRODUCTS = "restoreProducts";
+
+	private static final String REVIEWS_BY_PRODUCT = "reviews.findByProductId";
+	private static final String IMAGES_BY_PRODUCT = "images.findByProductId";
+	private static final String TAGS_BY_PRODUCT = "tags.findByProductId";
+	private static final String REVIEWS_BY_PRODUCTS = "reviews.findByProductIdIn";
+	private static final String IMAGES_BY_PRODUCTS = "images.findByProductIdIn";
+	private static final String TAGS_BY_PRODUCTS = "tags.findByProductIdIn";
+	private static final String SUMMARIES_BY_PRODUCTS = "reviewSummaries.findByProductIdIn";
+	private static final String REVIEWS_PAGE = "reviews.findPageByProductIdAfterId";
+	private static final String PRODUCTS_BY_IDS = "products.findAllById";
+	private static final String PRODUCTS_BY_SKUS = "products.findBySkuIn";
+	private static final String AGGREGATES = "products.findAggregates";
+	private static final String VERSION_BY_ID = "products.findVersionById";
+	private static final String VERSION_BY_SKU = "products.findVersionBySku";
+
 	private static final String RETRIEVED_PRODUCT = "Retrieved Product: ";
 	private static final String RETRIEVED_PRODUCT_ID = "Retrieved Product by ID: ";
 	private static final String RETRIEVED_PRODUCT_SKU = "Retrieved Product by SKU: ";
 	private static final String RETRIEVED_PRODUCTS_BY_CATEGORY = "Retrieved Products by Category: ";
 	private static final String RETRIEVED_PRODUCTS_SORTED_BY_PRICE = "Retrieved Products sorted by Price: ";
 	private static final String PRODUCTS_LOADED_SUCCESSFULLY = "Products loaded successfully";
+	private static final String PRODUCTS_LOADED_INCREMENTALLY = "Products loaded incrementally: {}";
 
 	private static final String ERROR_RETRIEVING_PRODUCTS = "Error retrieving Products:";
 	private static final String ERROR_RETRIEVING_PRODUCT_BY_ID = "Error retrieving Product by ID: ";
 	private static final String ERROR_RETRIEVING_PRODUCT_BY_SKU = "Error retrieving Product by SKU: ";
 	private static final String ERROR_RETRIEVING_PRODUCTS_BY_CATEGORY = "Error retrieving Products by Category: ";
 	private static final String ERROR_RETRIEVING_PRODUCTS_SORTED_BY_PRICE = "Error retrieving Products sorted by Price";
+	private static final String IMPORTING_PRODUCTS = "Importing products from {}";
+	private static final String ERROR_MAPPING_PRODUCT = "Error mapping product {}: {}";
+	private static final String ERROR_SAVING_PRODUCT = "Error saving product {}: {}";
+	private static final String RETRYING_CHUNK = "Chunk of {} products failed, saving them one by one: {}";
 	private static final String ERROR_LOADING_PRODUCTS = "Error loading products";
+	private static final String ERROR_RETRIEVING_PRODUCTS_PAGE = "Error retrieving Products page";
+	private static final String INVALID_PRICE_CURSOR = "Cursor does not belong to a price sorted page: ";
+	private static final String ERROR_SEARCHING_PRODUCTS = "Error searching Products: ";
+	private static final String EMPTY_SEARCH_QUERY = "Search query cannot be empty";
+	private static final String ERROR_FILTERING_PRODUCTS = "Error filtering Products: ";
+	private static final String INVALID_PRICE_RANGE = "minPrice cannot be greater than maxPrice";
+	private static final String ERROR_RETRIEVING_PRODUCT_REVIEWS = "Error retrieving Reviews of Product: ";
+	private static final String ERROR_RETRIEVING_PRODUCTS_BATCH = "Error retrieving Products batch";
+	private static final String EMPTY_BATCH = "Batch must contain at least one id or sku";
+	private static final String INVALID_BATCH_SIZE = "Batch cannot contain more than " + MAX_PAGE_SIZE
+			+ " ids and skus";
+	private static final String NULL_BATCH_ENTRY = "Batch ids and skus cannot be null";
+	private static final String INDEXED_PRODUCTS = "Indexed {} products";
+	private static final String WRITING_SNAPSHOT = "Writing catalog snapshot";
+	private static final String ERROR_WRITING_SNAPSHOT = "Error writing catalog snapshot";
+	private static final String NO_SNAPSHOT = "No catalog snapshot to restore, building indexes from the database";
+	private static final String CATALOG_NOT_EMPTY = "Catalog already holds {} products, not restoring the snapshot";
+	private static final String RESTORED_PRODUCTS = "Restored {} products from the catalog snapshot in {} ms";
+	private static final String ERROR_RESTORING_SNAPSHOT = "Error restoring catalog snapshot, "
+			+ "deleting the restored products and building indexes from the database";
+	private static final String INVALID_PAGE_SIZE = "Page limit must be between 1 and " + MAX_PAGE_SIZE;
 
 	private static final String NO_PRODUCTS_FOUND_BY_CATEGORY = "No products found in category ";
 	private static final String PRODUCT_DOES_NOT_EXIST_BY_ID = "product does not exist with id: ";
@@ -78,9 +226,10 @@ public class ProductServiceImpl implements ProductService {
 	 */
 	@Override
 	public Flux<ProductDTO> getProducts() {
-		return productRepository.findAll().flatMap(this::loadProductComponents)
+		return productMetrics.timed(GET_PRODUCTS,
+				readProducts(productRepository::findAll, productAggregateReader::findAll)
 				.doOnNext(product -> log.info(RETRIEVED_PRODUCT, product))
-				.onErrorResume(e -> Flux.error(new ProductServiceException(ERROR_RETRIEVING_PRODUCTS, e)));
+				.onErrorResume(e -> Flux.error(new ProductServiceException(ERROR_RETRIEVING_PRODUCTS, e))));
 	}
 
 	/**
@@ -91,11 +240,28 @@ public class ProductServiceImpl implements ProductService {
 	 */
 	@Override
 	public Mono<ProductDTO> getProductById(Long id) {
-		return productRepository.findById(id).flatMap(this::loadProductComponents)
+		return getProductById(id, null);
+	}
+
+	/**
+	 * Get product by id, taking it from the cache only when the cached copy was
+	 * read from the given revision of the product
+	 * 
+	 * @param id The ID of the product to be retrieved
+	 * @param version The current revision of the product, or null to take any
+	 *                cached copy
+	 * @return A Mono of ProductDTO containing the requested product
+	 */
+	@Override
+	public Mono<ProductDTO> getProductById(Long id, ProductVersion version) {
+		return productMetrics.timed(GET_PRODUCT_BY_ID, Mono.defer(() -> (version == null ? productCache.getById(id)
+				: productCache.getById(id, version)).map(Mono::just)
+				.orElseGet(() -> readProduct(() -> productRepository.findById(id),
+						() -> productAggregateReader.findById(id))))
 				.switchIfEmpty(Mono.error(new ProductNotFoundException(PRODUCT_DOES_NOT_EXIST_BY_ID + id)))
 				.doOnSuccess(product -> log.info(RETRIEVED_PRODUCT_ID + PLACEHOLDER, id))
 				.onErrorResume(e -> Mono.error(e instanceof ProductNotFoundException ? e
-						: new ProductServiceException(ERROR_RETRIEVING_PRODUCT_BY_ID + id, e)));
+						: new ProductServiceException(ERROR_RETRIEVING_PRODUCT_BY_ID + id, e))));
 	}
 
 	/**
@@ -106,11 +272,52 @@ public class ProductServiceImpl implements ProductService {
 	 */
 	@Override
 	public Mono<ProductDTO> getProductBySku(String sku) {
-		return productRepository.findBySku(sku).flatMap(this::loadProductComponents)
+		return getProductBySku(sku, null);
+	}
+
+	/**
+	 * Get product by sku, taking it from the cache only when the cached copy was
+	 * read from the given revision of the product
+	 * 
+	 * @param sku The SKU of the product to be retrieved
+	 * @param version The current revision of the product, or null to take any
+	 *                cached copy
+	 * @return A Mono of ProductDTO containing the requested product
+	 */
+	@Override
+	public Mono<ProductDTO> getProductBySku(String sku, ProductVersion version) {
+		return productMetrics.timed(GET_PRODUCT_BY_SKU, Mono.defer(() -> (version == null ? productCache.getBySku(sku)
+				: productCache.getBySku(sku, version)).map(Mono::just)
+				.orElseGet(() -> readProduct(() -> productRepository.findBySku(sku),
+						() -> productAggregateReader.findBySku(sku))))
 				.switchIfEmpty(Mono.error(new ProductNotFoundException(PRODUCT_DOES_NOT_EXIST_BY_SKU + sku)))
 				.doOnSuccess(product -> log.info(RETRIEVED_PRODUCT_SKU + PLACEHOLDER, sku))
 				.onErrorResume(e -> Mono.error(e instanceof ProductNotFoundException ? e
-						: new ProductServiceException(ERROR_RETRIEVING_PRODUCT_BY_SKU + sku, e)));
+						: new ProductServiceException(ERROR_RETRIEVING_PRODUCT_BY_SKU + sku, e))));
+	}
+
+	/**
+	 * Get the revision of a product without reading its reviews, images and tags
+	 * 
+	 * @param id The ID of the product
+	 * @return A Mono of the ProductVersion, empty when the product does not exist
+	 */
+	@Override
+	public Mono<ProductVersion> getProductVersionById(Long id) {
+		return productMetrics.timedQuery(VERSION_BY_ID, productRepository.findVersionById(id))
+				.onErrorResume(e -> Mono.error(new ProductServiceException(ERROR_RETRIEVING_PRODUCT_BY_ID + id, e)));
+	}
+
+	/**
+	 * Get the revision of a product without reading its reviews, images and tags
+	 * 
+	 * @param sku The SKU of the product
+	 * @return A Mono of the ProductVersion, empty when the product does not exist
+	 */
+	@Override
+	public Mono<ProductVersion> getProductVersionBySku(String sku) {
+		return productMetrics.timedQuery(VERSION_BY_SKU, productRepository.findVersionBySku(sku))
+				.onErrorResume(e -> Mono.error(new ProductServiceException(ERROR_RETRIEVING_PRODUCT_BY_SKU + sku, e)));
 	}
 
 	/**
@@ -121,11 +328,13 @@ public class ProductServiceImpl implements ProductService {
 	 */
 	@Override
 	public Flux<ProductDTO> getProductsByCategory(String category) {
-		return productRepository.findByCategory(category).flatMap(this::loadProductComponents)
+		return productMetrics.timed(GET_PRODUCTS_BY_CATEGORY,
+				readProducts(() -> productRepository.findByCategory(category),
+						() -> productAggregateReader.findByCategory(category))
 				.doOnNext(product -> log.info(RETRIEVED_PRODUCTS_BY_CATEGORY, category))
 				.switchIfEmpty(Flux.error(new ProductNotFoundException(NO_PRODUCTS_FOUND_BY_CATEGORY + category)))
 				.onErrorResume(e -> Flux.error(e instanceof ProductNotFoundException ? e
-						: new ProductServiceException(ERROR_RETRIEVING_PRODUCTS_BY_CATEGORY + category, e)));
+						: new ProductServiceException(ERROR_RETRIEVING_PRODUCTS_BY_CATEGORY + category, e))));
 	}
 
 	/**
@@ -136,10 +345,206 @@ public class ProductServiceImpl implements ProductService {
 	 */
 	@Override
 	public Flux<ProductDTO> getProductsSortedByPrice(String order) {
-		Sort sort = order.equalsIgnoreCase(ASC) ? Sort.by(Sort.Order.asc(PRICE)) : Sort.by(Sort.Order.desc(PRICE));
-		return productRepository.findAll(sort).flatMap(this::loadProductComponents)
+		boolean ascending = order.equalsIgnoreCase(ASC);
+		Sort sort = ascending ? Sort.by(Sort.Order.asc(PRICE)) : Sort.by(Sort.Order.desc(PRICE));
+		return productMetrics.timed(GET_PRODUCTS_SORTED_BY_PRICE,
+				readProducts(() -> productRepository.findAll(sort),
+						() -> productAggregateReader.findAllByPrice(ascending))
 				.doOnNext(product -> log.info(RETRIEVED_PRODUCTS_SORTED_BY_PRICE, order)).onErrorResume(e -> Flux
-						.error(new ProductServiceException(ERROR_RETRIEVING_PRODUCTS_SORTED_BY_PRICE + order, e)));
+						.error(new ProductServiceException(ERROR_RETRIEVING_PRODUCTS_SORTED_BY_PRICE + order, e))));
+	}
+
+	/**
+	 * Get a page of products ordered by id
+	 * 
+	 * @param after The cursor returned with the previous page, or null for the first page
+	 * @param limit The maximum number of products in the page
+	 * @param fields The properties to return, deciding which children are loaded
+	 * @return A Mono of ProductPageDTO containing the products and the next cursor
+	 */
+	@Override
+	public Mono<ProductPageDTO> getProductsPage(String after, int limit, ProductFields fields) {
+		return productMetrics.timed(GET_PRODUCTS_PAGE, Mono.defer(() -> {
+			long afterId = after == null ? Long.MIN_VALUE : ProductCursor.decode(after).getId();
+			return toPage(productRepository.findPageAfterId(afterId, checkPageSize(limit) + 1), limit,
+					ProductCursor::byId, fields);
+		}).onErrorResume(e -> Mono.error(e instanceof InvalidRequestException ? e
+				: new ProductServiceException(ERROR_RETRIEVING_PRODUCTS_PAGE, e))));
+	}
+
+	/**
+	 * Get a page of products of a category ordered by id
+	 * 
+	 * @param category The category of products to be retrieved
+	 * @param after The cursor returned with the previous page, or null for the first page
+	 * @param limit The maximum number of products in the page
+	 * @param fields The properties to return, deciding which children are loaded
+	 * @return A Mono of ProductPageDTO containing the products and the next cursor
+	 */
+	@Override
+	public Mono<ProductPageDTO> getProductsByCategoryPage(String category, String after, int limit,
+			ProductFields fields) {
+		return productMetrics.timed(GET_PRODUCTS_BY_CATEGORY_PAGE, Mono.defer(() -> {
+			long afterId = after == null ? Long.MIN_VALUE : ProductCursor.decode(after).getId();
+			return toPage(productRepository.findPageByCategoryAfterId(category, afterId, checkPageSize(limit) + 1),
+					limit, ProductCursor::byId, fields);
+		}).filter(page -> after != null || !page.getProducts().isEmpty())
+				.switchIfEmpty(Mono.error(new ProductNotFoundException(NO_PRODUCTS_FOUND_BY_CATEGORY + category)))
+				.onErrorResume(e -> Mono.error(
+						e instanceof ProductNotFoundException || e instanceof InvalidRequestException ? e
+								: new ProductServiceException(ERROR_RETRIEVING_PRODUCTS_BY_CATEGORY + category, e))));
+	}
+
+	/**
+	 * Get a page of products ordered by price, with ties broken by id, optionally
+	 * restricted to a price range. The page is read from the in-memory price index
+	 * and only its products are loaded from the database.
+	 * 
+	 * @param order The order in which the products should be sorted (asc or desc)
+	 * @param minPrice The lowest price, inclusive, or null
+	 * @param maxPrice The highest price, inclusive, or null
+	 * @param after The cursor returned with the previous page, or null for the first page
+	 * @param limit The maximum number of products in the page
+	 * @param fields The properties to return, deciding which children are loaded
+	 * @return A Mono of ProductPageDTO containing the products and the next cursor
+	 */
+	@Override
+	public Mono<ProductPageDTO> getProductsSortedByPricePage(String order, Double minPrice, Double maxPrice,
+			String after, int limit, ProductFields fields) {
+		return productMetrics.timed(GET_PRODUCTS_SORTED_BY_PRICE_PAGE, Mono.defer(() -> {
+			int pageSize = checkPageSize(limit);
+			checkPriceRange(minPrice, maxPrice);
+			ProductCursor cursor = after == null ? null : ProductCursor.decode(after);
+			if (cursor != null && cursor.getPrice() == null) {
+				return Mono.error(new InvalidRequestException(INVALID_PRICE_CURSOR + after));
+			}
+			List<Long> ids = productPriceIndex.page(order.equalsIgnoreCase(ASC), minPrice, maxPrice, cursor,
+					pageSize + 1);
+			boolean hasNext = ids.size() > pageSize;
+			return loadProductsInOrder(hasNext ? ids.subList(0, pageSize) : ids, fields).collectList()
+					.map(products -> new ProductPageDTO(products, hasNext && !products.isEmpty()
+							? ProductCursor.byPrice(products.get(products.size() - 1))
+							: null));
+		}).onErrorResume(e -> Mono.error(e instanceof InvalidRequestException ? e
+				: new ProductServiceException(ERROR_RETRIEVING_PRODUCTS_SORTED_BY_PRICE + order, e))));
+	}
+
+	/**
+	 * Search products by free text over title, description, brand, category and
+	 * tags
+	 * 
+	 * @param query The search terms
+	 * @param limit The maximum number of products to return
+	 * @param fields The properties to return, deciding which children are loaded
+	 * @return A Flux of ProductDTO, best match first
+	 */
+	@Override
+	public Flux<ProductDTO> searchProducts(String query, int limit, ProductFields fields) {
+		return productMetrics.timed(SEARCH_PRODUCTS, Mono.fromCallable(() -> {
+			if (query == null || query.isBlank()) {
+				throw new InvalidRequestException(EMPTY_SEARCH_QUERY);
+			}
+			return productSearchIndex.search(query, checkPageSize(limit));
+		}).flatMapMany(ids -> loadProductsInOrder(ids, fields))
+				.onErrorResume(e -> Flux.error(e instanceof InvalidRequestException ? e
+						: new ProductServiceException(ERROR_SEARCHING_PRODUCTS + query, e))));
+	}
+
+	/**
+	 * Filter products by category, brand, price, rating and stock, and count the
+	 * matching products per brand, category, price bucket and availability status
+	 * 
+	 * @param filter The criteria, all of which must match
+	 * @param limit The maximum number of products to return
+	 * @param fields The properties to return, deciding which children are loaded
+	 * @return A Mono of ProductFilterResultDTO with the total, the first matching
+	 *         products and the facet counts
+	 */
+	@Override
+	public Mono<ProductFilterResultDTO> filterProducts(ProductFilter filter, int limit, ProductFields fields) {
+		return productMetrics.timed(FILTER_PRODUCTS, Mono.fromCallable(() -> {
+			checkPriceRange(filter.minPrice(), filter.maxPrice());
+			return productFacetIndex.filter(filter, checkPageSize(limit));
+		}).flatMap(result -> loadProductsInOrder(result.ids(), fields).collectList()
+				.map(products -> new ProductFilterResultDTO(result.total(), products, result.facets())))
+				.onErrorResume(e -> Mono.error(e instanceof InvalidRequestException ? e
+						: new ProductServiceException(ERROR_FILTERING_PRODUCTS + filter, e))));
+	}
+
+	/**
+	 * Get a page of the reviews of a product in the order they were stored
+	 * 
+	 * @param id The ID of the product
+	 * @param after The cursor returned with the previous page, or null for the first page
+	 * @param limit The maximum number of reviews in the page
+	 * @return A Mono of ReviewPageDTO containing the reviews and the next cursor
+	 */
+	@Override
+	public Mono<ReviewPageDTO> getProductReviews(Long id, String after, int limit) {
+		return productMetrics.timed(GET_PRODUCT_REVIEWS, Mono.defer(() -> {
+			long afterId = after == null ? Long.MIN_VALUE : ProductCursor.decode(after).getId();
+			return productMetrics.timedQuery(REVIEWS_PAGE,
+					productReviewRepository.findPageByProductIdAfterId(id, afterId, checkPageSize(limit) + 1))
+					.collectList();
+		}).flatMap(rows -> {
+			boolean hasNext = rows.size() > limit;
+			List<StoredReview> page = hasNext ? rows.subList(0, limit) : rows;
+			ReviewPageDTO reviewPage = new ReviewPageDTO(productMapper.toStoredReviewDTOList(page),
+					hasNext ? ProductCursor.byReview(page.get(page.size() - 1)) : null);
+			if (after != null || !page.isEmpty()) {
+				return Mono.just(reviewPage);
+			}
+			return productRepository.existsById(id).filter(Boolean::booleanValue).map(exists -> reviewPage);
+		}).switchIfEmpty(Mono.error(new ProductNotFoundException(PRODUCT_DOES_NOT_EXIST_BY_ID + id)))
+				.onErrorResume(e -> Mono.error(
+						e instanceof ProductNotFoundException || e instanceof InvalidRequestException ? e
+								: new ProductServiceException(ERROR_RETRIEVING_PRODUCT_REVIEWS + id, e))));
+	}
+
+	/**
+	 * Get a batch of products by id and by sku. The ids and skus are each
+	 * resolved with a single IN query and the components of all found products
+	 * are loaded together, taking cached products from the cache.
+	 * 
+	 * @param ids The IDs of the products, or null
+	 * @param skus The SKUs of the products, or null
+	 * @param fields The properties to return, deciding which children are loaded
+	 * @return A Mono of the lookups of the ids followed by those of the skus, in
+	 *         request order, each marking whether its product was found
+	 */
+	@Override
+	public Mono<List<ProductLookupDTO>> getProductsBatch(List<Long> ids, List<String> skus, ProductFields fields) {
+		List<Long> requestedIds = ids == null ? List.of() : ids;
+		List<String> requestedSkus = skus == null ? List.of() : skus;
+		return productMetrics.timed(GET_PRODUCTS_BATCH, Mono.defer(() -> {
+			checkBatch(requestedIds, requestedSkus);
+			long generation = productCache.generation();
+			Mono<List<ProductDAO>> byIds = requestedIds.isEmpty() ? Mono.just(List.of())
+					: productMetrics.timedQuery(PRODUCTS_BY_IDS,
+							productRepository.findAllById(requestedIds.stream().distinct().toList())).collectList();
+			Mono<List<ProductDAO>> bySkus = requestedSkus.isEmpty() ? Mono.just(List.of())
+					: productMetrics.timedQuery(PRODUCTS_BY_SKUS,
+							productRepository.findBySkuIn(requestedSkus.stream().distinct().toList())).collectList();
+			return Mono.zip(byIds, bySkus).flatMap(rows -> {
+				Map<Long, ProductDAO> productDAOs = new LinkedHashMap<>();
+				rows.getT1().forEach(productDAO -> productDAOs.put(productDAO.getId(), productDAO));
+				rows.getT2().forEach(productDAO -> productDAOs.putIfAbsent(productDAO.getId(), productDAO));
+				return loadProductComponents(List.copyOf(productDAOs.values()), fields, generation).collectList();
+			});
+		}).map(products -> {
+			Map<Long, ProductDTO> byId = new HashMap<>();
+			Map<String, ProductDTO> bySku = new HashMap<>();
+			products.forEach(product -> {
+				byId.put(product.getId(), product);
+				bySku.put(product.getSku(), product);
+			});
+			List<ProductLookupDTO> lookups = new ArrayList<>(requestedIds.size() + requestedSkus.size());
+			requestedIds.forEach(id -> lookups.add(new ProductLookupDTO(id, null, byId.containsKey(id), byId.get(id))));
+			requestedSkus.forEach(
+					sku -> lookups.add(new ProductLookupDTO(null, sku, bySku.containsKey(sku), bySku.get(sku))));
+			return lookups;
+		}).onErrorResume(e -> Mono.error(e instanceof InvalidRequestException ? e
+				: new ProductServiceException(ERROR_RETRIEVING_PRODUCTS_BATCH, e))));
 	}
 
 	/**
@@ -149,37 +554,350 @@ public class ProductServiceImpl implements ProductService {
 	 */
 	@Override
 	public Mono<String> loadProducts() {
+		return loadProducts(new LoadProgress());
+	}
+
+	/**
+	 * Load products, counting them in the progress of the load as they are
+	 * fetched, validated and saved
+	 * 
+	 * @param progress The progress of the load
+	 * @return A Mono indicating the completion of the product loading process
+	 */
+	@Override
+	public Mono<String> loadProducts(LoadProgress progress) {
 		log.info("Loading products");
-		return productsLoadingHelper
-				.loadProducts()
-				.flatMap(this::saveProduct).then()
+		return productMetrics.timed(LOAD_PRODUCTS, saveAll(productsLoadingHelper.loadProducts(progress), progress));
+	}
+
+	/**
+	 * Import products from a local dump file through the same stages as a load
+	 * of the feed
+	 * 
+	 * @param file     The file to import, already resolved in the import
+	 *                 directory
+	 * @param progress The progress of the import
+	 * @return A Mono indicating the completion of the import
+	 */
+	@Override
+	public Mono<String> importProducts(Path file, LoadProgress progress) {
+		log.info(IMPORTING_PRODUCTS, file);
+		return productMetrics.timed(IMPORT_PRODUCTS,
+				saveAll(productsLoadingHelper.loadProducts(file, progress), progress));
+	}
+
+	private Mono<String> saveAll(Flux<ProductDTO> productDTOs, LoadProgress progress) {
+		return productDTOs
+				.transform(validated -> mapProducts(validated, progress))
+				.buffer(ingestChunkSize)
+				.flatMap(products -> saveChunk(products, progress), writeConcurrency).then()
 				.doOnSuccess(unused -> log.info(PRODUCTS_LOADED_SUCCESSFULLY))
 				.onErrorResume(e -> {
 					log.error(ERROR_LOADING_PRODUCTS, e);
 					return Mono.error(new ProductServiceException(ERROR_LOADING_PRODUCTS, e));
 				}).thenReturn(PRODUCTS_LOADED_SUCCESSFULLY);
+	}
+
+	/**
+	 * Load products, writing only those that are new or whose content changed
+	 * since the last load. A product is unchanged when its meta.updatedAt matches
+	 * the stored update time and its content hash matches the stored hash; the
+	 * hash is computed only for products that pass the timestamp check. Stored
+	 * products missing from the feed are counted as removed but kept.
+	 * 
+	 * @return A Mono of LoadSummaryDTO with the counts of new, changed, unchanged
+	 *         and removed products
+	 */
+	@Override
+	public Mono<LoadSummaryDTO> loadProductsIncrementally() {
+		return loadProductsIncrementally(new LoadProgress());
+	}
+
+	/**
+	 * Load products incrementally, counting them in the progress of the load as
+	 * they are fetched, validated, saved or skipped
+	 * 
+	 * @param progress The progress of the load
+	 * @return A Mono of LoadSummaryDTO with the counts of new, changed, unchanged
+	 *         and removed products
+	 */
+	@Override
+	public Mono<LoadSummaryDTO> loadProductsIncrementally(LoadProgress progress) {
+		log.info("Loading products incrementally");
+		return productMetrics.timed(LOAD_PRODUCTS_INCREMENTALLY,
+				productDAOService.findVersions().collectMap(ProductDAO::getId).flatMap(stored -> {
+					LoadSummaryDTO summary = new LoadSummaryDTO();
+					return productsLoadingHelper
+							.loadProducts(progress)
+							.filter(productDTO -> isModified(productDTO, stored.remove(productDTO.getId()), summary,
+									progress))
+							.transform(productDTOs -> mapProducts(productDTOs, progress))
+							.buffer(ingestChunkSize)
+							.flatMap(products -> saveChunk(products, progress), writeConcurrency)
+							.then(Mono.fromCallable(() -> {
+								summary.setRemoved(stored.size());
+								return summary;
+							}));
+				}).doOnSuccess(summary -> log.info(PRODUCTS_LOADED_INCREMENTALLY, summary))
+						.onErrorResume(e -> {
+							log.error(ERROR_LOADING_PRODUCTS, e);
+							return Mono.error(new ProductServiceException(ERROR_LOADING_PRODUCTS, e));
+						}));
+	}
 
+	private boolean isModified(ProductDTO productDTO, ProductDAO stored, LoadSummaryDTO summary,
+			LoadProgress progress) {
+		if (stored == null) {
+			summary.setAdded(summary.getAdded() + 1);
+			return true;
+		}
+		if (Objects.equals(stored.getUpdatedAt(), updatedAt(productDTO))
+				&& Objects.equals(stored.getContentHash(), productHasher.hash(productDTO))) {
+			summary.setUnchanged(summary.getUnchanged() + 1);
+			progress.skipped();
+			productMetrics.countProducts(ProductMetrics.RESULT_SKIPPED, 1);
+			return false;
+		}
+		summary.setChanged(summary.getChanged() + 1);
+		return true;
+	}
+
+	private static Instant updatedAt(ProductDTO productDTO) {
+		try {
+			return productDTO.getMeta() == null ? null : Instant.parse(productDTO.getMeta().getUpdatedAt());
+		} catch (DateTimeParseException e) {
+			return null;
+		}
 	}
 
 	/**
-	 * Save a product
+	 * Save a product with its components in one transaction, refresh its cached
+	 * copy and advance the catalog version
 	 * 
 	 * @return A Mono of ProductDTO containing the saved product
 	 */
 	public Mono<ProductDTO> saveProduct(ProductDTO productDTO) {
+		MappedProduct product = map(productDTO);
+		log.info("Saving product: {}", product.productDAO());
+
+		return productDAOService.save(product.productDAO())
+				.flatMap(savedProduct -> saveProductComponents(List.of(product)).thenReturn(savedProduct))
+				.as(transactionalOperator::transactional)
+				.flatMap(savedProduct -> loadProductComponents(savedProduct)
+						.doOnNext(saved -> productCache.put(saved, ProductVersion.of(savedProduct))))
+				.doOnNext(this::index)
+				.doOnNext(saved -> catalogVersion.advance());
+
+	}
+
+	/**
+	 * Save a chunk of products in one transaction, reconciling the reviews, images
+	 * and tags of the whole chunk with batched writes, then drop their cached
+	 * copies and advance the catalog version
+	 * 
+	 * @param productDTOs The products to be saved
+	 * @return A Mono indicating the completion of the save
+	 */
+	public Mono<Void> saveProducts(List<ProductDTO> productDTOs) {
+		return Mono.defer(() -> writeProducts(productDTOs.stream().map(this::map).toList()));
+	}
+
+	/**
+	 * Write a chunk of mapped products and their components in one transaction,
+	 * so that a failed chunk leaves no product without its children. The product
+	 * rows are written with one batched statement on the connection of the
+	 * transaction.
+	 */
+	private Mono<Void> writeProducts(List<MappedProduct> products) {
+		log.info("Saving {} products", products.size());
+		return productDAOService.saveAll(products.stream().map(MappedProduct::productDAO).toList())
+				.then(Mono.defer(() -> saveProductComponents(products)))
+				.as(transactionalOperator::transactional)
+				.doOnSuccess(unused -> products.forEach(product -> {
+					productCache.invalidate(product.productDTO().getId());
+					index(product.productDTO());
+				})).doOnSuccess(unused -> catalogVersion.advance());
+	}
+
+	/**
+	 * Map validated products to their rows on the parallel scheduler, at most
+	 * {@code products.ingest.map-concurrency} at a time, keeping feed order.
+	 * Products that cannot be mapped are recorded as rejected in the progress.
+	 */
+	private Flux<MappedProduct> mapProducts(Flux<ProductDTO> productDTOs, LoadProgress progress) {
+		return productDTOs.flatMapSequential(productDTO -> Mono
+				.fromCallable(() -> productMetrics.recordStage(ProductMetrics.STAGE_MAP, () -> map(productDTO)))
+				.subscribeOn(Schedulers.parallel())
+				.onErrorResume(e -> {
+					log.error(ERROR_MAPPING_PRODUCT, productDTO.getId(), e.getMessage());
+					productMetrics.countProducts(ProductMetrics.RESULT_INVALID, 1);
+					progress.rejected(productDTO, ProductMetrics.STAGE_MAP, e.getMessage());
+					return Mono.empty();
+				}), mapConcurrency);
+	}
+
+	private MappedProduct map(ProductDTO productDTO) {
+		return new MappedProduct(productDTO, toDAO(productDTO), productMapper.toReviewDAOList(productDTO),
+				productMapper.toProductImageDaos(productDTO), productMapper.toProductTagDaos(productDTO));
+	}
+
+	/**
+	 * Rebuild the in-memory indexes from the database
+	 * 
+	 * @return A Mono of the number of indexed products
+	 */
+	public Mono<Long> rebuildIndexes() {
+		return loadProductComponentsInBatches(productRepository.findAll()).doOnNext(this::index).count()
+				.doOnNext(count -> log.info(INDEXED_PRODUCTS, count));
+	}
+
+	/**
+	 * Load products with their components into the product cache
+	 * 
+	 * @param ids the ids of the products
+	 * @return A Mono of the number of products found
+	 */
+	public Mono<Long> preloadProducts(List<Long> ids) {
+		if (ids.isEmpty()) {
+			return Mono.just(0L);
+		}
+		return loadProductComponentsInBatches(productRepository.findAllById(ids)).count();
+	}
+
+	/**
+	 * Write a snapshot of the whole catalog, read with a single statement so
+	 * that it is consistent even while a load is running
+	 * 
+	 * @return A Mono of SnapshotDTO describing the written snapshot
+	 */
+	@Override
+	public Mono<SnapshotDTO> snapshotProducts() {
+		log.info(WRITING_SNAPSHOT);
+		return productMetrics.timed(SNAPSHOT_PRODUCTS,
+				Mono.defer(() -> catalogSnapshot.write(productAggregateReader.findAll()))
+						.onErrorResume(e -> Mono.error(e instanceof InvalidRequestException ? e
+								: new ProductServiceException(ERROR_WRITING_SNAPSHOT, e))));
+	}
+
+	/**
+	 * Restore the catalog from its snapshot into an empty database and fill the
+	 * in-memory indexes as the products are written. Each chunk of products is
+	 * written with batched inserts in one transaction. When there is no
+	 * snapshot or the catalog is not empty, the indexes are rebuilt from the
+	 * database instead. When the snapshot cannot be restored, the products already
+	 * restored are deleted and dropped from the indexes first, so that a partial
+	 * catalog is never served.
+	 * 
+	 * @return A Mono of the number of indexed products
+	 */
+	public Mono<Long> restoreProducts() {
+		if (!catalogSnapshot.exists()) {
+			log.warn(NO_SNAPSHOT);
+			return rebuildIndexes();
+		}
+		return productRepository.count().flatMap(count -> {
+			if (count > 0) {
+				log.warn(CATALOG_NOT_EMPTY, count);
+				return rebuildIndexes();
+			}
+			long start = System.nanoTime();
+			List<long[]> restoredIds = new ArrayList<>();
+			return productMetrics.timed(RESTORE_PRODUCTS, catalogSnapshot.read().buffer(ingestChunkSize)
+					.concatMap(aggregates -> restoreChunk(aggregates, restoredIds)).reduce(0L, Long::sum))
+					.doOnNext(restored -> {
+						catalogVersion.advance();
+						log.info(RESTORED_PRODUCTS, restored, (System.nanoTime() - start) / 1_000_000);
+					}).onErrorResume(e -> {
+						log.error(ERROR_RESTORING_SNAPSHOT, e);
+						return discardRestored(restoredIds).then(Mono.defer(this::rebuildIndexes));
+					});
+		});
+	}
+
+	/**
+	 * Delete the chunks a failed restore already wrote, one statement per chunk,
+	 * their components going with them by cascade, and drop them from the
+	 * indexes. Products saved by requests served meanwhile are kept.
+	 */
+	private Mono<Void> discardRestored(List<long[]> restoredIds) {
+		return Flux.fromIterable(restoredIds)
+				.concatMap(ids -> productRepository.deleteAllById(LongStream.of(ids).boxed().toList())
+						.then(Mono.fromRunnable(() -> {
+							for (long id : ids) {
+								productIndexes.forEach(productIndex -> productIndex.remove(id));
+							}
+						})))
+				.then();
+	}
+
+	private Mono<Long> restoreChunk(List<ProductAggregate> aggregates, List<long[]> restoredIds) {
+		List<ProductDAO> products = aggregates.stream().map(ProductAggregate::product).toList();
+		List<Long> productIds = products.stream().map(ProductDAO::getId).toList();
+		return productDAOService.saveAll(products)
+				.then(productComponentWriter.insertReviews(
+						aggregates.stream().flatMap(aggregate -> aggregate.reviews().stream()).toList()))
+				.then(productComponentWriter.insertImages(
+						aggregates.stream().flatMap(aggregate -> aggregate.images().stream()).toList()))
+				.then(productComponentWriter.insertTags(
+						aggregates.stream().flatMap(aggregate -> aggregate.tags().stream()).toList()))
+				.then(productComponentReconciler.refreshSummaries(productIds))
+				.as(transactionalOperator::transactional)
+				.then(Mono.fromCallable(() -> {
+					restoredIds.add(productIds.stream().mapToLong(Long::longValue).toArray());
+					aggregates.forEach(aggregate -> index(toDTO(aggregate)));
+					return (long) aggregates.size();
+				}));
+	}
+
+	private void index(ProductDTO productDTO) {
+		productIndexes.forEach(productIndex -> productIndex.index(productDTO));
+	}
+
+	/**
+	 * Write a chunk of products in one transaction. When a product of the chunk
+	 * breaks a constraint, such as a duplicate barcode, the transaction is rolled
+	 * back and the products are written again one per transaction; a product that
+	 * still fails is recorded as rejected at the save stage and the load goes on.
+	 * Other errors fail the load.
+	 */
+	private Mono<Void> saveChunk(List<MappedProduct> products, LoadProgress progress) {
+		return productMetrics.timedStage(ProductMetrics.STAGE_SAVE, writeProducts(products))
+				.doOnSuccess(unused -> {
+					progress.saved(products.size());
+					productMetrics.countProducts(ProductMetrics.RESULT_SAVED, products.size());
+				}).onErrorResume(DataIntegrityViolationException.class, e -> {
+					if (products.size() > 1) {
+						log.warn(RETRYING_CHUNK, products.size(), e.getMessage());
+						return Flux.fromIterable(products).concatMap(product -> saveChunk(List.of(product), progress))
+								.then();
+					}
+					ProductDTO productDTO = products.get(0).productDTO();
+					log.error(ERROR_SAVING_PRODUCT, productDTO.getId(), e.getMessage());
+					productMetrics.countProducts(ProductMetrics.RESULT_INVALID, 1);
+					progress.rejected(productDTO, ProductMetrics.STAGE_SAVE, e.getMessage());
+					return Mono.empty();
+				});
+	}
+
+	private ProductDAO toDAO(ProductDTO productDTO) {
 		ProductDAO productDAO = productMapper.toDAO(productDTO);
-		log.info("Saving product: {}", productDAO);
+		productDAO.setContentHash(productHasher.hash(productDTO));
+		return productDAO;
+	}
 
-		return productDAOService.save(productDAO).flatMap(savedProduct -> {
-			Flux<ReviewDAO> reviews = Flux.fromIterable(productMapper.toReviewDAOList(productDTO))
-					.flatMap(productReviewRepository::save);
-			Flux<ProductImageDAO> images = Flux.fromIterable(productMapper.toProductImageDaos(productDTO))
-					.flatMap(productImageRepository::save);
-			Flux<ProductTagDAO> tags = Flux.fromIterable(productMapper.toProductTagDaos(productDTO))
-					.flatMap(productTagRepository::save);
-			return Flux.merge(reviews, images, tags).then(Mono.just(savedProduct));
-		}).flatMap(this::loadProductComponents);
+	private Mono<Void> saveProductComponents(List<MappedProduct> products) {
+		List<ReviewDAO> reviews = products.stream().flatMap(product -> product.reviews().stream()).toList();
+		List<ProductImageDAO> images = products.stream().flatMap(product -> product.images().stream()).toList();
+		List<ProductTagDAO> tags = products.stream().flatMap(product -> product.tags().stream()).toList();
+		List<Long> productIds = products.stream().map(product -> product.productDTO().getId()).toList();
+		return productComponentReconciler.reconcile(productIds, reviews, images, tags);
+	}
 
+	/**
+	 * A product of a load with the rows it is written as
+	 */
+	private record MappedProduct(ProductDTO productDTO, ProductDAO productDAO, List<ReviewDAO> reviews,
+			List<ProductImageDAO> images, List<ProductTagDAO> tags) {
 	}
 
 	/**
@@ -189,12 +907,208 @@ public class ProductServiceImpl implements ProductService {
 	 * @return A Mono of ProductDTO containing the product with its components (reviews, images, tags)
 	 */
 	public Mono<ProductDTO> loadProductComponents(ProductDAO productDAO) {
-		Mono<List<ReviewDAO>> reviews = productReviewRepository.findByProductId(productDAO.getId()).collectList();
-		Mono<List<ProductImageDAO>> images = productImageRepository.findByProductId(productDAO.getId()).collectList();
-		Mono<List<ProductTagDAO>> tags = productTagRepository.findByProductId(productDAO.getId()).collectList();
+		Mono<List<ReviewDAO>> reviews = productMetrics
+				.timedQuery(REVIEWS_BY_PRODUCT, productReviewRepository.findByProductId(productDAO.getId())).collectList();
+		Mono<List<ProductImageDAO>> images = productMetrics
+				.timedQuery(IMAGES_BY_PRODUCT, productImageRepository.findByProductId(productDAO.getId())).collectList();
+		Mono<List<ProductTagDAO>> tags = productMetrics
+				.timedQuery(TAGS_BY_PRODUCT, productTagRepository.findByProductId(productDAO.getId())).collectList();
 
 		return Mono.zip(reviews, images, tags)
 				.map(tuple -> productMapper.toDTO(productDAO, tuple.getT1(), tuple.getT2(), tuple.getT3()));
 	}
 
+	/**
+	 * Read products with their components using the configured read strategy
+	 * 
+	 * @param products   The query for the product rows, used by the batched strategy
+	 * @param aggregates The single query for products and components
+	 * @return A Flux of ProductDTO in query order
+	 */
+	private Flux<ProductDTO> readProducts(Supplier<Flux<ProductDAO>> products,
+			Supplier<Flux<ProductAggregate>> aggregates) {
+		if (readStrategy == ProductReadStrategy.SINGLE_QUERY) {
+			return productMetrics.timedQuery(AGGREGATES, aggregates.get()).map(this::toDTO);
+		}
+		return loadProductComponentsInBatches(products.get());
+	}
+
+	/**
+	 * Read a product with its components using the configured read strategy and
+	 * add it to the cache, taking the cache generation before the read
+	 */
+	private Mono<ProductDTO> readProduct(Supplier<Mono<ProductDAO>> product,
+			Supplier<Mono<ProductAggregate>> aggregate) {
+		long generation = productCache.generation();
+		if (readStrategy == ProductReadStrategy.SINGLE_QUERY) {
+			return productMetrics.timedQuery(AGGREGATES, aggregate.get())
+					.map(read -> cache(read.product(), toDTO(read), generation));
+		}
+		return product.get().flatMap(productDAO -> loadProductComponents(productDAO)
+				.map(read -> cache(productDAO, read, generation)));
+	}
+
+	private ProductDTO cache(ProductDAO productDAO, ProductDTO product, long generation) {
+		productCache.put(product, ProductVersion.of(productDAO), generation);
+		return product;
+	}
+
+	private ProductDTO toDTO(ProductAggregate aggregate) {
+		return productMapper.toDTO(aggregate.product(), aggregate.reviews(), aggregate.images(), aggregate.tags());
+	}
+
+	/**
+	 * Load the components of a stream of products in windows, issuing one query
+	 * per child table for each window instead of three queries per product
+	 * 
+	 * @param products The Flux of ProductDAO objects whose components are to be loaded
+	 * @return A Flux of ProductDTO in the same order as the given products
+	 */
+	public Flux<ProductDTO> loadProductComponentsInBatches(Flux<ProductDAO> products) {
+		return Flux.defer(() -> {
+			long generation = productCache.generation();
+			return products.buffer(componentBatchSize)
+					.concatMap(window -> loadProductComponents(window, ProductFields.ALL, generation), 1);
+		});
+	}
+
+	/**
+	 * Load the requested components of a window of products. Cached products are
+	 * returned whole; for the others only the child tables of the requested
+	 * children are queried, the rest are left empty, and the products are cached
+	 * only when they are complete. When the reviews are not requested, the review
+	 * summary is read from the review_summaries table instead of being computed
+	 * from them.
+	 * 
+	 * @param productDAOs The ProductDAO objects whose components are to be loaded
+	 * @param fields The properties to return, deciding which children are loaded
+	 * @param generation The cache generation taken before the products were read
+	 * @return A Flux of ProductDTO in the same order as the given products
+	 */
+	private Flux<ProductDTO> loadProductComponents(List<ProductDAO> productDAOs, ProductFields fields,
+			long generation) {
+		return Flux.defer(() -> {
+			Map<Long, ProductDTO> products = new HashMap<>();
+			productDAOs.forEach(productDAO -> productCache.getById(productDAO.getId())
+					.ifPresent(product -> products.put(productDAO.getId(), product)));
+			List<ProductDAO> misses = productDAOs.stream()
+					.filter(productDAO -> !products.containsKey(productDAO.getId())).toList();
+			Mono<Void> loaded = misses.isEmpty() ? Mono.empty()
+					: queryProductComponents(misses, fields).collectList().doOnNext(loadedProducts -> {
+						for (int i = 0; i < misses.size(); i++) {
+							if (fields.includesAllChildren()) {
+								productCache.put(loadedProducts.get(i), ProductVersion.of(misses.get(i)), generation);
+							}
+							products.put(misses.get(i).getId(), loadedProducts.get(i));
+						}
+					}).then();
+			return loaded.thenMany(Flux.defer(() -> Flux.fromIterable(productDAOs)
+					.map(productDAO -> products.get(productDAO.getId()))));
+		});
+	}
+
+	private Flux<ProductDTO> queryProductComponents(List<ProductDAO> productDAOs, ProductFields fields) {
+		List<Long> ids = productDAOs.stream().map(ProductDAO::getId).toList();
+		Mono<Map<Long, List<ReviewDAO>>> reviews = !fields.includes(ProductFields.REVIEWS) ? Mono.just(Map.of())
+				: productMetrics.timedQuery(REVIEWS_BY_PRODUCTS, productReviewRepository.findByProductIdIn(ids))
+						.collect(Collectors.groupingBy(ReviewDAO::getProductId));
+		Mono<Map<Long, List<ProductImageDAO>>> images = !fields.includes(ProductFields.IMAGES) ? Mono.just(Map.of())
+				: productMetrics.timedQuery(IMAGES_BY_PRODUCTS, productImageRepository.findByProductIdIn(ids))
+						.collect(Collectors.groupingBy(ProductImageDAO::getProductId));
+		Mono<Map<Long, List<ProductTagDAO>>> tags = !fields.includes(ProductFields.TAGS) ? Mono.just(Map.of())
+				: productMetrics.timedQuery(TAGS_BY_PRODUCTS, productTagRepository.findByProductIdIn(ids))
+						.collect(Collectors.groupingBy(ProductTagDAO::getProductId));
+		boolean readSummaries = !fields.includes(ProductFields.REVIEWS)
+				&& fields.includes(ProductFields.REVIEW_SUMMARY);
+		Mono<Map<Long, ReviewSummaryDAO>> summaries = !readSummaries ? Mono.just(Map.of())
+				: productMetrics.timedQuery(SUMMARIES_BY_PRODUCTS, reviewSummaryRepository.findByProductIdIn(ids))
+						.collectMap(ReviewSummaryDAO::getProductId);
+
+		return Mono.zip(reviews, images, tags, summaries)
+				.flatMapIterable(tuple -> productDAOs.stream().map(productDAO -> {
+					ProductDTO product = productMapper.toDTO(productDAO,
+							tuple.getT1().getOrDefault(productDAO.getId(), Collections.emptyList()),
+							tuple.getT2().getOrDefault(productDAO.getId(), Collections.emptyList()),
+							tuple.getT3().getOrDefault(productDAO.getId(), Collections.emptyList()));
+					if (!fields.includes(ProductFields.REVIEWS)) {
+						product.setReviewSummary(readSummaries
+								? productMapper.toReviewSummaryDTO(tuple.getT4().get(productDAO.getId()))
+								: null);
+					}
+					return product;
+				}).toList());
+	}
+
+	/**
+	 * Load products with their components in the order of the given ids,
+	 * skipping ids that no longer exist
+	 * 
+	 * @param ids The product ids
+	 * @param fields The properties to return, deciding which children are loaded
+	 * @return A Flux of ProductDTO in the order of the ids
+	 */
+	private Flux<ProductDTO> loadProductsInOrder(List<Long> ids, ProductFields fields) {
+		if (ids.isEmpty()) {
+			return Flux.empty();
+		}
+		return Flux.defer(() -> {
+			long generation = productCache.generation();
+			return productRepository.findAllById(ids).collectMap(ProductDAO::getId)
+					.flatMapMany(products -> loadProductComponents(
+							ids.stream().map(products::get).filter(Objects::nonNull).toList(), fields, generation));
+		});
+	}
+
+	/**
+	 * Assemble a page from a keyset query that fetched one row more than the page
+	 * size, using the extra row only to detect whether a next page exists
+	 * 
+	 * @param rows The rows of the page plus at most one look-ahead row
+	 * @param limit The page size
+	 * @param cursorOf The function encoding the cursor of the last row of the page
+	 * @param fields The properties to return, deciding which children are loaded
+	 * @return A Mono of ProductPageDTO
+	 */
+	private Mono<ProductPageDTO> toPage(Flux<ProductDAO> rows, int limit, Function<ProductDAO, String> cursorOf,
+			ProductFields fields) {
+		return Mono.defer(() -> {
+			long generation = productCache.generation();
+			return rows.collectList().flatMap(productDAOs -> {
+				boolean hasNext = productDAOs.size() > limit;
+				List<ProductDAO> page = hasNext ? productDAOs.subList(0, limit) : productDAOs;
+				String nextCursor = hasNext ? cursorOf.apply(page.get(page.size() - 1)) : null;
+				if (page.isEmpty()) {
+					return Mono.just(new ProductPageDTO(Collections.emptyList(), null));
+				}
+				return loadProductComponents(page, fields, generation).collectList()
+						.map(products -> new ProductPageDTO(products, nextCursor));
+			});
+		});
+	}
+
+	private static void checkPriceRange(Double minPrice, Double maxPrice) {
+		if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+			throw new InvalidRequestException(INVALID_PRICE_RANGE);
+		}
+	}
+
+	private static void checkBatch(List<Long> ids, List<String> skus) {
+		if (ids.isEmpty() && skus.isEmpty()) {
+			throw new InvalidRequestException(EMPTY_BATCH);
+		}
+		if (ids.size() + skus.size() > MAX_PAGE_SIZE) {
+			throw new InvalidRequestException(INVALID_BATCH_SIZE);
+		}
+		if (ids.stream().anyMatch(Objects::isNull) || skus.stream().anyMatch(Objects::isNull)) {
+			throw new InvalidRequestException(NULL_BATCH_ENTRY);
+		}
+	}
+
+	private int checkPageSize(int limit) {
+		if (limit < 1 || limit > MAX_PAGE_SIZE) {
+			throw new InvalidRequestException(INVALID_PAGE_SIZE);
+		}
+		return limit;
+	}
+
 }
@@ -0,0 +1,438 @@
+package com.store.backend.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.stereotype.Component;
+
+import com.store.backend.dao.ProductAggregate;
+import com.store.backend.dao.ProductDAO;
+import com.store.backend.dao.ProductImageDAO;
+import com.store.backend.dao.ProductTagDAO;
+import com.store.backend.dao.ReviewDAO;
+import com.store.backend.dto.SnapshotDTO;
+import com.store.backend.exception.InvalidRequestException;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Writes the catalog to a binary snapshot file in {@code products.snapshot.dir}
+ * and reads it back. The file starts with a magic number, the format version
+ * and the time it was written, followed by one record per product holding its
+ * row, reviews, images and tags, an end marker with the number of products, and
+ * a CRC-32 of everything before it.
+ * <p>
+ * A snapshot is written to a temporary file that replaces the previous snapshot
+ * only once it is complete, and reading a snapshot checks the whole file
+ * against its checksum before the first product is returned, so a truncated or
+ * corrupted file is never partly restored.
+ */
+@Component
+@Slf4j
+public class CatalogSnapshot {
+
+	@Value("${products.snapshot.dir:}")
+	private String snapshotDir = "";
+
+	public static final int VERSION = 2;
+
+	private static final int MAGIC = 0x45534E50;
+	private static final byte PRODUCT = 1;
+	private static final byte END = 0;
+	private static final int HEADER_SIZE = 4 + 2 + 8;
+	private static final int TRAILER_SIZE = 1 + 8 + 4;
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final String FILE_NAME = "catalog.snapshot";
+
+	private static final String SNAPSHOTS_DISABLED = "Snapshots are disabled, products.snapshot.dir is not set";
+	private static final String ERROR_WRITING_SNAPSHOT = "Error writing snapshot ";
+	private static final String ERROR_READING_SNAPSHOT = "Error reading snapshot ";
+	private static final String NOT_A_SNAPSHOT = "Not a catalog snapshot: ";
+	private static final String UNSUPPORTED_VERSION = "Unsupported snapshot version %d in %s";
+	private static final String CHECKSUM_MISMATCH = "Snapshot checksum does not match, the file is corrupt: ";
+	private static final String COUNT_MISMATCH = "Snapshot product count does not match, the file is corrupt: ";
+	private static final String SNAPSHOT_WRITTEN = "Wrote snapshot of {} products to {} ({} bytes)";
+
+	public CatalogSnapshot() {
+	}
+
+	public CatalogSnapshot(String snapshotDir) {
+		this.snapshotDir = snapshotDir;
+	}
+
+	/**
+	 * Whether a snapshot can be restored
+	 *
+	 * @return true if snapshots are enabled and a snapshot file exists
+	 */
+	public boolean exists() {
+		return !isDisabled() && Files.isRegularFile(file());
+	}
+
+	/**
+	 * The snapshot file
+	 *
+	 * @return the path of the snapshot file in the snapshot directory
+	 * @throws InvalidRequestException if snapshots are disabled
+	 */
+	public Path file() {
+		if (isDisabled()) {
+			throw new InvalidRequestException(SNAPSHOTS_DISABLED);
+		}
+		return Path.of(snapshotDir).resolve(FILE_NAME);
+	}
+
+	private boolean isDisabled() {
+		return snapshotDir == null || snapshotDir.isBlank();
+	}
+
+	/**
+	 * Write a snapshot of the given products, replacing the previous snapshot once
+	 * it is complete
+	 *
+	 * @param products the products with their reviews, images and tags
+	 * @return A Mono of SnapshotDTO describing the written file
+	 * @throws InvalidRequestException if snapshots are disabled
+	 */
+	public Mono<SnapshotDTO> write(Flux<ProductAggregate> products) {
+		Path file = file();
+		return Mono.using(() -> new Writer(file),
+				writer -> products.publishOn(Schedulers.boundedElastic()).doOnNext(writer::write)
+						.then(Mono.fromCallable(writer::commit)),
+				Writer::close);
+	}
+
+	/**
+	 * Read the products of the snapshot, after checking the whole file against
+	 * its checksum
+	 *
+	 * @return a Flux of ProductAggregate in snapshot order, or a
+	 *         {@link DecodingException} if the file is not a snapshot of a
+	 *         supported version or is corrupt
+	 * @throws InvalidRequestException if snapshots are disabled
+	 */
+	public Flux<ProductAggregate> read() {
+		Path file = file();
+		return Flux.<ProductAggregate, Reader>generate(() -> new Reader(file), (reader, sink) -> {
+			ProductAggregate product = reader.next();
+			if (product == null) {
+				sink.complete();
+			} else {
+				sink.next(product);
+			}
+			return reader;
+		}, Reader::close).subscribeOn(Schedulers.boundedElastic());
+	}
+
+	/**
+	 * Writes the records of a snapshot to a temporary file next to the snapshot,
+	 * computing the checksum as the bytes go out
+	 */
+	private static class Writer {
+
+		private final Path file;
+		private final Path temporary;
+		private final Instant createdAt = Instant.now();
+		private final CRC32 checksum = new CRC32();
+		private final OutputStream output;
+		private final DataOutputStream data;
+		private long count;
+
+		Writer(Path file) throws IOException {
+			this.file = file;
+			this.temporary = Files.createTempFile(file.getParent(), FILE_NAME, ".tmp");
+			this.output = new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE);
+			this.data = new DataOutputStream(new CheckedOutputStream(output, checksum));
+			data.writeInt(MAGIC);
+			data.writeShort(VERSION);
+			data.writeLong(createdAt.toEpochMilli());
+		}
+
+		void write(ProductAggregate aggregate) {
+			try {
+				writeProduct(aggregate.product());
+				data.writeInt(aggregate.reviews().size());
+				for (ReviewDAO review : aggregate.reviews()) {
+					writeDouble(review.getRating());
+					writeString(review.getComment());
+					writeInstant(review.getDate());
+					writeString(review.getReviewerName());
+					writeString(review.getReviewerEmail());
+					writeInteger(review.getPosition());
+				}
+				data.writeInt(aggregate.images().size());
+				for (ProductImageDAO image : aggregate.images()) {
+					writeString(image.getImageUrl());
+				}
+				data.writeInt(aggregate.tags().size());
+				for (ProductTagDAO tag : aggregate.tags()) {
+					writeString(tag.getTag());
+				}
+				count++;
+			} catch (IOException e) {
+				throw new UncheckedIOException(ERROR_WRITING_SNAPSHOT + file, e);
+			}
+		}
+
+		private void writeProduct(ProductDAO product) throws IOException {
+			data.writeByte(PRODUCT);
+			data.writeLong(product.getId());
+			writeString(product.getTitle());
+			writeString(product.getDescription());
+			writeString(product.getCategory());
+			writeDouble(product.getPrice());
+			writeDouble(product.getDiscountPercentage());
+			writeDouble(product.getRating());
+			writeInteger(product.getStock());
+			writeString(product.getBrand());
+			writeString(product.getSku());
+			writeDouble(product.getWeight());
+			writeDouble(product.getWidth());
+			writeDouble(product.getHeight());
+			writeDouble(product.getDepth());
+			writeString(product.getWarrantyInformation());
+			writeString(product.getShippingInformation());
+			writeString(product.getAvailabilityStatus());
+			writeString(product.getReturnPolicy());
+			writeInteger(product.getMinimumOrderQuantity());
+			writeInstant(product.getCreatedAt());
+			writeInstant(product.getUpdatedAt());
+			writeString(product.getBarcode());
+			writeString(product.getQrCode());
+			writeString(product.getThumbnail());
+			writeString(product.getContentHash());
+		}
+
+		private void writeString(String value) throws IOException {
+			if (value == null) {
+				data.writeInt(-1);
+				return;
+			}
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			data.writeInt(bytes.length);
+			data.write(bytes);
+		}
+
+		private void writeDouble(Double value) throws IOException {
+			data.writeBoolean(value != null);
+			if (value != null) {
+				data.writeDouble(value);
+			}
+		}
+
+		private void writeInteger(Integer value) throws IOException {
+			data.writeBoolean(value != null);
+			if (value != null) {
+				data.writeInt(value);
+			}
+		}
+
+		private void writeInstant(Instant value) throws IOException {
+			data.writeBoolean(value != null);
+			if (value != null) {
+				data.writeLong(value.getEpochSecond());
+				data.writeInt(value.getNano());
+			}
+		}
+
+		/**
+		 * Write the end marker and the checksum and move the file in place of the
+		 * previous snapshot
+		 */
+		SnapshotDTO commit() throws IOException {
+			data.writeByte(END);
+			data.writeLong(count);
+			data.flush();
+			int crc = (int) checksum.getValue();
+			new DataOutputStream(output).writeInt(crc);
+			output.close();
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			long bytes = Files.size(file);
+			log.info(SNAPSHOT_WRITTEN, count, file, bytes);
+			return new SnapshotDTO(file.toString(), VERSION, count, bytes, String.format("%08x", crc),
+					createdAt.toString());
+		}
+
+		void close() {
+			try {
+				output.close();
+				Files.deleteIfExists(temporary);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * Reads the records of a snapshot one product at a time
+	 */
+	private static class Reader {
+
+		private final Path file;
+		private final DataInputStream data;
+		private long count;
+
+		Reader(Path file) {
+			this.file = file;
+			try {
+				verify(file);
+				this.data = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE));
+				data.skipNBytes(HEADER_SIZE);
+			} catch (IOException e) {
+				throw new UncheckedIOException(ERROR_READING_SNAPSHOT + file, e);
+			}
+		}
+
+		/**
+		 * Check the header of the file and its checksum, reading the whole file once
+		 */
+		private static void verify(Path file) throws IOException {
+			long size = Files.size(file);
+			try (InputStream input = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE)) {
+				ByteBuffer header = ByteBuffer.wrap(input.readNBytes(HEADER_SIZE));
+				if (size < HEADER_SIZE + TRAILER_SIZE || header.getInt() != MAGIC) {
+					throw new DecodingException(NOT_A_SNAPSHOT + file);
+				}
+				int version = Short.toUnsignedInt(header.getShort());
+				if (version != VERSION) {
+					throw new DecodingException(UNSUPPORTED_VERSION.formatted(version, file));
+				}
+				CRC32 checksum = new CRC32();
+				checksum.update(header.array());
+				update(checksum, input, size - HEADER_SIZE - 4);
+				if (new DataInputStream(input).readInt() != (int) checksum.getValue()) {
+					throw new DecodingException(CHECKSUM_MISMATCH + file);
+				}
+			}
+		}
+
+		private static void update(CRC32 checksum, InputStream input, long length) throws IOException {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			while (length > 0) {
+				int read = input.read(buffer, 0, (int) Math.min(buffer.length, length));
+				if (read < 0) {
+					throw new EOFException();
+				}
+				checksum.update(buffer, 0, read);
+				length -= read;
+			}
+		}
+
+		/**
+		 * The next product of the snapshot, or null after the last one
+		 */
+		ProductAggregate next() {
+			try {
+				byte kind = data.readByte();
+				if (kind == END) {
+					if (data.readLong() != count) {
+						throw new DecodingException(COUNT_MISMATCH + file);
+					}
+					return null;
+				}
+				if (kind != PRODUCT) {
+					throw new DecodingException(NOT_A_SNAPSHOT + file);
+				}
+				count++;
+				ProductDAO product = readProduct();
+				Long id = product.getId();
+				int reviewCount = data.readInt();
+				List<ReviewDAO> reviews = new ArrayList<>(reviewCount);
+				for (int i = 0; i < reviewCount; i++) {
+					reviews.add(new ReviewDAO(id, readDouble(), readString(), readInstant(), readString(),
+							readString(), readInteger()));
+				}
+				int imageCount = data.readInt();
+				List<ProductImageDAO> images = new ArrayList<>(imageCount);
+				for (int i = 0; i < imageCount; i++) {
+					images.add(new ProductImageDAO(id, readString()));
+				}
+				int tagCount = data.readInt();
+				List<ProductTagDAO> tags = new ArrayList<>(tagCount);
+				for (int i = 0; i < tagCount; i++) {
+					tags.add(new ProductTagDAO(id, readString()));
+				}
+				return new ProductAggregate(product, reviews, images, tags);
+			} catch (IOException e) {
+				throw new UncheckedIOException(ERROR_READING_SNAPSHOT + file, e);
+			}
+		}
+
+		private ProductDAO readProduct() throws IOException {
+			ProductDAO product = new ProductDAO();
+			product.setId(data.readLong());
+			product.setTitle(readString());
+			product.setDescription(readString());
+			product.setCategory(readString());
+			product.setPrice(readDouble());
+			product.setDiscountPercentage(readDouble());
+			product.setRating(readDouble());
+			product.setStock(readInteger());
+			product.setBrand(readString());
+			product.setSku(readString());
+			product.setWeight(readDouble());
+			product.setWidth(readDouble());
+			product.setHeight(readDouble());
+			product.setDepth(readDouble());
+			product.setWarrantyInformation(readString());
+			product.setShippingInformation(readString());
+			product.setAvailabilityStatus(readString());
+			product.setReturnPolicy(readString());
+			product.setMinimumOrderQuantity(readInteger());
+			product.setCreatedAt(readInstant());
+			product.setUpdatedAt(readInstant());
+			product.setBarcode(readString());
+			product.setQrCode(readString());
+			product.setThumbnail(readString());
+			product.setContentHash(readString());
+			return product;
+		}
+
+		private String readString() throws IOException {
+			int length = data.readInt();
+			return length < 0 ? null : new String(data.readNBytes(length), StandardCharsets.UTF_8);
+		}
+
+		private Double readDouble() throws IOException {
+			return data.readBoolean() ? data.readDouble() : null;
+		}
+
+		private Integer readInteger() throws IOException {
+			return data.readBoolean() ? data.readInt() : null;
+		}
+
+		private Instant readInstant() throws IOException {
+			return data.readBoolean() ? Instant.ofEpochSecond(data.readLong(), data.readInt()) : null;
+		}
+
+		void close() {
+			try {
+				data.close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+}
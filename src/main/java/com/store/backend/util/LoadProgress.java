@@ -0,0 +1,89 @@
+package com.store.backend.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.store.backend.dto.ProductDTO;
+import com.store.backend.dto.RejectedProductDTO;
+
+/**
+ * Counts the products a catalog load has fetched from the feed, validated,
+ * rejected, saved and skipped as unchanged. The counters are updated by the
+ * stages of the load as products pass through them and can be read at any time
+ * while it runs.
+ * <p>
+ * Rejected products are also kept as dead letters with the stage that rejected
+ * them and why, up to {@value #MAX_REJECTED} of them; the failed count goes on
+ * counting past that.
+ */
+public class LoadProgress {
+
+	public static final int MAX_REJECTED = 100;
+
+	private final AtomicLong fetched = new AtomicLong();
+	private final AtomicLong validated = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong saved = new AtomicLong();
+	private final AtomicLong skipped = new AtomicLong();
+	private final List<RejectedProductDTO> rejected = new ArrayList<>();
+
+	public void fetched() {
+		fetched.incrementAndGet();
+	}
+
+	public void validated() {
+		validated.incrementAndGet();
+	}
+
+	/**
+	 * Record a product rejected by a stage of the load
+	 *
+	 * @param product the rejected product, or null when it could not be decoded
+	 * @param stage   the stage that rejected it
+	 * @param reason  why it was rejected
+	 */
+	public void rejected(ProductDTO product, String stage, String reason) {
+		failed.incrementAndGet();
+		synchronized (rejected) {
+			if (rejected.size() < MAX_REJECTED) {
+				rejected.add(new RejectedProductDTO(product == null ? null : product.getId(),
+						product == null ? null : product.getSku(), stage, reason));
+			}
+		}
+	}
+
+	public void saved(int count) {
+		saved.addAndGet(count);
+	}
+
+	public void skipped() {
+		skipped.incrementAndGet();
+	}
+
+	public long getFetched() {
+		return fetched.get();
+	}
+
+	public long getValidated() {
+		return validated.get();
+	}
+
+	public long getFailed() {
+		return failed.get();
+	}
+
+	public long getSaved() {
+		return saved.get();
+	}
+
+	public long getSkipped() {
+		return skipped.get();
+	}
+
+	public List<RejectedProductDTO> getRejected() {
+		synchronized (rejected) {
+			return List.copyOf(rejected);
+		}
+	}
+}
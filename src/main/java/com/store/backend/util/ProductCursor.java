@@ -0,0 +1,84 @@
+package com.store.backend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.store.backend.dao.ProductDAO;
+import com.store.backend.dao.StoredReview;
+import com.store.backend.dto.ProductDTO;
+import com.store.backend.exception.InvalidRequestException;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Keyset cursor for product and review pagination. Holds the sort key of the
+ * last row of a page, which is the id alone or the (price, id) pair for price
+ * ordering, and is exchanged with clients as an opaque URL-safe string.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductCursor {
+
+	private static final String SEPARATOR = ":";
+	private static final String INVALID_CURSOR = "Invalid page cursor: ";
+
+	private final Double price;
+	private final long id;
+
+	/**
+	 * Encode the cursor of a row ordered by id
+	 * 
+	 * @param product the last product of a page
+	 * @return the opaque cursor string
+	 */
+	public static String byId(ProductDAO product) {
+		return encode(String.valueOf(product.getId()));
+	}
+
+	/**
+	 * Encode the cursor of a row ordered by (price, id)
+	 * 
+	 * @param product the last product of a page
+	 * @return the opaque cursor string
+	 */
+	public static String byPrice(ProductDTO product) {
+		return encode(product.getPrice() + SEPARATOR + product.getId());
+	}
+
+	/**
+	 * Encode the cursor of a review row ordered by id
+	 * 
+	 * @param review the last review of a page
+	 * @return the opaque cursor string
+	 */
+	public static String byReview(StoredReview review) {
+		return encode(String.valueOf(review.id()));
+	}
+
+	/**
+	 * Decode a cursor produced by {@link #byId}, {@link #byPrice} or
+	 * {@link #byReview}
+	 * 
+	 * @param cursor the opaque cursor string
+	 * @return the decoded cursor
+	 * @throws InvalidRequestException if the cursor is malformed
+	 */
+	public static ProductCursor decode(String cursor) {
+		try {
+			String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int separator = value.indexOf(SEPARATOR);
+			if (separator < 0) {
+				return new ProductCursor(null, Long.parseLong(value));
+			}
+			return new ProductCursor(Double.valueOf(value.substring(0, separator)),
+					Long.parseLong(value.substring(separator + 1)));
+		} catch (IllegalArgumentException e) {
+			throw new InvalidRequestException(INVALID_CURSOR + cursor);
+		}
+	}
+
+	private static String encode(String value) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+	}
+}
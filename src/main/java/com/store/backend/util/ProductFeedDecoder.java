@@ -0,0 +1,193 @@
+package com.store.backend.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.store.backend.dto.ProductDTO;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Incremental decoder for the upstream product feed. Tokenizes the body as it
+ * arrives and emits each element of the {@code products} array as soon as its
+ * closing brace is read, so only one product is ever buffered. A body that is
+ * a bare JSON array of products is accepted as well.
+ */
+@Component
+@Slf4j
+public class ProductFeedDecoder {
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private static final String PRODUCTS_FIELD = "products";
+	private static final String ERROR_DECODING_FEED = "Error decoding product feed";
+	private static final String ERROR_DECODING_PRODUCT = "Skipping product that could not be decoded: {}";
+	private static final String UNEXPECTED_END_OF_FEED = "Unexpected end of product feed";
+
+	public ProductFeedDecoder() {
+	}
+
+	public ProductFeedDecoder(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Decode a stream of body chunks into products
+	 * 
+	 * @param body the raw feed body, split at arbitrary byte boundaries
+	 * @return a Flux of ProductDTO in feed order
+	 */
+	public Flux<ProductDTO> decode(Flux<DataBuffer> body) {
+		return decode(body, reason -> {
+		});
+	}
+
+	/**
+	 * Decode a stream of body chunks into products, reporting the elements that
+	 * are not valid products instead of only logging them
+	 * 
+	 * @param body     the raw feed body, split at arbitrary byte boundaries
+	 * @param rejected called with the reason for each element that could not be
+	 *                 decoded
+	 * @return a Flux of ProductDTO in feed order
+	 */
+	public Flux<ProductDTO> decode(Flux<DataBuffer> body, Consumer<String> rejected) {
+		return Flux.defer(() -> {
+			Tokenizer tokenizer = new Tokenizer(rejected);
+			return body.concatMapIterable(buffer -> {
+				try {
+					return tokenizer.feed(buffer);
+				} finally {
+					DataBufferUtils.release(buffer);
+				}
+			}).concatWith(Mono.fromCallable(tokenizer::endOfInput).flatMapIterable(products -> products));
+		});
+	}
+
+	/**
+	 * Decode a single complete chunk of the feed, such as one NDJSON line or a
+	 * slice of a JSON array holding whole products
+	 * 
+	 * @param bytes  the chunk
+	 * @param offset the start of the chunk
+	 * @param length the length of the chunk
+	 * @return the products found in the chunk
+	 */
+	public List<ProductDTO> decode(byte[] bytes, int offset, int length) {
+		Tokenizer tokenizer = new Tokenizer(reason -> {
+		});
+		List<ProductDTO> products = new ArrayList<>(tokenizer.feed(bytes, offset, length));
+		products.addAll(tokenizer.endOfInput());
+		return products;
+	}
+
+	/**
+	 * Non-blocking tokenizer state for one feed body.
+	 */
+	private class Tokenizer {
+
+		private final JsonParser parser;
+		private final ByteArrayFeeder feeder;
+		private final Consumer<String> rejected;
+
+		private int depth;
+		private int productsDepth = -1;
+		private boolean productsFieldSeen;
+		private TokenBuffer product;
+
+		Tokenizer(Consumer<String> rejected) {
+			this.rejected = rejected;
+			try {
+				this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+			} catch (IOException e) {
+				throw new DecodingException(ERROR_DECODING_FEED, e);
+			}
+			this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+		}
+
+		List<ProductDTO> feed(DataBuffer buffer) {
+			byte[] bytes = new byte[buffer.readableByteCount()];
+			buffer.read(bytes);
+			return feed(bytes, 0, bytes.length);
+		}
+
+		List<ProductDTO> feed(byte[] bytes, int offset, int length) {
+			try {
+				feeder.feedInput(bytes, offset, offset + length);
+				return drain();
+			} catch (IOException e) {
+				throw new DecodingException(ERROR_DECODING_FEED, e);
+			}
+		}
+
+		List<ProductDTO> endOfInput() {
+			feeder.endOfInput();
+			try {
+				List<ProductDTO> products = drain();
+				if (depth != 0) {
+					throw new DecodingException(UNEXPECTED_END_OF_FEED);
+				}
+				return products;
+			} catch (IOException e) {
+				throw new DecodingException(ERROR_DECODING_FEED, e);
+			}
+		}
+
+		private List<ProductDTO> drain() throws IOException {
+			List<ProductDTO> products = new ArrayList<>();
+			JsonToken token;
+			while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+				if (token.isStructEnd()) {
+					depth--;
+				}
+				if (product != null) {
+					product.copyCurrentEvent(parser);
+					if (depth == productsDepth) {
+						decodeProduct(products);
+					}
+				} else if (token.isStructStart() && depth == productsDepth) {
+					product = new TokenBuffer(parser);
+					product.copyCurrentEvent(parser);
+				} else if (token == JsonToken.START_ARRAY && (depth == 0 || (depth == 1 && productsFieldSeen))) {
+					productsDepth = depth + 1;
+				} else if (token == JsonToken.END_ARRAY && depth + 1 == productsDepth) {
+					productsDepth = -1;
+				} else if (token == JsonToken.FIELD_NAME && depth == 1) {
+					productsFieldSeen = PRODUCTS_FIELD.equals(parser.currentName());
+				}
+				if (token.isStructStart()) {
+					depth++;
+				}
+			}
+			return products;
+		}
+
+		private void decodeProduct(List<ProductDTO> products) throws IOException {
+			try (JsonParser productParser = product.asParser(objectMapper)) {
+				products.add(objectMapper.readValue(productParser, ProductDTO.class));
+			} catch (IOException e) {
+				log.error(ERROR_DECODING_PRODUCT, e.getMessage());
+				rejected.accept(e.getMessage());
+			} finally {
+				product.close();
+				product = null;
+			}
+		}
+	}
+}
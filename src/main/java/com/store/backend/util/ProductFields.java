@@ -0,0 +1,129 @@
+package com.store.backend.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.store.backend.dto.ProductDTO;
+import com.store.backend.exception.InvalidRequestException;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Sparse fieldset of a product response, parsed from the {@code fields} and
+ * {@code include} request parameters. {@code fields} names the product
+ * properties to return and {@code include} the reviews, images or tags to load
+ * with them. Without either parameter products are returned with their images,
+ * tags and review summary but without the reviews themselves; with only
+ * {@code include}, every property is returned but only the included children.
+ * The id is always returned.
+ */
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ProductFields {
+
+	public static final String ID = "id";
+	public static final String REVIEWS = "reviews";
+	public static final String IMAGES = "images";
+	public static final String TAGS = "tags";
+	public static final String REVIEW_SUMMARY = "reviewSummary";
+
+	public static final List<String> CHILDREN = List.of(REVIEWS, IMAGES, TAGS);
+	public static final Set<String> PROPERTIES = Collections.unmodifiableSet(Arrays
+			.stream(ProductDTO.class.getDeclaredFields()).filter(field -> !Modifier.isStatic(field.getModifiers()))
+			.map(Field::getName).collect(LinkedHashSet::new, Set::add, Set::addAll));
+
+	public static final ProductFields ALL = new ProductFields(PROPERTIES);
+	public static final ProductFields DEFAULT = new ProductFields(Collections.unmodifiableSet(PROPERTIES.stream()
+			.filter(property -> !REVIEWS.equals(property)).collect(LinkedHashSet::new, Set::add, Set::addAll)));
+
+	private static final String SEPARATOR = ",";
+	private static final String UNKNOWN_FIELD = "Unknown product field: ";
+	private static final String UNKNOWN_INCLUDE = "Can only include reviews, images or tags: ";
+
+	@Getter
+	private final Set<String> properties;
+
+	/**
+	 * Parse the sparse fieldset of a request
+	 *
+	 * @param fields  the comma-separated properties to return, or null for all
+	 * @param include the comma-separated children to load, or null
+	 * @return the fieldset, {@link #DEFAULT} when both are null
+	 * @throws InvalidRequestException if a name is not a product property, or an
+	 *                                 included name is not a child
+	 */
+	public static ProductFields parse(String fields, String include) {
+		if (fields == null && include == null) {
+			return DEFAULT;
+		}
+		Set<String> properties = new LinkedHashSet<>();
+		properties.add(ID);
+		if (fields == null) {
+			PROPERTIES.stream().filter(property -> !CHILDREN.contains(property)).forEach(properties::add);
+		} else {
+			for (String field : split(fields)) {
+				if (!PROPERTIES.contains(field)) {
+					throw new InvalidRequestException(UNKNOWN_FIELD + field);
+				}
+				properties.add(field);
+			}
+		}
+		if (include != null) {
+			for (String child : split(include)) {
+				if (!CHILDREN.contains(child)) {
+					throw new InvalidRequestException(UNKNOWN_INCLUDE + child);
+				}
+				properties.add(child);
+			}
+		}
+		if (properties.equals(PROPERTIES)) {
+			return ALL;
+		}
+		return properties.equals(DEFAULT.properties) ? DEFAULT
+				: new ProductFields(Collections.unmodifiableSet(properties));
+	}
+
+	/**
+	 * Whether every property is returned
+	 */
+	public boolean isAll() {
+		return properties.size() == PROPERTIES.size();
+	}
+
+	/**
+	 * Whether this is the fieldset returned when no fields are requested
+	 */
+	public boolean isDefault() {
+		return equals(DEFAULT);
+	}
+
+	/**
+	 * Whether a property is returned
+	 *
+	 * @param property the property name
+	 */
+	public boolean includes(String property) {
+		return properties.contains(property);
+	}
+
+	/**
+	 * Whether the reviews, images and tags are all returned
+	 */
+	public boolean includesAllChildren() {
+		return properties.containsAll(CHILDREN);
+	}
+
+	private static List<String> split(String names) {
+		return Arrays.stream(names.split(SEPARATOR)).map(String::trim).filter(name -> !name.isEmpty()).toList();
+	}
+}
@@ -0,0 +1,351 @@
+package com.store.backend.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.store.backend.dto.ProductDTO;
+import com.store.backend.exception.InvalidRequestException;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reads products from local dump files for bulk imports. The file is
+ * memory-mapped and scanned once, in order, for the boundaries of its records,
+ * which are grouped into chunks of about {@code products.import.chunk-size}
+ * bytes. The chunks are parsed in parallel, at most
+ * {@code products.import.parse-concurrency} at a time, and their products are
+ * emitted in file order.
+ * <p>
+ * A file named {@code *.ndjson} or {@code *.jsonl} holds one product per line;
+ * any other file holds a JSON array of products or, like the feed, an object
+ * with a {@code products} array. Only files inside {@code products.import.dir}
+ * can be read, and imports are disabled while it is not set.
+ */
+@Component
+@Slf4j
+public class ProductFileReader {
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${products.import.dir:}")
+	private String importDir = "";
+
+	@Value("${products.import.chunk-size:4MB}")
+	private DataSize chunkSize = DataSize.ofMegabytes(4);
+
+	@Value("${products.import.parse-concurrency:4}")
+	private int parseConcurrency = 4;
+
+	private static final long WINDOW_SIZE = 64L << 20;
+	private static final byte[] PRODUCTS_FIELD = "products".getBytes(StandardCharsets.UTF_8);
+
+	private static final String IMPORTS_DISABLED = "Imports are disabled, products.import.dir is not set";
+	private static final String FILE_OUTSIDE_IMPORT_DIR = "Import file must be inside the import directory: ";
+	private static final String FILE_NOT_FOUND = "Import file not found: ";
+	private static final String ERROR_READING_FILE = "Error reading import file ";
+	private static final String ERROR_DECODING_PRODUCT = "Skipping product that could not be decoded: {}";
+	private static final String UNEXPECTED_END_OF_FILE = "Unexpected end of import file ";
+
+	public ProductFileReader() {
+	}
+
+	public ProductFileReader(ObjectMapper objectMapper, String importDir, DataSize chunkSize) {
+		this.objectMapper = objectMapper;
+		this.importDir = importDir;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Resolve the name of a file in the import directory
+	 *
+	 * @param name the file name, relative to the import directory
+	 * @return the real path of the file
+	 * @throws InvalidRequestException if imports are disabled, or the file does
+	 *                                 not exist or is outside the import
+	 *                                 directory
+	 */
+	public Path resolve(String name) {
+		if (importDir == null || importDir.isBlank()) {
+			throw new InvalidRequestException(IMPORTS_DISABLED);
+		}
+		try {
+			Path dir = Path.of(importDir).toRealPath();
+			Path file = dir.resolve(name).normalize();
+			if (!file.startsWith(dir)) {
+				throw new InvalidRequestException(FILE_OUTSIDE_IMPORT_DIR + name);
+			}
+			if (!Files.isRegularFile(file)) {
+				throw new InvalidRequestException(FILE_NOT_FOUND + name);
+			}
+			Path realFile = file.toRealPath();
+			if (!realFile.startsWith(dir)) {
+				throw new InvalidRequestException(FILE_OUTSIDE_IMPORT_DIR + name);
+			}
+			return realFile;
+		} catch (IOException e) {
+			throw new InvalidRequestException(FILE_NOT_FOUND + name);
+		}
+	}
+
+	/**
+	 * Read the products of a file
+	 *
+	 * @param file     the file to read
+	 * @param rejected called with the reason for each record that could not be
+	 *                 decoded
+	 * @return a Flux of ProductDTO in file order, which ends with an error after
+	 *         the last whole record when the file is truncated
+	 */
+	public Flux<ProductDTO> read(Path file, Consumer<String> rejected) {
+		ObjectReader reader = objectMapper.readerFor(ProductDTO.class);
+		String name = file.getFileName().toString();
+		boolean lines = name.endsWith(".ndjson") || name.endsWith(".jsonl");
+		return Flux.using(() -> FileChannel.open(file, StandardOpenOption.READ),
+				channel -> split(channel, file, lines)
+						.flatMapSequentialDelayError(chunk -> Mono
+								.fromCallable(() -> parse(channel, chunk, reader, rejected))
+								.subscribeOn(Schedulers.parallel()), parseConcurrency, 1)
+						.flatMapIterable(products -> products),
+				ProductFileReader::close);
+	}
+
+	private Flux<Chunk> split(FileChannel channel, Path file, boolean lines) {
+		return Flux.<Chunk, Splitter>generate(() -> new Splitter(channel, file, lines), (splitter, sink) -> {
+			Chunk chunk = splitter.next();
+			if (chunk == null) {
+				sink.complete();
+			} else {
+				sink.next(chunk);
+			}
+			return splitter;
+		}).subscribeOn(Schedulers.boundedElastic());
+	}
+
+	private static List<ProductDTO> parse(FileChannel channel, Chunk chunk, ObjectReader reader,
+			Consumer<String> rejected) throws IOException {
+		byte[] bytes = new byte[chunk.length()];
+		channel.map(FileChannel.MapMode.READ_ONLY, chunk.position(), chunk.length()).get(bytes);
+		List<ProductDTO> products = new ArrayList<>(chunk.count());
+		for (int i = 0; i < chunk.count(); i++) {
+			try {
+				products.add(reader.readValue(bytes, chunk.offsets()[i], chunk.lengths()[i]));
+			} catch (IOException e) {
+				log.error(ERROR_DECODING_PRODUCT, e.getMessage());
+				rejected.accept(e.getMessage());
+			}
+		}
+		return products;
+	}
+
+	private static void close(FileChannel channel) {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * A run of whole records of the file, as the offsets and lengths of each
+	 * record from the start of the run
+	 */
+	private record Chunk(long position, int length, int count, int[] offsets, int[] lengths) {
+	}
+
+	/**
+	 * Scans the file in order, mapping it one window at a time, and cuts it into
+	 * chunks of whole records. Lines are records in a line-delimited file; in
+	 * any other file the objects of the products array are, found by tracking
+	 * the nesting depth outside of strings.
+	 */
+	private class Splitter {
+
+		private final FileChannel channel;
+		private final Path file;
+		private final boolean lines;
+		private final long size;
+
+		private MappedByteBuffer window;
+		private long windowStart;
+		private long position;
+
+		private int depth;
+		private int productsDepth = -1;
+		private boolean inString;
+		private boolean escaped;
+		private boolean productsKey;
+		private int keyLength;
+		private long recordStart = -1;
+
+		private long chunkStart = -1;
+		private int count;
+		private int[] offsets = new int[1024];
+		private int[] lengths = new int[1024];
+
+		Splitter(FileChannel channel, Path file, boolean lines) throws IOException {
+			this.channel = channel;
+			this.file = file;
+			this.lines = lines;
+			this.size = channel.size();
+		}
+
+		/**
+		 * The next chunk of the file, or null at the end of the file
+		 */
+		Chunk next() {
+			try {
+				while (position < size) {
+					if (window == null || position >= windowStart + window.limit()) {
+						windowStart = position;
+						window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart,
+								Math.min(WINDOW_SIZE, size - windowStart));
+					}
+					int end = window.limit();
+					for (int i = (int) (position - windowStart); i < end; i++) {
+						byte b = window.get(i);
+						long offset = windowStart + i;
+						long recordEnd = lines ? scanLine(b, offset) : scanJson(b, offset);
+						if (recordEnd >= 0 && add(recordEnd) >= chunkSize.toBytes()) {
+							position = offset + 1;
+							return take();
+						}
+					}
+					position = windowStart + end;
+				}
+				if (lines && recordStart >= 0) {
+					add(size);
+				}
+				if (count > 0) {
+					return take();
+				}
+				if (!lines && depth != 0) {
+					throw new DecodingException(UNEXPECTED_END_OF_FILE + file);
+				}
+				return null;
+			} catch (IOException e) {
+				throw new UncheckedIOException(ERROR_READING_FILE + file, e);
+			}
+		}
+
+		/**
+		 * Track a byte of a line-delimited file
+		 *
+		 * @return the end of the record the byte ends, or -1
+		 */
+		private long scanLine(byte b, long offset) {
+			if (b == '\n') {
+				return recordStart < 0 ? -1 : offset;
+			}
+			if (recordStart < 0 && b != ' ' && b != '\t' && b != '\r') {
+				recordStart = offset;
+			}
+			return -1;
+		}
+
+		/**
+		 * Track a byte of a JSON file
+		 *
+		 * @return the end of the product object the byte closes, or -1
+		 */
+		private long scanJson(byte b, long offset) {
+			if (inString) {
+				if (escaped) {
+					escaped = false;
+				} else if (b == '\\') {
+					escaped = true;
+				} else if (b == '"') {
+					inString = false;
+					if (depth == 1) {
+						productsKey = keyLength == PRODUCTS_FIELD.length;
+					}
+				} else if (depth == 1 && keyLength >= 0) {
+					keyLength = keyLength < PRODUCTS_FIELD.length && PRODUCTS_FIELD[keyLength] == b ? keyLength + 1
+							: -1;
+				}
+				return -1;
+			}
+			switch (b) {
+			case '"':
+				inString = true;
+				keyLength = 0;
+				break;
+			case '{':
+			case '[':
+				if (b == '{' && depth == productsDepth && recordStart < 0) {
+					recordStart = offset;
+				} else if (b == '[' && productsDepth < 0 && (depth == 0 || (depth == 1 && productsKey))) {
+					productsDepth = depth + 1;
+				}
+				depth++;
+				break;
+			case '}':
+			case ']':
+				depth--;
+				if (b == '}' && depth == productsDepth && recordStart >= 0) {
+					return offset + 1;
+				}
+				if (b == ']' && depth + 1 == productsDepth) {
+					productsDepth = Integer.MIN_VALUE;
+				}
+				break;
+			case ',':
+				productsKey = false;
+				break;
+			default:
+				break;
+			}
+			return -1;
+		}
+
+		/**
+		 * Add the record ending at the given offset to the current chunk
+		 *
+		 * @return the length of the chunk
+		 */
+		private long add(long recordEnd) {
+			if (chunkStart < 0) {
+				chunkStart = recordStart;
+			}
+			if (count == offsets.length) {
+				offsets = Arrays.copyOf(offsets, count * 2);
+				lengths = Arrays.copyOf(lengths, count * 2);
+			}
+			offsets[count] = (int) (recordStart - chunkStart);
+			lengths[count] = (int) (recordEnd - recordStart);
+			count++;
+			recordStart = -1;
+			return recordEnd - chunkStart;
+		}
+
+		private Chunk take() {
+			int last = count - 1;
+			Chunk chunk = new Chunk(chunkStart, offsets[last] + lengths[last], count, Arrays.copyOf(offsets, count),
+					Arrays.copyOf(lengths, count));
+			chunkStart = -1;
+			count = 0;
+			return chunk;
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package com.store.backend.util;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.store.backend.dto.DimensionsDTO;
+import com.store.backend.dto.MetadataDTO;
+import com.store.backend.dto.ProductDTO;
+import com.store.backend.dto.ReviewDTO;
+import com.store.backend.exception.ProductServiceException;
+
+/**
+ * Computes a stable content hash of a product as the SHA-256 of an explicit
+ * list of its feed fields, each written with its length or a null marker. Two
+ * products hash equal exactly when every listed field, review, image and tag is
+ * equal. Derived fields such as the review summary are not listed, so adding a
+ * field to ProductDTO leaves the stored hashes valid; only a change to the list
+ * below makes the next incremental load rewrite every product.
+ */
+@Component
+public class ProductHasher {
+
+	private static final String ALGORITHM = "SHA-256";
+	private static final String ERROR_HASHING_PRODUCT = "Error hashing product: ";
+
+	/**
+	 * Hash a product
+	 *
+	 * @param product the product to hash
+	 * @return the lowercase hex SHA-256 of the product
+	 */
+	public String hash(ProductDTO product) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance(ALGORITHM);
+			try (DataOutputStream out = new DataOutputStream(
+					new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+				writeProduct(out, product);
+			}
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (IOException | NoSuchAlgorithmException e) {
+			throw new ProductServiceException(ERROR_HASHING_PRODUCT + product.getId(), e);
+		}
+	}
+
+	private static void writeProduct(DataOutputStream out, ProductDTO product) throws IOException {
+		writeLong(out, product.getId());
+		writeString(out, product.getTitle());
+		writeString(out, product.getDescription());
+		writeString(out, product.getCategory());
+		writeDouble(out, product.getPrice());
+		writeDouble(out, product.getDiscountPercentage());
+		writeDouble(out, product.getRating());
+		writeInteger(out, product.getStock());
+		writeStrings(out, product.getTags());
+		writeString(out, product.getBrand());
+		writeString(out, product.getSku());
+		writeInteger(out, product.getWeight());
+		writeDimensions(out, product.getDimensions());
+		writeString(out, product.getWarrantyInformation());
+		writeString(out, product.getShippingInformation());
+		writeString(out, product.getAvailabilityStatus());
+		writeReviews(out, product.getReviews());
+		writeString(out, product.getReturnPolicy());
+		writeInteger(out, product.getMinimumOrderQuantity());
+		writeMetadata(out, product.getMeta());
+		writeStrings(out, product.getImages());
+		writeString(out, product.getThumbnail());
+	}
+
+	private static void writeDimensions(DataOutputStream out, DimensionsDTO dimensions) throws IOException {
+		out.writeBoolean(dimensions != null);
+		if (dimensions != null) {
+			writeDouble(out, dimensions.getWidth());
+			writeDouble(out, dimensions.getHeight());
+			writeDouble(out, dimensions.getDepth());
+		}
+	}
+
+	private static void writeReviews(DataOutputStream out, List<ReviewDTO> reviews) throws IOException {
+		out.writeInt(reviews == null ? -1 : reviews.size());
+		if (reviews != null) {
+			for (ReviewDTO review : reviews) {
+				out.writeBoolean(review != null);
+				if (review != null) {
+					writeDouble(out, review.getRating());
+					writeString(out, review.getComment());
+					writeString(out, review.getDate());
+					writeString(out, review.getReviewerName());
+					writeString(out, review.getReviewerEmail());
+				}
+			}
+		}
+	}
+
+	private static void writeMetadata(DataOutputStream out, MetadataDTO meta) throws IOException {
+		out.writeBoolean(meta != null);
+		if (meta != null) {
+			writeString(out, meta.getCreatedAt());
+			writeString(out, meta.getUpdatedAt());
+			writeString(out, meta.getBarcode());
+			writeString(out, meta.getQrCode());
+		}
+	}
+
+	private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+		out.writeInt(values == null ? -1 : values.size());
+		if (values != null) {
+			for (String value : values) {
+				writeString(out, value);
+			}
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static void writeLong(DataOutputStream out, Long value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeLong(value);
+		}
+	}
+
+	private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeInt(value);
+		}
+	}
+
+	private static void writeDouble(DataOutputStream out, Double value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeDouble(value);
+		}
+	}
+}
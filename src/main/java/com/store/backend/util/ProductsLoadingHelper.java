@@ -1,24 +1,31 @@
 package com.store.backend.util;
 
+import java.nio.file.Path;
 import java.time.Duration;
-import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import com.store.backend.dto.ProductDTO;
-import com.store.backend.dto.ProductResponse;
+import com.store.backend.metrics.ProductMetrics;
 
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Helper class for loading products
@@ -36,42 +43,145 @@ public class ProductsLoadingHelper {
 	@Autowired
 	private Validator validator;
 
+	@Autowired
+	private ProductFeedDecoder productFeedDecoder;
+
+	@Autowired
+	private ProductFileReader productFileReader;
+
+	@Autowired
+	private ProductMetrics productMetrics;
+
+	@Value("${products.ingest.validate-concurrency:4}")
+	private int validateConcurrency = 4;
+
+	@Value("${products.load.response-timeout:5s}")
+	private Duration responseTimeout = Duration.ofSeconds(5);
+
+	@Value("${products.load.idle-timeout:30s}")
+	private Duration idleTimeout = Duration.ofSeconds(30);
+
+	private static final int RESPONSE_RETRIES = 3;
+
 	private static final String ERROR_LOADING_PRODUCTS = "Error loading products";	
+	private static final String ERROR_PROCESSING_PRODUCT = "Error processing product {}: {}";
 
 	public void setUrl(String url) {
 		this.url = url;
 	}
 
 	/**
-	 * Load products
+	 * Load products, decoding the feed incrementally so that each product is
+	 * emitted while the rest of the feed is still downloading. Only the request up
+	 * to the response headers is retried; once products have been emitted an error
+	 * fails the load, since a replayed feed would count its products twice.
 	 * 
-	 * @return a List of productDTOs
+	 * @return a Flux of productDTOs
 	 */
 	public Flux<ProductDTO> loadProducts() {
+		return loadProducts(new LoadProgress());
+	}
+
+	/**
+	 * Load products, counting the fetched, valid and rejected products. The feed
+	 * is parsed in order and products are validated on the parallel scheduler,
+	 * at most {@code products.ingest.validate-concurrency} at a time, and emitted
+	 * in feed order. Products that cannot be decoded or fail validation are
+	 * recorded as rejected in the progress and the load goes on without them.
+	 * The response headers must arrive within {@code products.load.response-timeout}
+	 * and the body must not stall for {@code products.load.idle-timeout} while the
+	 * decoder is waiting for it.
+	 * 
+	 * @param progress the progress of the load the products are fetched for
+	 * @return a Flux of productDTOs
+	 */
+	public Flux<ProductDTO> loadProducts(LoadProgress progress) {
 
 		return webClientBuilder
 				.build()
 				.get()
 				.uri(url)
 				.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE).retrieve()
-				.bodyToMono(ProductResponse.class)
-				.retry(3)
-				.timeout(Duration.ofSeconds(5))
-				.flatMapMany(response -> Flux.fromIterable(response.getProducts()))
-				.map(this::validateProduct)
-				.filter(Objects::nonNull)
-				.onErrorContinue((e, product) -> {
-		            log.error("Error processing product {}: {}", product, e.getMessage());
-		        });
+				.toEntityFlux(DataBuffer.class)
+				.timeout(responseTimeout)
+				.retry(RESPONSE_RETRIES)
+				.flatMapMany(response -> idleTimeout(response.getBody()))
+				.transform(body -> productFeedDecoder.decode(body,
+						reason -> progress.rejected(null, ProductMetrics.STAGE_PARSE, reason)))
+				.transform(products -> productMetrics.timedStage(ProductMetrics.STAGE_FETCH, products))
+				.doOnNext(product -> progress.fetched())
+				.transform(products -> validate(products, progress));
+	}
+
+	/**
+	 * Load products from a local dump file, validated like the products of the
+	 * feed
+	 * 
+	 * @param file     the file to read, already resolved in the import directory
+	 * @param progress the progress of the load the products are read for
+	 * @return a Flux of productDTOs in file order
+	 */
+	public Flux<ProductDTO> loadProducts(Path file, LoadProgress progress) {
+		return productFileReader.read(file, reason -> progress.rejected(null, ProductMetrics.STAGE_PARSE, reason))
+				.transform(products -> productMetrics.timedStage(ProductMetrics.STAGE_READ, products))
+				.doOnNext(product -> progress.fetched())
+				.transform(products -> validate(products, progress));
+	}
+
+	/**
+	 * Fail the body when it sends nothing for the idle timeout while data is
+	 * requested from it. Time during which nothing is requested, because the
+	 * products already read are still being written, does not count.
+	 * 
+	 * @param body the raw feed body
+	 * @return the body, failing with a TimeoutException when it stalls
+	 */
+	Flux<DataBuffer> idleTimeout(Flux<DataBuffer> body) {
+		return Flux.defer(() -> {
+			Scheduler timer = Schedulers.parallel();
+			AtomicLong requested = new AtomicLong();
+			AtomicLong lastRead = new AtomicLong(timer.now(TimeUnit.NANOSECONDS));
+			long idleNanos = idleTimeout.toNanos();
+			Flux<Long> stalled = Flux.interval(idleTimeout.dividedBy(4), timer)
+					.filter(tick -> requested.get() > 0
+							&& timer.now(TimeUnit.NANOSECONDS) - lastRead.get() >= idleNanos);
+			return body
+					.doOnRequest(n -> {
+						if (requested.getAndAccumulate(n, Operators::addCap) == 0) {
+							lastRead.set(timer.now(TimeUnit.NANOSECONDS));
+						}
+					})
+					.doOnNext(buffer -> {
+						lastRead.set(timer.now(TimeUnit.NANOSECONDS));
+						requested.accumulateAndGet(1, (r, one) -> r == Long.MAX_VALUE ? r : r - one);
+					})
+					.timeout(stalled, buffer -> stalled);
+		});
+	}
+
+	private Flux<ProductDTO> validate(Flux<ProductDTO> products, LoadProgress progress) {
+		return products
+				.flatMapSequential(product -> Mono
+						.fromCallable(() -> productMetrics.recordStage(ProductMetrics.STAGE_VALIDATE,
+								() -> validateProduct(product, progress)))
+						.subscribeOn(Schedulers.parallel())
+						.onErrorResume(e -> {
+							log.error(ERROR_PROCESSING_PRODUCT, product, e.getMessage());
+							progress.rejected(product, ProductMetrics.STAGE_VALIDATE, e.getMessage());
+							return Mono.empty();
+						}), validateConcurrency)
+				.doOnNext(product -> progress.validated());
 	}
 	
-	private ProductDTO validateProduct(ProductDTO product) {
+	ProductDTO validateProduct(ProductDTO product, LoadProgress progress) {
 	    Set<ConstraintViolation<ProductDTO>> violations = validator.validate(product);
 	    if (!violations.isEmpty()) {
 	        String errorMessages = violations.stream()
 	                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
 	                .collect(Collectors.joining(", "));
 	        log.error("Validation failed for product: {}", errorMessages);
+	        productMetrics.countProducts(ProductMetrics.RESULT_INVALID, 1);
+	        progress.rejected(product, ProductMetrics.STAGE_VALIDATE, errorMessages);
 	        return null;
 	    }
 	    return product;
@@ -24,7 +24,8 @@ CREATE TABLE IF NOT EXISTS products (
     qr_code VARCHAR(255),
     width DOUBLE NOT NULL,
     height DOUBLE NOT NULL,
-    depth DOUBLE NOT NULL
+    depth DOUBLE NOT NULL,
+    content_hash VARCHAR(64)
 );
 
 
@@ -40,6 +41,19 @@ CREATE TABLE IF NOT EXISTS reviews (
 );
 
 
+CREATE TABLE IF NOT EXISTS review_summaries (
+    product_id BIGINT PRIMARY KEY,
+    review_count BIGINT NOT NULL,
+    rating_sum DOUBLE NOT NULL,
+    one_star BIGINT NOT NULL,
+    two_stars BIGINT NOT NULL,
+    three_stars BIGINT NOT NULL,
+    four_stars BIGINT NOT NULL,
+    five_stars BIGINT NOT NULL,
+    FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE
+);
+
+
 CREATE TABLE IF NOT EXISTS product_tags (
     product_id BIGINT NOT NULL,
     tag VARCHAR(255) NOT NULL,
@@ -52,3 +66,21 @@ CREATE TABLE IF NOT EXISTS product_images (
     image_url VARCHAR(255) NOT NULL,
     FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE
 );
+
+
+CREATE INDEX IF NOT EXISTS idx_products_category_id ON products(category, id);
+CREATE INDEX IF NOT EXISTS idx_products_price_id ON products(price, id);
+CREATE INDEX IF NOT EXISTS idx_reviews_product_id_id ON reviews(product_id, id);
+
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+ALTER TABLE reviews ADD COLUMN IF NOT EXISTS position INT;
+
+DELETE FROM product_images i WHERE EXISTS (SELECT 1 FROM product_images d
+    WHERE d.product_id = i.product_id AND d.image_url = i.image_url AND d._ROWID_ < i._ROWID_);
+DELETE FROM product_tags t WHERE EXISTS (SELECT 1 FROM product_tags d
+    WHERE d.product_id = t.product_id AND d.tag = t.tag AND d._ROWID_ < t._ROWID_);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_reviews_product_position ON reviews(product_id, position);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_product_images_product_url ON product_images(product_id, image_url);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_product_tags_product_tag ON product_tags(product_id, tag);
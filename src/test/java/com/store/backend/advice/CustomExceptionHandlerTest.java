@@ -1,5 +1,6 @@
 package com.store.backend.advice;
 
+import com.store.backend.exception.InvalidRequestException;
 import com.store.backend.exception.ProductNotFoundException;
 import com.store.backend.exception.ProductServiceException;
 import org.junit.jupiter.api.Test;
@@ -82,6 +83,18 @@ public class CustomExceptionHandlerTest {
 		assertEquals(HttpStatus.NOT_FOUND, body.get("status"));
 	}
 
+	@Test
+	void handleInvalidRequestException_ShouldReturnBadRequestResponse() {
+		InvalidRequestException exception = new InvalidRequestException("Invalid page cursor: abc");
+		ResponseEntity<Map<String, Object>> response = exceptionHandler.handleInvalidRequestException(exception)
+				.block();
+		assertNotNull(response);
+		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+		Map<String, Object> body = response.getBody();
+		assertNotNull(body);
+		assertEquals("Invalid page cursor: abc", body.get("message"));
+	}
+
 	@Test
 	void handleProductServiceException_ShouldReturnInternalServerErrorResponse() {
 		String errorMessage = "An error occurred in the Product Service.";
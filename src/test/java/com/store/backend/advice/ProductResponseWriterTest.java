@@ -0,0 +1,163 @@
+package com.store.backend.advice;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.store.backend.cache.ProductCache;
+import com.store.backend.dto.ProductDTO;
+import com.store.backend.dto.ProductPageDTO;
+import com.store.backend.dto.ReviewDTO;
+
+import reactor.core.publisher.Mono;
+
+public class ProductResponseWriterTest {
+
+	private static final ResolvableType BODY_TYPE = ResolvableType.forClassWithGenerics(Map.class, String.class,
+			Object.class);
+
+	private final ProductCache productCache = new ProductCache(100, Duration.ofMinutes(1));
+	private final CustomExceptionHandler customExceptionHandler = new CustomExceptionHandler();
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+	private final ProductResponseWriter productResponseWriter = new ProductResponseWriter(objectMapper,
+			productCache);
+
+	private static ProductDTO product(long id) {
+		ProductDTO product = new ProductDTO();
+		product.setId(id);
+		product.setTitle("Product " + id);
+		product.setPrice(9.99 * id);
+		product.setTags(Arrays.asList("tag1", "tag2"));
+		product.setSku("SKU" + id);
+		return product;
+	}
+
+	private String write(Object data) {
+		Map<String, Object> body = customExceptionHandler.wrapSuccessResponse(data, HttpStatus.OK, "Fetched")
+				.getBody();
+		MockServerHttpResponse response = new MockServerHttpResponse();
+		productResponseWriter.write(Mono.just(body), BODY_TYPE, MediaType.APPLICATION_JSON, response, Map.of())
+				.block();
+		assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+		return response.getBodyAsString().block();
+	}
+
+	/**
+	 * Compare with the body written by plain Jackson, less the product reviews
+	 * that are left out by default
+	 */
+	private void assertSameJson(Object data, String json) throws Exception {
+		JsonNode expected = objectMapper.readTree(objectMapper.writeValueAsBytes(
+				customExceptionHandler.wrapSuccessResponse(data, HttpStatus.OK, "Fetched").getBody()));
+		expected.findParents("reviewSummary").forEach(product -> ((ObjectNode) product).remove("reviews"));
+		assertEquals(expected, objectMapper.readTree(json));
+	}
+
+	private static List<String> iterableToList(Iterator<String> names) {
+		List<String> list = new ArrayList<>();
+		names.forEachRemaining(list::add);
+		return list;
+	}
+
+	@Test
+	public void testCanWrite_jsonMapsOnly() {
+		assertTrue(productResponseWriter.canWrite(BODY_TYPE, MediaType.APPLICATION_JSON));
+		assertFalse(productResponseWriter.canWrite(BODY_TYPE, MediaType.APPLICATION_NDJSON));
+		assertFalse(productResponseWriter.canWrite(ResolvableType.forClass(Object.class), null));
+	}
+
+	@Test
+	public void testWrite_splicesSingleProduct() throws Exception {
+		ProductDTO product = product(1);
+		productCache.put(product, null);
+
+		String json = write(product);
+
+		assertSameJson(product, json);
+		assertEquals(json, write(product));
+	}
+
+	@Test
+	public void testWrite_splicesProductList() throws Exception {
+		List<ProductDTO> products = List.of(product(1), product(2), product(3));
+		productCache.put(products.get(1), null);
+
+		assertSameJson(products, write(products));
+	}
+
+	@Test
+	public void testWrite_sparseFieldsOmitUnrequestedProperties() throws Exception {
+		ProductPageDTO page = new ProductPageDTO(List.of(product(1), product(2)), "Mg");
+		Map<String, Object> body = customExceptionHandler.wrapSuccessResponse(page, HttpStatus.OK, "Fetched")
+				.getBody();
+		MockServerHttpRequest request = MockServerHttpRequest.get("/api/products?limit=2&fields=title,price&include=tags")
+				.build();
+		MockServerHttpResponse response = new MockServerHttpResponse();
+
+		productResponseWriter.write(Mono.just(body), BODY_TYPE, BODY_TYPE, MediaType.APPLICATION_JSON, request,
+				response, Map.of()).block();
+
+		JsonNode json = objectMapper.readTree(response.getBodyAsString().block());
+		assertEquals("Mg", json.get("data").get("nextCursor").asText());
+		JsonNode first = json.get("data").get("products").get(0);
+		assertEquals(List.of("id", "title", "price", "tags"), iterableToList(first.fieldNames()));
+		assertEquals("Product 1", first.get("title").asText());
+	}
+
+	@Test
+	public void testWrite_includeReviewsWritesWholeProducts() throws Exception {
+		ProductDTO product = product(1);
+		product.setReviews(List.of(new ReviewDTO(4.0, "Good", "2024-05-23T08:56:21.618Z", "Jane", "jane@example.com")));
+		productCache.put(product, null);
+		Map<String, Object> body = customExceptionHandler.wrapSuccessResponse(product, HttpStatus.OK, "Fetched")
+				.getBody();
+		MockServerHttpResponse response = new MockServerHttpResponse();
+
+		productResponseWriter.write(Mono.just(body), BODY_TYPE, BODY_TYPE, MediaType.APPLICATION_JSON,
+				MockServerHttpRequest.get("/api/products/1?include=reviews,images,tags").build(), response, Map.of())
+				.block();
+
+		assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(body)),
+				objectMapper.readTree(response.getBodyAsString().block()));
+		assertFalse(write(product).contains("\"reviews\""));
+	}
+
+	@Test
+	public void testWrite_invalidSparseFieldsWriteDefaultBody() throws Exception {
+		Map<String, Object> body = customExceptionHandler.wrapErrorResponse("Unknown product field: secret",
+				HttpStatus.BAD_REQUEST).getBody();
+		MockServerHttpResponse response = new MockServerHttpResponse();
+
+		productResponseWriter.write(Mono.just(body), BODY_TYPE, BODY_TYPE, MediaType.APPLICATION_JSON,
+				MockServerHttpRequest.get("/api/products?limit=2&fields=secret").build(), response, Map.of()).block();
+
+		assertEquals("Unknown product field: secret",
+				objectMapper.readTree(response.getBodyAsString().block()).get("message").asText());
+	}
+
+	@Test
+	public void testWrite_delegatesOtherBodies() throws Exception {
+		Map<String, Object> summary = Map.of("total", 3);
+
+		assertSameJson(summary, write(summary));
+		assertSameJson(List.of(), write(List.of()));
+	}
+}
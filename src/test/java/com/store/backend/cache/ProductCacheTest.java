@@ -0,0 +1,203 @@
+package com.store.backend.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import com.store.backend.dao.ProductVersion;
+import com.store.backend.dto.CacheStatsDTO;
+import com.store.backend.dto.ProductDTO;
+
+public class ProductCacheTest {
+
+	private final ProductCache productCache = new ProductCache(100, Duration.ofMinutes(1));
+
+	private static ProductDTO product(long id, String sku) {
+		ProductDTO product = new ProductDTO();
+		product.setId(id);
+		product.setSku(sku);
+		return product;
+	}
+
+	private static ProductVersion version(long id, long updatedAt) {
+		return new ProductVersion(id, Instant.ofEpochMilli(updatedAt), "hash" + updatedAt);
+	}
+
+	@Test
+	public void testGetByIdAndSku_afterPut() {
+		ProductDTO product = product(1L, "SKU1");
+		productCache.put(product, null);
+
+		assertSame(product, productCache.getById(1L).get());
+		assertSame(product, productCache.getBySku("SKU1").get());
+	}
+
+	@Test
+	public void testPut_servesVersionWritten() {
+		ProductDTO product = product(1L, "SKU1");
+		productCache.put(product, version(1L, 1));
+
+		assertSame(product, productCache.getById(1L, version(1L, 1)).get());
+		assertFalse(productCache.getById(1L, version(1L, 2)).isPresent());
+	}
+
+	@Test
+	public void testPut_replacesSkuMapping() {
+		productCache.put(product(1L, "OLD"), null);
+		productCache.put(product(1L, "NEW"), null);
+
+		assertFalse(productCache.getBySku("OLD").isPresent());
+		assertTrue(productCache.getBySku("NEW").isPresent());
+	}
+
+	@Test
+	public void testInvalidate_removesBothKeys() {
+		productCache.put(product(1L, "SKU1"), null);
+		productCache.invalidate(1L);
+
+		assertFalse(productCache.getById(1L).isPresent());
+		assertFalse(productCache.getBySku("SKU1").isPresent());
+	}
+
+	@Test
+	public void testPut_readBeforeInvalidateIsDropped() {
+		long generation = productCache.generation();
+		productCache.put(product(1L, "SKU1"), null);
+		productCache.invalidate(1L);
+
+		productCache.put(product(1L, "SKU1"), version(1L, 1), generation);
+
+		assertFalse(productCache.getById(1L).isPresent());
+		assertFalse(productCache.getBySku("SKU1").isPresent());
+	}
+
+	@Test
+	public void testPut_readAfterInvalidateIsCached() {
+		productCache.invalidate(1L);
+		long generation = productCache.generation();
+		ProductDTO product = product(1L, "SKU1");
+
+		productCache.put(product, version(1L, 2), generation);
+
+		assertSame(product, productCache.getById(1L).get());
+	}
+
+	@Test
+	public void testPut_writesToOtherProductsKeepReads() {
+		long generation = productCache.generation();
+		productCache.invalidate(2L);
+
+		productCache.put(product(1L, "SKU1"), version(1L, 1), generation);
+
+		assertTrue(productCache.getById(1L).isPresent());
+	}
+
+	@Test
+	public void testGetByIdAndSku_ofVersion() {
+		ProductDTO product = product(1L, "SKU1");
+		productCache.put(product, version(1L, 1), productCache.generation());
+
+		assertSame(product, productCache.getById(1L, version(1L, 1)).get());
+		assertSame(product, productCache.getBySku("SKU1", version(1L, 1)).get());
+		assertFalse(productCache.getById(1L, version(1L, 2)).isPresent());
+		assertFalse(productCache.getBySku("SKU1", version(1L, 2)).isPresent());
+	}
+
+	@Test
+	public void testJson_encodesCachedProductOnce() {
+		ProductDTO product = product(1L, "SKU1");
+		productCache.put(product, null);
+		AtomicInteger encodings = new AtomicInteger();
+		Function<ProductDTO, byte[]> encoder = encoded -> {
+			encodings.incrementAndGet();
+			return encoded.getSku().getBytes(StandardCharsets.UTF_8);
+		};
+
+		byte[] first = productCache.json(product, encoder);
+		byte[] second = productCache.json(product, encoder);
+
+		assertSame(first, second);
+		assertEquals(1, encodings.get());
+	}
+
+	@Test
+	public void testJson_dropsEncodingWhenProductReplaced() {
+		productCache.put(product(1L, "OLD"), null);
+		Function<ProductDTO, byte[]> encoder = encoded -> encoded.getSku().getBytes(StandardCharsets.UTF_8);
+		productCache.json(productCache.getById(1L).get(), encoder);
+
+		ProductDTO replacement = product(1L, "NEW");
+		productCache.put(replacement, null);
+
+		assertArrayEquals("NEW".getBytes(StandardCharsets.UTF_8), productCache.json(replacement, encoder));
+		assertArrayEquals("OTHER".getBytes(StandardCharsets.UTF_8),
+				productCache.json(product(1L, "OTHER"), encoder));
+		assertArrayEquals("NEW".getBytes(StandardCharsets.UTF_8), productCache.json(replacement, encoder));
+	}
+
+	@Test
+	public void testStats_countsHitsMissesAndEvictions() {
+		ProductCache small = new ProductCache(1, Duration.ofMinutes(1));
+		small.put(product(1L, "SKU1"), null);
+		small.getById(1L);
+		small.getById(2L);
+		small.getBySku("UNKNOWN");
+		for (long id = 2; id < 50; id++) {
+			small.put(product(id, "SKU" + id), null);
+		}
+		small.getById(49L);
+
+		CacheStatsDTO stats = small.stats();
+		assertEquals(2, stats.getHits());
+		assertEquals(2, stats.getMisses());
+		assertTrue(stats.getEvictions() > 0);
+		assertEquals(0.5, stats.getHitRate(), 0.0);
+	}
+
+	@Test
+	public void testHottest_ranksByUse() {
+		for (long id = 1; id <= 60; id++) {
+			productCache.put(product(id, "SKU" + id), null);
+		}
+		for (int i = 0; i < 5; i++) {
+			productCache.getById(7L);
+		}
+		for (int i = 0; i < 3; i++) {
+			productCache.getBySku("SKU42");
+		}
+
+		assertEquals(Set.of(7L, 42L), Set.copyOf(productCache.hottest(2)));
+		assertEquals(60, productCache.hottest(100).size());
+	}
+
+	@Test
+	public void testQuiet_readsAreNotRecorded() {
+		for (long id = 1; id <= 60; id++) {
+			productCache.put(product(id, "SKU" + id), null);
+		}
+		for (int i = 0; i < 3; i++) {
+			productCache.getById(7L);
+		}
+		productCache.setQuiet(true);
+		for (int i = 0; i < 10; i++) {
+			assertTrue(productCache.getById(42L).isPresent());
+			productCache.getBySku("SKU43");
+		}
+		productCache.setQuiet(false);
+
+		assertEquals(List.of(7L), productCache.hottest(1));
+		assertEquals(3, productCache.stats().getHits());
+	}
+}
@@ -0,0 +1,124 @@
+package com.store.backend.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.store.backend.dto.ProductDTO;
+import com.store.backend.metrics.ProductMetrics;
+import com.store.backend.service.impl.ProductServiceImpl;
+
+import reactor.core.publisher.Mono;
+
+public class ProductWarmupTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@InjectMocks
+	private ProductWarmup productWarmup;
+
+	@Mock
+	private ProductCache productCache;
+
+	@Mock
+	private ProductServiceImpl productServiceImpl;
+
+	@Mock
+	private ProductMetrics productMetrics;
+
+	private final AtomicInteger requests = new AtomicInteger();
+
+	private Path hotKeys;
+
+	@Before
+	public void setUp() {
+		MockitoAnnotations.openMocks(this);
+		hotKeys = folder.getRoot().toPath().resolve("hot-keys");
+		ReflectionTestUtils.setField(productWarmup, "hotKeysFile", hotKeys.toString());
+		ReflectionTestUtils.setField(productWarmup, "rounds", 2);
+		ReflectionTestUtils.setField(productWarmup, "webClientBuilder",
+				WebClient.builder().exchangeFunction(request -> {
+					requests.incrementAndGet();
+					return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+				}));
+	}
+
+	private static ProductDTO product(long id) {
+		ProductDTO product = new ProductDTO();
+		product.setId(id);
+		product.setTitle("Essence Mascara");
+		product.setSku("SKU" + id);
+		product.setCategory("beauty");
+		return product;
+	}
+
+	@Test
+	public void testWriteAndReadHotKeys() {
+		when(productCache.hottest(1000)).thenReturn(List.of(3L, 1L, 2L));
+
+		productWarmup.writeHotKeys();
+
+		assertEquals(List.of(3L, 1L, 2L), productWarmup.readHotKeys());
+		ReflectionTestUtils.setField(productWarmup, "hotKeys", 2);
+		assertEquals(List.of(3L, 1L), productWarmup.readHotKeys());
+	}
+
+	@Test
+	public void testReadHotKeys_missingOrInvalidFile() throws IOException {
+		assertEquals(List.of(), productWarmup.readHotKeys());
+
+		Files.writeString(hotKeys, "3\nnot-an-id\n");
+		assertEquals(List.of(), productWarmup.readHotKeys());
+	}
+
+	@Test
+	public void testWarmUp_preloadsHotProductsAndExercisesEndpoints() throws IOException {
+		Files.writeString(hotKeys, "3\n1\n");
+		when(productServiceImpl.preloadProducts(List.of(3L, 1L))).thenReturn(Mono.just(2L));
+		when(productCache.getById(3L)).thenReturn(Optional.of(product(3)));
+
+		productWarmup.warmUp(8080);
+
+		assertEquals(18, requests.get());
+		InOrder inOrder = inOrder(productCache, productServiceImpl);
+		inOrder.verify(productCache).setQuiet(true);
+		inOrder.verify(productServiceImpl).preloadProducts(List.of(3L, 1L));
+		inOrder.verify(productCache).setQuiet(false);
+		verify(productMetrics).recordWarmup(any(Duration.class));
+	}
+
+	@Test
+	public void testWarmUp_failureDoesNotStopStartup() {
+		when(productServiceImpl.preloadProducts(List.of()))
+				.thenReturn(Mono.error(new IllegalStateException("database unavailable")));
+
+		productWarmup.warmUp(8080);
+
+		assertEquals(0, requests.get());
+		verify(productMetrics).recordWarmup(any(Duration.class));
+	}
+}
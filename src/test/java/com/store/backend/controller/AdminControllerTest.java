@@ -0,0 +1,95 @@
+package com.store.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import static org.mockito.Mockito.eq;
+
+import com.store.backend.advice.CustomExceptionHandler;
+import com.store.backend.cache.ProductCache;
+import com.store.backend.dao.ProductComponentReconciler;
+import com.store.backend.dto.CacheStatsDTO;
+import com.store.backend.dto.SnapshotDTO;
+import com.store.backend.service.ProductService;
+
+import reactor.core.publisher.Mono;
+
+public class AdminControllerTest {
+
+	@InjectMocks
+	private AdminController adminController;
+
+	@Mock
+	private ProductCache productCache;
+
+	@Mock
+	private ProductComponentReconciler productComponentReconciler;
+
+	@Mock
+	private ProductService productServiceImpl;
+
+	@Mock
+	private CustomExceptionHandler customExceptionHandler;
+
+	@Before
+	public void setUp() {
+		MockitoAnnotations.openMocks(this);
+	}
+
+	@Test
+	public void testGetCacheStats() {
+		CacheStatsDTO stats = new CacheStatsDTO(1, 2, 3, 4, 0.4);
+		Map<String, Object> response = new HashMap<>();
+		response.put("data", stats);
+
+		when(productCache.stats()).thenReturn(stats);
+		when(customExceptionHandler.wrapSuccessResponse(eq(stats), eq(HttpStatus.OK), anyString()))
+				.thenReturn(new ResponseEntity<>(response, HttpStatus.OK));
+
+		ResponseEntity<Map<String, Object>> actual = adminController.getCacheStats().block();
+		assertEquals(HttpStatus.OK, actual.getStatusCode());
+		assertEquals(stats, actual.getBody().get("data"));
+	}
+
+	@Test
+	public void testCompactProductComponents() {
+		Map<String, Long> deleted = Map.of("reviews", 3L);
+		Map<String, Object> response = new HashMap<>();
+		response.put("data", deleted);
+
+		when(productComponentReconciler.compact()).thenReturn(Mono.just(deleted));
+		when(customExceptionHandler.wrapSuccessResponse(eq(deleted), eq(HttpStatus.OK), anyString()))
+				.thenReturn(new ResponseEntity<>(response, HttpStatus.OK));
+
+		ResponseEntity<Map<String, Object>> actual = adminController.compactProductComponents().block();
+		assertEquals(HttpStatus.OK, actual.getStatusCode());
+		assertEquals(deleted, actual.getBody().get("data"));
+	}
+
+	@Test
+	public void testWriteSnapshot() {
+		SnapshotDTO snapshot = new SnapshotDTO("/snapshots/catalog.snapshot", 1, 300, 181_234, "0a1b2c3d",
+				"2024-05-23T08:56:21.618Z");
+		Map<String, Object> response = new HashMap<>();
+		response.put("data", snapshot);
+
+		when(productServiceImpl.snapshotProducts()).thenReturn(Mono.just(snapshot));
+		when(customExceptionHandler.wrapSuccessResponse(eq(snapshot), eq(HttpStatus.OK), anyString()))
+				.thenReturn(new ResponseEntity<>(response, HttpStatus.OK));
+
+		ResponseEntity<Map<String, Object>> actual = adminController.writeSnapshot().block();
+		assertEquals(HttpStatus.OK, actual.getStatusCode());
+		assertEquals(snapshot, actual.getBody().get("data"));
+	}
+}
@@ -4,8 +4,12 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -17,16 +21,37 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
 import static org.mockito.Mockito.eq;
 
 import com.store.backend.advice.CustomExceptionHandler;
+import com.store.backend.cache.CatalogVersion;
+import com.store.backend.dao.ProductVersion;
+import com.store.backend.dto.LoadJobDTO;
+import com.store.backend.dto.ProductBatchRequestDTO;
 import com.store.backend.dto.ProductDTO;
+import com.store.backend.dto.ProductFilterResultDTO;
+import com.store.backend.dto.ProductLookupDTO;
+import com.store.backend.dto.ProductPageDTO;
+import com.store.backend.dto.ReviewPageDTO;
+import com.store.backend.exception.InvalidRequestException;
+import com.store.backend.exception.LoadJobNotFoundException;
+import com.store.backend.exception.ProductNotFoundException;
+import com.store.backend.index.ProductFilter;
+import com.store.backend.service.LoadJobManager;
+import com.store.backend.service.LoadMode;
 import com.store.backend.service.impl.ProductServiceImpl;
+import com.store.backend.util.ProductFields;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 public class ProductControllerTest {
 
@@ -39,14 +64,31 @@ public class ProductControllerTest {
 	@Mock
 	private CustomExceptionHandler customExceptionHandler;
 
+	@Mock
+	private LoadJobManager loadJobManager;
+
+	@Spy
+	private CatalogVersion catalogVersion = new CatalogVersion();
+
 	private static final String PRODUCT_ID = "1";
 	private static final String SKU = "ABC123";
 	private static final String CATEGORY = "electronics";
 	private static final String SORT_ORDER = "asc";
+	private static final ProductVersion VERSION = new ProductVersion(1L, Instant.parse("2024-05-01T10:00:00Z"),
+			"0123456789abcdef0123");
 
 	@Before
 	public void setUp() {
 		MockitoAnnotations.openMocks(this);
+		ReflectionTestUtils.setField(productController, "maxAge", Duration.ofSeconds(60));
+	}
+
+	private static ServerWebExchange exchange() {
+		return exchange(MockServerHttpRequest.get("/"));
+	}
+
+	private static ServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+		return MockServerWebExchange.from(request);
 	}
 
 	@Test
@@ -60,7 +102,7 @@ public class ProductControllerTest {
 		when(customExceptionHandler.wrapSuccessResponse(any(), eq(HttpStatus.OK), anyString()))
 				.thenReturn(new ResponseEntity<>(response, HttpStatus.OK));
 
-		Mono<ResponseEntity<Map<String, Object>>> result = productController.getProducts();
+		Mono<ResponseEntity<Map<String, Object>>> result = productController.getProducts(exchange());
 
 		assertNotNull(result);
 		ResponseEntity<Map<String, Object>> actual = result.block();
@@ -75,16 +117,90 @@ public class ProductControllerTest {
 		response.put("data", mockProduct);
 		response.put("status", HttpStatus.OK);
 
-		when(productServiceImpl.getProductById(Long.valueOf(PRODUCT_ID))).thenReturn(Mono.just(mockProduct));
+		when(productServiceImpl.getProductVersionById(Long.valueOf(PRODUCT_ID))).thenReturn(Mono.just(VERSION));
+		when(productServiceImpl.getProductById(Long.valueOf(PRODUCT_ID), VERSION)).thenReturn(Mono.just(mockProduct));
 		when(customExceptionHandler.wrapSuccessResponse(any(), eq(HttpStatus.OK), anyString()))
 				.thenReturn(new ResponseEntity<>(response, HttpStatus.OK));
 
-		Mono<ResponseEntity<Map<String, Object>>> result = productController.getProductById(PRODUCT_ID);
+		Mono<ResponseEntity<Map<String, Object>>> result = productController.getProductById(PRODUCT_ID, exchange());
 
 		assertNotNull(result);
 		ResponseEntity<Map<String, Object>> actual = result.block();
 		assertEquals(HttpStatus.OK, actual.getStatusCode());
 		assertEquals(mockProduct, actual.getBody().get("data"));
+		assertEquals("\"" + VERSION.eTag() + "\"", actual.getHeaders().getETag());
+		assertEquals(VERSION.updatedAt().toEpochMilli(), actual.getHeaders().getLastModified());
+		assertEquals("max-age=60, public", actual.getHeaders().getCacheControl());
+	}
+
+	@Test
+	public void testGetProductById_notModified() {
+		when(productServiceImpl.getProductVersionById(Long.valueOf(PRODUCT_ID))).thenReturn(Mono.just(VERSION));
+
+		ResponseEntity<Map<String, Object>> actual = productController.getProductById(PRODUCT_ID,
+				exchange(MockServerHttpRequest.get("/").ifNoneMatch("\"" + VERSION.eTag() + "\""))).block();
+
+		assertEquals(HttpStatus.NOT_MODIFIED, actual.getStatusCode());
+		verify(productServiceImpl, never()).getProductById(any(), any());
+	}
+
+	@Test
+	public void testGetProductById_modifiedSinceOlderCopy() {
+		ProductDTO mockProduct = new ProductDTO();
+		when(productServiceImpl.getProductVersionById(Long.valueOf(PRODUCT_ID))).thenReturn(Mono.just(VERSION));
+		when(productServiceImpl.getProductById(Long.valueOf(PRODUCT_ID), VERSION)).thenReturn(Mono.just(mockProduct));
+		when(customExceptionHandler.wrapSuccessResponse(any(), eq(HttpStatus.OK), anyString()))
+				.thenReturn(new ResponseEntity<>(Map.of("data", mockProduct), HttpStatus.OK));
+
+		ResponseEntity<Map<String, Object>> actual = productController.getProductById(PRODUCT_ID,
+				exchange(MockServerHttpRequest.get("/").ifNoneMatch("\"1-0-stale\"")
+						.ifModifiedSince(VERSION.updatedAt().toEpochMilli())))
+				.block();
+
+		assertEquals(HttpStatus.OK, actual.getStatusCode());
+		assertEquals(mockProduct, actual.getBody().get("data"));
+	}
+
+	@Test
+	public void testGetProductById_notFoundSkipsConditionalCheck() {
+		when(productServiceImpl.getProductVersionById(Long.valueOf(PRODUCT_ID))).thenReturn(Mono.empty());
+		when(productServiceImpl.getProductById(Long.valueOf(PRODUCT_ID), null))
+				.thenReturn(Mono.error(new ProductNotFoundException("product does not exist with id: 1")));
+
+		StepVerifier.create(productController.getProductById(PRODUCT_ID, exchange()))
+				.expectError(ProductNotFoundException.class).verify();
+	}
+
+	@Test
+	public void testGetProductReviews() {
+		ReviewPageDTO page = new ReviewPageDTO(List.of(), null);
+		when(productServiceImpl.getProductVersionById(Long.valueOf(PRODUCT_ID))).thenReturn(Mono.just(VERSION));
+		when(productServiceImpl.getProductReviews(Long.valueOf(PRODUCT_ID), "Nw", 10)).thenReturn(Mono.just(page));
+		when(customExceptionHandler.wrapSuccessResponse(eq(page), eq(HttpStatus.OK), anyString()))
+				.thenReturn(new ResponseEntity<>(Map.of("data", page), HttpStatus.OK));
+
+		ResponseEntity<Map<String, Object>> actual = productController
+				.getProductReviews(PRODUCT_ID, "Nw", 10, exchange()).block();
+
+		assertEquals(HttpStatus.OK, actual.getStatusCode());
+		assertEquals(page, actual.getBody().get("data"));
+		assertEquals("\"" + VERSION.eTag() + "\"", actual.getHeaders().getETag());
+	}
+
+	@Test
+	public void testGetProductsBatch() {
+		List<ProductLookupDTO> lookups = List.of(new ProductLookupDTO(1L, null, true, new ProductDTO()),
+				new ProductLookupDTO(null, "MISSING", false, null));
+		when(productServiceImpl.getProductsBatch(List.of(1L), List.of("MISSING"), ProductFields.DEFAULT))
+				.thenReturn(Mono.just(lookups));
+		when(customExceptionHandler.wrapSuccessResponse(eq(lookups), eq(HttpStatus.OK), anyString()))
+				.thenReturn(new ResponseEntity<>(Map.of("data", lookups), HttpStatus.OK));
+
+		ResponseEntity<Map<String, Object>> actual = productController
+				.getProductsBatch(new ProductBatchRequestDTO(List.of(1L), List.of("MISSING")), null, null).block();
+
+		assertEquals(HttpStatus.OK, actual.getStatusCode());
+		assertEquals(lookups, actual.getBody().get("data"));
 	}
 
 	@Test
@@ -94,11 +210,12 @@ public class ProductControllerTest {
 		response.put("data", mockProduct);
 		response.put("status", HttpStatus.OK);
 
-		when(productServiceImpl.getProductBySku(SKU)).thenReturn(Mono.just(mockProduct));
+		when(productServiceImpl.getProductVersionBySku(SKU)).thenReturn(Mono.just(VERSION));
+		when(productServiceImpl.getProductBySku(SKU, VERSION)).thenReturn(Mono.just(mockProduct));
 		when(customExceptionHandler.wrapSuccessResponse(any(), eq(HttpStatus.OK), anyString()))
 				.thenReturn(new ResponseEntity<>(response, HttpStatus.OK));
 
-		Mono<ResponseEntity<Map<String, Object>>> result = productController.getProductBySku(SKU);
+		Mono<ResponseEntity<Map<String, Object>>> result = productController.getProductBySku(SKU, exchange());
 
 		assertNotNull(result);
 		ResponseEntity<Map<String, Object>> actual = result.block();
@@ -117,7 +234,7 @@ public class ProductControllerTest {
 		when(customExceptionHandler.wrapSuccessResponse(any(), eq(HttpStatus.OK), anyString()))
 				.thenReturn(new ResponseEntity<>(response, HttpStatus.OK));
 
-		Mono<ResponseEntity<Map<String, Object>>> result = productController.getProductsByCategory(CATEGORY);
+		Mono<ResponseEntity<Map<String, Object>>> result = productController.getProductsByCategory(CATEGORY, exchange());
 
 		assertNotNull(result);
 		ResponseEntity<Map<String, Object>> actual = result.block();
@@ -136,7 +253,7 @@ public class ProductControllerTest {
 		when(customExceptionHandler.wrapSuccessResponse(any(), eq(HttpStatus.OK), anyString()))
 				.thenReturn(new ResponseEntity<>(response, HttpStatus.OK));
 
-		Mono<ResponseEntity<Map<String, Object>>> result = productController.getProductsSortedByPrice(SORT_ORDER);
+		Mono<ResponseEntity<Map<String, Object>>> result = productController.getProductsSortedByPrice(SORT_ORDER, exchange());
 
 		assertNotNull(result);
 		ResponseEntity<Map<String, Object>> actual = result.block();
@@ -145,13 +262,182 @@ public class ProductControllerTest {
 	}
 
 	@Test
-	public void testLoadProducts() {
-		when(productServiceImpl.loadProducts()).thenReturn(Mono.empty());
-		when(customExceptionHandler.wrapSuccessResponse(Mockito.isNull(), eq(HttpStatus.OK), anyString()))
+	public void testGetProducts_notModifiedUntilCatalogChanges() {
+		String eTag = "\"" + catalogVersion.eTag() + "\"";
+
+		ResponseEntity<Map<String, Object>> actual = productController
+				.getProducts(exchange(MockServerHttpRequest.get("/").ifNoneMatch(eTag))).block();
+
+		assertEquals(HttpStatus.NOT_MODIFIED, actual.getStatusCode());
+		verify(productServiceImpl, never()).getProducts();
+
+		catalogVersion.advance();
+		when(productServiceImpl.getProducts()).thenReturn(Flux.empty());
+		when(customExceptionHandler.wrapSuccessResponse(any(), eq(HttpStatus.OK), anyString()))
 				.thenReturn(new ResponseEntity<>(HttpStatus.OK));
 
+		actual = productController.getProducts(exchange(MockServerHttpRequest.get("/").ifNoneMatch(eTag))).block();
+
+		assertEquals(HttpStatus.OK, actual.getStatusCode());
+		assertEquals("\"" + catalogVersion.eTag() + "\"", actual.getHeaders().getETag());
+	}
+
+	@Test
+	public void testGetProductsPage() {
+		ProductPageDTO page = new ProductPageDTO(Arrays.asList(new ProductDTO()), "MQ");
+		Map<String, Object> response = new HashMap<>();
+		response.put("data", page);
+		response.put("status", HttpStatus.OK);
+
+		when(productServiceImpl.getProductsPage(null, 1, ProductFields.DEFAULT)).thenReturn(Mono.just(page));
+		when(customExceptionHandler.wrapSuccessResponse(eq(page), eq(HttpStatus.OK), anyString()))
+				.thenReturn(new ResponseEntity<>(response, HttpStatus.OK));
+
+		ResponseEntity<Map<String, Object>> actual = productController.getProductsPage(1, null, null, null, exchange())
+				.block();
+		assertEquals(HttpStatus.OK, actual.getStatusCode());
+		assertEquals(page, actual.getBody().get("data"));
+	}
+
+	@Test
+	public void testGetProductsPage_sparseFields() {
+		ProductPageDTO page = new ProductPageDTO(Arrays.asList(new ProductDTO()), null);
+		ProductFields fields = ProductFields.parse("title,price,thumbnail,rating", null);
+		when(productServiceImpl.getProductsPage(null, 20, fields)).thenReturn(Mono.just(page));
+		when(customExceptionHandler.wrapSuccessResponse(eq(page), eq(HttpStatus.OK), anyString()))
+				.thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+		ResponseEntity<Map<String, Object>> actual = productController
+				.getProductsPage(20, null, "title,price,thumbnail,rating", null, exchange()).block();
+
+		assertEquals(HttpStatus.OK, actual.getStatusCode());
+	}
+
+	@Test(expected = InvalidRequestException.class)
+	public void testGetProductsPage_unknownField() {
+		productController.getProductsPage(20, null, "title,secret", null, exchange());
+	}
+
+	@Test
+	public void testStreamProducts() {
+		ProductDTO first = new ProductDTO();
+		ProductDTO second = new ProductDTO();
+		when(productServiceImpl.getProducts()).thenReturn(Flux.just(first, second));
+
+		StepVerifier.create(productController.streamProducts()).expectNext(first, second).verifyComplete();
+	}
+
+	@Test
+	public void testStreamProductsByCategory() {
+		ProductDTO product = new ProductDTO();
+		when(productServiceImpl.getProductsByCategory(CATEGORY)).thenReturn(Flux.just(product));
+
+		StepVerifier.create(productController.streamProductsByCategory(CATEGORY)).expectNext(product)
+				.verifyComplete();
+	}
+
+	@Test
+	public void testStreamProductsSortedByPrice() {
+		ProductDTO product = new ProductDTO();
+		when(productServiceImpl.getProductsSortedByPrice(SORT_ORDER)).thenReturn(Flux.just(product));
+
+		StepVerifier.create(productController.streamProductsSortedByPrice(SORT_ORDER)).expectNext(product)
+				.verifyComplete();
+	}
+
+	@Test
+	public void testLoadProducts() {
+		LoadJobDTO job = new LoadJobDTO();
+		when(loadJobManager.start(LoadMode.FULL)).thenReturn(job);
+		when(customExceptionHandler.wrapSuccessResponse(eq(job), eq(HttpStatus.ACCEPTED), anyString()))
+				.thenReturn(new ResponseEntity<>(HttpStatus.ACCEPTED));
+
 		Mono<ResponseEntity<Map<String, Object>>> result = productController.loadProducts();
 
+		assertNotNull(result);
+		ResponseEntity<Map<String, Object>> actual = result.block();
+		assertEquals(HttpStatus.ACCEPTED, actual.getStatusCode());
+	}
+
+	@Test
+	public void testLoadProductsIncrementally() {
+		LoadJobDTO job = new LoadJobDTO();
+		when(loadJobManager.start(LoadMode.INCREMENTAL)).thenReturn(job);
+		when(customExceptionHandler.wrapSuccessResponse(eq(job), eq(HttpStatus.ACCEPTED), anyString()))
+				.thenReturn(new ResponseEntity<>(HttpStatus.ACCEPTED));
+
+		Mono<ResponseEntity<Map<String, Object>>> result = productController.loadProductsIncrementally();
+
+		assertNotNull(result);
+		ResponseEntity<Map<String, Object>> actual = result.block();
+		assertEquals(HttpStatus.ACCEPTED, actual.getStatusCode());
+	}
+
+	@Test
+	public void testImportProducts() {
+		LoadJobDTO job = new LoadJobDTO();
+		job.setMode(LoadMode.IMPORT);
+		when(loadJobManager.startImport("products.ndjson")).thenReturn(job);
+		when(customExceptionHandler.wrapSuccessResponse(eq(job), eq(HttpStatus.ACCEPTED), anyString()))
+				.thenReturn(new ResponseEntity<>(HttpStatus.ACCEPTED));
+
+		ResponseEntity<Map<String, Object>> actual = productController.importProducts("products.ndjson").block();
+
+		assertEquals(HttpStatus.ACCEPTED, actual.getStatusCode());
+	}
+
+	@Test
+	public void testGetLoadJob() {
+		LoadJobDTO job = new LoadJobDTO();
+		job.setId("job-1");
+		when(loadJobManager.get("job-1")).thenReturn(job);
+		when(customExceptionHandler.wrapSuccessResponse(eq(job), eq(HttpStatus.OK), anyString()))
+				.thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+		ResponseEntity<Map<String, Object>> actual = productController.getLoadJob("job-1").block();
+
+		assertEquals(HttpStatus.OK, actual.getStatusCode());
+	}
+
+	@Test
+	public void testCancelLoadJob_unknownJob() {
+		when(loadJobManager.cancel("job-1")).thenThrow(new LoadJobNotFoundException("Load job not found with id: job-1"));
+
+		StepVerifier.create(productController.cancelLoadJob("job-1"))
+				.expectError(LoadJobNotFoundException.class).verify();
+	}
+
+	@Test
+	public void testSearchProducts() {
+		List<ProductDTO> mockProducts = Arrays.asList(new ProductDTO(), new ProductDTO());
+		Map<String, Object> response = new HashMap<>();
+		response.put("data", mockProducts);
+		response.put("status", HttpStatus.OK);
+
+		when(productServiceImpl.searchProducts("lipstick", 20, ProductFields.DEFAULT)).thenReturn(Flux.fromIterable(mockProducts));
+		when(customExceptionHandler.wrapSuccessResponse(eq(mockProducts), eq(HttpStatus.OK), anyString()))
+				.thenReturn(new ResponseEntity<>(response, HttpStatus.OK));
+
+		Mono<ResponseEntity<Map<String, Object>>> result = productController.searchProducts("lipstick", 20, null, null,
+				exchange());
+
+		assertNotNull(result);
+		ResponseEntity<Map<String, Object>> actual = result.block();
+		assertEquals(HttpStatus.OK, actual.getStatusCode());
+		assertEquals(mockProducts, actual.getBody().get("data"));
+	}
+
+	@Test
+	public void testFilterProducts() {
+		ProductFilter filter = new ProductFilter(CATEGORY, null, null, 100.0, null, true);
+		ProductFilterResultDTO filtered = new ProductFilterResultDTO(1, Arrays.asList(new ProductDTO()), Map.of());
+		when(productServiceImpl.filterProducts(filter, 20, ProductFields.DEFAULT)).thenReturn(Mono.just(filtered));
+		when(customExceptionHandler.wrapSuccessResponse(eq(filtered), eq(HttpStatus.OK), anyString()))
+				.thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+		Mono<ResponseEntity<Map<String, Object>>> result = productController.filterProducts(CATEGORY, null, null,
+				100.0, null, true, 20, null, null, exchange());
+
 		assertNotNull(result);
 		ResponseEntity<Map<String, Object>> actual = result.block();
 		assertEquals(HttpStatus.OK, actual.getStatusCode());
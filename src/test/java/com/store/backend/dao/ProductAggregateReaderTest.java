@@ -0,0 +1,103 @@
+package com.store.backend.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.store.backend.repository.ProductRepository;
+
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+
+public class ProductAggregateReaderTest {
+
+	private static final Instant DATE = Instant.parse("2024-05-23T08:56:21.618Z");
+
+	private ProductAggregateReader productAggregateReader;
+	private ProductRepository productRepository;
+
+	@Before
+	public void setUp() {
+		ConnectionFactory connectionFactory = H2ConnectionFactory.inMemory(UUID.randomUUID().toString());
+		new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(connectionFactory).block();
+		DatabaseClient databaseClient = DatabaseClient.create(connectionFactory);
+		databaseClient.sql("INSERT INTO products (id, title, description, category, price, discount_percentage, "
+				+ "rating, stock, sku, weight, thumbnail, created_at, updated_at, barcode, width, height, depth) VALUES "
+				+ "(1, 'Product A', 'Description A', 'beauty', 20, 0, 4, 5, 'SKU1', 1, 'thumb', NOW(), NOW(), 'BC1', 1, 1, 1), "
+				+ "(2, 'Product B', 'Description B', 'beauty', 10, 0, 4, 5, 'SKU2', 1, 'thumb', NOW(), NOW(), 'BC2', 1, 1, 1), "
+				+ "(3, 'Product C', 'Description C', 'groceries', 30, 0, 4, 5, 'SKU3', 1, 'thumb', NOW(), NOW(), 'BC3', 1, 1, 1)")
+				.then().block();
+
+		ProductComponentWriter productComponentWriter = new ProductComponentWriter();
+		ReflectionTestUtils.setField(productComponentWriter, "databaseClient", databaseClient);
+		productComponentWriter.insertReviews(List.of(new ReviewDAO(1L, 4.0, "Good", DATE, "Jane", "jane@example.com", 0),
+				new ReviewDAO(1L, 2.0, "Bad", DATE, "John", "john@example.com", 1),
+				new ReviewDAO(2L, 5.0, "Great", DATE, "Jane", "jane@example.com", 0))).block();
+		productComponentWriter.insertImages(List.of(new ProductImageDAO(1L, "b.png"), new ProductImageDAO(1L, "a.png"),
+				new ProductImageDAO(2L, "c.png"))).block();
+		productComponentWriter.insertTags(List.of(new ProductTagDAO(1L, "tag2"), new ProductTagDAO(1L, "tag1"))).block();
+
+		R2dbcEntityTemplate template = new R2dbcEntityTemplate(connectionFactory);
+		productRepository = new R2dbcRepositoryFactory(template).getRepository(ProductRepository.class);
+		productAggregateReader = new ProductAggregateReader(databaseClient, template.getConverter());
+	}
+
+	@Test
+	public void testFindById_foldsChildrenInInsertionOrder() {
+		ProductAggregate aggregate = productAggregateReader.findById(1L).block();
+
+		assertEquals(productRepository.findById(1L).block(), aggregate.product());
+		assertEquals(List.of(new ReviewDAO(1L, 4.0, "Good", DATE, "Jane", "jane@example.com", 0),
+				new ReviewDAO(1L, 2.0, "Bad", DATE, "John", "john@example.com", 1)), aggregate.reviews());
+		assertEquals(List.of(new ProductImageDAO(1L, "b.png"), new ProductImageDAO(1L, "a.png")), aggregate.images());
+		assertEquals(List.of(new ProductTagDAO(1L, "tag2"), new ProductTagDAO(1L, "tag1")), aggregate.tags());
+	}
+
+	@Test
+	public void testFindBySku_withoutChildren() {
+		ProductAggregate aggregate = productAggregateReader.findBySku("SKU3").block();
+
+		assertEquals(Long.valueOf(3L), aggregate.product().getId());
+		assertEquals(List.of(), aggregate.reviews());
+		assertEquals(List.of(), aggregate.images());
+		assertEquals(List.of(), aggregate.tags());
+	}
+
+	@Test
+	public void testFindById_whenMissing() {
+		assertNull(productAggregateReader.findById(4L).block());
+	}
+
+	@Test
+	public void testFindAll_keepsProductOrder() {
+		assertEquals(List.of(1L, 2L, 3L), ids(productAggregateReader.findAll().collectList().block()));
+		assertEquals(List.of(2L, 1L, 3L), ids(productAggregateReader.findAllByPrice(true).collectList().block()));
+		assertEquals(List.of(3L, 1L, 2L), ids(productAggregateReader.findAllByPrice(false).collectList().block()));
+		assertEquals(List.of(1L, 2L), ids(productAggregateReader.findByCategory("beauty").collectList().block()));
+	}
+
+	@Test
+	public void testFindAllByPrice_groupsChildrenWithTheirProduct() {
+		List<ProductAggregate> aggregates = productAggregateReader.findAllByPrice(false).collectList().block();
+
+		assertEquals(2, aggregates.get(1).reviews().size());
+		assertEquals(1, aggregates.get(2).reviews().size());
+		assertEquals(List.of(new ProductImageDAO(2L, "c.png")), aggregates.get(2).images());
+	}
+
+	private static List<Long> ids(List<ProductAggregate> aggregates) {
+		return aggregates.stream().map(aggregate -> aggregate.product().getId()).toList();
+	}
+}
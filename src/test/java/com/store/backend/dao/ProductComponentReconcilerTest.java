@@ -0,0 +1,223 @@
+package com.store.backend.dao;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.store.backend.repository.ProductImageRepository;
+import com.store.backend.repository.ProductReviewRepository;
+import com.store.backend.repository.ProductTagRepository;
+
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+
+public class ProductComponentReconcilerTest {
+
+	private static final Instant DATE = Instant.parse("2024-05-23T08:56:21.618Z");
+
+	private ProductComponentReconciler productComponentReconciler;
+	private ConnectionFactory connectionFactory;
+	private DatabaseClient databaseClient;
+
+	@Before
+	public void setUp() {
+		connectionFactory = H2ConnectionFactory.inMemory(UUID.randomUUID().toString());
+		new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(connectionFactory).block();
+		databaseClient = DatabaseClient.create(connectionFactory);
+		databaseClient.sql("INSERT INTO products (id, title, category, price, discount_percentage, rating, stock, sku, "
+				+ "weight, thumbnail, created_at, updated_at, barcode, width, height, depth) VALUES "
+				+ "(1, 'Product A', 'Category A', 10, 0, 4, 5, 'SKU1', 1, 'thumb', NOW(), NOW(), 'BC1', 1, 1, 1)")
+				.then().block();
+
+		ProductComponentWriter productComponentWriter = new ProductComponentWriter();
+		ReflectionTestUtils.setField(productComponentWriter, "databaseClient", databaseClient);
+
+		R2dbcRepositoryFactory repositoryFactory = new R2dbcRepositoryFactory(new R2dbcEntityTemplate(connectionFactory));
+		productComponentReconciler = new ProductComponentReconciler();
+		ReflectionTestUtils.setField(productComponentReconciler, "productReviewRepository",
+				repositoryFactory.getRepository(ProductReviewRepository.class));
+		ReflectionTestUtils.setField(productComponentReconciler, "productImageRepository",
+				repositoryFactory.getRepository(ProductImageRepository.class));
+		ReflectionTestUtils.setField(productComponentReconciler, "productTagRepository",
+				repositoryFactory.getRepository(ProductTagRepository.class));
+		ReflectionTestUtils.setField(productComponentReconciler, "productComponentWriter", productComponentWriter);
+		ReflectionTestUtils.setField(productComponentReconciler, "databaseClient", databaseClient);
+	}
+
+	private long count(String table) {
+		return databaseClient.sql("SELECT COUNT(*) AS c FROM " + table).map(row -> row.get("c", Long.class)).one()
+				.block();
+	}
+
+	/**
+	 * Drop the unique indexes on the children, as in a database written before
+	 * they existed
+	 */
+	private void dropUniqueIndexes() {
+		databaseClient.sql("DROP INDEX uq_reviews_product_position").then().block();
+		databaseClient.sql("DROP INDEX uq_product_images_product_url").then().block();
+		databaseClient.sql("DROP INDEX uq_product_tags_product_tag").then().block();
+	}
+
+	private void reconcile(List<ReviewDAO> reviews, List<ProductImageDAO> images, List<ProductTagDAO> tags) {
+		productComponentReconciler.reconcile(List.of(1L), reviews, images, tags).block();
+	}
+
+	@Test
+	public void testReconcile_isIdempotent() {
+		List<ReviewDAO> reviews = List.of(new ReviewDAO(1L, 4.0, "Good", DATE, "Jane", "jane@example.com", 0));
+		List<ProductImageDAO> images = List.of(new ProductImageDAO(1L, "a.png"), new ProductImageDAO(1L, "b.png"));
+		List<ProductTagDAO> tags = List.of(new ProductTagDAO(1L, "tag1"));
+
+		reconcile(reviews, images, tags);
+		reconcile(reviews, images, tags);
+
+		assertEquals(1, count("reviews"));
+		assertEquals(2, count("product_images"));
+		assertEquals(1, count("product_tags"));
+	}
+
+	@Test
+	public void testReconcile_appliesDelta() {
+		reconcile(List.of(new ReviewDAO(1L, 4.0, "Good", DATE, "Jane", "jane@example.com", 0)),
+				List.of(new ProductImageDAO(1L, "a.png"), new ProductImageDAO(1L, "b.png")),
+				List.of(new ProductTagDAO(1L, "tag1")));
+
+		reconcile(List.of(new ReviewDAO(1L, 2.0, "Changed my mind", DATE, "Jane", "jane@example.com", 0)),
+				List.of(new ProductImageDAO(1L, "b.png"), new ProductImageDAO(1L, "c.png")), List.of());
+
+		assertEquals("Changed my mind", databaseClient.sql("SELECT CAST(comment AS VARCHAR) AS c FROM reviews")
+				.map(row -> row.get("c", String.class)).one().block());
+		assertEquals(List.of("b.png", "c.png"), databaseClient
+				.sql("SELECT image_url FROM product_images ORDER BY image_url")
+				.map(row -> row.get("image_url", String.class)).all().collectList().block());
+		assertEquals(0, count("product_tags"));
+	}
+
+	@Test
+	public void testReconcile_maintainsReviewSummary() {
+		reconcile(List.of(new ReviewDAO(1L, 1.0, "Poor", DATE, "Jane", "jane@example.com", 0),
+				new ReviewDAO(1L, 4.4, "Good", DATE, "John", "john@example.com", 1),
+				new ReviewDAO(1L, 4.6, "Great", DATE, "Jack", "jack@example.com", 2)), List.of(), List.of());
+
+		assertEquals(List.of(3L, 10L, 1L, 0L, 0L, 1L, 1L), summary());
+
+		reconcile(List.of(new ReviewDAO(1L, 4.4, "Good", DATE, "John", "john@example.com", 0)), List.of(), List.of());
+
+		assertEquals(List.of(1L, 4L, 0L, 0L, 0L, 1L, 0L), summary());
+
+		reconcile(List.of(), List.of(), List.of());
+
+		assertEquals(0, count("review_summaries"));
+	}
+
+	private List<Long> summary() {
+		return databaseClient.sql("SELECT review_count, CAST(ROUND(rating_sum) AS BIGINT) AS rating_sum, one_star, "
+				+ "two_stars, three_stars, four_stars, five_stars FROM review_summaries WHERE product_id = 1")
+				.map(row -> List.of(row.get("review_count", Long.class), row.get("rating_sum", Long.class),
+						row.get("one_star", Long.class), row.get("two_stars", Long.class),
+						row.get("three_stars", Long.class), row.get("four_stars", Long.class),
+						row.get("five_stars", Long.class)))
+				.one().block();
+	}
+
+	@Test
+	public void testReconcile_keepsReviewsOfOneReviewerOnOneDay() {
+		List<ReviewDAO> reviews = List.of(new ReviewDAO(1L, 4.0, "Good", DATE, "Jane", "jane@example.com", 0),
+				new ReviewDAO(1L, 2.0, "Broke after a week", DATE, "Jane", "jane@example.com", 1),
+				new ReviewDAO(1L, 2.0, "Broke after a week", DATE, "Jane", "jane@example.com", 2));
+
+		reconcile(reviews, List.of(), List.of());
+		reconcile(reviews, List.of(), List.of());
+
+		assertEquals(3, count("reviews"));
+		assertEquals(List.of(3L, 8L, 0L, 2L, 0L, 1L, 0L), summary());
+	}
+
+	@Test
+	public void testReconcile_replacesReviewsWithoutPosition() {
+		databaseClient.sql("INSERT INTO reviews (product_id, rating, comment, date, reviewer_name, reviewer_email) "
+				+ "VALUES (1, 4, 'Good', NOW(), 'Jane', 'jane@example.com'), "
+				+ "(1, 4, 'Good', NOW(), 'Jane', 'jane@example.com')").then().block();
+
+		reconcile(List.of(new ReviewDAO(1L, 4.0, "Good", DATE, "Jane", "jane@example.com", 0)), List.of(), List.of());
+
+		assertEquals(List.of(0), databaseClient.sql("SELECT position FROM reviews")
+				.map(row -> row.get("position", Integer.class)).all().collectList().block());
+	}
+
+	@Test(expected = DataIntegrityViolationException.class)
+	public void testSchema_rejectsDuplicateTags() {
+		databaseClient.sql("INSERT INTO product_tags (product_id, tag) VALUES (1, 'tag1'), (1, 'tag1')").then().block();
+	}
+
+	@Test
+	public void testSchema_compactsDuplicatesBeforeAddingUniqueIndexes() {
+		dropUniqueIndexes();
+		databaseClient.sql("INSERT INTO product_tags (product_id, tag) VALUES (1, 'tag1'), (1, 'tag1')").then().block();
+		databaseClient.sql("INSERT INTO product_images (product_id, image_url) VALUES (1, 'a.png'), (1, 'a.png')")
+				.then().block();
+
+		new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(connectionFactory).block();
+
+		assertEquals(1, count("product_tags"));
+		assertEquals(1, count("product_images"));
+	}
+
+	@Test
+	public void testReconcile_collapsesStoredDuplicates() {
+		dropUniqueIndexes();
+		databaseClient.sql("INSERT INTO product_tags (product_id, tag) VALUES (1, 'tag1'), (1, 'tag1'), (1, 'tag1')")
+				.then().block();
+
+		reconcile(List.of(), List.of(), List.of(new ProductTagDAO(1L, "tag1")));
+
+		assertEquals(1, count("product_tags"));
+	}
+
+	@Test
+	public void testCompact_keepsOneRowPerKey() {
+		dropUniqueIndexes();
+		databaseClient.sql("INSERT INTO product_tags (product_id, tag) VALUES (1, 'tag1'), (1, 'tag1'), (1, 'tag2')")
+				.then().block();
+		databaseClient.sql("INSERT INTO product_images (product_id, image_url) VALUES (1, 'a.png'), (1, 'a.png')")
+				.then().block();
+		databaseClient.sql("INSERT INTO reviews (product_id, rating, comment, date, reviewer_name, reviewer_email) "
+				+ "VALUES (1, 4, 'Good', NOW(), 'Jane', 'jane@example.com')").then().block();
+		databaseClient.sql("INSERT INTO reviews (product_id, rating, comment, date, reviewer_name, reviewer_email) "
+				+ "SELECT product_id, rating, comment, date, reviewer_name, reviewer_email FROM reviews").then().block();
+
+		Map<String, Long> deleted = productComponentReconciler.compact().block();
+
+		assertEquals(Map.of("reviews", 1L, "product_images", 1L, "product_tags", 1L), deleted);
+		assertEquals(1, count("reviews"));
+		assertEquals(1, count("product_images"));
+		assertEquals(2, count("product_tags"));
+	}
+
+	@Test
+	public void testDiff_rewritesChangedKeysOnly() {
+		ProductTagDAO kept = new ProductTagDAO(1L, "kept");
+		ProductTagDAO removed = new ProductTagDAO(1L, "removed");
+		ProductTagDAO added = new ProductTagDAO(1L, "added");
+
+		ProductComponentReconciler.Delta<ProductTagDAO> delta = ProductComponentReconciler.diff(List.of(kept, removed),
+				List.of(kept, added), tag -> List.of(tag.getProductId(), tag.getTag()));
+
+		assertEquals(List.of(removed), delta.deletes());
+		assertEquals(List.of(added), delta.inserts());
+	}
+}
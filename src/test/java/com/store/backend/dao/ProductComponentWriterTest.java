@@ -0,0 +1,73 @@
+package com.store.backend.dao;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+
+public class ProductComponentWriterTest {
+
+	private ProductComponentWriter productComponentWriter;
+	private DatabaseClient databaseClient;
+
+	@Before
+	public void setUp() {
+		ConnectionFactory connectionFactory = H2ConnectionFactory.inMemory(UUID.randomUUID().toString());
+		new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(connectionFactory).block();
+		databaseClient = DatabaseClient.create(connectionFactory);
+		databaseClient.sql("INSERT INTO products (id, title, category, price, discount_percentage, rating, stock, sku, "
+				+ "weight, thumbnail, created_at, updated_at, barcode, width, height, depth) VALUES "
+				+ "(1, 'Product A', 'Category A', 10, 0, 4, 5, 'SKU1', 1, 'thumb', NOW(), NOW(), 'BC1', 1, 1, 1)")
+				.then().block();
+
+		productComponentWriter = new ProductComponentWriter();
+		ReflectionTestUtils.setField(productComponentWriter, "databaseClient", databaseClient);
+		ReflectionTestUtils.setField(productComponentWriter, "batchSize", 4);
+	}
+
+	private long count(String table) {
+		return databaseClient.sql("SELECT COUNT(*) AS c FROM " + table).map(row -> row.get("c", Long.class)).one()
+				.block();
+	}
+
+	@Test
+	public void testInsertReviews_acrossBatches() {
+		List<ReviewDAO> reviews = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			reviews.add(new ReviewDAO(1L, 4.0, "Comment " + i, Instant.parse("2024-05-23T08:56:21.618Z"), "Name " + i,
+					"r" + i + "@example.com", i));
+		}
+
+		assertEquals(Long.valueOf(10), productComponentWriter.insertReviews(reviews).block());
+		assertEquals(10, count("reviews"));
+	}
+
+	@Test
+	public void testInsertImagesAndTags() {
+		List<ProductImageDAO> images = List.of(new ProductImageDAO(1L, "a.png"), new ProductImageDAO(1L, "b.png"));
+		List<ProductTagDAO> tags = List.of(new ProductTagDAO(1L, "tag1"), new ProductTagDAO(1L, "tag2"),
+				new ProductTagDAO(1L, "tag3"), new ProductTagDAO(1L, "tag4"), new ProductTagDAO(1L, "tag5"));
+
+		assertEquals(Long.valueOf(2), productComponentWriter.insertImages(images).block());
+		assertEquals(Long.valueOf(5), productComponentWriter.insertTags(tags).block());
+		assertEquals(2, count("product_images"));
+		assertEquals(5, count("product_tags"));
+	}
+
+	@Test
+	public void testInsert_emptyList() {
+		assertEquals(Long.valueOf(0), productComponentWriter.insertTags(List.of()).block());
+	}
+}
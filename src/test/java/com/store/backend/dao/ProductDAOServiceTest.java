@@ -1,36 +1,94 @@
 package com.store.backend.dao;
 
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
+import static org.junit.Assert.assertEquals;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 import org.junit.Before;
 import org.junit.Test;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.util.ReflectionTestUtils;
 
-import com.store.backend.repository.ProductRepository;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 
 
 public class ProductDAOServiceTest {
-	@InjectMocks
 	private ProductDAOService productDAOService;
-	@Mock
-	private ProductRepository productRepository;
+	private DatabaseClient databaseClient;
 
 	@Before
 	public void setUp() {
-		MockitoAnnotations.openMocks(this);
+		ConnectionFactory connectionFactory = H2ConnectionFactory.inMemory(UUID.randomUUID().toString());
+		new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(connectionFactory).block();
+		databaseClient = DatabaseClient.create(connectionFactory);
+		productDAOService = new ProductDAOService();
+		ReflectionTestUtils.setField(productDAOService, "databaseClient", databaseClient);
+	}
+
+	private static ProductDAO product(String title) {
+		return new ProductDAO(1L, title, "Description A", "Category A", 100.0, 10.0, 4.0, 50, null, "SKU123", 200.0,
+				10.0, 20.0, 30.0, "Warranty info", "Shipping info", "In Stock", "Return policy", 1,
+				Instant.parse("2024-05-23T08:56:21.618Z"), Instant.parse("2024-05-23T08:56:21.618Z"), "123456789",
+				"http://example.com/qr", "thumbnail.jpg", "hash", true);
 	}
-	
+
+	private Map<String, Object> row() {
+		return databaseClient.sql("SELECT COUNT(*) AS c, MAX(title) AS t FROM products").fetch().one().block();
+	}
+
 	@Test
 	public void testSave_whenProductExists() {
-		
-		ProductDAO product = new ProductDAO();
-		product.setId(1L);
-		productDAOService.save(product);
-		productDAOService.save(product);
-		verify(productRepository, times(2)).save(product);
+		productDAOService.save(product("First")).block();
+		ProductDAO saved = productDAOService.save(product("Second")).block();
+
+		Map<String, Object> row = row();
+		assertEquals(1L, ((Number) row.get("c")).longValue());
+		assertEquals("Second", row.get("t"));
+		assertEquals(false, saved.isNew());
+	}
+
+	@Test
+	public void testSave_concurrentSavesOfSameId() {
+		Flux.range(0, 32).parallel().runOn(Schedulers.parallel())
+				.flatMap(i -> productDAOService.save(product("Title " + i))).sequential().blockLast();
+
+		assertEquals(1L, ((Number) row().get("c")).longValue());
 	}
-	
-}
\ No newline at end of file
+
+	@Test
+	public void testSaveAll_insertsAndUpdatesInOneStatement() {
+		productDAOService.save(product("First")).block();
+		ProductDAO changed = product("Second");
+		ProductDAO added = product("Third");
+		added.setId(2L);
+		added.setSku("SKU456");
+		added.setBarcode("987654321");
+
+		assertEquals(Long.valueOf(2), productDAOService.saveAll(List.of(changed, added)).block());
+
+		Map<String, Object> row = row();
+		assertEquals(2L, ((Number) row.get("c")).longValue());
+		assertEquals("Third", row.get("t"));
+		assertEquals(false, added.isNew());
+	}
+
+	@Test
+	public void testFindVersions() {
+		productDAOService.save(product("First")).block();
+
+		ProductDAO version = productDAOService.findVersions().single().block();
+
+		assertEquals(Long.valueOf(1L), version.getId());
+		assertEquals(Instant.parse("2024-05-23T08:56:21.618Z"), version.getUpdatedAt());
+		assertEquals("hash", version.getContentHash());
+	}
+
+}
@@ -0,0 +1,115 @@
+package com.store.backend.index;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.store.backend.dto.ProductDTO;
+
+public class ProductFacetIndexTest {
+
+	private final ProductFacetIndex productFacetIndex = new ProductFacetIndex();
+
+	private static ProductDTO product(long id, String brand, String category, double price, double rating, int stock,
+			String availabilityStatus) {
+		ProductDTO product = new ProductDTO();
+		product.setId(id);
+		product.setBrand(brand);
+		product.setCategory(category);
+		product.setPrice(price);
+		product.setRating(rating);
+		product.setStock(stock);
+		product.setAvailabilityStatus(availabilityStatus);
+		return product;
+	}
+
+	private static ProductFilter filter(String category, String brand, Double minPrice, Double maxPrice,
+			Double minRating, Boolean inStock) {
+		return new ProductFilter(category, brand, minPrice, maxPrice, minRating, inStock);
+	}
+
+	@Before
+	public void setUp() {
+		productFacetIndex.index(product(1L, "Essence", "beauty", 9.99, 4.9, 5, "In Stock"));
+		productFacetIndex.index(product(2L, "Essence", "beauty", 19.99, 3.2, 0, "Out of Stock"));
+		productFacetIndex.index(product(3L, "Glamour", "beauty", 24.99, 4.1, 10, "In Stock"));
+		productFacetIndex.index(product(4L, "Farm", "groceries", 2.49, 4.5, 50, "In Stock"));
+		productFacetIndex.index(product(5L, "Apple", "smartphones", 1299.0, 4.0, 3, "Low Stock"));
+	}
+
+	@Test
+	public void testFilter_withoutCriteriaCountsEverything() {
+		FacetedResult result = productFacetIndex.filter(filter(null, null, null, null, null, null), 3);
+
+		assertEquals(5, result.total());
+		assertEquals(List.of(1L, 2L, 3L), result.ids());
+		assertEquals(Map.of("beauty", 3, "groceries", 1, "smartphones", 1),
+				result.facets().get(ProductFacetIndex.CATEGORY));
+		assertEquals(List.of("Essence", "Apple", "Farm", "Glamour"),
+				List.copyOf(result.facets().get(ProductFacetIndex.BRAND).keySet()));
+		assertEquals(List.of("0-10", "10-25", "1000+"),
+				List.copyOf(result.facets().get(ProductFacetIndex.PRICE).keySet()));
+		assertEquals(Map.of("In Stock", 3, "Out of Stock", 1, "Low Stock", 1),
+				result.facets().get(ProductFacetIndex.AVAILABILITY_STATUS));
+	}
+
+	@Test
+	public void testFilter_intersectsCriteria() {
+		FacetedResult result = productFacetIndex.filter(filter("beauty", null, null, null, 4.0, true), 20);
+
+		assertEquals(List.of(1L, 3L), result.ids());
+		assertEquals(Map.of("Essence", 1, "Glamour", 1), result.facets().get(ProductFacetIndex.BRAND));
+		assertEquals(Map.of("0-10", 1, "10-25", 1), result.facets().get(ProductFacetIndex.PRICE));
+
+		assertEquals(List.of(2L), productFacetIndex.filter(filter(null, "Essence", null, null, null, false), 20).ids());
+		assertEquals(List.of(), productFacetIndex.filter(filter("missing", null, null, null, null, null), 20).ids());
+	}
+
+	@Test
+	public void testFilter_priceRangeCutsThroughBuckets() {
+		assertEquals(List.of(1L, 2L, 4L), productFacetIndex.filter(filter(null, null, null, 19.99, null, null), 20).ids());
+		assertEquals(List.of(2L, 3L), productFacetIndex.filter(filter(null, null, 10.0, 25.0, null, null), 20).ids());
+		assertEquals(List.of(3L, 5L), productFacetIndex.filter(filter(null, null, 20.0, null, null, null), 20).ids());
+		assertEquals(List.of(1L), productFacetIndex.filter(filter(null, null, 9.99, 9.99, null, null), 20).ids());
+	}
+
+	@Test
+	public void testIndex_replacesEarlierVersion() {
+		productFacetIndex.index(product(2L, "Glamour", "beauty", 99.0, 4.8, 7, "In Stock"));
+
+		FacetedResult result = productFacetIndex.filter(filter("beauty", null, null, null, null, null), 20);
+
+		assertEquals(List.of(1L, 2L, 3L), result.ids());
+		assertEquals(Map.of("Glamour", 2, "Essence", 1), result.facets().get(ProductFacetIndex.BRAND));
+		assertEquals(Map.of("In Stock", 3), result.facets().get(ProductFacetIndex.AVAILABILITY_STATUS));
+	}
+
+	@Test
+	public void testRemove() {
+		productFacetIndex.remove(1L);
+
+		FacetedResult result = productFacetIndex.filter(filter(null, "Essence", null, null, null, null), 20);
+
+		assertEquals(4, productFacetIndex.size());
+		assertEquals(List.of(2L), result.ids());
+		assertEquals(Map.of("10-25", 1), result.facets().get(ProductFacetIndex.PRICE));
+	}
+
+	@Test
+	public void testFilter_smallResultOfLargeIndex() {
+		for (long id = 100; id < 200; id++) {
+			productFacetIndex.index(product(id, "Generic", "furniture", 300.0, 2.0, 1, "In Stock"));
+		}
+
+		FacetedResult result = productFacetIndex.filter(filter("beauty", null, null, null, 4.0, true), 20);
+
+		assertEquals(List.of(1L, 3L), result.ids());
+		assertEquals(Map.of("Essence", 1, "Glamour", 1), result.facets().get(ProductFacetIndex.BRAND));
+		assertEquals(Map.of("0-10", 1, "10-25", 1), result.facets().get(ProductFacetIndex.PRICE));
+		assertEquals(Map.of("In Stock", 2), result.facets().get(ProductFacetIndex.AVAILABILITY_STATUS));
+	}
+}
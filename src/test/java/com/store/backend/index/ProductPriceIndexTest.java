@@ -0,0 +1,123 @@
+package com.store.backend.index;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import org.junit.Test;
+
+import com.store.backend.dto.ProductDTO;
+import com.store.backend.util.ProductCursor;
+
+public class ProductPriceIndexTest {
+
+	private final ProductPriceIndex productPriceIndex = new ProductPriceIndex();
+
+	private static ProductDTO product(long id, double price) {
+		ProductDTO product = new ProductDTO();
+		product.setId(id);
+		product.setPrice(price);
+		return product;
+	}
+
+	private void index(double... prices) {
+		for (int i = 0; i < prices.length; i++) {
+			productPriceIndex.index(product(i + 1, prices[i]));
+		}
+	}
+
+	@Test
+	public void testPage_topK() {
+		index(30.0, 10.0, 20.0, 10.0, 50.0);
+
+		assertEquals(List.of(2L, 4L, 3L), productPriceIndex.page(true, null, null, null, 3));
+		assertEquals(List.of(5L, 1L), productPriceIndex.page(false, null, null, null, 2));
+	}
+
+	@Test
+	public void testPage_priceRange() {
+		index(30.0, 10.0, 20.0, 10.0, 50.0);
+
+		assertEquals(List.of(2L, 4L, 3L, 1L), productPriceIndex.page(true, 10.0, 30.0, null, 10));
+		assertEquals(List.of(1L, 3L), productPriceIndex.page(false, 15.0, 30.0, null, 10));
+		assertEquals(List.of(), productPriceIndex.page(true, 60.0, null, null, 10));
+	}
+
+	@Test
+	public void testPage_afterCursorBreaksTiesById() {
+		index(30.0, 10.0, 20.0, 10.0, 50.0);
+
+		assertEquals(List.of(4L, 3L), productPriceIndex.page(true, null, null, new ProductCursor(10.0, 2L), 2));
+		assertEquals(List.of(2L), productPriceIndex.page(false, null, null, new ProductCursor(10.0, 4L), 5));
+		assertEquals(List.of(3L), productPriceIndex.page(false, 15.0, null, new ProductCursor(30.0, 1L), 5));
+	}
+
+	@Test
+	public void testIndex_movesRepricedProduct() {
+		index(30.0, 10.0, 20.0);
+		productPriceIndex.page(true, null, null, null, 10);
+
+		productPriceIndex.index(product(2L, 40.0));
+		productPriceIndex.remove(3L);
+
+		assertEquals(2, productPriceIndex.size());
+		assertEquals(List.of(1L, 2L), productPriceIndex.page(true, null, null, null, 10));
+	}
+
+	@Test
+	public void testIndex_bulkMatchesSortedOrder() {
+		Random random = new Random(42);
+		long[] ids = LongStream.rangeClosed(1, 1000).toArray();
+		double[] prices = new double[ids.length + 1];
+		for (int round = 0; round < 3; round++) {
+			for (long id : ids) {
+				prices[(int) id] = random.nextInt(100);
+				productPriceIndex.index(product(id, prices[(int) id]));
+			}
+			productPriceIndex.remove((long) round + 1);
+			prices[round + 1] = -1;
+		}
+
+		List<Long> expected = LongStream.of(ids).filter(id -> prices[(int) id] >= 0).boxed()
+				.sorted(Comparator.<Long>comparingDouble(id -> prices[(int) (long) id]).thenComparing(id -> id))
+				.toList();
+		assertEquals(expected, productPriceIndex.page(true, null, null, null, 1000));
+		List<Long> descending = new ArrayList<>(expected);
+		Collections.reverse(descending);
+		assertEquals(descending.subList(0, 10), productPriceIndex.page(false, null, null, null, 10));
+	}
+
+	@Test
+	public void testIndex_inPlaceUpdatesAfterBulkLoad() {
+		Random random = new Random(7);
+		double[] prices = new double[1001];
+		for (int id = 1; id <= 1000; id++) {
+			prices[id] = random.nextInt(50);
+			productPriceIndex.index(product(id, prices[id]));
+		}
+		productPriceIndex.size();
+		for (int round = 0; round < 200; round++) {
+			for (int update = 0; update < 10; update++) {
+				int id = 1 + random.nextInt(1000);
+				if (random.nextInt(4) == 0) {
+					prices[id] = -1;
+					productPriceIndex.remove((long) id);
+				} else {
+					prices[id] = random.nextInt(50);
+					productPriceIndex.index(product(id, prices[id]));
+				}
+			}
+			productPriceIndex.size();
+		}
+
+		List<Long> expected = LongStream.rangeClosed(1, 1000).filter(id -> prices[(int) id] >= 0).boxed()
+				.sorted(Comparator.<Long>comparingDouble(id -> prices[(int) (long) id]).thenComparing(id -> id))
+				.toList();
+		assertEquals(expected, productPriceIndex.page(true, null, null, null, 1000));
+	}
+}
@@ -0,0 +1,142 @@
+package com.store.backend.index;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.store.backend.dto.ProductDTO;
+
+public class ProductSearchIndexTest {
+
+	private final ProductSearchIndex productSearchIndex = new ProductSearchIndex();
+
+	private static ProductDTO product(long id, String title, String description, String brand, String category,
+			List<String> tags) {
+		ProductDTO product = new ProductDTO();
+		product.setId(id);
+		product.setTitle(title);
+		product.setDescription(description);
+		product.setBrand(brand);
+		product.setCategory(category);
+		product.setTags(tags);
+		return product;
+	}
+
+	@Test
+	public void testTokenize() {
+		Map<String, Integer> frequencies = new HashMap<>();
+
+		int tokens = ProductSearchIndex.tokenize("Red-Lipstick, red  LIPSTICK! 2x", frequencies);
+
+		assertEquals(5, tokens);
+		assertEquals(Map.of("red", 2, "lipstick", 2, "2x", 1), frequencies);
+	}
+
+	@Test
+	public void testTokenize_ignoresDefaultLocale() {
+		Locale defaultLocale = Locale.getDefault();
+		Locale.setDefault(Locale.forLanguageTag("tr"));
+		try {
+			Map<String, Integer> frequencies = new HashMap<>();
+
+			ProductSearchIndex.tokenize("LIPSTICK", frequencies);
+
+			assertEquals(Map.of("lipstick", 1), frequencies);
+		} finally {
+			Locale.setDefault(defaultLocale);
+		}
+	}
+
+	@Test
+	public void testSearch_ranksByBm25() {
+		productSearchIndex.index(product(1L, "Lipstick", "A red lipstick that lasts", "Essence", "beauty", List.of()));
+		productSearchIndex.index(product(2L, "Mascara", "Volume mascara", "Essence", "beauty", List.of("lipstick")));
+		productSearchIndex.index(product(3L, "Apple", "Fresh apple", "Farm", "groceries", List.of("fruit")));
+
+		assertEquals(List.of(1L, 2L), productSearchIndex.search("lipstick", 10));
+		assertEquals(List.of(3L), productSearchIndex.search("FRUIT", 10));
+		assertEquals(List.of(), productSearchIndex.search("missing", 10));
+		assertEquals(List.of(), productSearchIndex.search("  ,, ", 10));
+	}
+
+	@Test
+	public void testSearch_multipleTermsAddUp() {
+		productSearchIndex.index(product(1L, "Red apple", null, null, "groceries", List.of()));
+		productSearchIndex.index(product(2L, "Green apple", null, null, "groceries", List.of()));
+		productSearchIndex.index(product(3L, "Red lipstick", null, null, "beauty", List.of()));
+
+		assertEquals(List.of(1L, 2L, 3L), productSearchIndex.search("red apple", 10));
+		assertEquals(List.of(1L), productSearchIndex.search("red apple", 1));
+	}
+
+	@Test
+	public void testIndex_replacesEarlierVersion() {
+		productSearchIndex.index(product(1L, "Lipstick", null, null, "beauty", List.of()));
+		productSearchIndex.index(product(1L, "Mascara", null, null, "beauty", List.of()));
+
+		assertEquals(1, productSearchIndex.size());
+		assertEquals(List.of(), productSearchIndex.search("lipstick", 10));
+		assertEquals(List.of(1L), productSearchIndex.search("mascara", 10));
+	}
+
+	@Test
+	public void testRemove() {
+		productSearchIndex.index(product(1L, "Lipstick", null, null, "beauty", List.of()));
+		productSearchIndex.index(product(2L, "Lipstick", null, null, "beauty", List.of()));
+
+		productSearchIndex.remove(1L);
+
+		assertEquals(List.of(2L), productSearchIndex.search("lipstick", 10));
+	}
+
+	@Test
+	public void testSearch_afterManyUpdates() {
+		for (int round = 0; round < 5; round++) {
+			for (long id = 1; id <= 1000; id++) {
+				productSearchIndex.index(product(id, "Product " + id, "round" + round, null, "beauty", List.of()));
+			}
+		}
+
+		assertEquals(1000, productSearchIndex.size());
+		assertEquals(List.of(), productSearchIndex.search("round3", 10));
+		assertEquals(10, productSearchIndex.search("round4", 10).size());
+		assertEquals(List.of(42L), productSearchIndex.search("product 42", 1));
+	}
+
+	@Test
+	public void testSearch_findsBestMatchBehindSkippedBlocks() {
+		for (long id = 1; id <= 1000; id++) {
+			productSearchIndex.index(product(id, "Lipstick", "long description of a plain product", null, "beauty",
+					List.of()));
+		}
+		productSearchIndex.index(product(1001L, "Lipstick lipstick", null, null, null, List.of()));
+		productSearchIndex.index(product(1002L, "Lipstick", null, null, null, List.of()));
+
+		assertEquals(List.of(1001L, 1002L, 1L), productSearchIndex.search("lipstick", 3));
+	}
+
+	@Test
+	public void testIndex_reloadsKeepCapacityFlat() {
+		int capacity = 0;
+		for (int round = 0; round < 20; round++) {
+			for (long id = 1; id <= 3000; id++) {
+				productSearchIndex.index(product(id, "Product " + id, "round" + round, null, "beauty", List.of()));
+			}
+			if (round == 1) {
+				capacity = ((long[]) ReflectionTestUtils.getField(productSearchIndex, "ids")).length;
+			}
+		}
+
+		assertEquals(capacity, ((long[]) ReflectionTestUtils.getField(productSearchIndex, "ids")).length);
+		assertEquals(3000, productSearchIndex.size());
+		assertEquals(List.of(1L, 2L, 3L), productSearchIndex.search("round19", 3));
+		assertEquals(List.of(42L), productSearchIndex.search("product 42", 1));
+		assertEquals(List.of(), productSearchIndex.search("round18", 10));
+	}
+}
@@ -0,0 +1,65 @@
+package com.store.backend.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+public class ProductMetricsTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final ProductMetrics productMetrics = new ProductMetrics(registry);
+
+	private double inFlight(String operation) {
+		return registry.get(ProductMetrics.SERVICE + ".in.flight").tag("operation", operation).gauge().value();
+	}
+
+	@Test
+	public void testTimed_recordsOutcomeAndInFlight() {
+		Flux<Integer> timed = productMetrics.timed("getProducts",
+				Flux.just(1, 2).doOnNext(value -> assertEquals(1.0, inFlight("getProducts"), 0.0)));
+
+		StepVerifier.create(timed).expectNext(1, 2).verifyComplete();
+
+		assertEquals(1L, registry.get(ProductMetrics.SERVICE).tag("operation", "getProducts").tag("outcome", "success")
+				.timer().count());
+		assertEquals(0.0, inFlight("getProducts"), 0.0);
+	}
+
+	@Test
+	public void testTimed_countsErrors() {
+		Mono<Object> timed = productMetrics.timed("getProductById", Mono.error(new IllegalStateException()));
+
+		StepVerifier.create(timed).verifyError(IllegalStateException.class);
+
+		assertEquals(1L, registry.get(ProductMetrics.SERVICE).tag("operation", "getProductById").tag("outcome", "error")
+				.timer().count());
+		assertEquals(1.0, registry.get(ProductMetrics.SERVICE + ".errors").tag("operation", "getProductById").counter()
+				.count(), 0.0);
+	}
+
+	@Test
+	public void testTimed_recordsCancellation() {
+		StepVerifier.create(productMetrics.timed("getProducts", Flux.range(1, 10)), 1).expectNext(1).thenCancel()
+				.verify();
+
+		assertEquals(1L, registry.get(ProductMetrics.SERVICE).tag("outcome", "cancelled").timer().count());
+		assertEquals(0.0, inFlight("getProducts"), 0.0);
+	}
+
+	@Test
+	public void testCountProducts_accumulatesPerResult() {
+		productMetrics.countProducts(ProductMetrics.RESULT_SAVED, 3);
+		productMetrics.countProducts(ProductMetrics.RESULT_SAVED, 2);
+		productMetrics.countProducts(ProductMetrics.RESULT_SKIPPED, 1);
+
+		assertEquals(5.0, registry.get(ProductMetrics.INGEST_PRODUCTS).tag("result", "saved").counter().count(), 0.0);
+		assertEquals(1.0, registry.get(ProductMetrics.INGEST_PRODUCTS).tag("result", "skipped").counter().count(),
+				0.0);
+	}
+
+}
@@ -0,0 +1,30 @@
+package com.store.backend.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.UUID;
+
+import org.junit.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.publisher.Mono;
+
+public class TimedConnectionFactoryTest {
+
+	@Test
+	public void testCreate_recordsAcquireTime() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		ConnectionFactory delegate = H2ConnectionFactory.inMemory(UUID.randomUUID().toString());
+		TimedConnectionFactory connectionFactory = new TimedConnectionFactory(delegate, "connectionFactory", registry);
+
+		Connection connection = connectionFactory.create().block();
+		Mono.from(connection.close()).block();
+
+		assertEquals(1L, registry.get(TimedConnectionFactory.ACQUIRE).tag("name", "connectionFactory").timer().count());
+		assertSame(delegate, connectionFactory.unwrap());
+	}
+}
@@ -0,0 +1,153 @@
+package com.store.backend.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.store.backend.dto.LoadJobDTO;
+import com.store.backend.dto.LoadSummaryDTO;
+import com.store.backend.dto.RejectedProductDTO;
+import com.store.backend.exception.InvalidRequestException;
+import com.store.backend.exception.LoadJobNotFoundException;
+import com.store.backend.exception.ProductServiceException;
+import com.store.backend.util.LoadProgress;
+import com.store.backend.util.ProductFileReader;
+
+import reactor.core.publisher.Mono;
+
+public class LoadJobManagerTest {
+
+	@InjectMocks
+	private LoadJobManager loadJobManager;
+
+	@Mock
+	private ProductService productServiceImpl;
+
+	@Mock
+	private ProductFileReader productFileReader;
+
+	@Before
+	public void setUp() {
+		MockitoAnnotations.openMocks(this);
+	}
+
+	@Test
+	public void testStart_completesWithProgress() {
+		when(productServiceImpl.loadProducts(any(LoadProgress.class))).thenAnswer(invocation -> {
+			LoadProgress progress = invocation.getArgument(0);
+			progress.fetched();
+			progress.validated();
+			progress.saved(1);
+			progress.rejected(null, "parse", "Unexpected character");
+			return Mono.just("Products loaded successfully");
+		});
+
+		LoadJobDTO job = loadJobManager.start(LoadMode.FULL);
+
+		assertEquals(LoadMode.FULL, job.getMode());
+		assertEquals(LoadJobStatus.COMPLETED, job.getStatus());
+		assertNotNull(job.getFinishedAt());
+		assertEquals(1L, job.getFetched());
+		assertEquals(1L, job.getValidated());
+		assertEquals(1L, job.getSaved());
+		assertEquals(1L, job.getFailed());
+		assertEquals(List.of(new RejectedProductDTO(null, null, "parse", "Unexpected character")), job.getRejected());
+		assertEquals(job, loadJobManager.get(job.getId()));
+	}
+
+	@Test
+	public void testStart_incrementalKeepsSummary() {
+		LoadSummaryDTO summary = new LoadSummaryDTO(1, 2, 3, 0);
+		when(productServiceImpl.loadProductsIncrementally(any(LoadProgress.class))).thenReturn(Mono.just(summary));
+
+		LoadJobDTO job = loadJobManager.start(LoadMode.INCREMENTAL);
+
+		assertEquals(LoadJobStatus.COMPLETED, job.getStatus());
+		assertEquals(summary, job.getSummary());
+	}
+
+	@Test
+	public void testStart_returnsRunningJob() {
+		when(productServiceImpl.loadProducts(any(LoadProgress.class))).thenReturn(Mono.never());
+
+		LoadJobDTO running = loadJobManager.start(LoadMode.FULL);
+		LoadJobDTO again = loadJobManager.start(LoadMode.INCREMENTAL);
+
+		assertEquals(LoadJobStatus.RUNNING, running.getStatus());
+		assertNull(running.getFinishedAt());
+		assertEquals(running.getId(), again.getId());
+		assertEquals(LoadMode.FULL, again.getMode());
+		verify(productServiceImpl, times(1)).loadProducts(any(LoadProgress.class));
+	}
+
+	@Test
+	public void testStart_failedLoad() {
+		when(productServiceImpl.loadProducts(any(LoadProgress.class)))
+				.thenReturn(Mono.error(new ProductServiceException("Error saving products", new RuntimeException())));
+
+		LoadJobDTO job = loadJobManager.start(LoadMode.FULL);
+
+		assertEquals(LoadJobStatus.FAILED, job.getStatus());
+		assertEquals("Error saving products", job.getError());
+		when(productServiceImpl.loadProducts(any(LoadProgress.class))).thenReturn(Mono.never());
+		assertNotEquals(job.getId(), loadJobManager.start(LoadMode.FULL).getId());
+	}
+
+	@Test
+	public void testCancel_disposesLoad() {
+		AtomicBoolean cancelled = new AtomicBoolean();
+		when(productServiceImpl.loadProducts(any(LoadProgress.class)))
+				.thenReturn(Mono.<String>never().doOnCancel(() -> cancelled.set(true)));
+		LoadJobDTO job = loadJobManager.start(LoadMode.FULL);
+
+		LoadJobDTO result = loadJobManager.cancel(job.getId());
+
+		assertTrue(cancelled.get());
+		assertEquals(LoadJobStatus.CANCELLED, result.getStatus());
+		assertNotNull(result.getFinishedAt());
+		assertEquals(LoadJobStatus.CANCELLED, loadJobManager.cancel(job.getId()).getStatus());
+	}
+
+	@Test
+	public void testStartImport_readsResolvedFile() {
+		Path file = Path.of("/imports/products.ndjson");
+		when(productFileReader.resolve("products.ndjson")).thenReturn(file);
+		when(productServiceImpl.importProducts(eq(file), any(LoadProgress.class)))
+				.thenReturn(Mono.just("Products loaded successfully"));
+
+		LoadJobDTO job = loadJobManager.startImport("products.ndjson");
+
+		assertEquals(LoadMode.IMPORT, job.getMode());
+		assertEquals(LoadJobStatus.COMPLETED, job.getStatus());
+	}
+
+	@Test(expected = InvalidRequestException.class)
+	public void testStartImport_fileOutsideImportDirectory() {
+		when(productFileReader.resolve("../etc/passwd"))
+				.thenThrow(new InvalidRequestException("Import file must be inside the import directory: ../etc/passwd"));
+
+		loadJobManager.startImport("../etc/passwd");
+	}
+
+	@Test(expected = LoadJobNotFoundException.class)
+	public void testGet_unknownJob() {
+		loadJobManager.get("unknown");
+	}
+}
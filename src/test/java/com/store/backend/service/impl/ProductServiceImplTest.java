@@ -1,38 +1,91 @@
 package com.store.backend.service.impl;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyIterable;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Sort;
-
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.store.backend.cache.CatalogVersion;
+import com.store.backend.cache.ProductCache;
+import com.store.backend.dao.ProductAggregate;
+import com.store.backend.dao.ProductAggregateReader;
+import com.store.backend.dao.ProductComponentReconciler;
+import com.store.backend.dao.ProductComponentWriter;
 import com.store.backend.dao.ProductDAO;
 import com.store.backend.dao.ProductDAOService;
 import com.store.backend.dao.ProductImageDAO;
 import com.store.backend.dao.ProductTagDAO;
+import com.store.backend.dao.ProductVersion;
 import com.store.backend.dao.ReviewDAO;
+import com.store.backend.dao.ReviewSummaryDAO;
+import com.store.backend.dao.StoredReview;
 import com.store.backend.dto.DimensionsDTO;
+import com.store.backend.dto.LoadSummaryDTO;
 import com.store.backend.dto.MetadataDTO;
 import com.store.backend.dto.ProductDTO;
+import com.store.backend.dto.ProductLookupDTO;
+import com.store.backend.dto.ProductPageDTO;
+import com.store.backend.dto.RejectedProductDTO;
 import com.store.backend.dto.ReviewDTO;
+import com.store.backend.dto.ReviewPageDTO;
+import com.store.backend.dto.ReviewSummaryDTO;
+import com.store.backend.dto.SnapshotDTO;
+import com.store.backend.exception.InvalidRequestException;
 import com.store.backend.exception.ProductNotFoundException;
+import com.store.backend.exception.ProductServiceException;
+import com.store.backend.dto.ProductFilterResultDTO;
+import com.store.backend.index.FacetedResult;
+import com.store.backend.index.ProductFacetIndex;
+import com.store.backend.index.ProductFilter;
+import com.store.backend.index.ProductIndex;
+import com.store.backend.index.ProductPriceIndex;
+import com.store.backend.index.ProductSearchIndex;
 import com.store.backend.mapper.ProductMapper;
+import com.store.backend.metrics.ProductMetrics;
 import com.store.backend.repository.ProductImageRepository;
 import com.store.backend.repository.ProductRepository;
 import com.store.backend.repository.ProductReviewRepository;
 import com.store.backend.repository.ProductTagRepository;
+import com.store.backend.repository.ReviewSummaryRepository;
+import com.store.backend.service.ProductReadStrategy;
+import com.store.backend.util.CatalogSnapshot;
+import com.store.backend.util.LoadProgress;
+import com.store.backend.util.ProductCursor;
+import com.store.backend.util.ProductFields;
+import com.store.backend.util.ProductHasher;
 import com.store.backend.util.ProductsLoadingHelper;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -51,11 +104,41 @@ public class ProductServiceImplTest {
 	@Mock
 	private ProductTagRepository productTagRepository;
 	@Mock
+	private ReviewSummaryRepository reviewSummaryRepository;
+	@Mock
 	private ProductMapper productMapper;
 	@Mock
 	private ProductsLoadingHelper productsLoadingHelper;
 	@Mock
 	private ProductDAOService productDAOService;
+	@Mock
+	private ProductCache productCache;
+	@Mock
+	private CatalogVersion catalogVersion;
+	@Mock
+	private ProductComponentReconciler productComponentReconciler;
+	@Mock
+	private ProductHasher productHasher;
+	@Mock
+	private ProductAggregateReader productAggregateReader;
+	@Mock
+	private ProductSearchIndex productSearchIndex;
+	@Mock
+	private ProductFacetIndex productFacetIndex;
+	@Mock
+	private ProductPriceIndex productPriceIndex;
+	@Mock
+	private ProductIndex productIndex;
+	@Mock
+	private TransactionalOperator transactionalOperator;
+	@Mock
+	private ProductComponentWriter productComponentWriter;
+	@Mock
+	private CatalogSnapshot catalogSnapshot;
+
+	private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	@Spy
+	private ProductMetrics productMetrics = new ProductMetrics(meterRegistry);
 
 	private ProductDTO sampleProductDTO;
 	private ProductDAO sampleProductDAO;
@@ -74,23 +157,29 @@ public class ProductServiceImplTest {
 		sampleDimensionsDTO = new DimensionsDTO(10.0, 20.0, 30.0);
 		sampleMetadataDTO = new MetadataDTO("2023-01-01", "2023-01-02", "123456789", "http://example.com/qr");
 		sampleReviewDTO = new ReviewDTO(4.5, "Great product!", "2023-01-05", "John Doe", "john.doe@example.com");
-		sampleReviewDAO = new ReviewDAO(1l,4.5, "Great product!", Instant.now(), "John Doe", "john.doe@example.com");
+		sampleReviewDAO = new ReviewDAO(1l,4.5, "Great product!", Instant.now(), "John Doe", "john.doe@example.com", 0);
 		sampleProductDTO = new ProductDTO(1L, "Product A", "Description A", "Category A", 100.0, 10.0, 4.0, 50,
 				Arrays.asList("tag1", "tag2"), "Brand A", "SKU123", 200, sampleDimensionsDTO, "Warranty info",
-				"Shipping info", "In Stock", Arrays.asList(sampleReviewDTO), "Return policy", 1, sampleMetadataDTO,
-				Arrays.asList("image1.jpg", "image2.jpg"), "thumbnail.jpg");
+				"Shipping info", "In Stock", Arrays.asList(sampleReviewDTO), null, "Return policy", 1,
+				sampleMetadataDTO, Arrays.asList("image1.jpg", "image2.jpg"), "thumbnail.jpg");
 
 		sampleProductDAO = new ProductDAO(1L, "Product A", "Description A", "Category A", 100.0, 10.0, 4.0, 50,
 				"Brand A", "SKU123", 200.0, 10.0, 20.0, 30.0, "Warranty info", "Shipping info", "In Stock",
 				"Return policy", 1, Instant.now(), Instant.now(), "123456789", "http://example.com/qr", "thumbnail.jpg",
-				true);
+				null, true);
 		sampleProductImageDAO = new ProductImageDAO(1L, "image1.jpg");
 		sampleProductTagDAO = new ProductTagDAO(1L, "tag1");
 
 		when(productImageRepository.findByProductId(anyLong())).thenReturn(Flux.just(sampleProductImageDAO));
 		when(productTagRepository.findByProductId(anyLong())).thenReturn(Flux.just(sampleProductTagDAO));		
 		when(productReviewRepository.findByProductId(anyLong())).thenReturn(Flux.just(sampleReviewDAO));
-		
+		when(productImageRepository.findByProductIdIn(anyCollection())).thenReturn(Flux.just(sampleProductImageDAO));
+		when(productTagRepository.findByProductIdIn(anyCollection())).thenReturn(Flux.just(sampleProductTagDAO));
+		when(productReviewRepository.findByProductIdIn(anyCollection())).thenReturn(Flux.just(sampleReviewDAO));
+		when(productComponentReconciler.reconcile(anyCollection(), anyList(), anyList(), anyList()))
+				.thenReturn(Mono.empty());
+		when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
 	}
 
 	@Test
@@ -103,6 +192,100 @@ public class ProductServiceImplTest {
 		StepVerifier.create(result).expectNext(sampleProductDTO).verifyComplete();
 	}
 
+	@Test
+	public void testGetProducts_recordsMetrics() {
+		when(productRepository.findAll()).thenReturn(Flux.just(sampleProductDAO));
+		when(productMapper.toDTO(any(ProductDAO.class), anyList(), anyList(), anyList())).thenReturn(sampleProductDTO);
+
+		productService.getProducts().blockLast();
+
+		assertEquals(1L, meterRegistry.get(ProductMetrics.SERVICE).tag("operation", "getProducts")
+				.tag("outcome", "success").timer().count());
+		assertEquals(1L, meterRegistry.get(ProductMetrics.REPOSITORY).tag("query", "reviews.findByProductIdIn")
+				.timer().count());
+		assertEquals(0.0, meterRegistry.get(ProductMetrics.SERVICE + ".in.flight").tag("operation", "getProducts")
+				.gauge().value(), 0.0);
+	}
+
+	@Test
+	public void testGetProducts_singleQuery() {
+		ReflectionTestUtils.setField(productService, "readStrategy", ProductReadStrategy.SINGLE_QUERY);
+		ProductAggregate aggregate = new ProductAggregate(sampleProductDAO, Arrays.asList(sampleReviewDAO),
+				Arrays.asList(sampleProductImageDAO), Arrays.asList(sampleProductTagDAO));
+		when(productAggregateReader.findAll()).thenReturn(Flux.just(aggregate));
+		when(productMapper.toDTO(sampleProductDAO, aggregate.reviews(), aggregate.images(), aggregate.tags()))
+				.thenReturn(sampleProductDTO);
+
+		Flux<ProductDTO> result = productService.getProducts();
+
+		StepVerifier.create(result).expectNext(sampleProductDTO).verifyComplete();
+		verify(productRepository, never()).findAll();
+		verify(productReviewRepository, never()).findByProductIdIn(anyCollection());
+	}
+
+	@Test
+	public void testGetProductById_singleQuery() {
+		ReflectionTestUtils.setField(productService, "readStrategy", ProductReadStrategy.SINGLE_QUERY);
+		ProductAggregate aggregate = new ProductAggregate(sampleProductDAO, Arrays.asList(sampleReviewDAO),
+				Arrays.asList(sampleProductImageDAO), Arrays.asList(sampleProductTagDAO));
+		when(productCache.getById(1L)).thenReturn(Optional.empty());
+		when(productAggregateReader.findById(1L)).thenReturn(Mono.just(aggregate));
+		when(productMapper.toDTO(sampleProductDAO, aggregate.reviews(), aggregate.images(), aggregate.tags()))
+				.thenReturn(sampleProductDTO);
+
+		Mono<ProductDTO> result = productService.getProductById(1L);
+
+		StepVerifier.create(result).expectNext(sampleProductDTO).verifyComplete();
+		verify(productRepository, never()).findById(anyLong());
+		verify(productCache).put(sampleProductDTO, ProductVersion.of(sampleProductDAO), 0L);
+	}
+
+	@Test
+	public void testGetProductBySku_singleQueryNotFound() {
+		ReflectionTestUtils.setField(productService, "readStrategy", ProductReadStrategy.SINGLE_QUERY);
+		when(productCache.getBySku("SKU404")).thenReturn(Optional.empty());
+		when(productAggregateReader.findBySku("SKU404")).thenReturn(Mono.empty());
+
+		StepVerifier.create(productService.getProductBySku("SKU404")).expectError(ProductNotFoundException.class)
+				.verify();
+	}
+
+	@Test
+	public void testGetProducts_preservesOrderAcrossBatches() {
+		ProductDAO second = new ProductDAO();
+		second.setId(2L);
+		ProductDTO secondDTO = new ProductDTO();
+		secondDTO.setId(2L);
+		ReflectionTestUtils.setField(productService, "componentBatchSize", 2);
+		when(productRepository.findAll()).thenReturn(Flux.just(sampleProductDAO, second, sampleProductDAO));
+		when(productMapper.toDTO(any(ProductDAO.class), anyList(), anyList(), anyList()))
+				.thenAnswer(invocation -> ((ProductDAO) invocation.getArgument(0)).getId() == 2L ? secondDTO
+						: sampleProductDTO);
+
+		Flux<ProductDTO> result = productService.getProducts();
+
+		StepVerifier.create(result).expectNext(sampleProductDTO, secondDTO, sampleProductDTO).verifyComplete();
+	}
+
+	@Test
+	public void testGetProducts_cachedProductsSkipComponentQueries() {
+		when(productRepository.findAll()).thenReturn(Flux.just(sampleProductDAO));
+		when(productCache.getById(1L)).thenReturn(Optional.of(sampleProductDTO));
+
+		StepVerifier.create(productService.getProducts()).expectNext(sampleProductDTO).verifyComplete();
+		verify(productReviewRepository, never()).findByProductIdIn(anyCollection());
+		verify(productCache, never()).put(any(ProductDTO.class), any(), anyLong());
+	}
+
+	@Test
+	public void testGetProducts_cacheMissPopulatesCache() {
+		when(productRepository.findAll()).thenReturn(Flux.just(sampleProductDAO));
+		when(productMapper.toDTO(any(ProductDAO.class), anyList(), anyList(), anyList())).thenReturn(sampleProductDTO);
+
+		StepVerifier.create(productService.getProducts()).expectNext(sampleProductDTO).verifyComplete();
+		verify(productCache).put(sampleProductDTO, ProductVersion.of(sampleProductDAO), 0L);
+	}
+
 	@Test
 	public void testGetProductById_success() {
 
@@ -114,6 +297,45 @@ public class ProductServiceImplTest {
 		StepVerifier.create(result).expectNext(sampleProductDTO).verifyComplete();
 	}
 	
+	@Test
+	public void testGetProductById_cacheHit() {
+		when(productCache.getById(1L)).thenReturn(Optional.of(sampleProductDTO));
+
+		Mono<ProductDTO> result = productService.getProductById(1L);
+
+		StepVerifier.create(result).expectNext(sampleProductDTO).verifyComplete();
+		verify(productRepository, never()).findById(anyLong());
+	}
+
+	@Test
+	public void testGetProductById_cacheMissPopulatesCache() {
+		when(productRepository.findById(1L)).thenReturn(Mono.just(sampleProductDAO));
+		when(productMapper.toDTO(any(ProductDAO.class), anyList(), anyList(), anyList())).thenReturn(sampleProductDTO);
+
+		StepVerifier.create(productService.getProductById(1L)).expectNext(sampleProductDTO).verifyComplete();
+		verify(productCache).put(sampleProductDTO, ProductVersion.of(sampleProductDAO), 0L);
+	}
+
+	@Test
+	public void testGetProductById_cachedCopyOfOtherVersionIsReread() {
+		ProductVersion current = ProductVersion.of(sampleProductDAO);
+		when(productCache.getById(1L, current)).thenReturn(Optional.empty());
+		when(productRepository.findById(1L)).thenReturn(Mono.just(sampleProductDAO));
+		when(productMapper.toDTO(any(ProductDAO.class), anyList(), anyList(), anyList())).thenReturn(sampleProductDTO);
+
+		StepVerifier.create(productService.getProductById(1L, current)).expectNext(sampleProductDTO).verifyComplete();
+		verify(productCache, never()).getById(1L);
+		verify(productCache).put(sampleProductDTO, current, 0L);
+	}
+
+	@Test
+	public void testGetProductBySku_cacheHit() {
+		when(productCache.getBySku("SKU123")).thenReturn(Optional.of(sampleProductDTO));
+
+		StepVerifier.create(productService.getProductBySku("SKU123")).expectNext(sampleProductDTO).verifyComplete();
+		verify(productRepository, never()).findBySku(anyString());
+	}
+
 	@Test
 	public void testGetProductBySku_success() {
 
@@ -168,6 +390,194 @@ public class ProductServiceImplTest {
 		StepVerifier.create(result).expectNext(sampleProductDTO).verifyComplete();
 	}
 
+	@Test
+	public void testGetProductsPage_hasNextCursor() {
+		ProductDAO second = new ProductDAO();
+		second.setId(2L);
+		when(productRepository.findPageAfterId(Long.MIN_VALUE, 2)).thenReturn(Flux.just(sampleProductDAO, second));
+		when(productMapper.toDTO(any(ProductDAO.class), anyList(), anyList(), anyList())).thenReturn(sampleProductDTO);
+
+		Mono<ProductPageDTO> result = productService.getProductsPage(null, 1, ProductFields.ALL);
+
+		StepVerifier.create(result).expectNextMatches(page -> page.getProducts().size() == 1
+				&& ProductCursor.decode(page.getNextCursor()).getId() == 1L).verifyComplete();
+	}
+
+	@Test
+	public void testGetProductsPage_lastPage() {
+		when(productRepository.findPageAfterId(1L, 3)).thenReturn(Flux.just(sampleProductDAO));
+		when(productMapper.toDTO(any(ProductDAO.class), anyList(), anyList(), anyList())).thenReturn(sampleProductDTO);
+
+		Mono<ProductPageDTO> result = productService.getProductsPage(ProductCursor.byId(sampleProductDAO), 2,
+				ProductFields.ALL);
+
+		StepVerifier.create(result)
+				.expectNextMatches(page -> page.getProducts().size() == 1 && page.getNextCursor() == null)
+				.verifyComplete();
+	}
+
+	@Test
+	public void testGetProductsPage_invalidLimit() {
+		StepVerifier.create(productService.getProductsPage(null, 0, ProductFields.ALL))
+				.expectError(InvalidRequestException.class).verify();
+	}
+
+	@Test
+	public void testGetProductsPage_sparseFieldsSkipUnrequestedChildren() {
+		when(productRepository.findPageAfterId(Long.MIN_VALUE, 11)).thenReturn(Flux.just(sampleProductDAO));
+		when(productMapper.toDTO(any(ProductDAO.class), anyList(), anyList(), anyList())).thenReturn(sampleProductDTO);
+
+		StepVerifier.create(productService.getProductsPage(null, 10, ProductFields.parse("title,price", "images")))
+				.expectNextMatches(page -> page.getProducts().equals(Arrays.asList(sampleProductDTO)))
+				.verifyComplete();
+		verify(productImageRepository).findByProductIdIn(anyCollection());
+		verify(productReviewRepository, never()).findByProductIdIn(anyCollection());
+		verify(productTagRepository, never()).findByProductIdIn(anyCollection());
+		verify(productCache, never()).put(any(ProductDTO.class), any(), anyLong());
+	}
+
+	@Test
+	public void testGetProductsPage_defaultFieldsReadReviewSummaries() {
+		ReviewSummaryDAO summaryDAO = new ReviewSummaryDAO(1L, 2, 9.0, 0, 0, 0, 1, 1);
+		ReviewSummaryDTO summary = new ReviewSummaryDTO(2, 4.5, Map.of(4, 1L, 5, 1L));
+		when(productRepository.findPageAfterId(Long.MIN_VALUE, 11)).thenReturn(Flux.just(sampleProductDAO));
+		when(productMapper.toDTO(any(ProductDAO.class), anyList(), anyList(), anyList())).thenReturn(sampleProductDTO);
+		when(reviewSummaryRepository.findByProductIdIn(anyCollection())).thenReturn(Flux.just(summaryDAO));
+		when(productMapper.toReviewSummaryDTO(summaryDAO)).thenReturn(summary);
+
+		StepVerifier.create(productService.getProductsPage(null, 10, ProductFields.DEFAULT))
+				.expectNextMatches(page -> page.getProducts().get(0).getReviewSummary() == summary)
+				.verifyComplete();
+		verify(productReviewRepository, never()).findByProductIdIn(anyCollection());
+		verify(productCache, never()).put(any(ProductDTO.class), any(), anyLong());
+	}
+
+	@Test
+	public void testGetProductReviews_hasNextCursor() {
+		StoredReview first = new StoredReview(7L, 1L, 4.0, "Good", Instant.now(), "Jane", "jane@example.com");
+		StoredReview second = new StoredReview(9L, 1L, 5.0, "Great", Instant.now(), "John", "john@example.com");
+		when(productReviewRepository.findPageByProductIdAfterId(1L, 3L, 2))
+				.thenReturn(Flux.just(first, second));
+		when(productMapper.toStoredReviewDTOList(Arrays.asList(first))).thenReturn(Arrays.asList(sampleReviewDTO));
+
+		Mono<ReviewPageDTO> result = productService.getProductReviews(1L, ProductCursor.byId(productWithId(3L)), 1);
+
+		StepVerifier.create(result)
+				.expectNextMatches(page -> page.getReviews().equals(Arrays.asList(sampleReviewDTO))
+						&& ProductCursor.decode(page.getNextCursor()).getId() == 7L)
+				.verifyComplete();
+		verify(productRepository, never()).existsById(anyLong());
+	}
+
+	@Test
+	public void testGetProductReviews_productWithoutReviews() {
+		when(productReviewRepository.findPageByProductIdAfterId(1L, Long.MIN_VALUE, 21)).thenReturn(Flux.empty());
+		when(productRepository.existsById(1L)).thenReturn(Mono.just(true));
+
+		StepVerifier.create(productService.getProductReviews(1L, null, 20))
+				.expectNextMatches(page -> page.getReviews().isEmpty() && page.getNextCursor() == null)
+				.verifyComplete();
+	}
+
+	@Test
+	public void testGetProductReviews_productNotFound() {
+		when(productReviewRepository.findPageByProductIdAfterId(9L, Long.MIN_VALUE, 21)).thenReturn(Flux.empty());
+		when(productRepository.existsById(9L)).thenReturn(Mono.just(false));
+
+		StepVerifier.create(productService.getProductReviews(9L, null, 20))
+				.expectError(ProductNotFoundException.class).verify();
+	}
+
+	@Test
+	public void testGetProductsBatch_requestOrderWithMisses() {
+		ProductDAO second = productWithId(2L);
+		second.setSku("SKU2");
+		ProductDTO secondDTO = new ProductDTO();
+		secondDTO.setId(2L);
+		secondDTO.setSku("SKU2");
+		when(productRepository.findAllById(Arrays.asList(2L, 9L, 1L))).thenReturn(Flux.just(sampleProductDAO, second));
+		when(productRepository.findBySkuIn(Arrays.asList("SKU2", "MISSING"))).thenReturn(Flux.just(second));
+		when(productMapper.toDTO(eq(sampleProductDAO), anyList(), anyList(), anyList())).thenReturn(sampleProductDTO);
+		when(productMapper.toDTO(eq(second), anyList(), anyList(), anyList())).thenReturn(secondDTO);
+
+		StepVerifier.create(productService.getProductsBatch(Arrays.asList(2L, 9L, 1L, 2L),
+				Arrays.asList("SKU2", "MISSING"), ProductFields.ALL))
+				.expectNext(Arrays.asList(new ProductLookupDTO(2L, null, true, secondDTO),
+						new ProductLookupDTO(9L, null, false, null),
+						new ProductLookupDTO(1L, null, true, sampleProductDTO),
+						new ProductLookupDTO(2L, null, true, secondDTO),
+						new ProductLookupDTO(null, "SKU2", true, secondDTO),
+						new ProductLookupDTO(null, "MISSING", false, null)))
+				.verifyComplete();
+		verify(productReviewRepository, times(1)).findByProductIdIn(anyCollection());
+		verify(productRepository, never()).findById(anyLong());
+	}
+
+	@Test
+	public void testGetProductsBatch_skusOnly() {
+		when(productRepository.findBySkuIn(Arrays.asList("SKU123"))).thenReturn(Flux.just(sampleProductDAO));
+		when(productMapper.toDTO(any(ProductDAO.class), anyList(), anyList(), anyList())).thenReturn(sampleProductDTO);
+
+		StepVerifier.create(productService.getProductsBatch(null, Arrays.asList("SKU123"), ProductFields.ALL))
+				.expectNext(Arrays.asList(new ProductLookupDTO(null, "SKU123", true, sampleProductDTO)))
+				.verifyComplete();
+		verify(productRepository, never()).findAllById(anyList());
+	}
+
+	@Test
+	public void testGetProductsBatch_empty() {
+		StepVerifier.create(productService.getProductsBatch(null, Arrays.asList(), ProductFields.ALL))
+				.expectError(InvalidRequestException.class).verify();
+	}
+
+	private static ProductDAO productWithId(long id) {
+		ProductDAO productDAO = new ProductDAO();
+		productDAO.setId(id);
+		return productDAO;
+	}
+
+	@Test
+	public void testGetProductsSortedByPricePage_afterCursor() {
+		String after = ProductCursor.byPrice(sampleProductDTO);
+		when(productPriceIndex.page(eq(false), isNull(), isNull(), any(ProductCursor.class), eq(11)))
+				.thenReturn(Arrays.asList(1L));
+		when(productRepository.findAllById(Arrays.asList(1L))).thenReturn(Flux.just(sampleProductDAO));
+		when(productMapper.toDTO(any(ProductDAO.class), anyList(), anyList(), anyList())).thenReturn(sampleProductDTO);
+
+		Mono<ProductPageDTO> result = productService.getProductsSortedByPricePage("desc", null, null, after, 10,
+				ProductFields.ALL);
+
+		StepVerifier.create(result).expectNextMatches(page -> page.getProducts().equals(Arrays.asList(sampleProductDTO))
+				&& page.getNextCursor() == null).verifyComplete();
+	}
+
+	@Test
+	public void testGetProductsSortedByPricePage_topKInRange() {
+		when(productPriceIndex.page(true, 5.0, 50.0, null, 2)).thenReturn(Arrays.asList(1L, 2L));
+		when(productRepository.findAllById(Arrays.asList(1L))).thenReturn(Flux.just(sampleProductDAO));
+		when(productMapper.toDTO(any(ProductDAO.class), anyList(), anyList(), anyList())).thenReturn(sampleProductDTO);
+
+		Mono<ProductPageDTO> result = productService.getProductsSortedByPricePage("asc", 5.0, 50.0, null, 1,
+				ProductFields.ALL);
+
+		StepVerifier.create(result).expectNextMatches(page -> page.getProducts().equals(Arrays.asList(sampleProductDTO))
+				&& ProductCursor.decode(page.getNextCursor()).getId() == sampleProductDTO.getId()).verifyComplete();
+	}
+
+	@Test
+	public void testGetProductsSortedByPricePage_invalidPriceRange() {
+		StepVerifier.create(productService.getProductsSortedByPricePage("asc", 50.0, 5.0, null, 10, ProductFields.ALL))
+				.expectError(InvalidRequestException.class).verify();
+	}
+
+	@Test
+	public void testGetProductsByCategoryPage_notFound() {
+		when(productRepository.findPageByCategoryAfterId(anyString(), anyLong(), anyInt())).thenReturn(Flux.empty());
+
+		StepVerifier.create(productService.getProductsByCategoryPage("Category A", null, 10, ProductFields.ALL))
+				.expectError(ProductNotFoundException.class).verify();
+	}
+
 	@Test
 	public void testGetProductById_notFound() {
 
@@ -189,12 +599,29 @@ public class ProductServiceImplTest {
 		Mono<ProductDTO> result = productService.saveProduct(sampleProductDTO);
 
 		StepVerifier.create(result).expectNext(sampleProductDTO).verifyComplete();
+		verify(productCache).put(sampleProductDTO, ProductVersion.of(sampleProductDAO));
+		verify(catalogVersion).advance();
+	}
+
+	@Test
+	public void testSaveProduct_nextVersionedGetIsServedFromCache() {
+		ReflectionTestUtils.setField(productService, "productCache", new ProductCache(100, Duration.ofMinutes(1)));
+		when(productMapper.toDAO(any(ProductDTO.class))).thenReturn(sampleProductDAO);
+		when(productDAOService.save(any(ProductDAO.class))).thenReturn(Mono.just(sampleProductDAO));
+		when(productMapper.toDTO(any(ProductDAO.class), anyList(), anyList(), anyList())).thenReturn(sampleProductDTO);
+
+		StepVerifier.create(productService.saveProduct(sampleProductDTO)).expectNext(sampleProductDTO).verifyComplete();
+
+		StepVerifier.create(productService.getProductById(1L, ProductVersion.of(sampleProductDAO)))
+				.expectNext(sampleProductDTO).verifyComplete();
+		verify(productRepository, never()).findById(anyLong());
+		verify(productAggregateReader, never()).findById(anyLong());
 	}
 
 	@Test
 	public void testLoadProducts_success() {
 
-		when(productsLoadingHelper.loadProducts()).thenReturn(Flux.just(sampleProductDTO));
+		when(productsLoadingHelper.loadProducts(any(LoadProgress.class))).thenReturn(Flux.just(sampleProductDTO));
 		when(productMapper.toDAO(any(ProductDTO.class))).thenReturn(sampleProductDAO);
 		when(productRepository.save(any(ProductDAO.class))).thenReturn(Mono.just(sampleProductDAO));
 		when(productMapper.toReviewDAOList(any(ProductDTO.class))).thenReturn(Arrays.asList(sampleReviewDAO));
@@ -202,14 +629,354 @@ public class ProductServiceImplTest {
 		when(productMapper.toProductTagDaos(any(ProductDTO.class))).thenReturn(Arrays.asList(sampleProductTagDAO));
 		when(productRepository.findAll()).thenReturn(Flux.just(sampleProductDAO));
 		when(productMapper.toDTO(any(ProductDAO.class), anyList(), anyList(), anyList())).thenReturn(sampleProductDTO);
-		when(productReviewRepository.save(any(ReviewDAO.class))).thenReturn(Mono.just(sampleReviewDAO));
-		when(productImageRepository.save(any(ProductImageDAO.class))).thenReturn(Mono.just(sampleProductImageDAO));
-		when(productTagRepository.save(any(ProductTagDAO.class))).thenReturn(Mono.just(sampleProductTagDAO));
-		when(productDAOService.save(any(ProductDAO.class))).thenReturn(Mono.just(sampleProductDAO));
+		when(productDAOService.saveAll(anyList())).thenReturn(Mono.just(1L));
 
 
 		Mono<String> result = productService.loadProducts();
 
 		StepVerifier.create(result).expectNext("Products loaded successfully").verifyComplete();
+		verify(productComponentReconciler).reconcile(Arrays.asList(1L), Arrays.asList(sampleReviewDAO),
+				Arrays.asList(sampleProductImageDAO), Arrays.asList(sampleProductTagDAO));
+		verify(productCache).invalidate(1L);
+		assertEquals(1.0, meterRegistry.get(ProductMetrics.INGEST_PRODUCTS).tag("result", "saved").counter().count(),
+				0.0);
+		assertEquals(1L, meterRegistry.get(ProductMetrics.INGEST_STAGE).tag("stage", "save").timer().count());
+	}
+
+	@Test
+	public void testLoadProductsIncrementally_skipsUnchangedProducts() {
+		String updatedAt = "2024-05-23T08:56:21.618Z";
+		when(productDAOService.findVersions()).thenReturn(Flux.just(storedVersion(1L, updatedAt, "hash"),
+				storedVersion(2L, "2024-01-01T00:00:00Z", "hash"), storedVersion(4L, updatedAt, "hash")));
+		when(productsLoadingHelper.loadProducts(any(LoadProgress.class)))
+				.thenReturn(Flux.just(feedProduct(1L, updatedAt), feedProduct(2L, updatedAt), feedProduct(3L, updatedAt)));
+		when(productHasher.hash(any(ProductDTO.class))).thenReturn("hash");
+		when(productMapper.toDAO(any(ProductDTO.class))).thenReturn(sampleProductDAO);
+		when(productDAOService.saveAll(anyList())).thenReturn(Mono.just(1L));
+
+		LoadProgress progress = new LoadProgress();
+
+		Mono<LoadSummaryDTO> result = productService.loadProductsIncrementally(progress);
+
+		StepVerifier.create(result).expectNext(new LoadSummaryDTO(1, 1, 1, 1)).verifyComplete();
+		assertEquals(2L, progress.getSaved());
+		assertEquals(1L, progress.getSkipped());
+		verify(productDAOService).saveAll(Arrays.asList(sampleProductDAO, sampleProductDAO));
+		verify(productComponentReconciler).reconcile(Arrays.asList(2L, 3L), Arrays.asList(), Arrays.asList(),
+				Arrays.asList());
+		verify(productCache, never()).invalidate(1L);
+	}
+
+	@Test
+	public void testLoadProductsIncrementally_rewritesProductWhoseHashChanged() {
+		String updatedAt = "2024-05-23T08:56:21.618Z";
+		when(productDAOService.findVersions()).thenReturn(Flux.just(storedVersion(1L, updatedAt, "old")));
+		when(productsLoadingHelper.loadProducts(any(LoadProgress.class))).thenReturn(Flux.just(feedProduct(1L, updatedAt)));
+		when(productHasher.hash(any(ProductDTO.class))).thenReturn("new");
+		when(productMapper.toDAO(any(ProductDTO.class))).thenReturn(sampleProductDAO);
+		when(productDAOService.saveAll(anyList())).thenReturn(Mono.just(1L));
+
+		Mono<LoadSummaryDTO> result = productService.loadProductsIncrementally();
+
+		StepVerifier.create(result).expectNext(new LoadSummaryDTO(0, 1, 0, 0)).verifyComplete();
+		verify(productCache).invalidate(1L);
+	}
+
+	private ProductDAO storedVersion(Long id, String updatedAt, String contentHash) {
+		ProductDAO product = new ProductDAO();
+		product.setId(id);
+		product.setUpdatedAt(Instant.parse(updatedAt));
+		product.setContentHash(contentHash);
+		return product;
+	}
+
+	private ProductDTO feedProduct(Long id, String updatedAt) {
+		ProductDTO product = new ProductDTO();
+		product.setId(id);
+		product.setMeta(new MetadataDTO(updatedAt, updatedAt, "123456789", "http://example.com/qr"));
+		return product;
+	}
+
+	@Test
+	public void testSearchProducts_returnsProductsInRankOrder() {
+		ProductDAO second = new ProductDAO();
+		second.setId(2L);
+		ProductDTO secondDTO = new ProductDTO();
+		secondDTO.setId(2L);
+		when(productSearchIndex.search("lipstick", 20)).thenReturn(Arrays.asList(2L, 3L, 1L));
+		when(productRepository.findAllById(Arrays.asList(2L, 3L, 1L))).thenReturn(Flux.just(sampleProductDAO, second));
+		when(productMapper.toDTO(any(ProductDAO.class), anyList(), anyList(), anyList()))
+				.thenAnswer(invocation -> ((ProductDAO) invocation.getArgument(0)).getId() == 2L ? secondDTO
+						: sampleProductDTO);
+
+		Flux<ProductDTO> result = productService.searchProducts("lipstick", 20, ProductFields.ALL);
+
+		StepVerifier.create(result).expectNext(secondDTO, sampleProductDTO).verifyComplete();
+	}
+
+	@Test
+	public void testSearchProducts_noMatches() {
+		when(productSearchIndex.search("missing", 20)).thenReturn(Arrays.asList());
+
+		StepVerifier.create(productService.searchProducts("missing", 20, ProductFields.ALL)).verifyComplete();
+		verify(productRepository, never()).findAllById(anyList());
+	}
+
+	@Test
+	public void testSearchProducts_blankQuery() {
+		StepVerifier.create(productService.searchProducts(" ", 20, ProductFields.ALL)).expectError(InvalidRequestException.class).verify();
+	}
+
+	@Test
+	public void testSaveProducts_updatesIndexes() {
+		ReflectionTestUtils.setField(productService, "productIndexes", Arrays.asList(productIndex));
+		when(productMapper.toDAO(any(ProductDTO.class))).thenReturn(sampleProductDAO);
+		when(productDAOService.saveAll(anyList())).thenReturn(Mono.just(1L));
+
+		StepVerifier.create(productService.saveProducts(Arrays.asList(sampleProductDTO))).verifyComplete();
+
+		verify(productIndex).index(sampleProductDTO);
+		verify(catalogVersion).advance();
+	}
+
+	@Test
+	public void testSaveProducts_failedChunkIsNotPublished() {
+		ReflectionTestUtils.setField(productService, "productIndexes", Arrays.asList(productIndex));
+		when(productMapper.toDAO(any(ProductDTO.class))).thenReturn(sampleProductDAO);
+		when(productDAOService.saveAll(anyList())).thenReturn(Mono.just(1L));
+		when(productComponentReconciler.reconcile(anyCollection(), anyList(), anyList(), anyList()))
+				.thenReturn(Mono.error(new IllegalStateException("Connection lost")));
+
+		StepVerifier.create(productService.saveProducts(Arrays.asList(sampleProductDTO)))
+				.expectError(IllegalStateException.class).verify();
+
+		verify(transactionalOperator).transactional(any(Mono.class));
+		verify(productCache, never()).invalidate(anyLong());
+		verify(productIndex, never()).index(any(ProductDTO.class));
+		verify(catalogVersion, never()).advance();
+	}
+
+	@Test
+	public void testLoadProducts_rejectsProductThatBreaksConstraintAndSavesTheRest() {
+		ReflectionTestUtils.setField(productService, "productIndexes", Arrays.asList(productIndex));
+		ProductDTO duplicate = feedProduct(2L, "2024-05-23T08:56:21.618Z");
+		ProductDTO third = feedProduct(3L, "2024-05-23T08:56:21.618Z");
+		ProductDAO duplicateDAO = new ProductDAO();
+		duplicateDAO.setId(2L);
+		ProductDAO thirdDAO = new ProductDAO();
+		thirdDAO.setId(3L);
+		when(productsLoadingHelper.loadProducts(any(LoadProgress.class)))
+				.thenReturn(Flux.just(sampleProductDTO, duplicate, third));
+		when(productMapper.toDAO(sampleProductDTO)).thenReturn(sampleProductDAO);
+		when(productMapper.toDAO(duplicate)).thenReturn(duplicateDAO);
+		when(productMapper.toDAO(third)).thenReturn(thirdDAO);
+		when(productDAOService.saveAll(anyList())).thenAnswer(invocation -> {
+			List<ProductDAO> products = invocation.getArgument(0);
+			return products.contains(duplicateDAO) ? Mono.error(new DuplicateKeyException("Duplicate barcode"))
+					: Mono.just((long) products.size());
+		});
+		LoadProgress progress = new LoadProgress();
+
+		StepVerifier.create(productService.loadProducts(progress)).expectNext("Products loaded successfully")
+				.verifyComplete();
+
+		assertEquals(2L, progress.getSaved());
+		assertEquals(1L, progress.getFailed());
+		assertEquals(new RejectedProductDTO(2L, null, ProductMetrics.STAGE_SAVE, "Duplicate barcode"),
+				progress.getRejected().get(0));
+		verify(productDAOService).saveAll(Arrays.asList(sampleProductDAO));
+		verify(productDAOService).saveAll(Arrays.asList(thirdDAO));
+		verify(productIndex, never()).index(duplicate);
+		verify(catalogVersion, times(2)).advance();
+	}
+
+	@Test
+	public void testLoadProducts_rejectsProductsThatCannotBeMapped() {
+		ProductDTO unmappable = feedProduct(2L, "2024-05-23T08:56:21.618Z");
+		when(productsLoadingHelper.loadProducts(any(LoadProgress.class)))
+				.thenReturn(Flux.just(sampleProductDTO, unmappable));
+		when(productMapper.toDAO(sampleProductDTO)).thenReturn(sampleProductDAO);
+		when(productMapper.toDAO(unmappable)).thenThrow(new IllegalArgumentException("Bad dimensions"));
+		when(productDAOService.saveAll(anyList())).thenReturn(Mono.just(1L));
+		LoadProgress progress = new LoadProgress();
+
+		StepVerifier.create(productService.loadProducts(progress)).expectNext("Products loaded successfully")
+				.verifyComplete();
+
+		assertEquals(1L, progress.getSaved());
+		assertEquals(1L, progress.getFailed());
+		assertEquals(new RejectedProductDTO(2L, null, ProductMetrics.STAGE_MAP, "Bad dimensions"),
+				progress.getRejected().get(0));
+		verify(productDAOService).saveAll(Arrays.asList(sampleProductDAO));
+		verify(transactionalOperator).transactional(any(Mono.class));
+	}
+
+	@Test
+	public void testGetProductVersionById_readsProductRowOnly() {
+		ProductVersion version = new ProductVersion(1L, Instant.now(), "abc");
+		when(productRepository.findVersionById(1L)).thenReturn(Mono.just(version));
+
+		StepVerifier.create(productService.getProductVersionById(1L)).expectNext(version).verifyComplete();
+		verify(productReviewRepository, never()).findByProductId(anyLong());
+		verify(productCache, never()).getById(anyLong());
+	}
+
+	@Test
+	public void testRebuildIndexes() {
+		ReflectionTestUtils.setField(productService, "productIndexes", Arrays.asList(productIndex));
+		when(productRepository.findAll()).thenReturn(Flux.just(sampleProductDAO));
+		when(productMapper.toDTO(any(ProductDAO.class), anyList(), anyList(), anyList())).thenReturn(sampleProductDTO);
+
+		StepVerifier.create(productService.rebuildIndexes()).expectNext(1L).verifyComplete();
+
+		verify(productIndex).index(sampleProductDTO);
+	}
+
+	@Test
+	public void testPreloadProducts_loadsThroughCache() {
+		when(productRepository.findAllById(Arrays.asList(1L))).thenReturn(Flux.just(sampleProductDAO));
+		when(productCache.getById(1L)).thenReturn(Optional.empty());
+		when(productMapper.toDTO(any(ProductDAO.class), anyList(), anyList(), anyList())).thenReturn(sampleProductDTO);
+
+		StepVerifier.create(productService.preloadProducts(Arrays.asList(1L))).expectNext(1L).verifyComplete();
+
+		verify(productCache).put(sampleProductDTO, ProductVersion.of(sampleProductDAO), 0L);
+	}
+
+	@Test
+	public void testSnapshotProducts() {
+		ProductAggregate aggregate = new ProductAggregate(sampleProductDAO, Arrays.asList(sampleReviewDAO),
+				Arrays.asList(sampleProductImageDAO), Arrays.asList(sampleProductTagDAO));
+		SnapshotDTO snapshot = new SnapshotDTO("/snapshots/catalog.snapshot", 1, 1, 512, "0a1b2c3d",
+				"2024-05-23T08:56:21.618Z");
+		Flux<ProductAggregate> products = Flux.just(aggregate);
+		when(productAggregateReader.findAll()).thenReturn(products);
+		when(catalogSnapshot.write(products)).thenReturn(Mono.just(snapshot));
+
+		StepVerifier.create(productService.snapshotProducts()).expectNext(snapshot).verifyComplete();
+	}
+
+	@Test
+	public void testSnapshotProducts_snapshotsDisabled() {
+		when(productAggregateReader.findAll()).thenReturn(Flux.empty());
+		when(catalogSnapshot.write(any())).thenThrow(new InvalidRequestException("Snapshots are disabled"));
+
+		StepVerifier.create(productService.snapshotProducts()).expectError(InvalidRequestException.class).verify();
+	}
+
+	@Test
+	public void testSnapshotProducts_writeFails() {
+		when(productAggregateReader.findAll()).thenReturn(Flux.empty());
+		when(catalogSnapshot.write(any())).thenReturn(Mono.error(new IllegalStateException("disk full")));
+
+		StepVerifier.create(productService.snapshotProducts()).expectError(ProductServiceException.class).verify();
+	}
+
+	@Test
+	public void testRestoreProducts_writesChunksAndIndexes() {
+		ReflectionTestUtils.setField(productService, "productIndexes", Arrays.asList(productIndex));
+		ReflectionTestUtils.setField(productService, "ingestChunkSize", 2);
+		ProductAggregate aggregate = new ProductAggregate(sampleProductDAO, Arrays.asList(sampleReviewDAO),
+				Arrays.asList(sampleProductImageDAO), Arrays.asList(sampleProductTagDAO));
+		when(catalogSnapshot.exists()).thenReturn(true);
+		when(productRepository.count()).thenReturn(Mono.just(0L));
+		when(catalogSnapshot.read()).thenReturn(Flux.just(aggregate, aggregate, aggregate));
+		when(productDAOService.saveAll(anyList())).thenReturn(Mono.just(1L));
+		when(productComponentWriter.insertReviews(anyList())).thenReturn(Mono.just(1L));
+		when(productComponentWriter.insertImages(anyList())).thenReturn(Mono.just(1L));
+		when(productComponentWriter.insertTags(anyList())).thenReturn(Mono.just(1L));
+		when(productComponentReconciler.refreshSummaries(anyCollection())).thenReturn(Mono.empty());
+		when(productMapper.toDTO(sampleProductDAO, aggregate.reviews(), aggregate.images(), aggregate.tags()))
+				.thenReturn(sampleProductDTO);
+
+		StepVerifier.create(productService.restoreProducts()).expectNext(3L).verifyComplete();
+
+		verify(productDAOService, times(2)).saveAll(anyList());
+		verify(transactionalOperator, times(2)).transactional(any(Mono.class));
+		verify(productIndex, times(3)).index(sampleProductDTO);
+		verify(catalogVersion).advance();
+		verify(productRepository, never()).findAll();
+	}
+
+	@Test
+	public void testRestoreProducts_failureDeletesOnlyRestoredProducts() {
+		ReflectionTestUtils.setField(productService, "productIndexes", Arrays.asList(productIndex));
+		ReflectionTestUtils.setField(productService, "ingestChunkSize", 1);
+		ProductAggregate aggregate = new ProductAggregate(sampleProductDAO, Arrays.asList(sampleReviewDAO),
+				Arrays.asList(sampleProductImageDAO), Arrays.asList(sampleProductTagDAO));
+		when(catalogSnapshot.exists()).thenReturn(true);
+		when(productRepository.count()).thenReturn(Mono.just(0L));
+		when(catalogSnapshot.read()).thenReturn(Flux.just(aggregate)
+				.concatWith(Flux.error(new IllegalStateException("Snapshot checksum mismatch"))));
+		when(productDAOService.saveAll(anyList())).thenReturn(Mono.just(1L));
+		when(productComponentWriter.insertReviews(anyList())).thenReturn(Mono.just(1L));
+		when(productComponentWriter.insertImages(anyList())).thenReturn(Mono.just(1L));
+		when(productComponentWriter.insertTags(anyList())).thenReturn(Mono.just(1L));
+		when(productComponentReconciler.refreshSummaries(anyCollection())).thenReturn(Mono.empty());
+		when(productRepository.deleteAllById(anyIterable())).thenReturn(Mono.empty());
+		ProductDAO savedMeanwhile = new ProductDAO();
+		savedMeanwhile.setId(99L);
+		when(productRepository.findAll()).thenReturn(Flux.just(savedMeanwhile));
+		ProductDTO savedMeanwhileDTO = new ProductDTO();
+		savedMeanwhileDTO.setId(99L);
+		when(productMapper.toDTO(any(ProductDAO.class), anyList(), anyList(), anyList())).thenAnswer(invocation ->
+				invocation.getArgument(0) == savedMeanwhile ? savedMeanwhileDTO : sampleProductDTO);
+
+		StepVerifier.create(productService.restoreProducts()).expectNext(1L).verifyComplete();
+
+		InOrder inOrder = inOrder(productIndex, productRepository);
+		inOrder.verify(productIndex).index(sampleProductDTO);
+		inOrder.verify(productRepository).deleteAllById(List.of(sampleProductDAO.getId()));
+		inOrder.verify(productIndex).remove(sampleProductDAO.getId());
+		inOrder.verify(productRepository).findAll();
+		inOrder.verify(productIndex).index(savedMeanwhileDTO);
+		verify(productRepository, never()).deleteAll();
+		verify(catalogVersion, never()).advance();
+	}
+
+	@Test
+	public void testRestoreProducts_catalogNotEmpty() {
+		ReflectionTestUtils.setField(productService, "productIndexes", Arrays.asList(productIndex));
+		when(catalogSnapshot.exists()).thenReturn(true);
+		when(productRepository.count()).thenReturn(Mono.just(1L));
+		when(productRepository.findAll()).thenReturn(Flux.just(sampleProductDAO));
+		when(productMapper.toDTO(any(ProductDAO.class), anyList(), anyList(), anyList())).thenReturn(sampleProductDTO);
+
+		StepVerifier.create(productService.restoreProducts()).expectNext(1L).verifyComplete();
+
+		verify(catalogSnapshot, never()).read();
+		verify(productIndex).index(sampleProductDTO);
+	}
+
+	@Test
+	public void testRestoreProducts_noSnapshot() {
+		when(catalogSnapshot.exists()).thenReturn(false);
+		when(productRepository.findAll()).thenReturn(Flux.empty());
+
+		StepVerifier.create(productService.restoreProducts()).expectNext(0L).verifyComplete();
+
+		verify(productRepository, never()).count();
+		verify(catalogSnapshot, never()).read();
+	}
+
+	@Test
+	public void testFilterProducts_returnsTotalProductsAndFacets() {
+		ProductFilter filter = new ProductFilter("beauty", null, 5.0, 50.0, null, true);
+		Map<String, Map<String, Integer>> facets = Map.of(ProductFacetIndex.BRAND, Map.of("Essence", 7));
+		when(productFacetIndex.filter(filter, 1)).thenReturn(new FacetedResult(7, Arrays.asList(1L), facets));
+		when(productRepository.findAllById(Arrays.asList(1L))).thenReturn(Flux.just(sampleProductDAO));
+		when(productMapper.toDTO(any(ProductDAO.class), anyList(), anyList(), anyList())).thenReturn(sampleProductDTO);
+
+		StepVerifier.create(productService.filterProducts(filter, 1, ProductFields.ALL))
+				.expectNext(new ProductFilterResultDTO(7, Arrays.asList(sampleProductDTO), facets)).verifyComplete();
+	}
+
+	@Test
+	public void testFilterProducts_invalidPriceRange() {
+		ProductFilter filter = new ProductFilter(null, null, 50.0, 5.0, null, null);
+
+		StepVerifier.create(productService.filterProducts(filter, 20, ProductFields.ALL)).expectError(InvalidRequestException.class)
+				.verify();
+		verify(productFacetIndex, never()).filter(any(), anyInt());
 	}
 }
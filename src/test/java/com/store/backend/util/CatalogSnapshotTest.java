@@ -0,0 +1,133 @@
+package com.store.backend.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.codec.DecodingException;
+
+import com.store.backend.dao.ProductAggregate;
+import com.store.backend.dao.ProductDAO;
+import com.store.backend.dao.ProductImageDAO;
+import com.store.backend.dao.ProductTagDAO;
+import com.store.backend.dao.ReviewDAO;
+import com.store.backend.dto.SnapshotDTO;
+import com.store.backend.exception.InvalidRequestException;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+public class CatalogSnapshotTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private CatalogSnapshot catalogSnapshot;
+
+	@Before
+	public void setUp() {
+		catalogSnapshot = new CatalogSnapshot(folder.getRoot().getPath());
+	}
+
+	private static ProductAggregate product(long id) {
+		ProductDAO product = new ProductDAO(id, "Product " + id, "Crème – \"quoted\"", "beauty", 9.99, 7.17, 4.94, 5,
+				null, "SKU" + id, 2.0, 23.17, 14.43, 28.01, "1 month warranty", "Ships in 1 month", "Low Stock",
+				"No return policy", null, Instant.parse("2024-05-23T08:56:21.618Z"),
+				Instant.parse("2024-05-23T08:56:21.618123Z"), "BC" + id, null, "thumbnail.png", "hash" + id, true);
+		return new ProductAggregate(product,
+				List.of(new ReviewDAO(id, 5.0, "Nice", Instant.parse("2024-05-23T08:56:21.618Z"), "Jane",
+						"jane@example.com", 0), new ReviewDAO(id, 2.0, null, null, "John", "john@example.com", null)),
+				List.of(new ProductImageDAO(id, "1.png")),
+				List.of(new ProductTagDAO(id, "a"), new ProductTagDAO(id, "b")));
+	}
+
+	@Test
+	public void testWriteAndRead() {
+		List<ProductAggregate> products = List.of(product(1), product(2), product(3));
+
+		SnapshotDTO snapshot = catalogSnapshot.write(Flux.fromIterable(products)).block();
+
+		assertEquals(3, snapshot.getProducts());
+		assertEquals(CatalogSnapshot.VERSION, snapshot.getVersion());
+		assertTrue(catalogSnapshot.exists());
+		assertEquals(products, catalogSnapshot.read().collectList().block());
+	}
+
+	@Test
+	public void testWrite_replacesPreviousSnapshot() throws IOException {
+		catalogSnapshot.write(Flux.just(product(1), product(2))).block();
+
+		SnapshotDTO snapshot = catalogSnapshot.write(Flux.just(product(3))).block();
+
+		assertEquals(List.of(product(3)), catalogSnapshot.read().collectList().block());
+		assertEquals(Files.size(catalogSnapshot.file()), snapshot.getBytes());
+		try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+			assertEquals(List.of(catalogSnapshot.file()), files.toList());
+		}
+	}
+
+	@Test
+	public void testWrite_failedWriteKeepsPreviousSnapshot() throws IOException {
+		catalogSnapshot.write(Flux.just(product(1))).block();
+
+		StepVerifier.create(catalogSnapshot.write(Flux.concat(Flux.just(product(2)),
+				Flux.error(new IllegalStateException("connection lost"))))).expectError(IllegalStateException.class)
+				.verify();
+
+		assertEquals(List.of(product(1)), catalogSnapshot.read().collectList().block());
+		try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+			assertEquals(1, files.count());
+		}
+	}
+
+	@Test
+	public void testRead_corruptFile() throws IOException {
+		catalogSnapshot.write(Flux.just(product(1), product(2))).block();
+		Path file = catalogSnapshot.file();
+		byte[] bytes = Files.readAllBytes(file);
+		bytes[bytes.length / 2] ^= 1;
+		Files.write(file, bytes);
+
+		StepVerifier.create(catalogSnapshot.read()).expectError(DecodingException.class).verify();
+	}
+
+	@Test
+	public void testRead_truncatedFile() throws IOException {
+		catalogSnapshot.write(Flux.just(product(1), product(2))).block();
+		Path file = catalogSnapshot.file();
+		byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+
+		StepVerifier.create(catalogSnapshot.read()).expectError(DecodingException.class).verify();
+	}
+
+	@Test
+	public void testRead_notASnapshot() throws IOException {
+		Files.writeString(catalogSnapshot.file(), "{\"products\":[],\"total\":0}");
+
+		StepVerifier.create(catalogSnapshot.read()).expectError(DecodingException.class).verify();
+	}
+
+	@Test
+	public void testExists_withoutSnapshot() {
+		assertFalse(catalogSnapshot.exists());
+		assertFalse(new CatalogSnapshot("").exists());
+	}
+
+	@Test(expected = InvalidRequestException.class)
+	public void testWrite_snapshotsDisabled() {
+		new CatalogSnapshot("").write(Flux.just(product(1)));
+	}
+}
@@ -0,0 +1,41 @@
+package com.store.backend.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import com.store.backend.dao.ProductDAO;
+import com.store.backend.dto.ProductDTO;
+import com.store.backend.exception.InvalidRequestException;
+
+public class ProductCursorTest {
+
+	@Test
+	public void testById_roundTrip() {
+		ProductDAO product = new ProductDAO();
+		product.setId(42L);
+
+		ProductCursor cursor = ProductCursor.decode(ProductCursor.byId(product));
+
+		assertEquals(42L, cursor.getId());
+		assertNull(cursor.getPrice());
+	}
+
+	@Test
+	public void testByPrice_roundTrip() {
+		ProductDTO product = new ProductDTO();
+		product.setId(7L);
+		product.setPrice(19.99);
+
+		ProductCursor cursor = ProductCursor.decode(ProductCursor.byPrice(product));
+
+		assertEquals(7L, cursor.getId());
+		assertEquals(19.99, cursor.getPrice(), 0.0);
+	}
+
+	@Test(expected = InvalidRequestException.class)
+	public void testDecode_malformed() {
+		ProductCursor.decode("not a cursor!");
+	}
+}
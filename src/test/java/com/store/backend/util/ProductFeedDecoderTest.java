@@ -0,0 +1,124 @@
+package com.store.backend.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.store.backend.dto.ProductDTO;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import reactor.core.publisher.Flux;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+public class ProductFeedDecoderTest {
+
+	/**
+	 * Number of products served by the stub server test. Raise it with
+	 * -Dfeed.test.products=5000000 to stream a multi-GB feed.
+	 */
+	private static final int STUB_FEED_PRODUCTS = Integer.getInteger("feed.test.products", 20_000);
+
+	private final ProductFeedDecoder productFeedDecoder = new ProductFeedDecoder(
+			Jackson2ObjectMapperBuilder.json().build());
+
+	private static String product(long id) {
+		return "{\"id\":" + id + ",\"title\":\"Product " + id + "\",\"description\":\"Braces } and ] in text\","
+				+ "\"category\":\"beauty\",\"price\":9.99,\"tags\":[\"a\",\"b\"],\"sku\":\"SKU" + id + "\","
+				+ "\"dimensions\":{\"width\":1.0,\"height\":2.0,\"depth\":3.0},\"reviews\":[{\"rating\":5,"
+				+ "\"comment\":\"Nice\",\"date\":\"2024-05-23T08:56:21.618Z\",\"reviewerName\":\"Jane\","
+				+ "\"reviewerEmail\":\"jane@example.com\"}],\"meta\":{\"barcode\":\"BC" + id + "\"},\"unknown\":[1,{}]}";
+	}
+
+	private static Flux<DataBuffer> chunked(String json, int chunkSize) {
+		byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+		List<DataBuffer> buffers = new ArrayList<>();
+		for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+			int length = Math.min(chunkSize, bytes.length - offset);
+			buffers.add(
+					DefaultDataBufferFactory.sharedInstance.wrap(Arrays.copyOfRange(bytes, offset, offset + length)));
+		}
+		return Flux.fromIterable(buffers);
+	}
+
+	@Test
+	public void testDecode_productsFieldSplitAcrossChunks() {
+		String feed = "{\"meta\":{\"products\":[1,2]},\"products\":[" + product(1) + "," + product(2) + ","
+				+ product(3) + "],\"total\":3,\"skip\":0}";
+
+		StepVerifier.create(productFeedDecoder.decode(chunked(feed, 7)).map(ProductDTO::getId))
+				.expectNext(1L, 2L, 3L).verifyComplete();
+	}
+
+	@Test
+	public void testDecode_nestedObjectsAreBound() {
+		ProductDTO product = productFeedDecoder.decode(chunked("{\"products\":[" + product(1) + "]}", 3)).blockFirst();
+
+		assertEquals(Double.valueOf(3.0), product.getDimensions().getDepth());
+		assertEquals("jane@example.com", product.getReviews().get(0).getReviewerEmail());
+		assertEquals(List.of("a", "b"), product.getTags());
+	}
+
+	@Test
+	public void testDecode_bareArray() {
+		StepVerifier.create(productFeedDecoder.decode(chunked("[" + product(1) + "," + product(2) + "]", 5)))
+				.expectNextCount(2).verifyComplete();
+	}
+
+	@Test
+	public void testDecode_skipsProductThatCannotBeBound() {
+		String feed = "{\"products\":[{\"id\":\"not a number\"}," + product(2) + "]}";
+
+		StepVerifier.create(productFeedDecoder.decode(chunked(feed, 11)).map(ProductDTO::getId)).expectNext(2L)
+				.verifyComplete();
+	}
+
+	@Test
+	public void testDecode_truncatedFeed() {
+		StepVerifier.create(productFeedDecoder.decode(chunked("{\"products\":[" + product(1) + ",{\"id\":2", 16)))
+				.expectNextCount(1).expectError(DecodingException.class).verify();
+	}
+
+	@Test
+	public void testDecode_streamsFromStubServer() {
+		AtomicBoolean feedCompleted = new AtomicBoolean();
+		Flux<ByteBuf> feed = Flux.concat(Flux.just("{\"products\":["),
+				Flux.range(1, STUB_FEED_PRODUCTS).map(id -> (id == 1 ? "" : ",") + product(id)),
+				Flux.just("],\"total\":" + STUB_FEED_PRODUCTS + "}"))
+				.map(chunk -> Unpooled.wrappedBuffer(chunk.getBytes(StandardCharsets.UTF_8)))
+				.doOnComplete(() -> feedCompleted.set(true));
+		DisposableServer server = HttpServer.create().port(0)
+				.route(routes -> routes.get("/products", (request, response) -> response.send(feed)))
+				.bindNow();
+		try {
+			AtomicBoolean firstProductBeforeEndOfFeed = new AtomicBoolean();
+			Long count = WebClient.create("http://localhost:" + server.port()).get().uri("/products").retrieve()
+					.bodyToFlux(DataBuffer.class).transform(productFeedDecoder::decode)
+					.index((index, product) -> {
+						if (index == 0) {
+							firstProductBeforeEndOfFeed.set(!feedCompleted.get());
+						}
+						return product;
+					}).count().block();
+
+			assertEquals(Long.valueOf(STUB_FEED_PRODUCTS), count);
+			assertTrue("first product should arrive before the feed is fully sent", firstProductBeforeEndOfFeed.get());
+		} finally {
+			server.disposeNow();
+		}
+	}
+}
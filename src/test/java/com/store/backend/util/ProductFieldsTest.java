@@ -0,0 +1,67 @@
+package com.store.backend.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.store.backend.exception.InvalidRequestException;
+
+public class ProductFieldsTest {
+
+	@Test
+	public void testParse_noParametersReturnsSummaryInsteadOfReviews() {
+		ProductFields fields = ProductFields.parse(null, null);
+
+		assertSame(ProductFields.DEFAULT, fields);
+		assertTrue(fields.isDefault());
+		assertTrue(fields.includes(ProductFields.REVIEW_SUMMARY));
+		assertTrue(fields.includes(ProductFields.IMAGES));
+		assertFalse(fields.includes(ProductFields.REVIEWS));
+		assertFalse(fields.includesAllChildren());
+	}
+
+	@Test
+	public void testParse_fieldsAlwaysKeepId() {
+		ProductFields fields = ProductFields.parse("title, price,thumbnail,rating", null);
+
+		assertEquals(List.of("id", "title", "price", "thumbnail", "rating"), List.copyOf(fields.getProperties()));
+		assertFalse(fields.includes(ProductFields.REVIEWS));
+		assertFalse(fields.includes(ProductFields.IMAGES));
+		assertFalse(fields.includes(ProductFields.TAGS));
+	}
+
+	@Test
+	public void testParse_includeOnlyKeepsEveryOtherProperty() {
+		ProductFields fields = ProductFields.parse(null, "reviews");
+
+		assertTrue(fields.includes("description"));
+		assertTrue(fields.includes(ProductFields.REVIEWS));
+		assertFalse(fields.includes(ProductFields.IMAGES));
+		assertFalse(fields.isAll());
+	}
+
+	@Test
+	public void testParse_includingEveryChildIsEverything() {
+		assertSame(ProductFields.ALL, ProductFields.parse(null, "reviews,images,tags"));
+	}
+
+	@Test
+	public void testParse_includingImagesAndTagsIsDefault() {
+		assertSame(ProductFields.DEFAULT, ProductFields.parse(null, "images,tags"));
+	}
+
+	@Test(expected = InvalidRequestException.class)
+	public void testParse_unknownField() {
+		ProductFields.parse("title,secret", null);
+	}
+
+	@Test(expected = InvalidRequestException.class)
+	public void testParse_includeOfPlainProperty() {
+		ProductFields.parse(null, "title");
+	}
+}
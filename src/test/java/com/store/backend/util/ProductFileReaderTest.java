@@ -0,0 +1,132 @@
+package com.store.backend.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import com.store.backend.dto.ProductDTO;
+import com.store.backend.exception.InvalidRequestException;
+
+import reactor.test.StepVerifier;
+
+public class ProductFileReaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private ProductFileReader productFileReader;
+
+	@Before
+	public void setUp() {
+		productFileReader = new ProductFileReader(Jackson2ObjectMapperBuilder.json().build(),
+				folder.getRoot().getPath(), DataSize.ofBytes(600));
+	}
+
+	private static String product(long id) {
+		return "{\"id\":" + id + ",\"title\":\"Product " + id + "\",\"description\":\"Braces } and ] in \\\"text\\\"\","
+				+ "\"category\":\"beauty\",\"price\":9.99,\"tags\":[\"a\",\"b\"],\"sku\":\"SKU" + id + "\","
+				+ "\"dimensions\":{\"width\":1.0,\"height\":2.0,\"depth\":3.0},\"reviews\":[{\"rating\":5,"
+				+ "\"comment\":\"Nice\",\"date\":\"2024-05-23T08:56:21.618Z\",\"reviewerName\":\"Jane\","
+				+ "\"reviewerEmail\":\"jane@example.com\"}],\"meta\":{\"barcode\":\"BC" + id + "\"},\"unknown\":[1,{}]}";
+	}
+
+	private static String products(long count, String separator) {
+		return LongStream.rangeClosed(1, count).mapToObj(ProductFileReaderTest::product)
+				.collect(Collectors.joining(separator));
+	}
+
+	private Path file(String name, String content) throws IOException {
+		return Files.writeString(folder.getRoot().toPath().resolve(name), content, StandardCharsets.UTF_8);
+	}
+
+	private List<Long> ids(Path file, List<String> rejected) {
+		return productFileReader.read(file, rejected::add).map(ProductDTO::getId).collectList().block();
+	}
+
+	@Test
+	public void testRead_ndjsonAcrossChunks() throws IOException {
+		Path file = file("products.ndjson", products(25, "\n") + "\n\n");
+
+		assertEquals(LongStream.rangeClosed(1, 25).boxed().toList(), ids(file, new ArrayList<>()));
+	}
+
+	@Test
+	public void testRead_lastLineWithoutNewline() throws IOException {
+		Path file = file("products.jsonl", product(1) + "\r\n" + product(2));
+
+		assertEquals(List.of(1L, 2L), ids(file, new ArrayList<>()));
+	}
+
+	@Test
+	public void testRead_jsonArrayAcrossChunks() throws IOException {
+		Path file = file("products.json", "[\n  " + products(25, ",\n  ") + "\n]\n");
+
+		assertEquals(LongStream.rangeClosed(1, 25).boxed().toList(), ids(file, new ArrayList<>()));
+	}
+
+	@Test
+	public void testRead_productsFieldOfFeed() throws IOException {
+		Path file = file("feed.json", "{\"meta\":{\"products\":[{\"id\":99}]},\"products\":[" + products(3, ",")
+				+ "],\"total\":3,\"skip\":[{\"id\":100}]}");
+
+		assertEquals(List.of(1L, 2L, 3L), ids(file, new ArrayList<>()));
+	}
+
+	@Test
+	public void testRead_rejectsRecordsThatCannotBeDecoded() throws IOException {
+		Path file = file("products.ndjson", product(1) + "\n{\"id\":\"abc\"}\n" + product(3) + "\n");
+		List<String> rejected = new ArrayList<>();
+
+		assertEquals(List.of(1L, 3L), ids(file, rejected));
+		assertEquals(1, rejected.size());
+	}
+
+	@Test
+	public void testRead_truncatedJson() throws IOException {
+		Path file = file("products.json", "[" + product(1) + "," + product(2).substring(0, 40));
+
+		StepVerifier.create(productFileReader.read(file, reason -> {
+		}).map(ProductDTO::getId)).expectNext(1L).expectError(DecodingException.class).verify();
+	}
+
+	@Test
+	public void testResolve_fileInImportDirectory() throws IOException {
+		Path file = file("products.ndjson", product(1));
+
+		assertEquals(file.toRealPath(), productFileReader.resolve("products.ndjson"));
+	}
+
+	@Test(expected = InvalidRequestException.class)
+	public void testResolve_fileOutsideImportDirectory() throws IOException {
+		folder.newFolder("dumps");
+		file("secret.json", "[]");
+		new ProductFileReader(Jackson2ObjectMapperBuilder.json().build(), folder.getRoot().getPath() + "/dumps",
+				DataSize.ofMegabytes(1)).resolve("../secret.json");
+	}
+
+	@Test(expected = InvalidRequestException.class)
+	public void testResolve_missingFile() {
+		productFileReader.resolve("missing.ndjson");
+	}
+
+	@Test(expected = InvalidRequestException.class)
+	public void testResolve_importsDisabled() {
+		new ProductFileReader(Jackson2ObjectMapperBuilder.json().build(), "", DataSize.ofMegabytes(1))
+				.resolve("products.ndjson");
+	}
+}
@@ -0,0 +1,62 @@
+package com.store.backend.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.store.backend.dto.ProductDTO;
+import com.store.backend.dto.ReviewSummaryDTO;
+
+public class ProductHasherTest {
+
+	private final ProductHasher productHasher = new ProductHasher();
+
+	private static ProductDTO product(String title) {
+		ProductDTO product = new ProductDTO();
+		product.setId(1L);
+		product.setTitle(title);
+		return product;
+	}
+
+	@Test
+	public void testHash_isStableForEqualProducts() {
+		assertEquals(productHasher.hash(product("Product A")), productHasher.hash(product("Product A")));
+		assertEquals(64, productHasher.hash(product("Product A")).length());
+	}
+
+	@Test
+	public void testHash_changesWithContent() {
+		assertNotEquals(productHasher.hash(product("Product A")), productHasher.hash(product("Product B")));
+	}
+
+	@Test
+	public void testHash_ignoresDerivedFields() {
+		ProductDTO summarized = product("Product A");
+		summarized.setReviewSummary(new ReviewSummaryDTO(2, 4.5, Map.of(4, 1L, 5, 1L)));
+
+		assertEquals(productHasher.hash(product("Product A")), productHasher.hash(summarized));
+	}
+
+	@Test
+	public void testHash_separatesAdjacentFields() {
+		ProductDTO ab = product("Product A");
+		ab.setTags(List.of("ab", "c"));
+		ProductDTO abc = product("Product A");
+		abc.setTags(List.of("a", "bc"));
+		ProductDTO empty = product("Product A");
+		empty.setTags(List.of());
+
+		assertNotEquals(productHasher.hash(ab), productHasher.hash(abc));
+		assertNotEquals(productHasher.hash(product("Product A")), productHasher.hash(empty));
+	}
+
+	@Test
+	public void testHash_isPinned() {
+		// stored content hashes depend on this value, see ProductHasher
+		assertEquals("a25fa02b06f8d8ab12c93e707b636ead32565453387d8bff5751452b901c7ca7", productHasher.hash(product("Product A")));
+	}
+}
@@ -4,10 +4,14 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -16,8 +20,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import com.store.backend.dao.ReviewDAO;
@@ -26,6 +37,9 @@ import com.store.backend.dto.MetadataDTO;
 import com.store.backend.dto.ProductDTO;
 import com.store.backend.dto.ProductResponse;
 import com.store.backend.dto.ReviewDTO;
+import com.store.backend.metrics.ProductMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
@@ -62,6 +76,104 @@ public class ProductsLoadingHelperTest {
 	private DimensionsDTO sampleDimensionsDTO;
 	private MetadataDTO sampleMetadataDTO;
 
+	private final AtomicInteger exchanges = new AtomicInteger();
+
+	@Before
+	public void setUpFeed() {
+		productsLoadingHelper = new ProductsLoadingHelper();
+		productsLoadingHelper.setUrl("http://feed.example.com/products");
+		ReflectionTestUtils.setField(productsLoadingHelper, "validator", mock(Validator.class));
+		ReflectionTestUtils.setField(productsLoadingHelper, "productFeedDecoder",
+				new ProductFeedDecoder(Jackson2ObjectMapperBuilder.json().build()));
+		ReflectionTestUtils.setField(productsLoadingHelper, "productMetrics",
+				new ProductMetrics(new SimpleMeterRegistry()));
+		ReflectionTestUtils.setField(productsLoadingHelper, "responseTimeout", Duration.ofSeconds(1));
+		ReflectionTestUtils.setField(productsLoadingHelper, "idleTimeout", Duration.ofSeconds(1));
+	}
+
+	private void serve(ExchangeFunction exchangeFunction) {
+		ReflectionTestUtils.setField(productsLoadingHelper, "webClientBuilder",
+				WebClient.builder().exchangeFunction(request -> {
+					exchanges.incrementAndGet();
+					return exchangeFunction.exchange(request);
+				}));
+	}
+
+	private static ClientResponse feed(Flux<DataBuffer> body) {
+		return ClientResponse.create(HttpStatus.OK)
+				.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+				.body(body)
+				.build();
+	}
+
+	private static DataBuffer buffer(String json) {
+		return DefaultDataBufferFactory.sharedInstance.wrap(json.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String product(long id) {
+		return "{\"id\":" + id + ",\"title\":\"Product " + id + "\",\"category\":\"beauty\",\"price\":9.99,"
+				+ "\"sku\":\"SKU" + id + "\"}";
+	}
+
+	@Test
+	public void testLoadProducts_retriesUntilResponse() {
+		AtomicInteger attempts = new AtomicInteger();
+		serve(request -> attempts.incrementAndGet() < 3
+				? Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build())
+				: Mono.just(feed(Flux.just(buffer("{\"products\":[" + product(1) + "," + product(2) + "]}")))));
+		LoadProgress progress = new LoadProgress();
+
+		StepVerifier.create(productsLoadingHelper.loadProducts(progress).map(ProductDTO::getId))
+				.expectNext(1L, 2L)
+				.verifyComplete();
+		Assert.assertEquals(3, exchanges.get());
+		Assert.assertEquals(2, progress.getFetched());
+	}
+
+	@Test
+	public void testLoadProducts_bodyErrorIsNotReplayed() {
+		serve(request -> Mono.just(feed(Flux.just(buffer("{\"products\":[" + product(1) + ","))
+				.concatWith(Mono.delay(Duration.ofMillis(50))
+						.then(Mono.error(new IllegalStateException("connection reset")))))));
+		LoadProgress progress = new LoadProgress();
+
+		StepVerifier.create(productsLoadingHelper.loadProducts(progress).map(ProductDTO::getId))
+				.expectNext(1L)
+				.expectErrorMatches(e -> e.getCause() instanceof IllegalStateException)
+				.verify(Duration.ofSeconds(5));
+		Assert.assertEquals(1, exchanges.get());
+		Assert.assertEquals(1, progress.getFetched());
+	}
+
+	@Test
+	public void testLoadProducts_responseTimeout() {
+		ReflectionTestUtils.setField(productsLoadingHelper, "responseTimeout", Duration.ofMillis(100));
+		serve(request -> Mono.never());
+
+		StepVerifier.create(productsLoadingHelper.loadProducts(new LoadProgress()))
+				.expectError(TimeoutException.class)
+				.verify(Duration.ofSeconds(5));
+		Assert.assertEquals(4, exchanges.get());
+	}
+
+	@Test
+	public void testIdleTimeout_stalledBody() {
+		StepVerifier.create(productsLoadingHelper.idleTimeout(Flux.just(buffer("{")).concatWith(Flux.never())))
+				.expectNextCount(1)
+				.expectError(TimeoutException.class)
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	public void testIdleTimeout_waitingForDemandDoesNotCount() {
+		StepVerifier.create(productsLoadingHelper.idleTimeout(Flux.just(buffer("{"), buffer("}"))), 1)
+				.expectNextCount(1)
+				.thenAwait(Duration.ofSeconds(2))
+				.thenRequest(1)
+				.expectNextCount(1)
+				.verifyComplete();
+	}
+
 //	@Before
 //	public void setUp() {
 //		MockitoAnnotations.openMocks(this);